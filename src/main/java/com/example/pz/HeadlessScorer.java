@@ -0,0 +1,273 @@
+package com.example.pz;
+
+import data.MatchResult;
+import database.DatabaseManager;
+import database.JournalReplayer;
+import logika.Snooker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Headless Scoring Entry Point
+ * <p>
+ * Scores frames from shot sequences without a user interface, for scripts and for
+ * rescoring archived score sheets on a server. It never touches JavaFX, so it starts
+ * in a fraction of the time the desktop application needs.
+ * </p>
+ * <p>
+ * Input is read from the files given as arguments, or from standard input when there
+ * are none (or the argument is {@code -}). Each line describes one frame:
+ * {@code player1;player2;reds;shots[;date]}, where {@code shots} is a space separated
+ * sequence of ball values {@code 1}-{@code 7}, {@code m} for a miss and {@code f} for a
+ * foul worth four points, and {@code date} is an optional ISO date. Empty lines and lines
+ * starting with {@code #} are skipped.
+ * </p>
+ * <p>
+ * Scored frames are stored in batches of {@value #DEFAULT_BATCH_SIZE} per transaction
+ * (see {@code --batch}). A batch the database rejects is written to the offline match
+ * journal instead, and is stored the next time the application runs. Every frame gets an
+ * idempotency key derived from its file, line number and content, so replaying the same
+ * sheet twice stores it once, while identical frames on different lines stay separate.
+ * With {@code --dry-run} frames are only scored and reported.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class HeadlessScorer {
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final boolean dryRun;
+    private final int batchSize;
+    private final List<MatchResult> batch = new ArrayList<>();
+
+    private long framesScored = 0;
+    private long framesStored = 0;
+    private long framesJournaled = 0;
+    private long linesRejected = 0;
+    private boolean journalStarted = false;
+
+    /**
+     * Constructs a scorer.
+     *
+     * @param dryRun    Whether to only score frames, without storing them.
+     * @param batchSize The number of frames stored per transaction.
+     */
+    public HeadlessScorer(boolean dryRun, int batchSize) {
+        this.dryRun = dryRun;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Runs the headless scorer.
+     *
+     * @param args Options ({@code --dry-run}, {@code --batch N}) followed by input files.
+     */
+    public static void main(String[] args) {
+        boolean dryRun = false;
+        int batchSize = DEFAULT_BATCH_SIZE;
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--dry-run" -> dryRun = true;
+                case "--batch" -> {
+                    if (i + 1 >= args.length) usage("--batch requires a number");
+                    try {
+                        batchSize = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        usage("Invalid batch size: " + args[i]);
+                    }
+                    if (batchSize <= 0) usage("The batch size must be positive");
+                }
+                case "--help", "-h" -> usage(null);
+                default -> inputs.add(args[i]);
+            }
+        }
+        if (inputs.isEmpty()) inputs.add("-");
+
+        HeadlessScorer scorer = new HeadlessScorer(dryRun, batchSize);
+        if (!dryRun) {
+            try {
+                DatabaseManager.INSTANCE.initialize();
+            } catch (RuntimeException e) {
+                System.err.println(e.getMessage() + " Scored frames will be written to the match journal.");
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            for (String input : inputs) {
+                scorer.process(input);
+            }
+            scorer.flush();
+        } finally {
+            scorer.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Scored %d frames in %.2f s (%.0f frames/s): %d stored, %d journaled, %d lines rejected%n",
+                scorer.framesScored, seconds, scorer.framesScored / Math.max(seconds, 1e-9),
+                scorer.framesStored, scorer.framesJournaled, scorer.linesRejected);
+        if (scorer.linesRejected > 0) System.exit(2);
+    }
+
+    /**
+     * Prints the usage and exits.
+     *
+     * @param error An error to print first, or {@code null} when help was requested.
+     */
+    private static void usage(String error) {
+        if (error != null) System.err.println(error);
+        System.err.println("Usage: HeadlessScorer [--dry-run] [--batch N] [file ...]");
+        System.err.println("  Each line: player1;player2;reds;shots[;yyyy-mm-dd]  shots: 1-7, m (miss), f (foul +4)");
+        System.exit(error == null ? 0 : 1);
+    }
+
+    /**
+     * Scores every frame of one input.
+     *
+     * @param input A file path, or {@code -} for standard input.
+     */
+    private void process(String input) {
+        boolean stdin = "-".equals(input);
+        String source = stdin ? "stdin" : Path.of(input).toAbsolutePath().normalize().toString();
+        try (BufferedReader reader = stdin
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(input), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                try {
+                    add(scoreFrame(source, lineNumber, line));
+                } catch (IllegalArgumentException e) {
+                    linesRejected++;
+                    System.err.println(input + ":" + lineNumber + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading " + input + ": " + e.getMessage());
+            linesRejected++;
+        }
+    }
+
+    /**
+     * Scores a single frame line by replaying its shots on a {@link Snooker} game.
+     *
+     * @param source     The file the line was read from.
+     * @param lineNumber The number of the line in its file.
+     * @param line       A frame line, {@code player1;player2;reds;shots[;date]}.
+     * @return The result of the frame, keyed by its source, line number and content.
+     * @throws IllegalArgumentException if the line is malformed.
+     */
+    static MatchResult scoreFrame(String source, int lineNumber, String line) {
+        String[] fields = line.split(";", -1);
+        if (fields.length < 4 || fields.length > 5) {
+            throw new IllegalArgumentException("Expected player1;player2;reds;shots[;date]");
+        }
+        String player1 = fields[0].strip();
+        String player2 = fields[1].strip();
+        if (player1.isEmpty() || player2.isEmpty()) {
+            throw new IllegalArgumentException("Both player names are required");
+        }
+        int reds;
+        try {
+            reds = Integer.parseInt(fields[2].strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number of reds: " + fields[2]);
+        }
+        if (reds < 1 || reds > 15) {
+            throw new IllegalArgumentException("The number of reds must be between 1 and 15");
+        }
+        LocalDate date = LocalDate.now();
+        if (fields.length == 5 && !fields[4].isBlank()) {
+            try {
+                date = LocalDate.parse(fields[4].strip());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid date: " + fields[4]);
+            }
+        }
+
+        Snooker snooker = new Snooker(reds);
+        String shots = fields[3];
+        int i = 0;
+        int length = shots.length();
+        while (i < length) {
+            char c = shots.charAt(i++);
+            if (c == ' ' || c == ',') continue;
+            if (snooker.isGameOver()) {
+                throw new IllegalArgumentException("Shots after the end of the frame");
+            }
+            if (c >= '1' && c <= '7') {
+                snooker.klikNaBoju(c - '0');
+            } else if (c == 'm' || c == 'M') {
+                snooker.promasaj();
+            } else if (c == 'f' || c == 'F') {
+                snooker.foulPlusFour();
+            } else {
+                throw new IllegalArgumentException("Unknown shot '" + c + "'");
+            }
+        }
+
+        String breakPlayer = null;
+        if (snooker.getHighestBreakInMatch() > 0) {
+            breakPlayer = (snooker.getPlayerWithHighestBreak() == 1) ? player1 : player2;
+        }
+        String origin = source + ':' + lineNumber + ':' + line;
+        String key = UUID.nameUUIDFromBytes(origin.getBytes(StandardCharsets.UTF_8)).toString();
+        return new MatchResult(key, player1, player2, snooker.getPoeni1(), snooker.getPoeni2(), date,
+                breakPlayer, snooker.getHighestBreakInMatch(), snooker.getShots().toArray());
+    }
+
+    /**
+     * Adds a scored frame to the current batch, storing the batch once it is full.
+     *
+     * @param result The scored frame.
+     */
+    private void add(MatchResult result) {
+        framesScored++;
+        if (dryRun) return;
+        batch.add(result);
+        if (batch.size() >= batchSize) flush();
+    }
+
+    /**
+     * Stores the current batch in one transaction, or journals it if the database rejects it.
+     */
+    private void flush() {
+        if (batch.isEmpty()) return;
+        int stored = DatabaseManager.INSTANCE.saveMatchResults(batch);
+        if (stored >= 0) {
+            framesStored += stored;
+        } else {
+            if (!journalStarted) {
+                JournalReplayer.INSTANCE.start();
+                journalStarted = true;
+            }
+            for (MatchResult result : batch) {
+                if (JournalReplayer.INSTANCE.submit(result)) framesJournaled++;
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * Releases the journal and the database connection.
+     */
+    private void close() {
+        if (journalStarted) JournalReplayer.INSTANCE.shutdown();
+        DatabaseManager.INSTANCE.disconnect();
+    }
+}
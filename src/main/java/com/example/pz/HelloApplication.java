@@ -1,12 +1,21 @@
 package com.example.pz;
 
+import data.BackgroundExecutor;
 import database.DatabaseManager;
+import database.JournalReplayer;
+import database.LiveFramePublisher;
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.scene.Scene;
-import javafx.scene.control.Alert;
 import javafx.stage.Stage;
-import scene.LoginScene;
+import logika.FrameStateHub;
+import scene.BallSprites;
+import scene.SceneRouter;
+import scoreboard.SharedScoreboardWriter;
+import spectator.SpectatorServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
 
 /**
  * The main entry point for the Snooker Score Tracker JavaFX application.
@@ -18,51 +27,144 @@ import scene.LoginScene;
  */
 public class HelloApplication extends Application {
 
+    /** Delay between attempts to initialize the database while it cannot be reached. */
+    private static final long DB_INIT_RETRY_SECONDS = 15;
+
     /**
      * The main entry point for all JavaFX applications. The start method is
      * called after the init method has returned, and after the system is ready
      * for the application to begin running.
+     * <p>
+     * The login screen is shown immediately; the ball sprites are decoded on a
+     * background thread, and the database schema is initialized on another one only
+     * after the first frame has been rendered, so neither image decoding nor loading
+     * the JDBC driver and connecting competes with the first frame.
+     * </p>
      *
      * @param stage The primary stage for this application, onto which
      * the application scene can be set.
      */
     @Override
     public void start(Stage stage) {
-        try {
-            DatabaseManager.INSTANCE.initialize();
+        StartupMetrics.phase("toolkit");
+        BallSprites.INSTANCE.preload();
+        SceneRouter router = new SceneRouter(stage);
+        stage.setTitle("Snooker Score Tracker");
+        router.show(SceneRouter.Route.LOGIN);
+        stage.setResizable(false);
+        StartupMetrics.phase("login screen");
+        StartupMetrics.reportFirstFrame(stage.getScene(), this::initializeDatabase);
+        stage.show();
 
-            Scene loginScene = new LoginScene(stage).getScene();
-            stage.setTitle("Snooker Score Tracker");
-            stage.setScene(loginScene);
-            stage.setResizable(false);
-            stage.show();
+        SpectatorServer spectatorServer = startSpectatorServer();
+        LiveFramePublisher liveFramePublisher = startLiveFramePublisher();
+        SharedScoreboardWriter scoreboardWriter = startScoreboardWriter();
+        stage.setOnCloseRequest(e -> {
+            if (spectatorServer != null) {
+                FrameStateHub.INSTANCE.removeListener(spectatorServer);
+                spectatorServer.stop();
+            }
+            if (liveFramePublisher != null) {
+                FrameStateHub.INSTANCE.removeListener(liveFramePublisher);
+                liveFramePublisher.stop();
+            }
+            if (scoreboardWriter != null) {
+                FrameStateHub.INSTANCE.removeListener(scoreboardWriter);
+                scoreboardWriter.close();
+            }
+            router.dispose();
+            BackgroundExecutor.shutdown();
+            JournalReplayer.INSTANCE.shutdown();
+            DatabaseManager.INSTANCE.disconnect();
+            Platform.exit();
+        });
+    }
 
-            stage.setOnCloseRequest(e -> {
-                DatabaseManager.INSTANCE.disconnect();
-                Platform.exit();
-            });
+    /**
+     * Opens the offline match journal and initializes the database schema on a
+     * background thread. The journal is opened first and does not depend on the
+     * database, so matches can be scored and recorded while the network is down.
+     * If the initialization fails, the application keeps running and the thread retries
+     * every {@link #DB_INIT_RETRY_SECONDS} seconds; the journal replayer holds its
+     * records back until the schema is in place and is woken up once it is.
+     */
+    private void initializeDatabase() {
+        Thread initThread = new Thread(() -> {
+            JournalReplayer.INSTANCE.start();
+            while (true) {
+                try {
+                    DatabaseManager.INSTANCE.initialize();
+                    JournalReplayer.INSTANCE.replayNow();
+                    return;
+                } catch (RuntimeException e) {
+                    System.err.println("Database initialization failed, retrying in "
+                            + DB_INIT_RETRY_SECONDS + " s: " + e.getMessage());
+                }
+                try {
+                    Thread.sleep(Duration.ofSeconds(DB_INIT_RETRY_SECONDS));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "db-init");
+        initThread.setDaemon(true);
+        initThread.start();
+    }
 
-        } catch (Exception e) {
-            System.err.println("Fatal error during application startup: " + e.getMessage());
-            e.printStackTrace();
-            showErrorAlert("Startup Error",
-                    "The application could not be started due to a database issue.\n\nError details: " + e.getMessage());
-            Platform.exit();
+    /**
+     * Starts the live score server for spectators if {@code snooker.spectator.port} is set.
+     * It listens on loopback unless {@code snooker.spectator.host} names another address,
+     * for example {@code 0.0.0.0} to serve screens and phones on the venue network.
+     *
+     * @return The running server, or {@code null} if it is disabled or could not be started.
+     */
+    private SpectatorServer startSpectatorServer() {
+        String port = System.getProperty("snooker.spectator.port");
+        if (port == null) return null;
+        String host = System.getProperty("snooker.spectator.host", "127.0.0.1");
+        try {
+            SpectatorServer server = new SpectatorServer(new InetSocketAddress(host, Integer.parseInt(port)));
+            FrameStateHub.INSTANCE.addListener(server);
+            System.out.println("[spectator] Live score at http://" + host + ":" + server.getAddress().getPort() + "/");
+            return server;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error starting the spectator server: " + e.getMessage());
+            return null;
         }
     }
 
     /**
-     * Displays a modal error alert dialog to the user.
+     * Starts mirroring the frame in progress into the {@code live_frames} table if
+     * {@code snooker.tableId} names this table. Updates are written at most once per
+     * {@code snooker.live.intervalMs} milliseconds (one second by default).
+     *
+     * @return The running publisher, or {@code null} if it is disabled.
+     */
+    private LiveFramePublisher startLiveFramePublisher() {
+        String tableId = System.getProperty("snooker.tableId");
+        if (tableId == null || tableId.isBlank()) return null;
+        long intervalMs = Long.getLong("snooker.live.intervalMs", 1000);
+        LiveFramePublisher publisher = new LiveFramePublisher(tableId, Duration.ofMillis(Math.max(intervalMs, 0)));
+        FrameStateHub.INSTANCE.addListener(publisher);
+        return publisher;
+    }
+
+    /**
+     * Starts publishing the frame in progress to the shared scoreboard file, for a
+     * {@link ScoreboardApplication} on the same machine, if {@code snooker.scoreboard} is set.
      *
-     * @param title   The title of the alert dialog window.
-     * @param message The error message to be displayed.
+     * @return The running writer, or {@code null} if it is disabled or could not be started.
      */
-    private void showErrorAlert(String title, String message) {
-        Alert alert = new Alert(Alert.AlertType.ERROR);
-        alert.setTitle(title);
-        alert.setHeaderText(null);
-        alert.setContentText(message);
-        alert.showAndWait();
+    private SharedScoreboardWriter startScoreboardWriter() {
+        if (!Boolean.getBoolean("snooker.scoreboard")) return null;
+        try {
+            SharedScoreboardWriter writer = new SharedScoreboardWriter();
+            FrameStateHub.INSTANCE.addListener(writer);
+            return writer;
+        } catch (IOException e) {
+            System.err.println("Error opening the scoreboard file: " + e.getMessage());
+            return null;
+        }
     }
 
     /**
@@ -71,6 +173,7 @@ public class HelloApplication extends Application {
      * @param args Command line arguments.
      */
     public static void main(String[] args) {
+        StartupMetrics.markLaunch();
         launch(args);
     }
 }
@@ -0,0 +1,140 @@
+package com.example.pz;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.Stage;
+import logika.FrameSnapshot;
+import scoreboard.SharedScoreboardReader;
+
+import java.io.IOException;
+
+/**
+ * Second-Screen Scoreboard
+ * <p>
+ * A lightweight scoreboard process for a big screen next to the table. It does not
+ * talk to the database or the network: it polls the shared scoreboard file that the
+ * scoring application on the same machine, started with {@code -Dsnooker.scoreboard=true},
+ * writes after every shot. The file is polled once per frame of the display, and the
+ * labels are only touched when the score actually changed.
+ * </p>
+ * <p>
+ * Start it with {@code -Dsnooker.scoreboard.file=...} pointing at the same file as the
+ * scoring application, or with neither set to use the default file in the application
+ * data directory. {@code -Dsnooker.scoreboard.fullScreen=true} opens it full screen.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class ScoreboardApplication extends Application {
+
+    private static final String[] BALL_NAMES = {"", "CRVENA", "ŽUTA", "ZELENA", "BRAON", "PLAVA", "ROZE", "CRNA"};
+
+    private final Label player1Label = label(48, FontWeight.BOLD);
+    private final Label player2Label = label(48, FontWeight.BOLD);
+    private final Label score1Label = label(140, FontWeight.BOLD);
+    private final Label score2Label = label(140, FontWeight.BOLD);
+    private final Label breakLabel = label(40, FontWeight.NORMAL);
+    private final Label tableLabel = label(32, FontWeight.NORMAL);
+    private final Label latencyLabel = label(12, FontWeight.NORMAL);
+
+    private long updates = 0;
+    private long maxLatencyNanos = 0;
+
+    /**
+     * Builds the scoreboard and starts polling the shared file.
+     *
+     * @param stage The primary stage.
+     */
+    @Override
+    public void start(Stage stage) {
+        SharedScoreboardReader reader;
+        try {
+            reader = new SharedScoreboardReader();
+        } catch (IOException e) {
+            throw new RuntimeException("Fatal Error: Could not open the scoreboard file. Error: " + e.getMessage(), e);
+        }
+
+        GridPane scores = new GridPane();
+        scores.setAlignment(Pos.CENTER);
+        scores.setHgap(120);
+        scores.add(player1Label, 0, 0);
+        scores.add(player2Label, 1, 0);
+        scores.add(score1Label, 0, 1);
+        scores.add(score2Label, 1, 1);
+
+        latencyLabel.setTextFill(Color.GRAY);
+        VBox root = new VBox(30, scores, breakLabel, tableLabel, latencyLabel);
+        root.setAlignment(Pos.CENTER);
+        root.setPadding(new Insets(40));
+        root.setStyle("-fx-background-color: #0B3D0B;");
+        tableLabel.setText("Čeka se početak meča...");
+
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                FrameSnapshot snapshot = reader.poll();
+                if (snapshot != null) show(snapshot, reader.getLastLatencyNanos());
+            }
+        }.start();
+
+        stage.setTitle("Semafor");
+        stage.setScene(new Scene(root, 1280, 720));
+        stage.setFullScreen(Boolean.getBoolean("snooker.scoreboard.fullScreen"));
+        stage.show();
+    }
+
+    /**
+     * Shows a new frame state.
+     *
+     * @param snapshot     The frame state.
+     * @param latencyNanos How long it took from the shot being recorded to being read here.
+     */
+    private void show(FrameSnapshot snapshot, long latencyNanos) {
+        player1Label.setText(snapshot.getPlayer1Name());
+        player2Label.setText(snapshot.getPlayer2Name());
+        score1Label.setText(String.valueOf(snapshot.getScore1()));
+        score2Label.setText(String.valueOf(snapshot.getScore2()));
+        player1Label.setTextFill(snapshot.isPlayer1Turn() ? Color.YELLOW : Color.WHITE);
+        player2Label.setTextFill(snapshot.isPlayer1Turn() ? Color.WHITE : Color.YELLOW);
+        breakLabel.setText("Brejk: " + snapshot.getCurrentBreak() + "   Najveći brejk: " + snapshot.getHighestBreak());
+        if (snapshot.isGameOver()) {
+            tableLabel.setText("Kraj frejma");
+        } else if (snapshot.isEndgame()) {
+            tableLabel.setText("Na redu: " + BALL_NAMES[Math.max(2, Math.min(7, snapshot.getNextColor()))]);
+        } else {
+            tableLabel.setText("Crvene: " + snapshot.getRedsRemaining()
+                    + "   Na redu: " + (snapshot.isRedRequired() ? "CRVENA" : "OBOJENA"));
+        }
+
+        updates++;
+        maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+        latencyLabel.setText(String.format("ažuriranje #%d, kašnjenje %.3f ms (najviše %.3f ms)",
+                updates, latencyNanos / 1e6, maxLatencyNanos / 1e6));
+    }
+
+    private static Label label(double size, FontWeight weight) {
+        Label label = new Label();
+        label.setFont(Font.font("Arial", weight, size));
+        label.setTextFill(Color.WHITE);
+        return label;
+    }
+
+    /**
+     * Launches the scoreboard.
+     *
+     * @param args Command line arguments.
+     */
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
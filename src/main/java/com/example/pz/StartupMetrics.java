@@ -0,0 +1,286 @@
+package com.example.pz;
+
+import data.AppFiles;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Startup Timing Instrumentation
+ * <p>
+ * This utility class records when the application was launched and reports the
+ * time it took until the first frame of the primary stage was laid out and handed
+ * to the renderer. The result is logged through {@link System.Logger} at info level so
+ * cold-start regressions can be tracked from launch logs.
+ * </p>
+ * <p>
+ * When started with {@code -Dsnooker.startup.profile=true}, the time to the first frame
+ * is also broken down into the phases marked with {@link #phase(String)}. If the JVM
+ * logs class loading to a file ({@code -Xlog:class+load:file=...}) and
+ * {@code snooker.startup.classLog} names that file, the report also counts the classes
+ * loaded in each phase, how many came from the class-data-sharing archive, where the
+ * others were loaded from, and which third-party libraries were loaded before the
+ * first frame. Every profiled run is appended to {@code startup-profile.csv} in the
+ * application data directory, so runs with and without an optimization can be compared.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public final class StartupMetrics {
+
+    /** Captured when the class is first touched from {@link HelloApplication#main(String[])}. */
+    private static final long LAUNCH_NANOS = System.nanoTime();
+    private static final System.Logger LOG = System.getLogger(StartupMetrics.class.getName());
+    private static final long LAUNCH_EPOCH_MILLIS = System.currentTimeMillis();
+
+    private static final boolean PROFILE = Boolean.getBoolean("snooker.startup.profile");
+    private static final String CLASS_LOG = System.getProperty("snooker.startup.classLog");
+    private static final String CDS_SOURCE = "shared objects file";
+
+    /** Package prefixes that belong to the JDK, JavaFX or this application. */
+    private static final String[] PLATFORM_PREFIXES = {
+            "java.", "javax.", "jdk.", "sun.", "com.sun.", "javafx.",
+            "com.example.pz.", "data.", "database.", "logika.", "scene.", "spectator."
+    };
+
+    private static final List<Phase> phases = new ArrayList<>();
+    private static boolean firstFrameReported = false;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private StartupMetrics() {}
+
+    /**
+     * Marks the launch of the application. Calling this as early as possible in
+     * {@code main} pins the reference point that the first-frame time is measured from.
+     */
+    public static void markLaunch() {
+        phase("jvm");
+    }
+
+    /**
+     * Marks the end of a startup phase when profiling is enabled. The phase covers the
+     * time since the previous mark.
+     *
+     * @param name The name of the phase that just ended.
+     */
+    public static synchronized void phase(String name) {
+        if (!PROFILE) return;
+        phases.add(new Phase(name, System.nanoTime()));
+    }
+
+    /**
+     * Reports the time to the first frame once the given scene has gone through its
+     * first layout pulse. Subsequent calls are ignored.
+     *
+     * @param scene The first scene shown on the primary stage.
+     */
+    public static void reportFirstFrame(Scene scene) {
+        reportFirstFrame(scene, null);
+    }
+
+    /**
+     * Reports the time to the first frame once the given scene has gone through its
+     * first layout pulse, and then runs work that was deferred so it would not compete
+     * with the first frame. Subsequent calls are ignored.
+     *
+     * @param scene           The first scene shown on the primary stage.
+     * @param afterFirstFrame Work to start on the JavaFX Application Thread once the
+     *                        first frame has been rendered, or {@code null}.
+     */
+    public static void reportFirstFrame(Scene scene, Runnable afterFirstFrame) {
+        if (firstFrameReported) return;
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                // Listeners cannot be removed while the scene is iterating over them.
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+                if (firstFrameReported) return;
+                firstFrameReported = true;
+                phase("first frame");
+
+                long sinceLaunchMs = (System.nanoTime() - LAUNCH_NANOS) / 1_000_000;
+                String sinceProcessStart = ProcessHandle.current().info().startInstant()
+                        .map(start -> Duration.between(start, Instant.now()).toMillis() + " ms")
+                        .orElse("n/a");
+                LOG.log(System.Logger.Level.INFO, "[startup] Time to first frame: " + sinceLaunchMs
+                        + " ms since launch, " + sinceProcessStart + " since process start");
+
+                // The rest of this pulse renders the frame; deferred work starts after it.
+                Platform.runLater(() -> {
+                    if (PROFILE) printProfile();
+                    if (afterFirstFrame != null) afterFirstFrame.run();
+                });
+            }
+        });
+    }
+
+    /**
+     * Logs the startup profile and appends it to the profile history.
+     */
+    private static synchronized void printProfile() {
+        // The JVM start time is read only now, so loading the management classes does not skew the phases.
+        long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+        double launchOffsetMs = LAUNCH_EPOCH_MILLIS - jvmStartMillis;
+        double[] endMs = new double[phases.size()];
+        for (int i = 0; i < phases.size(); i++) {
+            endMs[i] = launchOffsetMs + (phases.get(i).nanos - LAUNCH_NANOS) / 1e6;
+        }
+        ClassLog classes = readClassLog(endMs);
+        boolean cds = ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .anyMatch(arg -> arg.contains("SharedArchiveFile"));
+
+        StringBuilder report = new StringBuilder("[startup] Profile (" + (cds ? "application CDS archive" : "default CDS") + "):\n");
+        StringBuilder csv = new StringBuilder(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS) + "," + (cds ? "appcds" : "default"));
+        double previous = 0;
+        for (int i = 0; i < phases.size(); i++) {
+            report.append(String.format("  %-12s %7.1f ms", phases.get(i).name, endMs[i] - previous));
+            if (classes != null) {
+                report.append(String.format("  %5d classes (%d from CDS)", classes.perPhase[i], classes.sharedPerPhase[i]));
+            }
+            report.append('\n');
+            csv.append(',').append(phases.get(i).name).append('=').append(Math.round(endMs[i] - previous));
+            previous = endMs[i];
+        }
+        report.append(String.format("  %-12s %7.1f ms", "total", previous));
+        csv.append(",total=").append(Math.round(previous));
+        if (classes != null) {
+            report.append(String.format("  %5d classes (%d from CDS)%n", classes.total, classes.shared));
+            report.append("  loaded from: ").append(classes.bySource).append('\n');
+            report.append("  third-party before first frame: ")
+                    .append(classes.thirdParty.isEmpty() ? "none" : classes.thirdParty.toString());
+            csv.append(",classes=").append(classes.total).append(",shared=").append(classes.shared);
+        } else {
+            report.append(String.format("  %5d classes loaded so far",
+                    ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount()));
+        }
+        LOG.log(System.Logger.Level.INFO, report.toString());
+
+        try {
+            Files.writeString(AppFiles.resolve("startup-profile.csv"), csv + System.lineSeparator(),
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Error writing the startup profile: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the JVM class loading log and attributes every class loaded before the
+     * first frame to a phase, by the JVM uptime it was logged at.
+     *
+     * @param phaseEndMs The end of each phase, in milliseconds of JVM uptime.
+     * @return The class counts, or {@code null} if no class log is configured or readable.
+     */
+    private static ClassLog readClassLog(double[] phaseEndMs) {
+        if (CLASS_LOG == null || phaseEndMs.length == 0) return null;
+        ClassLog log = new ClassLog(phaseEndMs.length);
+        double firstFrameMs = phaseEndMs[phaseEndMs.length - 1];
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(CLASS_LOG), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // [0.045s][info][class,load] java.lang.Object source: shared objects file
+                int secondsEnd = line.indexOf("s]");
+                int nameStart = line.indexOf("] ", secondsEnd + 2);
+                int sourceStart = line.indexOf(" source: ");
+                if (!line.startsWith("[") || secondsEnd < 0 || nameStart < 0 || sourceStart < nameStart) continue;
+                double uptimeMs;
+                try {
+                    uptimeMs = Double.parseDouble(line.substring(1, secondsEnd)) * 1000;
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (uptimeMs > firstFrameMs) break;
+
+                int phase = 0;
+                while (phase < phaseEndMs.length - 1 && uptimeMs > phaseEndMs[phase]) phase++;
+                String className = line.substring(nameStart + 2, sourceStart);
+                String source = line.substring(sourceStart + " source: ".length());
+                boolean shared = source.startsWith(CDS_SOURCE);
+
+                log.total++;
+                log.perPhase[phase]++;
+                if (shared) {
+                    log.shared++;
+                    log.sharedPerPhase[phase]++;
+                }
+                log.bySource.merge(sourceName(source), 1, Integer::sum);
+                if (isThirdParty(className)) {
+                    int secondDot = className.indexOf('.', className.indexOf('.') + 1);
+                    log.thirdParty.merge(secondDot > 0 ? className.substring(0, secondDot) : className, 1, Integer::sum);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading the class loading log: " + e.getMessage());
+            return null;
+        }
+        return log;
+    }
+
+    /**
+     * Shortens a class source from the class loading log to a module or file name.
+     */
+    private static String sourceName(String source) {
+        if (source.startsWith(CDS_SOURCE)) return "CDS";
+        if (source.startsWith("jrt:/")) return source.substring("jrt:/".length());
+        if (source.startsWith("file:")) {
+            // A jar, or a class directory ending with a slash.
+            String path = source.endsWith("/") ? source.substring(0, source.length() - 1) : source;
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
+        return "generated";
+    }
+
+    private static boolean isThirdParty(String className) {
+        for (String prefix : PLATFORM_PREFIXES) {
+            if (className.startsWith(prefix)) return false;
+        }
+        return className.indexOf('.') > 0;
+    }
+
+    /**
+     * The end of a startup phase.
+     */
+    private static final class Phase {
+        private final String name;
+        private final long nanos;
+
+        private Phase(String name, long nanos) {
+            this.name = name;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Class counts read from the class loading log.
+     */
+    private static final class ClassLog {
+        private final int[] perPhase;
+        private final int[] sharedPerPhase;
+        private final Map<String, Integer> bySource = new TreeMap<>();
+        private final Map<String, Integer> thirdParty = new TreeMap<>();
+        private int total;
+        private int shared;
+
+        private ClassLog(int phases) {
+            this.perPhase = new int[phases];
+            this.sharedPerPhase = new int[phases];
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package data;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Local Application Files
+ * <p>
+ * This utility class resolves the location of files the application keeps on the
+ * local disk, such as the offline match journal. All files live in a single per-user
+ * directory, which can be redirected with the {@code snooker.dataDir} system property.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public final class AppFiles {
+
+    private static final Path DATA_DIR = Path.of(System.getProperty("snooker.dataDir",
+            Path.of(System.getProperty("user.home"), ".snooker-score-tracker").toString()));
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private AppFiles() {}
+
+    /**
+     * Resolves a file inside the application data directory, creating the directory if needed.
+     *
+     * @param fileName The name of the file.
+     * @return The path of the file inside the data directory.
+     * @throws IOException if the data directory cannot be created.
+     */
+    public static Path resolve(String fileName) throws IOException {
+        Files.createDirectories(DATA_DIR);
+        return DATA_DIR.resolve(fileName);
+    }
+}
@@ -0,0 +1,144 @@
+package data;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared Background Executor
+ * <p>
+ * A small, fixed-size pool of daemon threads shared by every screen that needs to run
+ * database queries or other blocking work off the JavaFX Application Thread. Work is
+ * queued instead of spawning a new thread per request, so the number of background
+ * threads stays bounded no matter how often the user refreshes.
+ * </p>
+ * <p>
+ * Work that must run in order, such as updates to state confined to one screen, goes
+ * through a {@link Lane}: a serial queue that runs its tasks one at a time on the
+ * shared pool, without a thread of its own.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public final class BackgroundExecutor {
+
+    private static final int POOL_SIZE = 3;
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private BackgroundExecutor() {}
+
+    /**
+     * Gets the shared executor.
+     *
+     * @return The shared background executor.
+     */
+    public static ExecutorService get() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Creates a serial lane on the shared pool.
+     *
+     * @return A new, empty lane.
+     */
+    public static Lane newLane() {
+        return new Lane();
+    }
+
+    /**
+     * Stops accepting new work. Already queued work is still run.
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdown();
+    }
+
+    /**
+     * Creates the pool. Idle threads time out, so an idle application holds no background threads.
+     *
+     * @return The new executor.
+     */
+    private static ExecutorService createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread thread = new Thread(r, "background-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * A serial lane: tasks run one at a time, in the order they were submitted, so state
+     * touched only by them needs no locking. The lane occupies a pool thread only while it
+     * has work, and yields it after every task so other work is not starved.
+     */
+    public static final class Lane implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private boolean scheduled = false;
+        private boolean closed = false;
+
+        private Lane() {}
+
+        /**
+         * Queues a task behind the lane's earlier tasks. Tasks submitted after the lane is
+         * closed, or after the shared pool is shut down, are dropped.
+         *
+         * @param task The task to run.
+         */
+        @Override
+        public synchronized void execute(Runnable task) {
+            if (closed) return;
+            tasks.add(task);
+            if (!scheduled) schedule();
+        }
+
+        /**
+         * Drops the queued tasks and rejects new ones. A task already running is allowed to finish.
+         */
+        public synchronized void close() {
+            closed = true;
+            tasks.clear();
+        }
+
+        private void schedule() {
+            try {
+                EXECUTOR.execute(this::runNext);
+                scheduled = true;
+            } catch (RejectedExecutionException e) {
+                // The application is shutting down.
+                closed = true;
+                tasks.clear();
+            }
+        }
+
+        private void runNext() {
+            Runnable task;
+            synchronized (this) {
+                task = tasks.poll();
+            }
+            try {
+                if (task != null) task.run();
+            } finally {
+                synchronized (this) {
+                    scheduled = false;
+                    if (!tasks.isEmpty()) schedule();
+                }
+            }
+        }
+    }
+}
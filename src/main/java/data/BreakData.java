@@ -0,0 +1,57 @@
+package data;
+
+/**
+ * Break Data Model
+ * <p>
+ * This class represents a single stored break: the match it was made in, the player
+ * who made it and its score. It is used to build break statistics.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class BreakData {
+    private final int id;
+    private final int matchId;
+    private final String playerName;
+    private final int breakScore;
+
+    /**
+     * Constructs a new BreakData object.
+     *
+     * @param id         The unique identifier of the break.
+     * @param matchId    The ID of the match the break was made in.
+     * @param playerName The name of the player who made the break.
+     * @param breakScore The score of the break.
+     */
+    public BreakData(int id, int matchId, String playerName, int breakScore) {
+        this.id = id;
+        this.matchId = matchId;
+        this.playerName = playerName;
+        this.breakScore = breakScore;
+    }
+
+    /**
+     * Gets the unique ID of the break.
+     * @return The break ID.
+     */
+    public int getId() { return id; }
+
+    /**
+     * Gets the ID of the match the break was made in.
+     * @return The match ID.
+     */
+    public int getMatchId() { return matchId; }
+
+    /**
+     * Gets the name of the player who made the break.
+     * @return The player name.
+     */
+    public String getPlayerName() { return playerName; }
+
+    /**
+     * Gets the score of the break.
+     * @return The break score.
+     */
+    public int getBreakScore() { return breakScore; }
+}
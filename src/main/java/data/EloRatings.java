@@ -0,0 +1,412 @@
+package data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Elo Player Ratings
+ * <p>
+ * Rates players with the Elo system: every match moves rating points from the loser to
+ * the winner, more the less the win was expected. Ratings and match counts are kept in
+ * primitive arrays indexed by a player ordinal, and every applied match is remembered
+ * with the rating points it moved, also in primitive columns in ID order, so a match can
+ * be reversed again when it is deleted. A new match with the highest ID is appended in
+ * amortized constant time; a match with a lower ID, and every reversal, moves the columns
+ * after it, which takes time linear in the number of applied matches.
+ * </p>
+ * <p>
+ * Adding or reversing the match played last, see {@link #isLatest}, gives exactly the
+ * ratings a replay would. A reversal further back gives back the points the match moved,
+ * but the matches played after it keep the points they moved given the old ratings, and
+ * a match added further back is rated against the current ratings. The exact ratings come from
+ * {@link #recompute(MatchStore)}, which replays the whole history in date order and
+ * saves a checkpoint of all ratings every {@value #CHECKPOINT_INTERVAL} matches, so
+ * {@link #recomputeFrom(MatchStore, LocalDate)} can replay from the last checkpoint
+ * before a change deep in the history instead of from the first match. A change of the
+ * rules, such as the K-factor, needs a new instance and a full recompute.
+ * </p>
+ * <p>
+ * This class is not thread-safe; it is meant to be confined to a single background thread.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public final class EloRatings {
+
+    /** The rating of a player without matches. */
+    public static final double INITIAL_RATING = 1500;
+    /** The default K-factor: the most rating points one match can move. */
+    public static final double DEFAULT_K_FACTOR = 24;
+    /** The number of replayed matches between two checkpoints. */
+    public static final int CHECKPOINT_INTERVAL = 10_000;
+
+    private final double kFactor;
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private double[] ratings = new double[64];
+    private int[] games = new int[64];
+
+    /** The applied matches, in ascending ID order, with the points each moved to player 1. */
+    private int[] matchIds = new int[1024];
+    private int[] matchPlayer1 = new int[1024];
+    private int[] matchPlayer2 = new int[1024];
+    private int[] matchDays = new int[1024];
+    private double[] matchDeltas = new double[1024];
+    private int matchCount = 0;
+    /** The date and ID of the last applied match in date order, as packed by {@link #position}. */
+    private long latest = Long.MIN_VALUE;
+
+    private final List<Checkpoint> checkpoints = new ArrayList<>();
+
+    /**
+     * Constructs empty ratings with the default K-factor.
+     */
+    public EloRatings() {
+        this(DEFAULT_K_FACTOR);
+    }
+
+    /**
+     * Constructs empty ratings.
+     *
+     * @param kFactor The most rating points one match can move.
+     */
+    public EloRatings(double kFactor) {
+        if (kFactor <= 0) throw new IllegalArgumentException("The K-factor must be positive.");
+        this.kFactor = kFactor;
+    }
+
+    /**
+     * Applies a stored match.
+     *
+     * @param match The stored match.
+     * @return {@code true} if the match was applied, {@code false} if it was already applied or its score is unreadable.
+     */
+    public boolean addMatch(MatchData match) {
+        int[] score = MatchStatistics.parseScore(match.getScore());
+        if (score == null) return false;
+        return addMatch(match.getId(), match.getPlayer1(), match.getPlayer2(), score[0], score[1], match.getDate());
+    }
+
+    /**
+     * Applies a match against the current ratings. A match that was already applied is
+     * ignored, so the same match may safely be applied twice. Appending the highest ID
+     * takes amortized constant time; a lower ID is inserted at its place, moving the
+     * matches after it.
+     *
+     * @param matchId The match ID.
+     * @param name1   The name of player 1.
+     * @param name2   The name of player 2.
+     * @param score1  The score of player 1.
+     * @param score2  The score of player 2.
+     * @param date    The date the match was played.
+     * @return {@code true} if the match was applied.
+     */
+    public boolean addMatch(int matchId, String name1, String name2, int score1, int score2, LocalDate date) {
+        int row = matchCount;
+        if (matchCount > 0 && matchIds[matchCount - 1] >= matchId) {
+            row = Arrays.binarySearch(matchIds, 0, matchCount, matchId);
+            if (row >= 0) return false;
+            row = -row - 1;
+        }
+        apply(row, matchId, intern(name1), intern(name2), score1, score2, (int) date.toEpochDay());
+        return true;
+    }
+
+    /**
+     * Reverses a match, giving back the rating points it moved, and drops the checkpoints
+     * saved at or after it, since they still count it. Takes time linear in the number of
+     * applied matches, as the columns after the match move down.
+     *
+     * @param matchId The ID of the deleted match.
+     * @return {@code true} if the match had been applied.
+     */
+    public boolean removeMatch(int matchId) {
+        int row = Arrays.binarySearch(matchIds, 0, matchCount, matchId);
+        if (row < 0) return false;
+        int p1 = matchPlayer1[row];
+        int p2 = matchPlayer2[row];
+        ratings[p1] -= matchDeltas[row];
+        ratings[p2] += matchDeltas[row];
+        games[p1]--;
+        games[p2]--;
+        long removed = position(matchDays[row], matchId);
+        while (!checkpoints.isEmpty() && checkpoints.get(checkpoints.size() - 1).position >= removed) {
+            checkpoints.remove(checkpoints.size() - 1);
+        }
+        shiftMatches(row + 1, row, matchCount - row - 1);
+        matchCount--;
+        if (removed == latest) {
+            latest = Long.MIN_VALUE;
+            for (int i = 0; i < matchCount; i++) latest = Math.max(latest, position(matchDays[i], matchIds[i]));
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a match comes last in date order, after every other applied match, so
+     * adding or reversing it alone gives the same ratings as replaying the history.
+     *
+     * @param date    The date the match was played.
+     * @param matchId The match ID.
+     * @return {@code true} if no other applied match was played after it.
+     */
+    public boolean isLatest(LocalDate date, int matchId) {
+        return position((int) date.toEpochDay(), matchId) >= latest;
+    }
+
+    /**
+     * Replays the whole history in date order, replacing the current ratings, and saves
+     * a checkpoint every {@value #CHECKPOINT_INTERVAL} matches.
+     *
+     * @param store The match history.
+     */
+    public void recompute(MatchStore store) {
+        checkpoints.clear();
+        Arrays.fill(ratings, 0, names.size(), INITIAL_RATING);
+        Arrays.fill(games, 0, names.size(), 0);
+        matchCount = 0;
+        latest = Long.MIN_VALUE;
+        replay(store, store.sort(store.allRows(), MatchStore.SortKey.DATE, false), 0);
+    }
+
+    /**
+     * Replays the history from the last checkpoint before a date, e.g. after a match
+     * played on that date was added or deleted. Everything before the checkpoint is kept.
+     *
+     * @param store The match history, already containing the change.
+     * @param date  The date of the earliest changed match.
+     */
+    public void recomputeFrom(MatchStore store, LocalDate date) {
+        long changed = position((int) date.toEpochDay(), Integer.MIN_VALUE);
+        while (!checkpoints.isEmpty() && checkpoints.get(checkpoints.size() - 1).position >= changed) {
+            checkpoints.remove(checkpoints.size() - 1);
+        }
+        if (checkpoints.isEmpty()) {
+            recompute(store);
+            return;
+        }
+        Checkpoint checkpoint = checkpoints.get(checkpoints.size() - 1);
+        System.arraycopy(checkpoint.ratings, 0, ratings, 0, checkpoint.ratings.length);
+        System.arraycopy(checkpoint.games, 0, games, 0, checkpoint.games.length);
+        Arrays.fill(ratings, checkpoint.ratings.length, names.size(), INITIAL_RATING);
+        Arrays.fill(games, checkpoint.games.length, names.size(), 0);
+
+        // Forget the matches after the checkpoint; they are replayed below.
+        int kept = 0;
+        for (int row = 0; row < matchCount; row++) {
+            if (position(matchDays[row], matchIds[row]) <= checkpoint.position) {
+                if (kept != row) shiftMatches(row, kept, 1);
+                kept++;
+            }
+        }
+        matchCount = kept;
+        latest = checkpoint.position;
+
+        int[] order = store.sort(store.allRows(), MatchStore.SortKey.DATE, false);
+        int start = 0;
+        while (start < order.length && position(store.epochDay(order[start]), store.id(order[start])) <= checkpoint.position) {
+            start++;
+        }
+        replay(store, order, start);
+    }
+
+    /**
+     * Applies the rows of a store from a position of its date order on, saving checkpoints.
+     */
+    private void replay(MatchStore store, int[] order, int start) {
+        // Store ordinals are mapped to rating ordinals once, not looked up by name per match.
+        int[] ordinalOf = new int[store.playerCount()];
+        for (int i = 0; i < ordinalOf.length; i++) ordinalOf[i] = intern(store.playerName(i));
+        int checkpointed = checkpoints.isEmpty() ? 0 : checkpoints.get(checkpoints.size() - 1).replayed;
+
+        // Date order is not ID order, so the match columns are appended to and sorted once at the end.
+        for (int i = start; i < order.length; i++) {
+            int row = order[i];
+            int id = store.id(row);
+            apply(matchCount, id, ordinalOf[store.player1(row)], ordinalOf[store.player2(row)],
+                    store.score1(row), store.score2(row), store.epochDay(row));
+            if (matchCount - checkpointed >= CHECKPOINT_INTERVAL) {
+                checkpoints.add(new Checkpoint(position(store.epochDay(row), id), matchCount,
+                        Arrays.copyOf(ratings, names.size()), Arrays.copyOf(games, names.size())));
+                checkpointed = matchCount;
+            }
+        }
+        sortMatchesById();
+    }
+
+    /**
+     * Sorts the match columns by match ID, packing each ID with its row into one {@code long}.
+     */
+    private void sortMatchesById() {
+        long[] packed = new long[matchCount];
+        for (int row = 0; row < matchCount; row++) {
+            packed[row] = (long) matchIds[row] << 32 | row;
+        }
+        Arrays.sort(packed);
+        int[] ids = new int[matchIds.length];
+        int[] player1 = new int[matchIds.length];
+        int[] player2 = new int[matchIds.length];
+        int[] days = new int[matchIds.length];
+        double[] deltas = new double[matchIds.length];
+        for (int i = 0; i < matchCount; i++) {
+            int row = (int) packed[i];
+            ids[i] = matchIds[row];
+            player1[i] = matchPlayer1[row];
+            player2[i] = matchPlayer2[row];
+            days[i] = matchDays[row];
+            deltas[i] = matchDeltas[row];
+        }
+        matchIds = ids;
+        matchPlayer1 = player1;
+        matchPlayer2 = player2;
+        matchDays = days;
+        matchDeltas = deltas;
+    }
+
+    /**
+     * Moves the rating points of one match and remembers them at a row of the match columns.
+     */
+    private void apply(int row, int matchId, int p1, int p2, int score1, int score2, int epochDay) {
+        double expected = 1 / (1 + Math.pow(10, (ratings[p2] - ratings[p1]) / 400));
+        double actual = score1 > score2 ? 1 : score1 < score2 ? 0 : 0.5;
+        double delta = kFactor * (actual - expected);
+        ratings[p1] += delta;
+        ratings[p2] -= delta;
+        games[p1]++;
+        games[p2]++;
+        latest = Math.max(latest, position(epochDay, matchId));
+
+        if (matchCount == matchIds.length) growMatches();
+        if (row < matchCount) shiftMatches(row, row + 1, matchCount - row);
+        matchIds[row] = matchId;
+        matchPlayer1[row] = p1;
+        matchPlayer2[row] = p2;
+        matchDays[row] = epochDay;
+        matchDeltas[row] = delta;
+        matchCount++;
+    }
+
+    /**
+     * @param name A player name.
+     * @return The rating of the player, or {@link #INITIAL_RATING} for an unknown player.
+     */
+    public double getRating(String name) {
+        Integer ordinal = ordinals.get(name);
+        return ordinal == null ? INITIAL_RATING : ratings[ordinal];
+    }
+
+    /**
+     * @return The number of applied matches.
+     */
+    public int getMatchCount() {
+        return matchCount;
+    }
+
+    /**
+     * @return The number of saved checkpoints.
+     */
+    public int getCheckpointCount() {
+        return checkpoints.size();
+    }
+
+    /**
+     * Gets the highest rated players with at least one match.
+     *
+     * @param limit The maximum number of players to return.
+     * @return The ratings, highest first.
+     */
+    public List<PlayerRating> getTopRatings(int limit) {
+        List<PlayerRating> top = new ArrayList<>();
+        for (int ordinal = 0; ordinal < names.size(); ordinal++) {
+            if (games[ordinal] > 0) top.add(new PlayerRating(names.get(ordinal), ratings[ordinal], games[ordinal]));
+        }
+        top.sort(Comparator.comparingDouble(PlayerRating::getRating).reversed().thenComparing(PlayerRating::getName));
+        return top.size() > limit ? new ArrayList<>(top.subList(0, limit)) : top;
+    }
+
+    private int intern(String name) {
+        Integer ordinal = ordinals.get(name);
+        if (ordinal != null) return ordinal;
+        ordinal = names.size();
+        names.add(name);
+        ordinals.put(name, ordinal);
+        if (ordinal == ratings.length) {
+            ratings = Arrays.copyOf(ratings, ordinal * 2);
+            games = Arrays.copyOf(games, ordinal * 2);
+        }
+        ratings[ordinal] = INITIAL_RATING;
+        games[ordinal] = 0;
+        return ordinal;
+    }
+
+    /**
+     * @return The date and ID of a match packed into one {@code long} that sorts in date order.
+     */
+    private static long position(int epochDay, int matchId) {
+        return (long) epochDay << 32 | (matchId - (long) Integer.MIN_VALUE);
+    }
+
+    private void shiftMatches(int from, int to, int length) {
+        System.arraycopy(matchIds, from, matchIds, to, length);
+        System.arraycopy(matchPlayer1, from, matchPlayer1, to, length);
+        System.arraycopy(matchPlayer2, from, matchPlayer2, to, length);
+        System.arraycopy(matchDays, from, matchDays, to, length);
+        System.arraycopy(matchDeltas, from, matchDeltas, to, length);
+    }
+
+    private void growMatches() {
+        int capacity = matchIds.length * 2;
+        matchIds = Arrays.copyOf(matchIds, capacity);
+        matchPlayer1 = Arrays.copyOf(matchPlayer1, capacity);
+        matchPlayer2 = Arrays.copyOf(matchPlayer2, capacity);
+        matchDays = Arrays.copyOf(matchDays, capacity);
+        matchDeltas = Arrays.copyOf(matchDeltas, capacity);
+    }
+
+    /** The ratings after a number of replayed matches. */
+    private static final class Checkpoint {
+        /** The date and ID of the last replayed match, as packed by {@link #position}. */
+        private final long position;
+        private final int replayed;
+        private final double[] ratings;
+        private final int[] games;
+
+        private Checkpoint(long position, int replayed, double[] ratings, int[] games) {
+            this.position = position;
+            this.replayed = replayed;
+            this.ratings = ratings;
+            this.games = games;
+        }
+    }
+
+    /**
+     * Immutable rating of one player.
+     */
+    public static final class PlayerRating {
+        private final String name;
+        private final double rating;
+        private final int matches;
+
+        private PlayerRating(String name, double rating, int matches) {
+            this.name = name;
+            this.rating = rating;
+            this.matches = matches;
+        }
+
+        /** @return The name of the player. */
+        public String getName() { return name; }
+
+        /** @return The Elo rating. */
+        public double getRating() { return rating; }
+
+        /** @return The number of rated matches. */
+        public int getMatches() { return matches; }
+    }
+}
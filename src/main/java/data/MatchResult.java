@@ -0,0 +1,125 @@
+package data;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Match Result Model
+ * <p>
+ * This class represents the outcome of a finished frame as it is handed over for
+ * storage: both players, the final scores, the date, the highest break and every
+ * shot played, packed as described in {@link logika.ShotBuffer}. Every
+ * result carries an idempotency key, so saving the same result twice (for example
+ * when it is replayed from the offline journal) never creates a duplicate match.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class MatchResult {
+    private final String idempotencyKey;
+    private final String player1;
+    private final String player2;
+    private final int score1;
+    private final int score2;
+    private final LocalDate date;
+    private final String highestBreakPlayer;
+    private final int highestBreak;
+    private final int[] shots;
+
+    /**
+     * Constructs a new MatchResult for a frame that has just finished, with a fresh
+     * idempotency key and today's date.
+     *
+     * @param player1            The name of the first player.
+     * @param player2            The name of the second player.
+     * @param score1             The final score of the first player.
+     * @param score2             The final score of the second player.
+     * @param highestBreakPlayer The name of the player with the highest break, or {@code null} if there was none.
+     * @param highestBreak       The highest break of the frame.
+     * @param shots              The packed shots of the frame, in the order they were played.
+     */
+    public MatchResult(String player1, String player2, int score1, int score2, String highestBreakPlayer, int highestBreak, int[] shots) {
+        this(UUID.randomUUID().toString(), player1, player2, score1, score2, LocalDate.now(), highestBreakPlayer, highestBreak, shots);
+    }
+
+    /**
+     * Constructs a MatchResult with all fields given explicitly, e.g. when reading it back from the journal.
+     *
+     * @param idempotencyKey     The unique key identifying this result.
+     * @param player1            The name of the first player.
+     * @param player2            The name of the second player.
+     * @param score1             The final score of the first player.
+     * @param score2             The final score of the second player.
+     * @param date               The date the match was played.
+     * @param highestBreakPlayer The name of the player with the highest break, or {@code null} if there was none.
+     * @param highestBreak       The highest break of the frame.
+     * @param shots              The packed shots of the frame, in the order they were played.
+     */
+    public MatchResult(String idempotencyKey, String player1, String player2, int score1, int score2,
+                       LocalDate date, String highestBreakPlayer, int highestBreak, int[] shots) {
+        this.idempotencyKey = idempotencyKey;
+        this.player1 = player1;
+        this.player2 = player2;
+        this.score1 = score1;
+        this.score2 = score2;
+        this.date = date;
+        this.highestBreakPlayer = highestBreakPlayer;
+        this.highestBreak = highestBreak;
+        this.shots = shots;
+    }
+
+    /**
+     * Gets the idempotency key of this result.
+     * @return The idempotency key.
+     */
+    public String getIdempotencyKey() { return idempotencyKey; }
+
+    /**
+     * Gets the name of player 1.
+     * @return The name of player 1.
+     */
+    public String getPlayer1() { return player1; }
+
+    /**
+     * Gets the name of player 2.
+     * @return The name of player 2.
+     */
+    public String getPlayer2() { return player2; }
+
+    /**
+     * Gets the final score of player 1.
+     * @return The score of player 1.
+     */
+    public int getScore1() { return score1; }
+
+    /**
+     * Gets the final score of player 2.
+     * @return The score of player 2.
+     */
+    public int getScore2() { return score2; }
+
+    /**
+     * Gets the date the match was played.
+     * @return The match date.
+     */
+    public LocalDate getDate() { return date; }
+
+    /**
+     * Gets the name of the player who made the highest break.
+     * @return The player name, or {@code null} if no break was made.
+     */
+    public String getHighestBreakPlayer() { return highestBreakPlayer; }
+
+    /**
+     * Gets the highest break of the frame.
+     * @return The highest break score.
+     */
+    public int getHighestBreak() { return highestBreak; }
+
+    /**
+     * Gets the shots of the frame in their packed form.
+     * @return The packed shots, in the order they were played.
+     */
+    public int[] getShots() { return shots; }
+}
@@ -0,0 +1,434 @@
+package data;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Incremental Match Statistics
+ * <p>
+ * Aggregates stored matches and breaks into per-player win rates and average scores,
+ * a break distribution and monthly trends. Matches and breaks are fed in one at a time,
+ * so the whole history can be streamed through in pages, and a match saved or deleted
+ * later is applied as a single update instead of recomputing everything.
+ * </p>
+ * <p>
+ * Each match's contribution is remembered so it can be reversed on delete, and matches
+ * already counted are ignored, so the same match may safely be fed twice. The matches
+ * are remembered in a columnar {@link MatchStore}, which callers can reuse instead of
+ * keeping a second copy of the history, and the breaks of each match in primitive
+ * columns chained from the match's row, so a match costs about 28 bytes and a break 12,
+ * without an object per match or break. This class is not thread-safe; it is meant to be
+ * confined to a single background thread.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class MatchStatistics {
+
+    /** The labels of the break distribution buckets. */
+    public static final String[] BREAK_BUCKET_LABELS = {"1-9", "10-19", "20-29", "30-49", "50-99", "100+"};
+    private static final int[] BREAK_BUCKET_LIMITS = {10, 20, 30, 50, 100};
+
+    private final Map<String, PlayerTotals> players = new HashMap<>();
+    private final TreeMap<YearMonth, MonthTotals> months = new TreeMap<>();
+    private final int[] breakBuckets = new int[BREAK_BUCKET_LABELS.length];
+
+    private final MatchStore matches = new MatchStore();
+    /** Whether matches were appended out of ID order since {@link MatchStore#sortById()} last ran. */
+    private boolean appending = false;
+
+    /** The first break of the match in each row of {@link #matches}, or -1; kept parallel to its rows. */
+    private int[] firstBreak = new int[0];
+    /** The break columns; a slot's next break of the same match, or the next free slot, is in {@link #nextBreaks}. */
+    private int[] breakPlayers = new int[16];
+    private int[] breakScores = new int[16];
+    private int[] nextBreaks = new int[16];
+    private int breakSlots = 0;
+    private int freeBreak = -1;
+    private final List<String> breakNames = new ArrayList<>();
+    private final Map<String, Integer> breakOrdinals = new HashMap<>();
+
+    /**
+     * Adds a match to the statistics.
+     *
+     * @param match The stored match.
+     * @return {@code true} if the match was added, {@code false} if it was already counted or its score is unreadable.
+     */
+    public boolean addMatch(MatchData match) {
+        finishAppending();
+        int row = matches.add(match);
+        if (row < 0) return false;
+        int size = matches.size();
+        ensureRows(size);
+        System.arraycopy(firstBreak, row, firstBreak, row + 1, size - 1 - row);
+        firstBreak[row] = -1;
+        applyMatch(row, 1);
+        return true;
+    }
+
+    /**
+     * Adds a match while streaming the history, in whatever order the pages arrive.
+     * Unlike {@link #addMatch(MatchData)} this does not look the match up first; a match
+     * fed twice is dropped, and the totals corrected, when the next call other than this
+     * one puts the matches back in ID order.
+     *
+     * @param match The stored match.
+     * @return {@code false} if its score is unreadable.
+     */
+    public boolean appendMatch(MatchData match) {
+        if (!matches.append(match)) return false;
+        appending = true;
+        applyMatch(matches.size() - 1, 1);
+        return true;
+    }
+
+    /**
+     * Adds a break to a match that has already been added. Breaks of unknown matches are ignored.
+     *
+     * @param matchId    The ID of the match the break was made in.
+     * @param playerName The name of the player who made the break.
+     * @param breakScore The score of the break.
+     */
+    public void addBreak(int matchId, String playerName, int breakScore) {
+        finishAppending();
+        int row = matches.rowOf(matchId);
+        if (row < 0 || breakScore <= 0) return;
+        int slot = allocateBreak();
+        breakPlayers[slot] = internBreakPlayer(playerName);
+        breakScores[slot] = breakScore;
+        nextBreaks[slot] = firstBreak[row];
+        firstBreak[row] = slot;
+        applyBreak(playerName, breakScore, 1);
+    }
+
+    /**
+     * Replaces all breaks of a match, so a match's breaks can be reloaded without counting any twice.
+     *
+     * @param matchId The ID of the match.
+     * @param breaks  The current breaks of the match.
+     */
+    public void replaceBreaks(int matchId, List<BreakData> breaks) {
+        finishAppending();
+        int row = matches.rowOf(matchId);
+        if (row < 0) return;
+        removeBreaks(row);
+        for (BreakData b : breaks) {
+            addBreak(matchId, b.getPlayerName(), b.getBreakScore());
+        }
+    }
+
+    /**
+     * Removes a match and its breaks from the statistics.
+     *
+     * @param matchId The ID of the deleted match.
+     */
+    public void removeMatch(int matchId) {
+        finishAppending();
+        int row = matches.rowOf(matchId);
+        if (row < 0) return;
+        removeBreaks(row);
+        applyMatch(row, -1);
+        int size = matches.size();
+        matches.remove(matchId);
+        System.arraycopy(firstBreak, row + 1, firstBreak, row, size - row - 1);
+        firstBreak[size - 1] = -1;
+    }
+
+    /**
+     * @return The number of matches counted.
+     */
+    public int getMatchCount() {
+        return matches.size();
+    }
+
+    /**
+     * Gets the counted matches, in ID order, e.g. to compute ratings from them. The store
+     * is owned by these statistics and must only be read, on the same thread.
+     *
+     * @return The matches counted.
+     */
+    public MatchStore getMatches() {
+        finishAppending();
+        return matches;
+    }
+
+    /**
+     * Gets the players who played the most matches.
+     *
+     * @param limit The maximum number of players to return.
+     * @return The player summaries, most matches first.
+     */
+    public List<PlayerSummary> getTopPlayers(int limit) {
+        List<PlayerSummary> summaries = new ArrayList<>(players.size());
+        for (Map.Entry<String, PlayerTotals> e : players.entrySet()) {
+            PlayerTotals t = e.getValue();
+            if (t.matches > 0) {
+                summaries.add(new PlayerSummary(e.getKey(), t.matches, t.wins, t.points, t.breaks, t.breakPoints));
+            }
+        }
+        summaries.sort(Comparator.comparingInt(PlayerSummary::getMatches).reversed().thenComparing(PlayerSummary::getName));
+        return summaries.size() > limit ? new ArrayList<>(summaries.subList(0, limit)) : summaries;
+    }
+
+    /**
+     * Gets the number of breaks in each bucket of {@link #BREAK_BUCKET_LABELS}.
+     *
+     * @return A copy of the break distribution.
+     */
+    public int[] getBreakDistribution() {
+        return breakBuckets.clone();
+    }
+
+    /**
+     * Gets the monthly trend of the most recent months with matches.
+     *
+     * @param limit The maximum number of months to return.
+     * @return The month summaries, oldest first.
+     */
+    public List<MonthSummary> getRecentMonths(int limit) {
+        List<MonthSummary> summaries = new ArrayList<>();
+        for (Map.Entry<YearMonth, MonthTotals> e : months.descendingMap().entrySet()) {
+            if (summaries.size() == limit) break;
+            summaries.add(new MonthSummary(e.getKey(), e.getValue().matches, e.getValue().points));
+        }
+        Collections.reverse(summaries);
+        return summaries;
+    }
+
+    /**
+     * Puts matches added by {@link #appendMatch(MatchData)} back in ID order. No breaks can
+     * have been added since, so every row starts without breaks. If a match was fed twice,
+     * the store keeps one copy and the match totals are counted again from the rows.
+     */
+    private void finishAppending() {
+        if (!appending) return;
+        appending = false;
+        int appended = matches.size();
+        matches.sortById();
+        if (matches.size() < appended) {
+            players.clear();
+            months.clear();
+            for (int row = 0; row < matches.size(); row++) {
+                applyMatch(row, 1);
+            }
+        }
+        firstBreak = new int[0];
+        ensureRows(matches.size());
+    }
+
+    /**
+     * Adds or subtracts a match's contribution to the player and month totals.
+     *
+     * @param row  The row of the match in {@link #matches}.
+     * @param sign {@code 1} to add the match, {@code -1} to remove it.
+     */
+    private void applyMatch(int row, int sign) {
+        String player1 = matches.playerName(matches.player1(row));
+        String player2 = matches.playerName(matches.player2(row));
+        int score1 = matches.score1(row);
+        int score2 = matches.score2(row);
+        PlayerTotals p1 = players.computeIfAbsent(player1, k -> new PlayerTotals());
+        PlayerTotals p2 = players.computeIfAbsent(player2, k -> new PlayerTotals());
+        p1.matches += sign;
+        p2.matches += sign;
+        p1.points += sign * score1;
+        p2.points += sign * score2;
+        if (score1 > score2) p1.wins += sign;
+        else if (score2 > score1) p2.wins += sign;
+
+        YearMonth monthKey = YearMonth.from(LocalDate.ofEpochDay(matches.epochDay(row)));
+        MonthTotals month = months.computeIfAbsent(monthKey, k -> new MonthTotals());
+        month.matches += sign;
+        month.points += sign * (score1 + score2);
+        if (month.matches == 0) months.remove(monthKey);
+        if (p1.isEmpty()) players.remove(player1);
+        if (p2.isEmpty()) players.remove(player2);
+    }
+
+    /**
+     * Removes every break counted for a match and frees their slots.
+     *
+     * @param row The row of the match in {@link #matches}.
+     */
+    private void removeBreaks(int row) {
+        int slot = firstBreak[row];
+        while (slot >= 0) {
+            applyBreak(breakNames.get(breakPlayers[slot]), breakScores[slot], -1);
+            int next = nextBreaks[slot];
+            nextBreaks[slot] = freeBreak;
+            freeBreak = slot;
+            slot = next;
+        }
+        firstBreak[row] = -1;
+    }
+
+    /**
+     * Adds or subtracts a break from the distribution and the player's totals.
+     */
+    private void applyBreak(String playerName, int breakScore, int sign) {
+        breakBuckets[bucketOf(breakScore)] += sign;
+        PlayerTotals totals = players.computeIfAbsent(playerName, k -> new PlayerTotals());
+        totals.breaks += sign;
+        totals.breakPoints += sign * breakScore;
+        if (totals.isEmpty()) players.remove(playerName);
+    }
+
+    /**
+     * @return A free slot in the break columns, reusing one freed by a removed break if there is one.
+     */
+    private int allocateBreak() {
+        if (freeBreak >= 0) {
+            int slot = freeBreak;
+            freeBreak = nextBreaks[slot];
+            return slot;
+        }
+        if (breakSlots == breakScores.length) {
+            int capacity = breakSlots + (breakSlots >> 1);
+            breakPlayers = Arrays.copyOf(breakPlayers, capacity);
+            breakScores = Arrays.copyOf(breakScores, capacity);
+            nextBreaks = Arrays.copyOf(nextBreaks, capacity);
+        }
+        return breakSlots++;
+    }
+
+    private int internBreakPlayer(String name) {
+        Integer ordinal = breakOrdinals.get(name);
+        if (ordinal != null) return ordinal;
+        breakNames.add(name);
+        breakOrdinals.put(name, breakNames.size() - 1);
+        return breakNames.size() - 1;
+    }
+
+    /**
+     * Makes room in {@link #firstBreak} for a number of rows; new rows have no breaks.
+     */
+    private void ensureRows(int rows) {
+        if (firstBreak.length >= rows) return;
+        int capacity = Math.max(Math.max(16, rows), firstBreak.length + (firstBreak.length >> 1));
+        int old = firstBreak.length;
+        firstBreak = Arrays.copyOf(firstBreak, capacity);
+        Arrays.fill(firstBreak, old, capacity, -1);
+    }
+
+    /**
+     * @param breakScore A break score.
+     * @return The index of the distribution bucket the break falls into.
+     */
+    private static int bucketOf(int breakScore) {
+        for (int i = 0; i < BREAK_BUCKET_LIMITS.length; i++) {
+            if (breakScore < BREAK_BUCKET_LIMITS[i]) return i;
+        }
+        return BREAK_BUCKET_LIMITS.length;
+    }
+
+    /**
+     * Parses a stored score of the form {@code "a : b"}.
+     *
+     * @param score The stored score.
+     * @return The two scores, or {@code null} if the score cannot be read.
+     */
+    public static int[] parseScore(String score) {
+        if (score == null) return null;
+        int colon = score.indexOf(':');
+        if (colon < 0) return null;
+        try {
+            return new int[] {
+                    Integer.parseInt(score.substring(0, colon).strip()),
+                    Integer.parseInt(score.substring(colon + 1).strip())
+            };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Running totals of one player. */
+    private static final class PlayerTotals {
+        private int matches;
+        private int wins;
+        private long points;
+        private int breaks;
+        private long breakPoints;
+
+        private boolean isEmpty() {
+            return matches == 0 && breaks == 0;
+        }
+    }
+
+    /** Running totals of one month. */
+    private static final class MonthTotals {
+        private int matches;
+        private long points;
+    }
+
+    /**
+     * Immutable statistics of one player.
+     */
+    public static final class PlayerSummary {
+        private final String name;
+        private final int matches;
+        private final int wins;
+        private final long points;
+        private final int breaks;
+        private final long breakPoints;
+
+        private PlayerSummary(String name, int matches, int wins, long points, int breaks, long breakPoints) {
+            this.name = name;
+            this.matches = matches;
+            this.wins = wins;
+            this.points = points;
+            this.breaks = breaks;
+            this.breakPoints = breakPoints;
+        }
+
+        /** @return The name of the player. */
+        public String getName() { return name; }
+
+        /** @return The number of matches played. */
+        public int getMatches() { return matches; }
+
+        /** @return The number of matches won. */
+        public int getWins() { return wins; }
+
+        /** @return The share of matches won, between 0 and 1. */
+        public double getWinRate() { return matches == 0 ? 0 : (double) wins / matches; }
+
+        /** @return The average score per match. */
+        public double getAverageScore() { return matches == 0 ? 0 : (double) points / matches; }
+
+        /** @return The average recorded break, or 0 if the player has none. */
+        public double getAverageBreak() { return breaks == 0 ? 0 : (double) breakPoints / breaks; }
+    }
+
+    /**
+     * Immutable statistics of one month.
+     */
+    public static final class MonthSummary {
+        private final YearMonth month;
+        private final int matches;
+        private final long points;
+
+        private MonthSummary(YearMonth month, int matches, long points) {
+            this.month = month;
+            this.matches = matches;
+            this.points = points;
+        }
+
+        /** @return The month. */
+        public YearMonth getMonth() { return month; }
+
+        /** @return The number of matches played in the month. */
+        public int getMatches() { return matches; }
+
+        /** @return The average combined score of both players per match. */
+        public double getAverageMatchPoints() { return matches == 0 ? 0 : (double) points / matches; }
+    }
+}
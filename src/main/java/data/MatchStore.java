@@ -0,0 +1,424 @@
+package data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Columnar Match Store
+ * <p>
+ * Holds the match history for analytics as parallel primitive columns: ID, player 1,
+ * player 2, both scores and the date as an epoch day, 24 bytes per match. Player names
+ * are interned into a dictionary once and referenced by ordinal, so a million matches
+ * fit in about 24 MB instead of the hundreds of MB a {@code List<MatchData>} takes with
+ * its strings and dates.
+ * </p>
+ * <p>
+ * Rows are kept in ascending ID order, so a match is found by binary search and rows
+ * can be referred to by their index. Filters and sorts work on arrays of row indexes
+ * and never create objects per row; {@link MatchData} objects are created only when a
+ * row is read through {@link #view(int)}. This class is not thread-safe; it is meant to be
+ * filled and queried by a single thread.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public final class MatchStore {
+
+    /** The columns rows can be sorted by. */
+    public enum SortKey {
+        /** The match date, then the match ID. */
+        DATE,
+        /** The name of player 1. */
+        PLAYER1,
+        /** The name of player 2. */
+        PLAYER2,
+        /** The difference between the two scores. */
+        MARGIN
+    }
+
+    /**
+     * The order of player names in every sorted view of the history: by Unicode code
+     * point, the shorter name padded with spaces. This is how MySQL's {@code utf8mb4_bin}
+     * collation orders them, which the history queries sort by, so sorts and merges in
+     * memory agree with the pages the database returns. {@link String#compareTo} does not,
+     * since it compares UTF-16 units.
+     */
+    public static final Comparator<String> NAME_ORDER = MatchStore::compareNames;
+
+    private int[] ids;
+    private int[] player1;
+    private int[] player2;
+    private int[] score1;
+    private int[] score2;
+    private int[] epochDays;
+    private int size = 0;
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+
+    /**
+     * Constructs an empty store.
+     */
+    public MatchStore() {
+        this(1024);
+    }
+
+    /**
+     * Constructs an empty store with room for a number of matches.
+     *
+     * @param capacity The number of matches to reserve room for.
+     */
+    public MatchStore(int capacity) {
+        capacity = Math.max(16, capacity);
+        ids = new int[capacity];
+        player1 = new int[capacity];
+        player2 = new int[capacity];
+        score1 = new int[capacity];
+        score2 = new int[capacity];
+        epochDays = new int[capacity];
+    }
+
+    /**
+     * Adds a match, e.g. as read from the history table.
+     *
+     * @param match The stored match.
+     * @return The row of the match, or -1 if it is already stored or its score is unreadable.
+     */
+    public int add(MatchData match) {
+        int[] score = MatchStatistics.parseScore(match.getScore());
+        if (score == null) return -1;
+        return add(match.getId(), match.getPlayer1(), match.getPlayer2(), score[0], score[1], match.getDate());
+    }
+
+    /**
+     * Adds a match. Matches are usually added in ascending ID order, which appends them;
+     * an older ID is inserted at its place, moving the rows after it.
+     *
+     * @param id      The match ID.
+     * @param name1   The name of player 1.
+     * @param name2   The name of player 2.
+     * @param points1 The score of player 1.
+     * @param points2 The score of player 2.
+     * @param date    The date the match was played.
+     * @return The row of the match, or -1 if a match with this ID is already stored.
+     */
+    public int add(int id, String name1, String name2, int points1, int points2, LocalDate date) {
+        int row = size;
+        if (size > 0 && ids[size - 1] >= id) {
+            row = Arrays.binarySearch(ids, 0, size, id);
+            if (row >= 0) return -1;
+            row = -row - 1;
+        }
+        if (size == ids.length) grow();
+        if (row < size) shift(row, row + 1, size - row);
+        ids[row] = id;
+        player1[row] = intern(name1);
+        player2[row] = intern(name2);
+        score1[row] = points1;
+        score2[row] = points2;
+        epochDays[row] = (int) date.toEpochDay();
+        size++;
+        return row;
+    }
+
+    /**
+     * Appends a match without keeping the ID order, for loading matches that arrive in
+     * another order, e.g. the history pages, which are newest first and would otherwise
+     * each be inserted at the front. {@link #sortById()} must be called after the last
+     * one, before the store is read or changed otherwise.
+     *
+     * @param match The stored match.
+     * @return {@code false} if its score is unreadable.
+     */
+    public boolean append(MatchData match) {
+        int[] score = MatchStatistics.parseScore(match.getScore());
+        if (score == null) return false;
+        if (size == ids.length) grow();
+        ids[size] = match.getId();
+        player1[size] = intern(match.getPlayer1());
+        player2[size] = intern(match.getPlayer2());
+        score1[size] = score[0];
+        score2[size] = score[1];
+        epochDays[size] = (int) match.getDate().toEpochDay();
+        size++;
+        return true;
+    }
+
+    /**
+     * Restores the ID order after {@link #append(MatchData)} with one sort of the columns,
+     * keeping the first of any repeated ID.
+     */
+    public void sortById() {
+        long[] packed = new long[size];
+        for (int row = 0; row < size; row++) {
+            packed[row] = (long) ids[row] << 32 | row;
+        }
+        Arrays.sort(packed);
+        int capacity = ids.length;
+        int[] sortedIds = new int[capacity];
+        int[] sortedPlayer1 = new int[capacity];
+        int[] sortedPlayer2 = new int[capacity];
+        int[] sortedScore1 = new int[capacity];
+        int[] sortedScore2 = new int[capacity];
+        int[] sortedDays = new int[capacity];
+        int count = 0;
+        for (long entry : packed) {
+            int row = (int) entry;
+            if (count > 0 && sortedIds[count - 1] == ids[row]) continue;
+            sortedIds[count] = ids[row];
+            sortedPlayer1[count] = player1[row];
+            sortedPlayer2[count] = player2[row];
+            sortedScore1[count] = score1[row];
+            sortedScore2[count] = score2[row];
+            sortedDays[count] = epochDays[row];
+            count++;
+        }
+        ids = sortedIds;
+        player1 = sortedPlayer1;
+        player2 = sortedPlayer2;
+        score1 = sortedScore1;
+        score2 = sortedScore2;
+        epochDays = sortedDays;
+        size = count;
+    }
+
+    /**
+     * Removes a match. Row indexes after it move down by one, so selections made before
+     * the removal are no longer valid.
+     *
+     * @param id The match ID.
+     * @return {@code true} if the match was stored.
+     */
+    public boolean remove(int id) {
+        int row = rowOf(id);
+        if (row < 0) return false;
+        shift(row + 1, row, size - row - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Finds the row of a match.
+     *
+     * @param id The match ID.
+     * @return The row, or -1 if the match is not stored.
+     */
+    public int rowOf(int id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row >= 0 ? row : -1;
+    }
+
+    /** @return The number of stored matches. */
+    public int size() { return size; }
+
+    /** @return The ID of the match in a row. */
+    public int id(int row) { return ids[checkRow(row)]; }
+
+    /** @return The player ordinal of player 1 of the match in a row. */
+    public int player1(int row) { return player1[checkRow(row)]; }
+
+    /** @return The player ordinal of player 2 of the match in a row. */
+    public int player2(int row) { return player2[checkRow(row)]; }
+
+    /** @return The score of player 1 of the match in a row. */
+    public int score1(int row) { return score1[checkRow(row)]; }
+
+    /** @return The score of player 2 of the match in a row. */
+    public int score2(int row) { return score2[checkRow(row)]; }
+
+    /** @return The date of the match in a row, as an epoch day. */
+    public int epochDay(int row) { return epochDays[checkRow(row)]; }
+
+    /** @return The difference between the scores of the match in a row. */
+    public int margin(int row) { return Math.abs(score1[checkRow(row)] - score2[row]); }
+
+    /** @return The number of distinct players, i.e. the exclusive upper bound of the ordinals. */
+    public int playerCount() { return names.size(); }
+
+    /**
+     * @param ordinal A player ordinal.
+     * @return The name of the player.
+     */
+    public String playerName(int ordinal) {
+        return names.get(ordinal);
+    }
+
+    /**
+     * @param name A player name.
+     * @return The ordinal of the player, or -1 if the player has no stored matches.
+     */
+    public int playerOrdinal(String name) {
+        return ordinals.getOrDefault(name, -1);
+    }
+
+    /**
+     * Selects the rows a filter accepts, in row order.
+     *
+     * @param filter A filter over row indexes, reading the columns through the accessors.
+     * @return The accepted rows.
+     */
+    public int[] select(IntPredicate filter) {
+        int[] rows = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (filter.test(row)) rows[count++] = row;
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Selects the matches a player played in, on either side.
+     *
+     * @param name The player name.
+     * @return The rows of the player's matches, in row order.
+     */
+    public int[] selectPlayer(String name) {
+        int ordinal = playerOrdinal(name);
+        if (ordinal < 0) return new int[0];
+        return select(row -> player1[row] == ordinal || player2[row] == ordinal);
+    }
+
+    /**
+     * Selects the matches played in a date range.
+     *
+     * @param from The first day, inclusive.
+     * @param to   The last day, inclusive.
+     * @return The rows of the matches, in row order.
+     */
+    public int[] selectBetween(LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        return select(row -> epochDays[row] >= first && epochDays[row] <= last);
+    }
+
+    /**
+     * @return Every row, in row order.
+     */
+    public int[] allRows() {
+        int[] rows = new int[size];
+        for (int row = 0; row < size; row++) rows[row] = row;
+        return rows;
+    }
+
+    /**
+     * Sorts rows by a column. Each row is packed with its key into one {@code long}, so
+     * the sort is a primitive array sort without comparators or boxing. Equal keys are
+     * ordered by match ID in the same direction, so sorting by date descending yields
+     * the history order.
+     *
+     * @param rows       The rows to sort; not modified.
+     * @param key        The column to sort by.
+     * @param descending Whether to sort from the largest key.
+     * @return The sorted rows.
+     */
+    public int[] sort(int[] rows, SortKey key, boolean descending) {
+        int[] nameRank = key == SortKey.PLAYER1 || key == SortKey.PLAYER2 ? nameRanks() : null;
+        long[] packed = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            int row = checkRow(rows[i]);
+            int value = switch (key) {
+                case DATE -> epochDays[row];
+                case PLAYER1 -> nameRank[player1[row]];
+                case PLAYER2 -> nameRank[player2[row]];
+                case MARGIN -> Math.abs(score1[row] - score2[row]);
+            };
+            // The signed key fills the high half, so negative keys, e.g. dates before 1970, sort first.
+            packed[i] = (long) value << 32 | row;
+        }
+        Arrays.sort(packed);
+        int[] sorted = new int[rows.length];
+        for (int i = 0; i < packed.length; i++) {
+            sorted[descending ? packed.length - 1 - i : i] = (int) packed[i];
+        }
+        return sorted;
+    }
+
+    /**
+     * Creates the match object of a row.
+     *
+     * @param row The row.
+     * @return The match, in the same form the history table produces it.
+     */
+    public MatchData view(int row) {
+        checkRow(row);
+        return new MatchData(ids[row], names.get(player1[row]), names.get(player2[row]),
+                score1[row] + " : " + score2[row], LocalDate.ofEpochDay(epochDays[row]));
+    }
+
+    /**
+     * Ranks the player ordinals by name in {@link #NAME_ORDER}, so names can be sorted as
+     * integers. Names the order considers equal share a rank, so their rows fall back to ID order.
+     */
+    private int[] nameRanks() {
+        Integer[] byName = new Integer[names.size()];
+        for (int i = 0; i < byName.length; i++) byName[i] = i;
+        Arrays.sort(byName, (a, b) -> NAME_ORDER.compare(names.get(a), names.get(b)));
+        int[] rank = new int[byName.length];
+        for (int i = 0; i < byName.length; i++) {
+            boolean tied = i > 0 && NAME_ORDER.compare(names.get(byName[i - 1]), names.get(byName[i])) == 0;
+            rank[byName[i]] = tied ? rank[byName[i - 1]] : i;
+        }
+        return rank;
+    }
+
+    private static int compareNames(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int x = a.codePointAt(i);
+            int y = b.codePointAt(j);
+            if (x != y) return Integer.compare(x, y);
+            i += Character.charCount(x);
+            j += Character.charCount(y);
+        }
+        for (; i < a.length(); i += Character.charCount(a.codePointAt(i))) {
+            if (a.codePointAt(i) != ' ') return Integer.compare(a.codePointAt(i), ' ');
+        }
+        for (; j < b.length(); j += Character.charCount(b.codePointAt(j))) {
+            if (b.codePointAt(j) != ' ') return Integer.compare(' ', b.codePointAt(j));
+        }
+        return 0;
+    }
+
+    private int intern(String name) {
+        Integer ordinal = ordinals.get(name);
+        if (ordinal != null) return ordinal;
+        names.add(name);
+        ordinals.put(name, names.size() - 1);
+        return names.size() - 1;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        return row;
+    }
+
+    /**
+     * Moves a block of rows in every column.
+     */
+    private void shift(int from, int to, int length) {
+        System.arraycopy(ids, from, ids, to, length);
+        System.arraycopy(player1, from, player1, to, length);
+        System.arraycopy(player2, from, player2, to, length);
+        System.arraycopy(score1, from, score1, to, length);
+        System.arraycopy(score2, from, score2, to, length);
+        System.arraycopy(epochDays, from, epochDays, to, length);
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        player1 = Arrays.copyOf(player1, capacity);
+        player2 = Arrays.copyOf(player2, capacity);
+        score1 = Arrays.copyOf(score1, capacity);
+        score2 = Arrays.copyOf(score2, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+    }
+}
@@ -0,0 +1,238 @@
+package data;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Streaming HTML Paragraph Parser
+ * <p>
+ * Extracts the text of every {@code <p>} element of an HTML document while it is being
+ * read, handing each paragraph over as soon as it is complete. Only the paragraph being
+ * read is held in memory, so memory use does not grow with the size of the document.
+ * Inside a paragraph, nested tags are dropped, character references are decoded and
+ * whitespace is collapsed, as a browser would render it. Comments and the contents of
+ * {@code <script>} and {@code <style>} elements are skipped.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+final class ParagraphStreamParser {
+
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    private final Reader in;
+    private final Consumer<String> sink;
+    private final StringBuilder paragraph = new StringBuilder();
+    private boolean inParagraph = false;
+    private int pushback = -1;
+
+    /**
+     * @param in   The HTML document.
+     * @param sink Receives the text of each non-empty paragraph, in document order.
+     */
+    ParagraphStreamParser(Reader in, Consumer<String> sink) {
+        this.in = in;
+        this.sink = sink;
+    }
+
+    /**
+     * Reads the document to the end.
+     *
+     * @throws IOException if the document cannot be read.
+     */
+    void parse() throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '<') {
+                readTag();
+            } else if (inParagraph) {
+                if (c == '&') {
+                    appendText(readEntity());
+                } else {
+                    appendText((char) c);
+                }
+            }
+        }
+        endParagraph();
+    }
+
+    /**
+     * Reads a tag after its opening {@code <} and updates the paragraph state.
+     */
+    private void readTag() throws IOException {
+        int c = read();
+        if (c == '!') {
+            skipDeclaration();
+            return;
+        }
+        boolean closing = c == '/';
+        if (closing) c = read();
+
+        StringBuilder name = new StringBuilder();
+        while (c != -1 && (Character.isLetterOrDigit(c))) {
+            name.append((char) c);
+            c = read();
+        }
+        if (name.isEmpty()) {
+            // Not a tag, just a literal '<'.
+            if (inParagraph) appendText('<');
+            if (c != -1) pushback = c;
+            return;
+        }
+        skipUntil(c, '>');
+
+        String tag = name.toString().toLowerCase(Locale.ROOT);
+        switch (tag) {
+            case "p" -> {
+                endParagraph();
+                inParagraph = !closing;
+            }
+            case "br" -> {
+                if (inParagraph) appendText(' ');
+            }
+            case "script", "style" -> {
+                if (!closing) skipRawText(tag);
+            }
+            case "div", "body", "html", "h1", "h2", "h3", "h4", "h5", "h6", "ul", "ol", "li", "table", "section", "article" -> endParagraph();
+            default -> { }
+        }
+    }
+
+    /**
+     * Skips a comment, doctype or other declaration after its {@code <!}.
+     */
+    private void skipDeclaration() throws IOException {
+        int c = read();
+        if (c == '-') {
+            int dashes = 0;
+            while ((c = read()) != -1) {
+                if (c == '>' && dashes >= 2) return;
+                dashes = (c == '-') ? dashes + 1 : 0;
+            }
+        } else {
+            skipUntil(c, '>');
+        }
+    }
+
+    /**
+     * Skips the contents of a raw text element up to and including its closing tag.
+     *
+     * @param tag The name of the element.
+     */
+    private void skipRawText(String tag) throws IOException {
+        String end = "</" + tag;
+        int matched = 0;
+        int c;
+        while ((c = read()) != -1) {
+            if (Character.toLowerCase(c) == end.charAt(matched)) {
+                if (++matched == end.length()) {
+                    skipUntil(read(), '>');
+                    return;
+                }
+            } else {
+                matched = (c == '<') ? 1 : 0;
+            }
+        }
+    }
+
+    /**
+     * Skips characters up to and including {@code stop}, starting with {@code c}, honouring
+     * quoted attribute values.
+     */
+    private void skipUntil(int c, char stop) throws IOException {
+        int quote = 0;
+        while (c != -1) {
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == stop) {
+                return;
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Reads a character reference after its {@code &}.
+     *
+     * @return The decoded text, or the reference as written if it is not recognized.
+     */
+    private String readEntity() throws IOException {
+        StringBuilder entity = new StringBuilder();
+        int c;
+        while ((c = read()) != -1 && c != ';' && entity.length() < MAX_ENTITY_LENGTH
+                && (Character.isLetterOrDigit(c) || c == '#')) {
+            entity.append((char) c);
+        }
+        if (c != ';') {
+            if (c != -1) pushback = c;
+            return "&" + entity;
+        }
+        String name = entity.toString();
+        try {
+            if (name.startsWith("#x") || name.startsWith("#X")) return Character.toString(Integer.parseInt(name.substring(2), 16));
+            if (name.startsWith("#")) return Character.toString(Integer.parseInt(name.substring(1)));
+        } catch (IllegalArgumentException e) {
+            return "&" + name + ";";
+        }
+        return switch (name) {
+            case "amp" -> "&";
+            case "lt" -> "<";
+            case "gt" -> ">";
+            case "quot" -> "\"";
+            case "apos" -> "'";
+            case "nbsp" -> " ";
+            case "rsquo", "lsquo" -> "’";
+            case "rdquo", "ldquo" -> "”";
+            case "ndash" -> "–";
+            case "mdash" -> "—";
+            case "hellip" -> "…";
+            case "copy" -> "©";
+            default -> "&" + name + ";";
+        };
+    }
+
+    private void appendText(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            appendText(text.charAt(i));
+        }
+    }
+
+    /**
+     * Appends a character to the current paragraph, collapsing runs of whitespace into a single space.
+     */
+    private void appendText(char c) {
+        if (Character.isWhitespace(c) || c == ' ') {
+            if (!paragraph.isEmpty() && paragraph.charAt(paragraph.length() - 1) != ' ') {
+                paragraph.append(' ');
+            }
+        } else {
+            paragraph.append(c);
+        }
+    }
+
+    /**
+     * Hands the current paragraph to the sink if it has any text, and starts a new one.
+     */
+    private void endParagraph() {
+        if (inParagraph) {
+            String text = paragraph.toString().strip();
+            if (!text.isEmpty()) sink.accept(text);
+        }
+        paragraph.setLength(0);
+        inParagraph = false;
+    }
+
+    private int read() throws IOException {
+        if (pushback != -1) {
+            int c = pushback;
+            pushback = -1;
+            return c;
+        }
+        return in.read();
+    }
+}
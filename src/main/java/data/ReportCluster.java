@@ -0,0 +1,60 @@
+package data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Report Cluster Model
+ * <p>
+ * This class represents a group of near-duplicate bug reports for triage: how many
+ * reports it holds, when the last one arrived and the message of the first one, which
+ * stands for the whole group.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class ReportCluster {
+    private final int id;
+    private final int size;
+    private final LocalDateTime lastReported;
+    private final String sampleMessage;
+
+    /**
+     * Constructs a new ReportCluster object.
+     *
+     * @param id            The ID of the cluster, which is the ID of its first report.
+     * @param size          The number of reports in the cluster.
+     * @param lastReported  When the latest report of the cluster was submitted.
+     * @param sampleMessage The message of the first report of the cluster.
+     */
+    public ReportCluster(int id, int size, LocalDateTime lastReported, String sampleMessage) {
+        this.id = id;
+        this.size = size;
+        this.lastReported = lastReported;
+        this.sampleMessage = sampleMessage;
+    }
+
+    /**
+     * Gets the ID of the cluster.
+     * @return The cluster ID.
+     */
+    public int getId() { return id; }
+
+    /**
+     * Gets the number of reports in the cluster.
+     * @return The cluster size.
+     */
+    public int getSize() { return size; }
+
+    /**
+     * Gets when the latest report of the cluster was submitted.
+     * @return The time of the latest report.
+     */
+    public LocalDateTime getLastReported() { return lastReported; }
+
+    /**
+     * Gets the message that stands for the cluster.
+     * @return The message of the first report.
+     */
+    public String getSampleMessage() { return sampleMessage; }
+}
@@ -0,0 +1,142 @@
+package data;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Report MinHash Signature
+ * <p>
+ * Computes the locality-sensitive hash keys used to group near-duplicate bug reports.
+ * A message is normalized, cut into overlapping character shingles and summarized by a
+ * MinHash signature of {@value #BANDS} x {@value #ROWS} values. The signature is split
+ * into {@value #BANDS} bands, and each band is hashed into one key. Two messages share
+ * at least one band key with high probability when their shingle sets are more than
+ * about half the same, and almost never when they are unrelated, so a new report can be
+ * matched against all stored ones by looking up just its own keys.
+ * </p>
+ * <p>
+ * The cost depends only on the length of the message, which is capped at
+ * {@value #MAX_CHARS} characters, never on the number of stored reports.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public final class ReportSignature {
+
+    /** The number of bands, and so of keys per message. */
+    public static final int BANDS = 12;
+    /** The number of MinHash values hashed into one band key. */
+    public static final int ROWS = 4;
+    private static final int SHINGLE = 5;
+    private static final int MAX_CHARS = 4000;
+
+    /** One seed per MinHash function; fixed, so keys stay comparable with the stored ones. */
+    private static final long[] SEEDS = new SplittableRandom(0x5EEDL).longs(BANDS * ROWS).toArray();
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ReportSignature() {}
+
+    /**
+     * Computes the band keys of a message.
+     *
+     * @param message The report message.
+     * @return The {@value #BANDS} band keys, or an empty array if the message has no letters or digits.
+     */
+    public static long[] bandKeys(String message) {
+        long[] signature = signature(message);
+        if (signature == null) return new long[0];
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                key = mix(key * 31 + signature[band * ROWS + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    /**
+     * Estimates how similar two messages are, as the share of equal MinHash values.
+     *
+     * @param a The first message.
+     * @param b The second message.
+     * @return The estimated Jaccard similarity of their shingles, between 0 and 1.
+     */
+    public static double similarity(String a, String b) {
+        long[] sa = signature(a);
+        long[] sb = signature(b);
+        if (sa == null || sb == null) return 0;
+        int equal = 0;
+        for (int i = 0; i < sa.length; i++) {
+            if (sa[i] == sb[i]) equal++;
+        }
+        return equal / (double) sa.length;
+    }
+
+    /**
+     * Computes the MinHash signature of a message.
+     *
+     * @return The signature, or {@code null} if the message has no letters or digits.
+     */
+    private static long[] signature(String message) {
+        char[] text = normalize(message);
+        if (text.length == 0) return null;
+        long[] signature = new long[SEEDS.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        int shingles = Math.max(1, text.length - SHINGLE + 1);
+        for (int start = 0; start < shingles; start++) {
+            long shingle = 0;
+            for (int i = start, end = Math.min(start + SHINGLE, text.length); i < end; i++) {
+                shingle = shingle * 65599 + text[i];
+            }
+            for (int h = 0; h < SEEDS.length; h++) {
+                long value = mix(shingle ^ SEEDS[h]);
+                if (value < signature[h]) signature[h] = value;
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Lower-cases the message, drops diacritics, since reports are typed both with and
+     * without them, and turns every run of other characters than letters and digits into
+     * a single space, so punctuation and spacing do not tell reports apart.
+     */
+    private static char[] normalize(String message) {
+        String text = Normalizer.normalize(message.length() > MAX_CHARS ? message.substring(0, MAX_CHARS) : message, Normalizer.Form.NFD);
+        char[] out = new char[text.length()];
+        int size = 0;
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            if (Character.isLetterOrDigit(c)) {
+                c = Character.toLowerCase(c);
+                out[size++] = c == 'đ' ? 'd' : c;
+                space = false;
+            } else if (!space) {
+                out[size++] = ' ';
+                space = true;
+            }
+        }
+        if (size > 0 && out[size - 1] == ' ') size--;
+        return Arrays.copyOf(out, size);
+    }
+
+    /**
+     * The 64-bit finalizer of MurmurHash3, which spreads every input bit over the output.
+     */
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
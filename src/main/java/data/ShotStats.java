@@ -0,0 +1,111 @@
+package data;
+
+import logika.ShotBuffer;
+
+/**
+ * Shot Statistics Model
+ * <p>
+ * This class holds the shot analytics of a single player, aggregated over all stored
+ * frames: how many shots were potted, missed or fouled, and how many times each
+ * ball was taken. It is used to analyze pot success, colors taken and foul rates.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class ShotStats {
+    private final String playerName;
+    private int pots;
+    private int misses;
+    private int fouls;
+    private int points;
+    private final int[] potsByBall = new int[8];
+
+    /**
+     * Constructs empty statistics for a player.
+     *
+     * @param playerName The name of the player.
+     */
+    public ShotStats(String playerName) {
+        this.playerName = playerName;
+    }
+
+    /**
+     * Adds an aggregated group of shots with the same outcome and ball.
+     *
+     * @param outcome     The shot outcome, as defined in {@link ShotBuffer}.
+     * @param ball        The value of the ball involved, or 0 if none.
+     * @param shotCount   The number of shots in the group.
+     * @param totalPoints The total points of the shots in the group.
+     */
+    public void add(int outcome, int ball, int shotCount, int totalPoints) {
+        switch (outcome) {
+            case ShotBuffer.OUTCOME_POT -> {
+                pots += shotCount;
+                points += totalPoints;
+                if (ball >= 0 && ball < potsByBall.length) potsByBall[ball] += shotCount;
+            }
+            case ShotBuffer.OUTCOME_FOUL -> fouls += shotCount;
+            default -> misses += shotCount;
+        }
+    }
+
+    /**
+     * Gets the name of the player.
+     * @return The player name.
+     */
+    public String getPlayerName() { return playerName; }
+
+    /**
+     * Gets the number of potted balls.
+     * @return The pot count.
+     */
+    public int getPots() { return pots; }
+
+    /**
+     * Gets the number of missed shots.
+     * @return The miss count.
+     */
+    public int getMisses() { return misses; }
+
+    /**
+     * Gets the number of fouls.
+     * @return The foul count.
+     */
+    public int getFouls() { return fouls; }
+
+    /**
+     * Gets the total points scored from potted balls.
+     * @return The points scored.
+     */
+    public int getPoints() { return points; }
+
+    /**
+     * Gets how many times a ball was potted.
+     * @param ball The value of the ball (1-7).
+     * @return The number of times the ball was potted.
+     */
+    public int getPotsOfBall(int ball) { return potsByBall[ball]; }
+
+    /**
+     * Gets the total number of shots played.
+     * @return The shot count.
+     */
+    public int getShotCount() { return pots + misses + fouls; }
+
+    /**
+     * Gets the share of shots that potted a ball.
+     * @return The pot success rate between 0 and 1, or 0 if no shots were played.
+     */
+    public double getPotSuccessRate() {
+        return getShotCount() == 0 ? 0 : (double) pots / getShotCount();
+    }
+
+    /**
+     * Gets the share of shots that were fouls.
+     * @return The foul rate between 0 and 1, or 0 if no shots were played.
+     */
+    public double getFoulRate() {
+        return getShotCount() == 0 ? 0 : (double) fouls / getShotCount();
+    }
+}
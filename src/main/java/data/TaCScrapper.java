@@ -1,16 +1,48 @@
 package data;
 
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.zip.CRC32;
 
 /**
  * Terms and Conditions Scraper
  * <p>
  * This class implements the Runnable interface to perform web scraping in a background thread.
- * It connects to a specific URL, parses the HTML content using Jsoup, and extracts the text
- * from all paragraph elements to retrieve the Terms and Conditions.
+ * It requests a specific URL with {@link HttpClient}, using explicit connect and request
+ * timeouts, and extracts the text of all paragraph elements to retrieve the Terms and Conditions.
+ * The page is parsed as a stream while it downloads, so no document tree is built, and each
+ * paragraph can be handed to a {@link Listener} as soon as it arrives.
+ * </p>
+ * <p>
+ * The extracted text is kept in an on-disk cache together with the page's {@code ETag} and
+ * {@code Last-Modified} validators. {@link #getCachedText()} returns the cached copy, or a
+ * bundled fallback copy if nothing was cached yet, without touching the network. {@link #run()}
+ * revalidates the cache once it is older than the time to live, with a conditional request,
+ * so an unchanged page costs a {@code 304} response instead of a download and parse. If the
+ * page cannot be reached, the cached or bundled copy is kept.
+ * </p>
+ * <p>
+ * The URL, the time to live in hours and the request timeout in seconds can be changed with
+ * the {@code snooker.terms.url}, {@code snooker.terms.ttlHours} and
+ * {@code snooker.terms.timeoutSeconds} system properties.
  * </p>
  *
  * @author Andrija Milovanovic
@@ -18,36 +50,317 @@ import org.jsoup.select.Elements;
  */
 public class TaCScrapper implements Runnable {
 
-    private String result;
-    private static final String URL = "https://snooker.yolo.blue/docs/terms-and-conditions/en.html#:~:text=You're%20not%20allowed%20to,languages%2C%20or%20make%20derivative%20versions.";
+    /**
+     * Receives the Terms and Conditions paragraph by paragraph.
+     */
+    public interface Listener {
+        /**
+         * Called for each paragraph, in document order.
+         * @param text The text of the paragraph.
+         */
+        void onParagraph(String text);
+
+        /**
+         * Called when the paragraphs delivered so far are superseded; the replacement
+         * paragraphs follow.
+         */
+        void onReset();
+    }
+
+    private static final String DEFAULT_URL = "https://snooker.yolo.blue/docs/terms-and-conditions/en.html#:~:text=You're%20not%20allowed%20to,languages%2C%20or%20make%20derivative%20versions.";
+    private static final String CACHE_TEXT_FILE = "terms-cache.txt";
+    private static final String CACHE_META_FILE = "terms-cache.properties";
+    private static final String BUNDLED_COPY = "/data/terms-and-conditions.txt";
+
+    private final URI uri;
+    private final Path cacheDir;
+    private final Duration ttl;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    private boolean changed;
+
+    /**
+     * Constructs a scraper for the configured URL, caching in the application data directory.
+     */
+    public TaCScrapper() {
+        this(System.getProperty("snooker.terms.url", DEFAULT_URL), null,
+                Duration.ofHours(Long.getLong("snooker.terms.ttlHours", 24)),
+                Duration.ofSeconds(Long.getLong("snooker.terms.timeoutSeconds", 10)));
+    }
+
+    /**
+     * Constructs a scraper for a given URL and cache location.
+     *
+     * @param url      The address of the Terms and Conditions page.
+     * @param cacheDir The directory holding the cache, or {@code null} for the application data directory.
+     * @param ttl      How long a cached copy is used before it is revalidated.
+     * @param timeout  The connect timeout, and the time allowed for the response headers to arrive.
+     */
+    public TaCScrapper(String url, Path cacheDir, Duration ttl, Duration timeout) {
+        this.uri = URI.create(url);
+        this.cacheDir = cacheDir;
+        this.ttl = ttl;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
 
     /**
-     * Executed when the thread starts. Connects to the URL, fetches the content,
-     * parses the paragraph tags, and stores the concatenated text in the result field.
-     * In case of an error, an error message is stored in the result field.
+     * Gets the Terms and Conditions without touching the network: the cached copy if
+     * there is one, otherwise the copy bundled with the application.
+     *
+     * @return The Terms and Conditions text.
+     */
+    public String getCachedText() {
+        try {
+            Path text = cacheFile(CACHE_TEXT_FILE);
+            if (Files.exists(text)) {
+                return Files.readString(text, StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading cached Terms and Conditions: " + e.getMessage());
+        }
+        return readBundledCopy();
+    }
+
+    /**
+     * Executed when the thread starts. Revalidates the cached copy if it has expired.
+     * A page that changed is downloaded, parsed and cached; if the page cannot be
+     * reached or yields no paragraphs, the cached or bundled copy is kept.
      */
     @Override
     public void run() {
+        run(null);
+    }
+
+    /**
+     * Delivers the Terms and Conditions to a listener while revalidating them.
+     * <p>
+     * A cached copy is delivered first, straight from disk. Without one, paragraphs are
+     * delivered as they are downloaded. If revalidation finds a newer version than the
+     * cached copy, the listener is reset and receives the new version; if the download
+     * fails with nothing cached, it is reset and receives the bundled copy.
+     * </p>
+     *
+     * @param listener The listener, or {@code null} to only refresh the cache.
+     */
+    public void run(Listener listener) {
+        changed = false;
+        Properties meta = readMeta();
+        boolean hasCache = !meta.isEmpty();
+        boolean streamed = false;
         try {
-            Document doc = Jsoup.connect(URL).get();
-            Elements terms = doc.body().getElementsByTag("p");
-            StringBuilder sb = new StringBuilder();
-            for (Element term : terms) {
-                sb.append(term.text()).append("\n");
+            Path textFile = cacheFile(CACHE_TEXT_FILE);
+            if (hasCache && listener != null) deliver(Files.newBufferedReader(textFile, StandardCharsets.UTF_8), listener);
+
+            long fetchedAt = Long.parseLong(meta.getProperty("fetchedAt", "0"));
+            if (hasCache && System.currentTimeMillis() - fetchedAt < ttl.toMillis()) return;
+
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(timeout).GET();
+            if (meta.containsKey("etag")) request.header("If-None-Match", meta.getProperty("etag"));
+            if (meta.containsKey("lastModified")) request.header("If-Modified-Since", meta.getProperty("lastModified"));
+            HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+
+            try (InputStream body = response.body()) {
+                if (response.statusCode() == 304) {
+                    meta.setProperty("fetchedAt", String.valueOf(System.currentTimeMillis()));
+                    writeMeta(meta);
+                    return;
+                }
+                if (response.statusCode() != 200) {
+                    throw new IOException("HTTP " + response.statusCode());
+                }
+
+                Listener live = (!hasCache) ? listener : null;
+                streamed = live != null;
+                Path tmp = textFile.resolveSibling(CACHE_TEXT_FILE + ".tmp");
+                CRC32 checksum = new CRC32();
+                Charset charset = charsetOf(response);
+                try (Reader in = new BufferedReader(new InputStreamReader(body, charset));
+                     Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    new ParagraphStreamParser(in, text -> {
+                        String line = text + "\n";
+                        try {
+                            out.write(line);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        checksum.update(line.getBytes(StandardCharsets.UTF_8));
+                        if (live != null) live.onParagraph(text);
+                    }).parse();
+                }
+                if (Files.size(tmp) == 0) {
+                    // A page without paragraphs, e.g. after a redesign, must not replace the saved copy.
+                    Files.delete(tmp);
+                    throw new IOException("No paragraphs found in " + uri);
+                }
+
+                changed = !hasCache || checksum.getValue() != checksumOf(textFile);
+                Files.move(tmp, textFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Properties fresh = new Properties();
+                response.headers().firstValue("ETag").ifPresent(v -> fresh.setProperty("etag", v));
+                response.headers().firstValue("Last-Modified").ifPresent(v -> fresh.setProperty("lastModified", v));
+                fresh.setProperty("fetchedAt", String.valueOf(System.currentTimeMillis()));
+                writeMeta(fresh);
+
+                if (changed && hasCache && listener != null) {
+                    listener.onReset();
+                    deliver(Files.newBufferedReader(textFile, StandardCharsets.UTF_8), listener);
+                }
+            }
+        } catch (IOException | UncheckedIOException | InterruptedException | IllegalArgumentException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            System.err.println("Error fetching Terms and Conditions, using the saved copy: " + e);
+            if (!hasCache && listener != null) {
+                if (streamed) listener.onReset();
+                deliver(new StringReader(readBundledCopy()), listener);
             }
-            result = sb.toString();
-        } catch (Exception e) {
-            result = "Error fetching Terms and Conditions: " + e.getMessage();
         }
     }
 
     /**
-     * Gets the result of the scraping operation.
-     * This will be the text of the Terms and Conditions or an error message.
+     * Gets the result of the last scraping operation: the Terms and Conditions as
+     * cached, or the bundled copy if nothing could be cached.
      *
-     * @return The scraped text or an error string.
+     * @return The Terms and Conditions text.
      */
     public String getResult() {
-        return result;
+        return getCachedText();
+    }
+
+    /**
+     * Tells whether the last {@link #run()} found text different from the cached copy.
+     *
+     * @return {@code true} if the text changed.
+     */
+    public boolean isChanged() {
+        return changed;
+    }
+
+    /**
+     * Hands stored text to a listener, one paragraph per line.
+     *
+     * @param text     The stored text; closed when done.
+     * @param listener The listener.
+     */
+    private static void deliver(Reader text, Listener listener) {
+        try (BufferedReader in = new BufferedReader(text)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) listener.onParagraph(line);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading Terms and Conditions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the character set of a response from its {@code Content-Type}, defaulting to UTF-8.
+     *
+     * @param response The response.
+     * @return The character set of the body.
+     */
+    private static Charset charsetOf(HttpResponse<?> response) {
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        int at = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (at >= 0) {
+            String name = contentType.substring(at + 8).split(";")[0].replace("\"", "").strip();
+            try {
+                return Charset.forName(name);
+            } catch (IllegalArgumentException e) {
+                // Unknown character set; fall back to UTF-8.
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Computes the checksum of a file without loading it whole.
+     *
+     * @param file The file.
+     * @return The CRC32 of its contents.
+     * @throws IOException if the file cannot be read.
+     */
+    private static long checksumOf(Path file) throws IOException {
+        CRC32 checksum = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                checksum.update(buffer, 0, n);
+            }
+        }
+        return checksum.getValue();
+    }
+
+    /**
+     * Reads the cache validators and fetch time.
+     *
+     * @return The cache metadata, empty if there is no cache.
+     */
+    private Properties readMeta() {
+        Properties meta = new Properties();
+        try {
+            Path file = cacheFile(CACHE_META_FILE);
+            if (Files.exists(file) && Files.exists(cacheFile(CACHE_TEXT_FILE))) {
+                try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    meta.load(in);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error reading the Terms and Conditions cache: " + e.getMessage());
+            meta.clear();
+        }
+        return meta;
+    }
+
+    /**
+     * Writes the cache metadata, replacing the old file atomically.
+     *
+     * @param meta The metadata to write.
+     */
+    private void writeMeta(Properties meta) {
+        try {
+            Path file = cacheFile(CACHE_META_FILE);
+            Path tmp = file.resolveSibling(CACHE_META_FILE + ".tmp");
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                meta.store(out, null);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error writing the Terms and Conditions cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resolves a cache file.
+     *
+     * @param name The file name.
+     * @return The path of the file.
+     * @throws IOException if the cache directory cannot be created.
+     */
+    private Path cacheFile(String name) throws IOException {
+        if (cacheDir == null) return AppFiles.resolve(name);
+        Files.createDirectories(cacheDir);
+        return cacheDir.resolve(name);
+    }
+
+    /**
+     * Reads the copy of the Terms and Conditions bundled with the application.
+     *
+     * @return The bundled text, or an error message if it is missing.
+     */
+    private static String readBundledCopy() {
+        try (InputStream in = TaCScrapper.class.getResourceAsStream(BUNDLED_COPY)) {
+            if (in != null) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading bundled Terms and Conditions: " + e.getMessage());
+        }
+        return "Error fetching Terms and Conditions: no saved copy is available.";
     }
 }
@@ -1,17 +1,36 @@
 package database;
 
+import data.BreakData;
 import data.MatchData;
+import data.MatchResult;
 import data.PasswordEncrypt;
+import data.ReportCluster;
+import data.ReportSignature;
+import data.ShotStats;
+import logika.FrameSnapshot;
+import logika.ShotBuffer;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages all database interactions for the Snooker application using the Singleton pattern.
  * This class handles the database connection, table initialization, and all CRUD
  * (Create, Read, Update, Delete) operations for users, matches, breaks, and reports.
+ * Matches and breaks of closed seasons that were exported to {@link SeasonArchive}s are
+ * merged into the history and statistics queries from the {@link MatchArchives}.
+ * <p>
+ * All methods share one connection and are synchronized on the instance, so the
+ * statements of one thread never run inside, or are rolled back with, another
+ * thread's transaction.
+ * </p>
  *
  * @author Andrija Milovanovic
  * @version 1.0
@@ -20,24 +39,107 @@ public class DatabaseManager {
     /** The single instance of the DatabaseManager. */
     public static final DatabaseManager INSTANCE = new DatabaseManager();
 
-    private static final String DATABASE_URL = "jdbc:mysql://localhost:3306/snooker_db?createDatabaseIfNotExist=true";
-    private static final String USER = "root";
-    private static final String PASSWORD = "";
+    /** Connection settings; each can be overridden with the system property of the same name. */
+    private static final String DATABASE_URL = System.getProperty("snooker.db.url",
+            "jdbc:mysql://localhost:3306/snooker_db?createDatabaseIfNotExist=true&rewriteBatchedStatements=true");
+    private static final String USER = System.getProperty("snooker.db.user", "root");
+    private static final String PASSWORD = System.getProperty("snooker.db.password", "");
+    /**
+     * Schema migrations, one array of DDL statements per version. Version {@code n}
+     * is {@code SCHEMA_MIGRATIONS[n - 1]}; new changes are appended, never edited in place.
+     */
+    private static final String[][] SCHEMA_MIGRATIONS = {
+            {
+                    "CREATE TABLE IF NOT EXISTS users (id INT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(255) NOT NULL UNIQUE, password VARCHAR(255) NOT NULL);",
+                    "CREATE TABLE IF NOT EXISTS matches (id INT AUTO_INCREMENT PRIMARY KEY, player1_name VARCHAR(255) NOT NULL, player2_name VARCHAR(255) NOT NULL, score VARCHAR(50), match_date DATE NOT NULL);",
+                    "CREATE TABLE IF NOT EXISTS breaks (id INT AUTO_INCREMENT PRIMARY KEY, user_id INT, player_name VARCHAR(255), break_score INT NOT NULL, match_id INT, FOREIGN KEY (match_id) REFERENCES matches(id) ON DELETE CASCADE, FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE SET NULL);",
+                    "CREATE TABLE IF NOT EXISTS reports (id INT AUTO_INCREMENT PRIMARY KEY, user_id INT, report_message TEXT NOT NULL, report_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE);"
+            },
+            {
+                    "ALTER TABLE matches ADD COLUMN idempotency_key CHAR(36) NULL;",
+                    "CREATE UNIQUE INDEX ux_matches_idempotency_key ON matches (idempotency_key);"
+            },
+            {
+                    "CREATE TABLE IF NOT EXISTS shots (match_id INT NOT NULL, shot_no SMALLINT NOT NULL, player_name VARCHAR(255) NOT NULL, ball TINYINT NOT NULL, outcome TINYINT NOT NULL, points TINYINT NOT NULL, PRIMARY KEY (match_id, shot_no), FOREIGN KEY (match_id) REFERENCES matches(id) ON DELETE CASCADE);",
+                    // Covers the per-player analytics queries, so they never touch the table rows.
+                    "CREATE INDEX ix_shots_player_stats ON shots (player_name, outcome, ball, points);"
+            },
+            {
+                    // Serves the newest-first history pages without sorting the whole table.
+                    "CREATE INDEX ix_matches_date_id ON matches (match_date, id);"
+            },
+            {
+                    // One row per scoring table, overwritten while its frame is in progress.
+                    "CREATE TABLE IF NOT EXISTS live_frames (table_id VARCHAR(64) PRIMARY KEY, player1_name VARCHAR(255) NOT NULL, player2_name VARCHAR(255) NOT NULL, score1 INT NOT NULL, score2 INT NOT NULL, player1_turn BOOLEAN NOT NULL, current_break INT NOT NULL, highest_break INT NOT NULL, reds_remaining INT NOT NULL, finished BOOLEAN NOT NULL, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP);"
+            },
+            {
+                    "ALTER TABLE reports ADD COLUMN cluster_id INT NULL;",
+                    "CREATE INDEX ix_reports_cluster ON reports (cluster_id, id);",
+                    // One row per LSH bucket: the cluster of the first report that landed in it.
+                    "CREATE TABLE IF NOT EXISTS report_bands (band_key BIGINT PRIMARY KEY, cluster_id INT NOT NULL);",
+                    // Running size of every cluster, so the triage list never groups the reports table.
+                    "CREATE TABLE IF NOT EXISTS report_clusters (id INT PRIMARY KEY, size INT NOT NULL, sample_report_id INT NOT NULL, last_report_date TIMESTAMP NULL, INDEX ix_report_clusters_size (size, id));"
+            },
+            {
+                    // The score difference, kept by the database from the "a : b" score so it can be indexed.
+                    "ALTER TABLE matches ADD COLUMN margin INT AS (IFNULL(ABS(CAST(TRIM(SUBSTRING_INDEX(score, ':', 1)) AS SIGNED) - CAST(TRIM(SUBSTRING_INDEX(score, ':', -1)) AS SIGNED)), 0)) STORED NOT NULL;",
+                    // One index per sortable history column, each ending in the ID the pages are keyed by.
+                    "CREATE INDEX ix_matches_player1_id ON matches (player1_name, id);",
+                    "CREATE INDEX ix_matches_player2_id ON matches (player2_name, id);",
+                    "CREATE INDEX ix_matches_margin_id ON matches (margin, id);"
+            },
+            {
+                    // Administrators may triage every user's bug reports; granted directly in the database.
+                    "ALTER TABLE users ADD COLUMN is_admin BOOLEAN NOT NULL DEFAULT FALSE;"
+            },
+            {
+                    // The history sorts player names in the binary collation, which the case-insensitive
+                    // indexes cannot serve; those stay for the player prefix filter.
+                    "CREATE INDEX ix_matches_player1_bin_id ON matches ((player1_name COLLATE utf8mb4_bin), id);",
+                    "CREATE INDEX ix_matches_player2_bin_id ON matches ((player2_name COLLATE utf8mb4_bin), id);"
+            }
+    };
+
+    /** Maximum number of shot rows sent in one multi-row INSERT statement or JDBC batch. */
+    private static final int SHOT_INSERT_CHUNK = 500;
+
+    private static final String INSERT_MATCH_SQL = "INSERT INTO matches(player1_name, player2_name, score, match_date, idempotency_key) VALUES(?,?,?,?,?)";
+
+    /** Maximum number of match IDs in one DELETE statement when removing an exported season. */
+    private static final int ARCHIVE_DELETE_CHUNK = 500;
+
+    /** MySQL error codes for objects that already exist, raised when re-running a partially applied migration. */
+    private static final int ER_TABLE_EXISTS = 1050;
+    private static final int ER_DUP_FIELDNAME = 1060;
+    private static final int ER_DUP_KEYNAME = 1061;
+
+    /** The schema version this build expects; equal to the number of migrations. */
+    private static final int SCHEMA_VERSION = SCHEMA_MIGRATIONS.length;
+
     private Connection conn;
 
+    /** Set once {@link #initialize()} has brought the schema up to {@link #SCHEMA_VERSION}. */
+    private volatile boolean initialized = false;
+
     private int currentUserId = -1;
 
+    private volatile boolean currentUserAdmin = false;
+
+    private final List<MatchChangeListener> matchChangeListeners = new CopyOnWriteArrayList<>();
+
     /**
      * Private constructor to enforce the singleton pattern.
      */
     private DatabaseManager() {}
 
     /**
-     * Sets the ID of the currently logged-in user.
+     * Sets the ID of the currently logged-in user. The user is not an administrator
+     * until {@link #validateUser} says so.
      * @param userId The user's ID from the database.
      */
     public void setCurrentUserId(int userId) {
         this.currentUserId = userId;
+        this.currentUserAdmin = false;
     }
 
     /**
@@ -48,14 +150,55 @@ public class DatabaseManager {
         return this.currentUserId;
     }
 
+    /**
+     * Checks whether the currently logged-in user may triage the bug reports of all users.
+     * @return {@code true} if a user is logged in and is an administrator.
+     */
+    public boolean isCurrentUserAdmin() {
+        return this.currentUserAdmin;
+    }
+
+    /**
+     * Registers a listener to be notified whenever a match is stored or deleted.
+     * @param listener The listener to add.
+     */
+    public void addMatchChangeListener(MatchChangeListener listener) {
+        matchChangeListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a previously added match change listener.
+     * @param listener The listener to remove.
+     */
+    public void removeMatchChangeListener(MatchChangeListener listener) {
+        matchChangeListeners.remove(listener);
+    }
+
+    /**
+     * Notifies all listeners that a match has been stored.
+     *
+     * @param matchId The ID of the new match.
+     * @param player1 The name of the first player.
+     * @param player2 The name of the second player.
+     * @param score   The stored score string.
+     * @param date    The match date.
+     */
+    private void fireMatchSaved(int matchId, String player1, String player2, String score, LocalDate date) {
+        if (matchChangeListeners.isEmpty()) return;
+        MatchData match = new MatchData(matchId, player1, player2, score, date);
+        for (MatchChangeListener listener : matchChangeListeners) {
+            listener.matchSaved(match);
+        }
+    }
+
     /**
      * Establishes a connection to the MySQL database.
      * If a connection is already open, this method does nothing.
      */
-    public final void connect() {
+    public final synchronized void connect() {
         try {
             if (conn == null || conn.isClosed()) {
-                conn = DriverManager.getConnection(DATABASE_URL, USER, PASSWORD);
+                conn = openConnection();
             }
         } catch (SQLException e) {
             System.err.println("Error connecting to the database: " + e.getMessage());
@@ -63,10 +206,35 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Opens a new connection with the application's connection settings, separate from
+     * the shared one, for tools that run their own long transactions, such as bulk loaders.
+     *
+     * @return The new connection; the caller must close it.
+     * @throws SQLException if the database cannot be reached.
+     */
+    public Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(DATABASE_URL, USER, PASSWORD);
+    }
+
+    /**
+     * Checks whether the database can be reached, connecting first if needed.
+     *
+     * @return {@code true} if a connection is open.
+     */
+    public synchronized boolean isConnected() {
+        connect();
+        try {
+            return conn != null && conn.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
     /**
      * Closes the active database connection.
      */
-    public void disconnect() {
+    public synchronized void disconnect() {
         try {
             if (conn != null && !conn.isClosed()) {
                 conn.close();
@@ -77,36 +245,92 @@ public class DatabaseManager {
     }
 
     /**
-     * Initializes the database schema. It creates the necessary tables (users,
-     * matches, breaks, reports) if they do not already exist.
+     * Initializes the database schema. The stored schema version is checked first,
+     * so an already up-to-date database costs a single query instead of re-running
+     * the DDL. Otherwise every pending migration in {@link #SCHEMA_MIGRATIONS} is
+     * applied in order and the new version is recorded.
+     * <p>
+     * This method is synchronized with {@link #connect()}, so callers arriving while
+     * the schema is being initialized on a background thread simply wait for it.
+     * </p>
      *
      * @throws RuntimeException if the database connection cannot be established or
      * if table creation fails.
      */
-    public void initialize() {
+    public synchronized void initialize() {
         connect();
         if (conn == null) {
             throw new RuntimeException("Fatal Error: Could not establish a database connection.");
         }
 
         try (Statement stmt = conn.createStatement()) {
-            String createUserTable = "CREATE TABLE IF NOT EXISTS users (id INT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(255) NOT NULL UNIQUE, password VARCHAR(255) NOT NULL);";
-            stmt.execute(createUserTable);
-
-            String createMatchTable = "CREATE TABLE IF NOT EXISTS matches (id INT AUTO_INCREMENT PRIMARY KEY, player1_name VARCHAR(255) NOT NULL, player2_name VARCHAR(255) NOT NULL, score VARCHAR(50), match_date DATE NOT NULL);";
-            stmt.execute(createMatchTable);
+            int storedVersion = readSchemaVersion(stmt);
+            if (storedVersion >= SCHEMA_VERSION) {
+                initialized = true;
+                return;
+            }
 
-            String createBreaksTable = "CREATE TABLE IF NOT EXISTS breaks (id INT AUTO_INCREMENT PRIMARY KEY, user_id INT, player_name VARCHAR(255), break_score INT NOT NULL, match_id INT, FOREIGN KEY (match_id) REFERENCES matches(id) ON DELETE CASCADE, FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE SET NULL);";
-            stmt.execute(createBreaksTable);
+            for (int version = storedVersion + 1; version <= SCHEMA_VERSION; version++) {
+                for (String ddl : SCHEMA_MIGRATIONS[version - 1]) {
+                    executeMigration(stmt, ddl);
+                }
+            }
 
-            String createReportsTable = "CREATE TABLE IF NOT EXISTS reports (id INT AUTO_INCREMENT PRIMARY KEY, user_id INT, report_message TEXT NOT NULL, report_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE);";
-            stmt.execute(createReportsTable);
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (id INT PRIMARY KEY, version INT NOT NULL);");
+            // Never move the version backwards when an older build initializes a newer schema.
+            stmt.execute("INSERT INTO schema_version (id, version) VALUES (1, " + SCHEMA_VERSION + ") "
+                    + "ON DUPLICATE KEY UPDATE version = GREATEST(version, VALUES(version));");
+            initialized = true;
 
         } catch (SQLException e) {
             throw new RuntimeException("Fatal Error: Table initialization failed. Error: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Checks whether {@link #initialize()} has completed, so the schema this build
+     * expects is in place. Until then, writes that depend on newer columns must wait.
+     *
+     * @return {@code true} once the schema has been initialized.
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * Executes a single migration statement. Errors caused by the object already existing
+     * are ignored, so a migration interrupted halfway can simply be run again.
+     *
+     * @param stmt An open statement on the current connection.
+     * @param ddl  The DDL statement to execute.
+     * @throws SQLException if the statement fails for any other reason.
+     */
+    private void executeMigration(Statement stmt, String ddl) throws SQLException {
+        try {
+            stmt.execute(ddl);
+        } catch (SQLException e) {
+            int code = e.getErrorCode();
+            if (code != ER_TABLE_EXISTS && code != ER_DUP_FIELDNAME && code != ER_DUP_KEYNAME) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Reads the schema version recorded by a previous {@link #initialize()} call.
+     *
+     * @param stmt An open statement on the current connection.
+     * @return The stored schema version, or 0 if none has been recorded yet.
+     */
+    private int readSchemaVersion(Statement stmt) {
+        try (ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version WHERE id = 1")) {
+            return rs.next() ? rs.getInt("version") : 0;
+        } catch (SQLException e) {
+            // The version table does not exist yet on a fresh or pre-versioning database.
+            return 0;
+        }
+    }
+
     /**
      * Saves the result of a completed match to the database.
      *
@@ -116,7 +340,7 @@ public class DatabaseManager {
      * @param score2 The final score of the second player.
      * @return The auto-generated ID of the new match record, or -1 on failure.
      */
-    public int saveMatchResult(String player1, String player2, int score1, int score2) {
+    public synchronized int saveMatchResult(String player1, String player2, int score1, int score2) {
         connect();
         if (conn == null) return -1;
 
@@ -131,7 +355,9 @@ public class DatabaseManager {
             if (rowsAffected > 0) {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
-                        return generatedKeys.getInt(1);
+                        int matchId = generatedKeys.getInt(1);
+                        fireMatchSaved(matchId, player1, player2, score1 + " : " + score2, LocalDate.now());
+                        return matchId;
                     }
                 }
             }
@@ -141,6 +367,256 @@ public class DatabaseManager {
         return -1;
     }
 
+    /**
+     * Saves a finished match together with its highest break and all of its shots in a
+     * single transaction.
+     * The result's idempotency key makes this safe to call more than once for the same
+     * result: if it has already been stored, the existing match ID is returned.
+     *
+     * @param result The finished match result.
+     * @return The ID of the stored match record, or -1 on failure.
+     */
+    public synchronized int saveMatchResult(MatchResult result) {
+        connect();
+        if (conn == null) return -1;
+
+        try {
+            Integer existingId = getMatchIdByKey(result.getIdempotencyKey());
+            if (existingId != null) return existingId;
+
+            conn.setAutoCommit(false);
+            try {
+                int matchId = insertMatch(result);
+                if (result.getHighestBreak() > 0 && result.getHighestBreakPlayer() != null) {
+                    insertHighestBreak(matchId, result.getHighestBreakPlayer(), result.getHighestBreak());
+                }
+                insertShots(matchId, result);
+                conn.commit();
+                fireMatchSaved(matchId, result.getPlayer1(), result.getPlayer2(), result.getScore1() + " : " + result.getScore2(), result.getDate());
+                return matchId;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving match result: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Saves many finished matches in a single transaction, for bulk imports such as
+     * rescoring archived score sheets. Results whose idempotency key is already stored,
+     * or that repeat a key earlier in the batch, are skipped, so re-running an import
+     * does not duplicate matches. Matches, breaks and shots are each sent as one JDBC
+     * batch, and the players of the breaks are looked up with a single query.
+     *
+     * @param results The finished match results.
+     * @return The number of newly stored matches, or -1 if the batch failed and nothing was stored.
+     */
+    public synchronized int saveMatchResults(List<MatchResult> results) {
+        connect();
+        if (conn == null) return -1;
+        if (results.isEmpty()) return 0;
+
+        try {
+            Set<String> seenKeys = getStoredKeys(results);
+            List<MatchResult> stored = new ArrayList<>(results.size());
+            for (MatchResult result : results) {
+                if (seenKeys.add(result.getIdempotencyKey())) stored.add(result);
+            }
+            if (stored.isEmpty()) return 0;
+
+            int[] storedIds;
+            conn.setAutoCommit(false);
+            try {
+                storedIds = insertMatches(stored);
+                insertHighestBreaks(storedIds, stored);
+                insertShots(storedIds, stored);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            for (int i = 0; i < stored.size(); i++) {
+                MatchResult result = stored.get(i);
+                fireMatchSaved(storedIds[i], result.getPlayer1(), result.getPlayer2(), result.getScore1() + " : " + result.getScore2(), result.getDate());
+            }
+            return stored.size();
+        } catch (SQLException e) {
+            System.err.println("Error saving match results: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Finds which of the given results are already stored, with a single query.
+     *
+     * @param results The match results to look up.
+     * @return The idempotency keys that already exist in the database.
+     * @throws SQLException if the query fails.
+     */
+    private Set<String> getStoredKeys(List<MatchResult> results) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT idempotency_key FROM matches WHERE idempotency_key IN (");
+        for (int i = 0; i < results.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+        Set<String> keys = new HashSet<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < results.size(); i++) {
+                pstmt.setString(i + 1, results.get(i).getIdempotencyKey());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(rs.getString(1));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Looks up a match previously stored with the given idempotency key.
+     *
+     * @param idempotencyKey The key of the match result.
+     * @return The match ID, or {@code null} if no match with this key exists.
+     * @throws SQLException if the query fails.
+     */
+    private Integer getMatchIdByKey(String idempotencyKey) throws SQLException {
+        String sql = "SELECT id FROM matches WHERE idempotency_key = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, idempotencyKey);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt("id") : null;
+            }
+        }
+    }
+
+    /**
+     * Inserts the match row of a result.
+     *
+     * @param result The finished match result.
+     * @return The auto-generated ID of the new match record.
+     * @throws SQLException if the insert fails.
+     */
+    private int insertMatch(MatchResult result) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_MATCH_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindMatch(pstmt, result);
+            pstmt.executeUpdate();
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    return generatedKeys.getInt(1);
+                }
+            }
+        }
+        throw new SQLException("No ID was generated for the inserted match.");
+    }
+
+    /**
+     * Inserts the match rows of many results as one batch.
+     *
+     * @param results The finished match results.
+     * @return The auto-generated IDs of the new match records, in the order of the results.
+     * @throws SQLException if the insert fails.
+     */
+    private int[] insertMatches(List<MatchResult> results) throws SQLException {
+        int[] ids = new int[results.size()];
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_MATCH_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (MatchResult result : results) {
+                bindMatch(pstmt, result);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length; i++) {
+                    if (!generatedKeys.next()) throw new SQLException("No ID was generated for an inserted match.");
+                    ids[i] = generatedKeys.getInt(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void bindMatch(PreparedStatement pstmt, MatchResult result) throws SQLException {
+        pstmt.setString(1, result.getPlayer1());
+        pstmt.setString(2, result.getPlayer2());
+        pstmt.setString(3, result.getScore1() + " : " + result.getScore2());
+        pstmt.setDate(4, Date.valueOf(result.getDate()));
+        pstmt.setString(5, result.getIdempotencyKey());
+    }
+
+    /**
+     * Inserts all shots of a result with multi-row INSERT statements, so a whole frame
+     * normally costs a single round trip regardless of how many shots were played.
+     *
+     * @param matchId The ID of the match the shots belong to.
+     * @param result  The finished match result holding the packed shots.
+     * @throws SQLException if the insert fails.
+     */
+    private void insertShots(int matchId, MatchResult result) throws SQLException {
+        int[] shots = result.getShots();
+        for (int start = 0; start < shots.length; start += SHOT_INSERT_CHUNK) {
+            int count = Math.min(SHOT_INSERT_CHUNK, shots.length - start);
+            StringBuilder sql = new StringBuilder("INSERT INTO shots(match_id, shot_no, player_name, ball, outcome, points) VALUES ");
+            for (int i = 0; i < count; i++) {
+                sql.append(i == 0 ? "(?,?,?,?,?,?)" : ",(?,?,?,?,?,?)");
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int param = 1;
+                for (int i = start; i < start + count; i++) {
+                    int shot = shots[i];
+                    pstmt.setInt(param++, matchId);
+                    pstmt.setInt(param++, i);
+                    pstmt.setString(param++, ShotBuffer.player(shot) == 1 ? result.getPlayer1() : result.getPlayer2());
+                    pstmt.setInt(param++, ShotBuffer.ball(shot));
+                    pstmt.setInt(param++, ShotBuffer.outcome(shot));
+                    pstmt.setInt(param++, ShotBuffer.points(shot));
+                }
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Inserts all shots of many results as one batch, executed in chunks of
+     * {@value #SHOT_INSERT_CHUNK} shots.
+     *
+     * @param matchIds The IDs of the matches the shots belong to, in the order of the results.
+     * @param results  The finished match results holding the packed shots.
+     * @throws SQLException if the insert fails.
+     */
+    private void insertShots(int[] matchIds, List<MatchResult> results) throws SQLException {
+        String sql = "INSERT INTO shots(match_id, shot_no, player_name, ball, outcome, points) VALUES (?,?,?,?,?,?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int pending = 0;
+            for (int m = 0; m < results.size(); m++) {
+                MatchResult result = results.get(m);
+                int[] shots = result.getShots();
+                for (int i = 0; i < shots.length; i++) {
+                    int shot = shots[i];
+                    pstmt.setInt(1, matchIds[m]);
+                    pstmt.setInt(2, i);
+                    pstmt.setString(3, ShotBuffer.player(shot) == 1 ? result.getPlayer1() : result.getPlayer2());
+                    pstmt.setInt(4, ShotBuffer.ball(shot));
+                    pstmt.setInt(5, ShotBuffer.outcome(shot));
+                    pstmt.setInt(6, ShotBuffer.points(shot));
+                    pstmt.addBatch();
+                    if (++pending == SHOT_INSERT_CHUNK) {
+                        pstmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) pstmt.executeBatch();
+        }
+    }
+
     /**
      * Saves the highest break of a match, linking it to the player and the specific match.
      *
@@ -149,10 +625,28 @@ public class DatabaseManager {
      * @param breakScore The score of the highest break.
      * @return {@code true} if the break was saved successfully, {@code false} otherwise.
      */
-    public boolean saveHighestBreak(int matchId, String playerName, int breakScore) {
+    public synchronized boolean saveHighestBreak(int matchId, String playerName, int breakScore) {
         connect();
         if (conn == null) return false;
 
+        try {
+            return insertHighestBreak(matchId, playerName, breakScore);
+        } catch (SQLException e) {
+            System.err.println("Error saving highest break: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Inserts a break row for a match.
+     *
+     * @param matchId The ID of the match where the break was made.
+     * @param playerName The name of the player who made the break.
+     * @param breakScore The score of the break.
+     * @return {@code true} if a row was inserted.
+     * @throws SQLException if the insert fails.
+     */
+    private boolean insertHighestBreak(int matchId, String playerName, int breakScore) throws SQLException {
         Integer userId = getUserIdByName(playerName);
 
         String sql = "INSERT INTO breaks(user_id, player_name, break_score, match_id) VALUES(?,?,?,?)";
@@ -166,27 +660,119 @@ public class DatabaseManager {
             pstmt.setInt(3, breakScore);
             pstmt.setInt(4, matchId);
             return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error saving highest break: " + e.getMessage());
-            return false;
         }
     }
 
     /**
-     * Saves a bug report submitted by a logged-in user.
+     * Inserts the highest breaks of many results as one batch, looking up the ID of
+     * every player who made one with a single query.
+     *
+     * @param matchIds The IDs of the matches, in the order of the results.
+     * @param results  The finished match results.
+     * @throws SQLException if the insert fails.
+     */
+    private void insertHighestBreaks(int[] matchIds, List<MatchResult> results) throws SQLException {
+        Set<String> players = new HashSet<>();
+        for (MatchResult result : results) {
+            if (result.getHighestBreak() > 0 && result.getHighestBreakPlayer() != null) players.add(result.getHighestBreakPlayer());
+        }
+        if (players.isEmpty()) return;
+        Map<String, Integer> userIds = getUserIdsByName(players);
+
+        String sql = "INSERT INTO breaks(user_id, player_name, break_score, match_id) VALUES(?,?,?,?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < results.size(); i++) {
+                MatchResult result = results.get(i);
+                String player = result.getHighestBreakPlayer();
+                if (result.getHighestBreak() <= 0 || player == null) continue;
+                Integer userId = userIds.get(player);
+                if (userId != null) {
+                    pstmt.setInt(1, userId);
+                } else {
+                    pstmt.setNull(1, Types.INTEGER);
+                }
+                pstmt.setString(2, player);
+                pstmt.setInt(3, result.getHighestBreak());
+                pstmt.setInt(4, matchIds[i]);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Looks up the IDs of many users with a single query.
+     *
+     * @param usernames The usernames to look up.
+     * @return The IDs of the users that exist, by username; lookups ignore case, like the
+     * column's collation.
+     * @throws SQLException if the query fails.
+     */
+    private Map<String, Integer> getUserIdsByName(Set<String> usernames) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT id, username FROM users WHERE username IN (");
+        for (int i = 0; i < usernames.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+        Map<String, Integer> ids = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int param = 1;
+            for (String username : usernames) {
+                pstmt.setString(param++, username);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(rs.getString("username"), rs.getInt("id"));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Saves a bug report submitted by a logged-in user and assigns it to the cluster of
+     * its near duplicates, or to a new cluster of its own. The cluster is found by looking
+     * up the report's {@link ReportSignature} band keys, so saving costs the same however
+     * many reports are stored.
      *
      * @param userId The ID of the user submitting the report.
      * @param message The content of the bug report.
      * @return {@code true} if the report was saved successfully, {@code false} otherwise.
      */
-    public boolean saveReport(int userId, String message) {
+    public synchronized boolean saveReport(int userId, String message) {
         connect();
         if (conn == null) return false;
-        String sql = "INSERT INTO reports(user_id, report_message) VALUES(?,?)";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            pstmt.setString(2, message);
-            return pstmt.executeUpdate() > 0;
+        long[] bandKeys = ReportSignature.bandKeys(message);
+        try {
+            conn.setAutoCommit(false);
+            try {
+                int clusterId = findReportCluster(bandKeys);
+                int reportId;
+                String sql = "INSERT INTO reports(user_id, report_message, cluster_id) VALUES(?,?,?)";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, userId);
+                    pstmt.setString(2, message);
+                    if (clusterId > 0) pstmt.setInt(3, clusterId);
+                    else pstmt.setNull(3, Types.INTEGER);
+                    pstmt.executeUpdate();
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        if (!keys.next()) throw new SQLException("No ID was generated for the report.");
+                        reportId = keys.getInt(1);
+                    }
+                }
+                if (clusterId <= 0) {
+                    clusterId = reportId;
+                    setReportCluster(reportId, clusterId);
+                }
+                addToReportCluster(clusterId, reportId, bandKeys);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             System.err.println("Error saving report: " + e.getMessage());
             return false;
@@ -194,30 +780,582 @@ public class DatabaseManager {
     }
 
     /**
-     * Retrieves a list of all matches from the database, ordered by date.
+     * Clusters reports stored before clustering was introduced, oldest first. Only an
+     * administrator may do this, since it reads every user's reports.
+     *
+     * @param limit The maximum number of reports to cluster in this call.
+     * @return The number of reports clustered, or -1 on error or if the current user is not an administrator.
+     */
+    public synchronized int clusterUnassignedReports(int limit) {
+        if (!requireAdmin("clustering reports")) return -1;
+        connect();
+        if (conn == null) return -1;
+        List<Integer> ids = new ArrayList<>();
+        List<String> messages = new ArrayList<>();
+        String sql = "SELECT id, report_message FROM reports WHERE cluster_id IS NULL ORDER BY id LIMIT ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt("id"));
+                    messages.add(rs.getString("report_message"));
+                }
+            }
+            if (ids.isEmpty()) return 0;
+
+            conn.setAutoCommit(false);
+            try {
+                for (int i = 0; i < ids.size(); i++) {
+                    long[] bandKeys = ReportSignature.bandKeys(messages.get(i));
+                    int clusterId = findReportCluster(bandKeys);
+                    if (clusterId <= 0) clusterId = ids.get(i);
+                    setReportCluster(ids.get(i), clusterId);
+                    addToReportCluster(clusterId, ids.get(i), bandKeys);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            return ids.size();
+        } catch (SQLException e) {
+            System.err.println("Error clustering reports: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Finds the cluster that shares the most LSH buckets with a report.
+     *
+     * @param bandKeys The band keys of the report.
+     * @return The cluster ID, or -1 if the report has no near duplicates.
+     * @throws SQLException if the query fails.
+     */
+    private int findReportCluster(long[] bandKeys) throws SQLException {
+        if (bandKeys.length == 0) return -1;
+        StringBuilder sql = new StringBuilder("SELECT cluster_id FROM report_bands WHERE band_key IN (");
+        for (int i = 0; i < bandKeys.length; i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+        int[] clusters = new int[bandKeys.length];
+        int found = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < bandKeys.length; i++) {
+                pstmt.setLong(i + 1, bandKeys[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    clusters[found++] = rs.getInt(1);
+                }
+            }
+        }
+        // The most shared buckets win; ties go to the older cluster.
+        int best = -1;
+        int bestVotes = 0;
+        for (int i = 0; i < found; i++) {
+            int votes = 0;
+            for (int j = 0; j < found; j++) {
+                if (clusters[j] == clusters[i]) votes++;
+            }
+            if (votes > bestVotes || (votes == bestVotes && clusters[i] < best)) {
+                best = clusters[i];
+                bestVotes = votes;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Records the cluster of a stored report.
+     *
+     * @param reportId  The ID of the report.
+     * @param clusterId The ID of its cluster.
+     * @throws SQLException if the update fails.
+     */
+    private void setReportCluster(int reportId, int clusterId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE reports SET cluster_id = ? WHERE id = ?")) {
+            pstmt.setInt(1, clusterId);
+            pstmt.setInt(2, reportId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Counts a report in its cluster and claims the LSH buckets it landed in that no
+     * cluster owns yet.
+     *
+     * @param clusterId The ID of the cluster.
+     * @param reportId  The ID of the report.
+     * @param bandKeys  The band keys of the report.
+     * @throws SQLException if the update fails.
+     */
+    private void addToReportCluster(int clusterId, int reportId, long[] bandKeys) throws SQLException {
+        String sql = "INSERT INTO report_clusters(id, size, sample_report_id, last_report_date) SELECT ?, 1, id, report_date FROM reports WHERE id = ? "
+                + "ON DUPLICATE KEY UPDATE size = size + 1, last_report_date = GREATEST(last_report_date, VALUES(last_report_date))";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, clusterId);
+            pstmt.setInt(2, reportId);
+            pstmt.executeUpdate();
+        }
+        if (bandKeys.length == 0) return;
+
+        StringBuilder bands = new StringBuilder("INSERT IGNORE INTO report_bands(band_key, cluster_id) VALUES ");
+        for (int i = 0; i < bandKeys.length; i++) {
+            bands.append(i == 0 ? "(?,?)" : ",(?,?)");
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(bands.toString())) {
+            for (int i = 0; i < bandKeys.length; i++) {
+                pstmt.setLong(2 * i + 1, bandKeys[i]);
+                pstmt.setInt(2 * i + 2, clusterId);
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Retrieves the largest report clusters, for triage by an administrator.
+     *
+     * @param limit The maximum number of clusters to return.
+     * @return The clusters, largest first, or an empty list on error or if the current user is not an administrator.
+     */
+    public synchronized List<ReportCluster> getReportClusters(int limit) {
+        List<ReportCluster> clusters = new ArrayList<>();
+        if (!requireAdmin("getting report clusters")) return clusters;
+        connect();
+        if (conn == null) return clusters;
+
+        String sql = "SELECT c.id, c.size, c.last_report_date, r.report_message FROM report_clusters c "
+                + "LEFT JOIN reports r ON r.id = c.sample_report_id ORDER BY c.size DESC, c.id DESC LIMIT ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp last = rs.getTimestamp("last_report_date");
+                    String sample = rs.getString("report_message");
+                    clusters.add(new ReportCluster(
+                            rs.getInt("id"),
+                            rs.getInt("size"),
+                            last == null ? null : last.toLocalDateTime(),
+                            sample == null ? "" : sample
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting report clusters: " + e.getMessage());
+        }
+        return clusters;
+    }
+
+    /**
+     * Retrieves the newest messages of a report cluster, for triage by an administrator.
+     *
+     * @param clusterId The ID of the cluster.
+     * @param limit     The maximum number of messages to return.
+     * @return The messages, newest first, or an empty list on error or if the current user is not an administrator.
+     */
+    public synchronized List<String> getClusterReports(int clusterId, int limit) {
+        List<String> messages = new ArrayList<>();
+        if (!requireAdmin("getting cluster reports")) return messages;
+        connect();
+        if (conn == null) return messages;
+
+        String sql = "SELECT report_message FROM reports WHERE cluster_id = ? ORDER BY id DESC LIMIT ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, clusterId);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    messages.add(rs.getString("report_message"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting cluster reports: " + e.getMessage());
+        }
+        return messages;
+    }
+
+    /**
+     * Checks that the current user is an administrator before reading other users' reports.
+     *
+     * @param action What is being attempted, for the error message.
+     * @return {@code true} if the current user is an administrator.
+     */
+    private boolean requireAdmin(String action) {
+        if (currentUserAdmin) return true;
+        System.err.println("Error " + action + ": only an administrator may read the reports of all users.");
+        return false;
+    }
+
+    /**
+     * Recomputes the size, sample report and last report date of report clusters from
+     * the reports they still contain, and removes the clusters left empty. Their LSH
+     * buckets are kept, so a later near duplicate starts the cluster again under its old ID.
+     *
+     * @param clusterIds The IDs of the clusters that lost reports.
+     * @throws SQLException if the update fails.
+     */
+    private void recountReportClusters(List<Integer> clusterIds) throws SQLException {
+        if (clusterIds.isEmpty()) return;
+        String in = "?" + ",?".repeat(clusterIds.size() - 1);
+        String update = "UPDATE report_clusters c JOIN (SELECT cluster_id, COUNT(*) AS size, MIN(id) AS sample_id, MAX(report_date) AS last_date "
+                + "FROM reports WHERE cluster_id IN (" + in + ") GROUP BY cluster_id) r ON r.cluster_id = c.id "
+                + "SET c.size = r.size, c.sample_report_id = r.sample_id, c.last_report_date = r.last_date";
+        String delete = "DELETE FROM report_clusters WHERE id IN (" + in + ") "
+                + "AND NOT EXISTS (SELECT 1 FROM reports r WHERE r.cluster_id = report_clusters.id)";
+        for (String sql : new String[] {update, delete}) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < clusterIds.size(); i++) {
+                    pstmt.setInt(i + 1, clusterIds.get(i));
+                }
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Stores the live state of the frame being played on a table, replacing the
+     * previous state of that table.
+     *
+     * @param tableId  The identifier of the scoring table.
+     * @param snapshot The state of the frame.
+     * @return {@code true} if the state was stored, {@code false} otherwise.
+     */
+    public synchronized boolean upsertLiveFrame(String tableId, FrameSnapshot snapshot) {
+        connect();
+        if (conn == null) return false;
+        String sql = "INSERT INTO live_frames(table_id, player1_name, player2_name, score1, score2, player1_turn, current_break, highest_break, reds_remaining, finished) "
+                + "VALUES(?,?,?,?,?,?,?,?,?,?) ON DUPLICATE KEY UPDATE player1_name = VALUES(player1_name), player2_name = VALUES(player2_name), "
+                + "score1 = VALUES(score1), score2 = VALUES(score2), player1_turn = VALUES(player1_turn), current_break = VALUES(current_break), "
+                + "highest_break = VALUES(highest_break), reds_remaining = VALUES(reds_remaining), finished = VALUES(finished)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, tableId);
+            pstmt.setString(2, snapshot.getPlayer1Name());
+            pstmt.setString(3, snapshot.getPlayer2Name());
+            pstmt.setInt(4, snapshot.getScore1());
+            pstmt.setInt(5, snapshot.getScore2());
+            pstmt.setBoolean(6, snapshot.isPlayer1Turn());
+            pstmt.setInt(7, snapshot.getCurrentBreak());
+            pstmt.setInt(8, snapshot.getHighestBreak());
+            pstmt.setInt(9, snapshot.getRedsRemaining());
+            pstmt.setBoolean(10, snapshot.isGameOver());
+            pstmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error saving live frame: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Removes the live state of a table, once it has stopped scoring.
+     *
+     * @param tableId The identifier of the scoring table.
+     * @return {@code true} if the table has no live state anymore, {@code false} on error.
+     */
+    public synchronized boolean deleteLiveFrame(String tableId) {
+        connect();
+        if (conn == null) return false;
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM live_frames WHERE table_id = ?")) {
+            pstmt.setString(1, tableId);
+            pstmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error deleting live frame: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Retrieves the shot analytics of a player over all stored frames. The query is
+     * answered from the covering index on {@code shots}, without reading table rows.
+     *
+     * @param playerName The name of the player.
+     * @return The aggregated {@link ShotStats}; empty if the player has no recorded shots.
+     */
+    public synchronized ShotStats getShotStats(String playerName) {
+        connect();
+        ShotStats stats = new ShotStats(playerName);
+        if (conn == null) return stats;
+
+        String sql = "SELECT outcome, ball, COUNT(*) AS shot_count, SUM(points) AS total_points FROM shots WHERE player_name = ? GROUP BY outcome, ball";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, playerName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    stats.add(rs.getInt("outcome"), rs.getInt("ball"), rs.getInt("shot_count"), rs.getInt("total_points"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting shot statistics: " + e.getMessage());
+        }
+        return stats;
+    }
+
+    /**
+     * Retrieves the shot analytics of every player with recorded shots, e.g. to rank
+     * players by pot success or foul rate. Like {@link #getShotStats(String)}, it is
+     * answered by scanning the covering index only.
      *
-     * @return A list of {@link MatchData} objects representing all matches.
+     * @return The aggregated {@link ShotStats} of each player, ordered by player name.
      */
-    public List<MatchData> getAllMatches() {
+    public synchronized List<ShotStats> getAllShotStats() {
+        connect();
+        List<ShotStats> allStats = new ArrayList<>();
+        if (conn == null) return allStats;
+
+        String sql = "SELECT player_name, outcome, ball, COUNT(*) AS shot_count, SUM(points) AS total_points FROM shots GROUP BY player_name, outcome, ball ORDER BY player_name";
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            ShotStats current = null;
+            while (rs.next()) {
+                String playerName = rs.getString("player_name");
+                if (current == null || !current.getPlayerName().equals(playerName)) {
+                    current = new ShotStats(playerName);
+                    allStats.add(current);
+                }
+                current.add(rs.getInt("outcome"), rs.getInt("ball"), rs.getInt("shot_count"), rs.getInt("total_points"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting shot statistics: " + e.getMessage());
+        }
+        return allStats;
+    }
+
+    /**
+     * Retrieves one page of the match history, newest first; the history is only ever
+     * read in such pages. Pages are addressed by the last match of the previous page
+     * rather than by an offset, so each page is an index range scan no matter how deep
+     * into the history it is. Archived matches are merged in by the same order.
+     *
+     * @param after The last match of the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of matches to return.
+     * @return A list of at most {@code limit} {@link MatchData} objects.
+     */
+    public List<MatchData> getMatchesPage(MatchData after, int limit) {
+        return getMatchesPage(MatchQuery.HISTORY, after, limit);
+    }
+
+    /**
+     * Retrieves one page of the match history sorted and filtered by a {@link MatchQuery}.
+     * The order and filters are applied by the database, over the index of the sort
+     * column, and pages are addressed by the last match of the previous page, as in
+     * {@link #getMatchesPage(MatchData, int)}. Archived matches are merged in by the same
+     * order and filters.
+     *
+     * @param query The order and filters.
+     * @param after The last match of the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of matches to return.
+     * @return A list of at most {@code limit} {@link MatchData} objects, or an empty list if
+     * the live matches cannot be read, so no archived page is returned without them.
+     */
+    public synchronized List<MatchData> getMatchesPage(MatchQuery query, MatchData after, int limit) {
         connect();
         List<MatchData> matches = new ArrayList<>();
         if (conn == null) return matches;
 
-        String sql = "SELECT id, player1_name, player2_name, score, match_date FROM matches ORDER BY match_date DESC, id DESC";
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(query.toSql(after != null))) {
+            query.bind(pstmt, after, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    matches.add(new MatchData(
+                            rs.getInt("id"),
+                            rs.getString("player1_name"),
+                            rs.getString("player2_name"),
+                            rs.getString("score"),
+                            rs.getDate("match_date").toLocalDate()
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            // Merging the archive alone would move the caller's cursor past live rows never read.
+            System.err.println("Error getting match page: " + e.getMessage());
+            return new ArrayList<>();
+        }
+        return MatchArchives.mergeMatches(matches, MatchArchives.INSTANCE.getMatchesPage(query, after, limit), query.comparator(), limit);
+    }
+
+    /**
+     * Reads the live matches played in a date range and their breaks, for exporting a
+     * closed season. Both are read in one {@code REPEATABLE READ} transaction, so they
+     * come from the same snapshot and a match saved or deleted in between cannot leave
+     * breaks without their match, or the other way round. Archived matches are not included.
+     *
+     * @param from    The first day of the range.
+     * @param to      The day after the range.
+     * @param matches Receives the matches, oldest first.
+     * @param breaks  Receives the breaks of the matches, in ID order.
+     * @throws SQLException if the queries fail.
+     */
+    public synchronized void readLiveSeason(LocalDate from, LocalDate to, List<MatchData> matches, List<BreakData> breaks) throws SQLException {
+        connect();
+        if (conn == null) throw new SQLException("No database connection.");
+        int isolation = conn.getTransactionIsolation();
+        conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        conn.setAutoCommit(false);
+        try {
+            readLiveMatchesBetween(from, to, matches);
+            readLiveBreaksBetween(from, to, breaks);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+            conn.setTransactionIsolation(isolation);
+        }
+    }
+
+    /**
+     * Reads the live matches played in a date range.
+     *
+     * @param from    The first day of the range.
+     * @param to      The day after the range.
+     * @param matches Receives the matches, oldest first.
+     * @throws SQLException if the query fails.
+     */
+    private void readLiveMatchesBetween(LocalDate from, LocalDate to, List<MatchData> matches) throws SQLException {
+        String sql = "SELECT id, player1_name, player2_name, score, match_date FROM matches WHERE match_date >= ? AND match_date < ? ORDER BY match_date, id";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    matches.add(new MatchData(
+                            rs.getInt("id"),
+                            rs.getString("player1_name"),
+                            rs.getString("player2_name"),
+                            rs.getString("score"),
+                            rs.getDate("match_date").toLocalDate()
+                    ));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the live breaks of the matches played in a date range.
+     *
+     * @param from   The first day of the range.
+     * @param to     The day after the range.
+     * @param breaks Receives the breaks, in ID order.
+     * @throws SQLException if the query fails.
+     */
+    private void readLiveBreaksBetween(LocalDate from, LocalDate to, List<BreakData> breaks) throws SQLException {
+        String sql = "SELECT b.id, b.match_id, b.player_name, b.break_score FROM breaks b JOIN matches m ON m.id = b.match_id "
+                + "WHERE m.match_date >= ? AND m.match_date < ? ORDER BY b.id";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
+            readBreaks(pstmt, breaks);
+        }
+    }
+
+    /**
+     * Deletes exported matches from the live tables in one transaction. Their breaks
+     * and shots are deleted with them.
+     *
+     * @param matchIds The IDs of the matches.
+     * @return The number of matches deleted.
+     * @throws SQLException if the delete fails; nothing is deleted then.
+     */
+    public synchronized int deleteArchivedMatches(List<Integer> matchIds) throws SQLException {
+        connect();
+        if (conn == null) throw new SQLException("No database connection.");
+        int deleted = 0;
+        conn.setAutoCommit(false);
+        try {
+            for (int start = 0; start < matchIds.size(); start += ARCHIVE_DELETE_CHUNK) {
+                List<Integer> chunk = matchIds.subList(start, Math.min(start + ARCHIVE_DELETE_CHUNK, matchIds.size()));
+                StringBuilder sql = new StringBuilder("DELETE FROM matches WHERE id IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    sql.append(i == 0 ? "?" : ",?");
+                }
+                sql.append(')');
+                try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setInt(i + 1, chunk.get(i));
+                    }
+                    deleted += pstmt.executeUpdate();
+                }
+            }
+            conn.commit();
+            return deleted;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Retrieves a page of stored breaks in ID order, for streaming over all breaks
+     * without loading them at once.
+     *
+     * @param afterId The ID of the last break of the previous page, or 0 for the first page.
+     * @param limit   The maximum number of breaks to return.
+     * @return The next breaks, or an empty list when there are no more or on error; the
+     * archived breaks are only merged in if the live ones could be read.
+     */
+    public synchronized List<BreakData> getBreaksPage(int afterId, int limit) {
+        connect();
+        List<BreakData> breaks = new ArrayList<>();
+        if (conn == null) return breaks;
+
+        String sql = "SELECT id, match_id, player_name, break_score FROM breaks WHERE id > ? AND match_id IS NOT NULL ORDER BY id LIMIT ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, afterId);
+            pstmt.setInt(2, limit);
+            readBreaks(pstmt, breaks);
+        } catch (SQLException e) {
+            System.err.println("Error getting break page: " + e.getMessage());
+            return new ArrayList<>();
+        }
+        return MatchArchives.mergeBreaks(breaks, MatchArchives.INSTANCE.getBreaksPage(afterId, limit), limit);
+    }
+
+    /**
+     * Retrieves all breaks made in a match.
+     *
+     * @param matchId The ID of the match.
+     * @return The breaks of the match, or an empty list on error.
+     */
+    public synchronized List<BreakData> getBreaksForMatch(int matchId) {
+        connect();
+        List<BreakData> breaks = new ArrayList<>();
+        if (conn == null) return breaks;
+
+        String sql = "SELECT id, match_id, player_name, break_score FROM breaks WHERE match_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, matchId);
+            readBreaks(pstmt, breaks);
+        } catch (SQLException e) {
+            System.err.println("Error getting breaks of match: " + e.getMessage());
+        }
+        if (breaks.isEmpty()) breaks.addAll(MatchArchives.INSTANCE.getBreaksForMatch(matchId));
+        return breaks;
+    }
+
+    /**
+     * Executes a break query and collects its rows.
+     *
+     * @param pstmt  The prepared break query.
+     * @param breaks The list receiving the breaks.
+     * @throws SQLException if the query fails.
+     */
+    private void readBreaks(PreparedStatement pstmt, List<BreakData> breaks) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                matches.add(new MatchData(
+                breaks.add(new BreakData(
                         rs.getInt("id"),
-                        rs.getString("player1_name"),
-                        rs.getString("player2_name"),
-                        rs.getString("score"),
-                        rs.getDate("match_date").toLocalDate()
+                        rs.getInt("match_id"),
+                        rs.getString("player_name"),
+                        rs.getInt("break_score")
                 ));
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting all matches: " + e.getMessage());
         }
-        return matches;
     }
 
     /**
@@ -227,7 +1365,7 @@ public class DatabaseManager {
      * @param password The plain-text password.
      * @return {@code true} if registration is successful, {@code false} otherwise.
      */
-    public boolean registerUser(String username, String password) {
+    public synchronized boolean registerUser(String username, String password) {
         connect();
         if (conn == null) return false;
         String encryptedPassword = PasswordEncrypt.hashPassword(password);
@@ -249,7 +1387,7 @@ public class DatabaseManager {
      * @param username The username to search for.
      * @return The user's ID as an {@link Integer}, or {@code null} if not found.
      */
-    public Integer getUserIdByName(String username) {
+    public synchronized Integer getUserIdByName(String username) {
         connect();
         if (conn == null) return null;
         String sql = "SELECT id FROM users WHERE username = ?";
@@ -268,25 +1406,27 @@ public class DatabaseManager {
 
     /**
      * Validates a user's credentials against the database.
-     * If validation is successful, the user's ID is stored for the session.
+     * If validation is successful, the user's ID and whether they are an administrator
+     * are stored for the session.
      *
      * @param username The username to validate.
      * @param password The plain-text password to check.
      * @return {@code true} if the credentials are correct, {@code false} otherwise.
      */
-    public boolean validateUser(String username, String password) {
+    public synchronized boolean validateUser(String username, String password) {
         connect();
         if (conn == null) return false;
         Integer userId = getUserIdByName(username);
         if(userId == null) return false;
 
-        String sql = "SELECT password FROM users WHERE id = ?";
+        String sql = "SELECT password, is_admin FROM users WHERE id = ?";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, userId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
                     if (PasswordEncrypt.checkPassword(password, rs.getString("password"))) {
                         setCurrentUserId(userId);
+                        currentUserAdmin = rs.getBoolean("is_admin");
                         return true;
                     }
                 }
@@ -297,21 +1437,82 @@ public class DatabaseManager {
         return false;
     }
 
+    /**
+     * Deletes a user. Their bug reports are removed by the foreign key cascade, and the
+     * report clusters those reports were counted in are recounted in the same
+     * transaction, so triage never shows sizes of reports that no longer exist. The
+     * database does not fire triggers for cascaded deletes, so users must be deleted
+     * through this method to keep the clusters accurate.
+     *
+     * @param userId The ID of the user to delete.
+     * @return {@code true} if the user was deleted, {@code false} if they did not exist or the delete failed.
+     */
+    public synchronized boolean deleteUser(int userId) {
+        connect();
+        if (conn == null) return false;
+        try {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> clusterIds = new ArrayList<>();
+                String sql = "SELECT DISTINCT cluster_id FROM reports WHERE user_id = ? AND cluster_id IS NOT NULL";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, userId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            clusterIds.add(rs.getInt(1));
+                        }
+                    }
+                }
+                int deleted;
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM users WHERE id = ?")) {
+                    pstmt.setInt(1, userId);
+                    deleted = pstmt.executeUpdate();
+                }
+                recountReportClusters(clusterIds);
+                conn.commit();
+                if (deleted > 0 && userId == currentUserId) setCurrentUserId(-1);
+                return deleted > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error deleting user: " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Deletes a match record from the database using its ID.
      * This also cascades to delete related break records.
      *
      * @param matchId The ID of the match to delete.
+     * @return {@code true} if the match no longer exists in the database, {@code false} if the delete failed
+     * or the match is archived, since archived seasons are read-only.
      */
-    public void deleteMatch(int matchId) {
+    public synchronized boolean deleteMatch(int matchId) {
         connect();
-        if (conn == null) return;
+        if (conn == null) return false;
+        if (MatchArchives.INSTANCE.containsMatch(matchId)) {
+            System.err.println("Error deleting match: match " + matchId + " belongs to an archived season.");
+            return false;
+        }
         String sql = "DELETE FROM matches WHERE id = ?";
+        int rowsAffected;
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, matchId);
-            pstmt.executeUpdate();
+            rowsAffected = pstmt.executeUpdate();
         } catch (SQLException e) {
             System.err.println("Error deleting match: " + e.getMessage());
+            return false;
+        }
+        if (rowsAffected > 0) {
+            for (MatchChangeListener listener : matchChangeListeners) {
+                listener.matchDeleted(matchId);
+            }
         }
+        return true;
     }
 }
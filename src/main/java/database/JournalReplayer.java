@@ -0,0 +1,175 @@
+package database;
+
+import data.AppFiles;
+import data.MatchResult;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline Match Result Replayer
+ * <p>
+ * Every finished match is first appended to the local {@link MatchJournal}, which only
+ * touches the local disk, and is then written to the database by a single background
+ * thread. The thread drains the journal in order whenever a new result arrives and
+ * periodically retries while the database is unreachable, so scoring never blocks on,
+ * or loses a result because of, the network. Results carry idempotency keys, so a
+ * record replayed twice after a crash is stored only once.
+ * </p>
+ * <p>
+ * A record the database keeps rejecting while it is reachable would otherwise block
+ * every record behind it, so after {@link #MAX_ATTEMPTS} such failures it is moved to
+ * a separate dead-letter journal, where it stays on disk for inspection.
+ * </p>
+ * <p>
+ * The journal is opened independently of the database, so results are recorded even
+ * when the application starts without a network. Nothing is replayed until
+ * {@link DatabaseManager#isInitialized()} reports a migrated schema; the periodic retry
+ * and {@link #replayNow()} pick the backlog up once it does.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class JournalReplayer {
+    /** The single instance of the JournalReplayer. */
+    public static final JournalReplayer INSTANCE = new JournalReplayer();
+
+    private static final String JOURNAL_FILE = "match-journal.bin";
+    private static final String DEAD_LETTER_FILE = "match-journal-dead.bin";
+    /** Failures with a reachable database after which the head record is dead-lettered. */
+    static final int MAX_ATTEMPTS = 5;
+    private static final long RETRY_INTERVAL_SECONDS = 15;
+    private static final int DRAIN_BATCH_SIZE = 100;
+
+    private MatchJournal journal;
+    private MatchJournal deadLetters;
+    private ScheduledExecutorService executor;
+    /** Failed attempts at the current head record; confined to the replay thread. */
+    private int headFailures = 0;
+
+    /**
+     * Private constructor to enforce the singleton pattern.
+     */
+    private JournalReplayer() {}
+
+    /**
+     * Opens the journal and starts the background replay thread. Results left over
+     * from a previous session are replayed as soon as the database is initialized.
+     */
+    public synchronized void start() {
+        if (executor != null) return;
+        try {
+            journal = new MatchJournal(AppFiles.resolve(JOURNAL_FILE));
+            deadLetters = new MatchJournal(AppFiles.resolve(DEAD_LETTER_FILE));
+        } catch (IOException e) {
+            System.err.println("Error opening the match journal: " + e.getMessage());
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "journal-replayer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::drain, 0, RETRY_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Durably records a finished match in the local journal and schedules it to be
+     * written to the database. This method never touches the network.
+     *
+     * @param result The finished match result.
+     * @return {@code true} if the result was written to the journal, {@code false} otherwise.
+     */
+    public boolean submit(MatchResult result) {
+        MatchJournal current;
+        synchronized (this) {
+            current = journal;
+        }
+        if (current == null) {
+            System.err.println("Error saving match result: the match journal is not open.");
+            return false;
+        }
+        try {
+            current.append(result);
+        } catch (IOException e) {
+            System.err.println("Error writing match result to the journal: " + e.getMessage());
+            return false;
+        }
+        replayNow();
+        return true;
+    }
+
+    /**
+     * Schedules an immediate replay of the pending journal records instead of waiting
+     * for the next periodic retry, for example right after the database has been initialized.
+     */
+    public void replayNow() {
+        ScheduledExecutorService replayExecutor;
+        synchronized (this) {
+            replayExecutor = executor;
+        }
+        if (replayExecutor != null && !replayExecutor.isShutdown()) {
+            replayExecutor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Writes pending journal records to the database in order, stopping at the first
+     * failure so that ordering is preserved. Stored records are removed from the journal.
+     * A record that fails {@link #MAX_ATTEMPTS} times while the database is reachable is
+     * moved to the dead-letter journal, so it cannot stall the records behind it.
+     * Nothing is replayed before the schema has been initialized, so records are not
+     * rejected by, and do not use up their attempts on, an unmigrated database.
+     */
+    private void drain() {
+        if (!DatabaseManager.INSTANCE.isInitialized()) return;
+        try {
+            while (!journal.isEmpty()) {
+                List<MatchResult> pending = journal.readPending(DRAIN_BATCH_SIZE);
+                int done = 0;
+                for (MatchResult result : pending) {
+                    if (DatabaseManager.INSTANCE.saveMatchResult(result) != -1) {
+                        headFailures = 0;
+                    } else if (!DatabaseManager.INSTANCE.isConnected() || ++headFailures < MAX_ATTEMPTS) {
+                        break;
+                    } else {
+                        System.err.println("Error replaying the match journal: giving up on match "
+                                + result.getIdempotencyKey() + " after " + MAX_ATTEMPTS + " attempts.");
+                        deadLetters.append(result);
+                        headFailures = 0;
+                    }
+                    done++;
+                }
+                journal.acknowledge(done);
+                if (done < pending.size() || pending.isEmpty()) return;
+            }
+        } catch (IOException e) {
+            System.err.println("Error replaying the match journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the replay thread and closes the journal. Pending records stay on disk
+     * and are replayed on the next start.
+     */
+    public synchronized void shutdown() {
+        if (executor == null) return;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+            journal.close();
+            deadLetters.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Error closing the match journal: " + e.getMessage());
+        }
+        executor = null;
+        journal = null;
+        deadLetters = null;
+    }
+}
@@ -0,0 +1,155 @@
+package database;
+
+import logika.FrameSnapshot;
+import logika.FrameStateListener;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Live Frame Publisher
+ * <p>
+ * Mirrors the frame being played on this table into the {@code live_frames} table, so
+ * a central dashboard can show the live score of every table in a venue. Shot updates
+ * are coalesced: only the newest state is kept, and it is written at most once per
+ * interval, so the write load of a table is bounded no matter how fast the scorer
+ * clicks. When the frame ends, its final state is written right away.
+ * </p>
+ * <p>
+ * Writes happen on a single background thread and never block the game. If a write
+ * fails, the state is retried after the next interval unless a newer one has arrived.
+ * When the publisher is stopped, the table's row is removed, so the dashboard does not
+ * keep showing a table that is no longer scoring.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class LiveFramePublisher implements FrameStateListener {
+
+    private final String tableId;
+    private final long intervalNanos;
+    private final BiPredicate<String, FrameSnapshot> store;
+    private final Predicate<String> clear;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "live-frame-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicReference<FrameSnapshot> pending = new AtomicReference<>();
+    private final AtomicLong updateCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    private volatile long lastWriteNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+    /** Guarded by {@code this}, so no task is submitted to the writer after it was shut down. */
+    private boolean running = true;
+
+    /**
+     * Constructs a publisher that writes to the database.
+     *
+     * @param tableId  The identifier of this scoring table.
+     * @param interval The minimum time between two writes.
+     */
+    public LiveFramePublisher(String tableId, Duration interval) {
+        this(tableId, interval, DatabaseManager.INSTANCE::upsertLiveFrame, DatabaseManager.INSTANCE::deleteLiveFrame);
+    }
+
+    /**
+     * Constructs a publisher that hands the coalesced states to the given store.
+     *
+     * @param tableId  The identifier of this scoring table.
+     * @param interval The minimum time between two writes.
+     * @param store    Stores the state of a table, returning {@code false} if it failed.
+     */
+    public LiveFramePublisher(String tableId, Duration interval, BiPredicate<String, FrameSnapshot> store) {
+        this(tableId, interval, store, table -> true);
+    }
+
+    /**
+     * Constructs a publisher that hands the coalesced states to the given store and
+     * removes the table from it when stopped.
+     *
+     * @param tableId  The identifier of this scoring table.
+     * @param interval The minimum time between two writes.
+     * @param store    Stores the state of a table, returning {@code false} if it failed.
+     * @param clear    Removes the state of a table, returning {@code false} if it failed.
+     */
+    public LiveFramePublisher(String tableId, Duration interval, BiPredicate<String, FrameSnapshot> store, Predicate<String> clear) {
+        this.tableId = tableId;
+        this.intervalNanos = interval.toNanos();
+        this.store = store;
+        this.clear = clear;
+    }
+
+    /**
+     * Keeps the newest state and schedules a write for the end of the current interval.
+     * If a write is already scheduled, it will simply pick up this newer state. The final
+     * state of a frame is written immediately.
+     *
+     * @param snapshot The new frame state.
+     */
+    @Override
+    public void frameUpdated(FrameSnapshot snapshot) {
+        updateCount.incrementAndGet();
+        boolean scheduled = pending.getAndSet(snapshot) != null;
+        synchronized (this) {
+            if (!running) return;
+            if (snapshot.isGameOver()) {
+                writer.execute(this::flush);
+            } else if (!scheduled) {
+                long delay = Math.max(0, lastWriteNanos + intervalNanos - System.nanoTime());
+                writer.schedule(this::flush, delay, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes the newest pending state, if any. Runs on the writer thread.
+     */
+    private void flush() {
+        FrameSnapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) return;
+        lastWriteNanos = System.nanoTime();
+        if (store.test(tableId, snapshot)) {
+            writeCount.incrementAndGet();
+        } else if (pending.compareAndSet(null, snapshot)) {
+            synchronized (this) {
+                if (running) writer.schedule(this::flush, intervalNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * @return The number of state updates received.
+     */
+    public long getUpdateCount() { return updateCount.get(); }
+
+    /**
+     * @return The number of states written.
+     */
+    public long getWriteCount() { return writeCount.get(); }
+
+    /**
+     * Removes this table's state and stops the writer thread. Pending states are dropped.
+     */
+    public void stop() {
+        synchronized (this) {
+            if (!running) return;
+            running = false;
+            pending.set(null);
+            writer.execute(() -> clear.test(tableId));
+            writer.shutdown();
+        }
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package database;
+
+import data.AppFiles;
+import data.BreakData;
+import data.MatchData;
+import data.MatchStore;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Season Archive Registry
+ * <p>
+ * Keeps the {@link SeasonArchive}s of closed seasons open and answers the history and
+ * statistics queries over them in the same order and form as the live tables, so
+ * {@link DatabaseManager} can merge both and callers never see where a match is stored.
+ * Archives are the files with the {@value SeasonArchive#EXTENSION} extension in the
+ * archive folder, opened on first use.
+ * </p>
+ * <p>
+ * Exported matches are deleted from the shared database, so every client must read the
+ * same archives: the folder is the one named by the {@value #DIRECTORY_PROPERTY} system
+ * property, e.g. a network share mounted on every machine. Without it, only the
+ * {@code archive} folder of the local application data directory is read, and
+ * {@link SeasonArchiveExporter} refuses to export.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class MatchArchives {
+    /** The single instance of the MatchArchives registry. */
+    public static final MatchArchives INSTANCE = new MatchArchives();
+
+    /** The system property naming the archive folder shared by all clients. */
+    public static final String DIRECTORY_PROPERTY = "snooker.archiveDir";
+
+    private static final String ARCHIVE_DIR = "archive";
+
+    private final List<SeasonArchive> archives = new CopyOnWriteArrayList<>();
+    private boolean opened = false;
+
+    /**
+     * Private constructor to enforce the singleton pattern.
+     */
+    private MatchArchives() {}
+
+    /**
+     * Resolves the folder the archives are kept in. A shared folder must already exist, so
+     * that an unmounted share is reported instead of silently replaced by an empty local
+     * folder; the local fallback is created if needed.
+     *
+     * @return The archive folder.
+     * @throws IOException if the shared folder is not available or the local one cannot be created.
+     */
+    public static Path directory() throws IOException {
+        if (isDirectoryShared()) {
+            Path dir = Path.of(System.getProperty(DIRECTORY_PROPERTY));
+            if (!Files.isDirectory(dir)) throw new IOException("The archive folder " + dir + " is not available.");
+            return dir;
+        }
+        Path dir = AppFiles.resolve(ARCHIVE_DIR);
+        Files.createDirectories(dir);
+        return dir;
+    }
+
+    /**
+     * Checks whether the archive folder is configured with {@value #DIRECTORY_PROPERTY},
+     * and is therefore the one every client reads.
+     *
+     * @return {@code true} if a shared archive folder is configured.
+     */
+    public static boolean isDirectoryShared() {
+        String dir = System.getProperty(DIRECTORY_PROPERTY);
+        return dir != null && !dir.isBlank();
+    }
+
+    /**
+     * Opens every archive in the archive folder, once. An archive that cannot be opened
+     * is reported and left out.
+     *
+     * @return The open archives.
+     */
+    private synchronized List<SeasonArchive> archives() {
+        if (opened) return archives;
+        opened = true;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory(), "*" + SeasonArchive.EXTENSION)) {
+            for (Path file : files) {
+                try {
+                    archives.add(SeasonArchive.open(file));
+                } catch (IOException e) {
+                    System.err.println("Error opening season archive " + file + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading the archive folder: " + e.getMessage());
+        }
+        return archives;
+    }
+
+    /**
+     * @return The number of archived matches.
+     */
+    public int getMatchCount() {
+        int count = 0;
+        for (SeasonArchive archive : archives()) count += archive.getMatchCount();
+        return count;
+    }
+
+    /**
+     * Retrieves a page of archived matches in history order, newest first.
+     *
+     * @param after The last match of the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of matches to return.
+     * @return The next archived matches.
+     */
+    public List<MatchData> getMatchesPage(MatchData after, int limit) {
+        return getMatchesPage(MatchQuery.HISTORY, after, limit);
+    }
+
+    /**
+     * Retrieves a page of the archived matches a query selects, in its order. Each archive
+     * is walked along its order for the sort column, from just past the previous page,
+     * skipping rows the filters reject, and the archives are merged row by row.
+     *
+     * @param query The order and filters.
+     * @param after The last match of the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of matches to return.
+     * @return The next archived matches.
+     */
+    public List<MatchData> getMatchesPage(MatchQuery query, MatchData after, int limit) {
+        List<SeasonArchive> open = List.copyOf(archives());
+        List<MatchData> page = new ArrayList<>();
+        if (open.isEmpty()) return page;
+
+        List<ArchiveCursor> cursors = new ArrayList<>(open.size());
+        for (SeasonArchive archive : open) {
+            ArchiveCursor cursor = new ArchiveCursor(archive, query, after);
+            if (cursor.skipRejected()) cursors.add(cursor);
+        }
+        while (page.size() < limit && !cursors.isEmpty()) {
+            ArchiveCursor best = cursors.get(0);
+            for (int c = 1; c < cursors.size(); c++) {
+                if (cursors.get(c).comesBefore(best)) best = cursors.get(c);
+            }
+            page.add(best.archive.match(best.row()));
+            best.position += best.step;
+            if (!best.skipRejected()) cursors.remove(best);
+        }
+        return page;
+    }
+
+    /**
+     * Retrieves a page of archived breaks in ID order.
+     *
+     * @param afterId The ID of the last break of the previous page, or 0 for the first page.
+     * @param limit   The maximum number of breaks to return.
+     * @return The next archived breaks.
+     */
+    public List<BreakData> getBreaksPage(int afterId, int limit) {
+        List<SeasonArchive> open = List.copyOf(archives());
+        List<BreakData> page = new ArrayList<>();
+        if (open.isEmpty()) return page;
+
+        int[] next = new int[open.size()];
+        for (int a = 0; a < open.size(); a++) {
+            next[a] = open.get(a).firstBreakAfter(afterId);
+        }
+        while (page.size() < limit) {
+            int best = -1;
+            for (int a = 0; a < open.size(); a++) {
+                if (next[a] >= open.get(a).getBreakCount()) continue;
+                if (best < 0 || open.get(a).breakId(next[a]) < open.get(best).breakId(next[best])) best = a;
+            }
+            if (best < 0) break;
+            page.add(open.get(best).breakAt(next[best]++));
+        }
+        return page;
+    }
+
+    /**
+     * Retrieves the archived breaks of a match.
+     *
+     * @param matchId The ID of the match.
+     * @return The breaks, empty if the match is not archived.
+     */
+    public List<BreakData> getBreaksForMatch(int matchId) {
+        List<BreakData> breaks = new ArrayList<>();
+        for (SeasonArchive archive : archives()) {
+            for (int row : archive.breakRowsOfMatch(matchId)) breaks.add(archive.breakAt(row));
+        }
+        return breaks;
+    }
+
+    /**
+     * Checks whether a match belongs to a closed season.
+     *
+     * @param matchId The ID of the match.
+     * @return {@code true} if the match is archived.
+     */
+    public boolean containsMatch(int matchId) {
+        for (SeasonArchive archive : archives()) {
+            if (archive.containsMatch(matchId)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Merges a page of live matches with a page of archived ones. A match in both, left
+     * behind by an export that stopped before deleting the live rows, is returned once.
+     * The order ends with the match ID, so both copies meet at the same place.
+     *
+     * @param live     Live matches in the order of the query.
+     * @param archived Archived matches in the order of the query.
+     * @param order    The order of the query.
+     * @param limit    The maximum number of matches to return.
+     * @return The first {@code limit} matches of both, in the order of the query.
+     */
+    static List<MatchData> mergeMatches(List<MatchData> live, List<MatchData> archived, Comparator<MatchData> order, int limit) {
+        if (archived.isEmpty()) return live;
+        List<MatchData> merged = new ArrayList<>(Math.min(limit, live.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < live.size() || j < archived.size())) {
+            if (i < live.size() && j < archived.size() && live.get(i).getId() == archived.get(j).getId()) {
+                j++;
+            } else if (j >= archived.size() || (i < live.size() && order.compare(live.get(i), archived.get(j)) < 0)) {
+                merged.add(live.get(i++));
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Merges a page of live breaks with a page of archived ones. A break in both, left
+     * behind by an interrupted export, is returned once.
+     *
+     * @param live     Live breaks in ID order.
+     * @param archived Archived breaks in ID order.
+     * @param limit    The maximum number of breaks to return.
+     * @return The first {@code limit} breaks of both, in ID order.
+     */
+    static List<BreakData> mergeBreaks(List<BreakData> live, List<BreakData> archived, int limit) {
+        if (archived.isEmpty()) return live;
+        List<BreakData> merged = new ArrayList<>(Math.min(limit, live.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < live.size() || j < archived.size())) {
+            if (i < live.size() && j < archived.size() && live.get(i).getId() == archived.get(j).getId()) {
+                j++;
+            } else if (j >= archived.size() || (i < live.size() && live.get(i).getId() < archived.get(j).getId())) {
+                merged.add(live.get(i++));
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * A position in one archive's order for a query.
+     */
+    private static final class ArchiveCursor {
+        private final SeasonArchive archive;
+        private final MatchQuery query;
+        private final int[] order;
+        private final int step;
+        /** Whether each player ordinal matches the player filter, or {@code null} without one. */
+        private final boolean[] players;
+        private final long firstDay;
+        private final long lastDay;
+        private int position;
+
+        private ArchiveCursor(SeasonArchive archive, MatchQuery query, MatchData after) {
+            this.archive = archive;
+            this.query = query;
+            this.order = archive.order(query.getSortKey());
+            this.step = query.isDescending() ? -1 : 1;
+            this.firstDay = query.getFrom() == null ? Long.MIN_VALUE : query.getFrom().toEpochDay();
+            this.lastDay = query.getTo() == null ? Long.MAX_VALUE : query.getTo().toEpochDay();
+            if (query.getPlayerPrefix() == null) {
+                players = null;
+            } else {
+                players = new boolean[archive.getPlayerCount()];
+                for (int ordinal = 0; ordinal < players.length; ordinal++) {
+                    players[ordinal] = query.startsWith(archive.playerName(ordinal));
+                }
+            }
+
+            // The number of rows that come before the previous page's last match in ascending order.
+            int low = 0;
+            int high = archive.getMatchCount();
+            if (after != null) {
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (compareToMatch(rowAt(mid), after) < 0) low = mid + 1;
+                    else high = mid;
+                }
+            }
+            if (query.isDescending()) {
+                position = (after == null ? archive.getMatchCount() : low) - 1;
+                if (order == null && lastDay < Long.MAX_VALUE) {
+                    position = Math.min(position, archive.rowsBefore(lastDay + 1, Integer.MIN_VALUE) - 1);
+                }
+            } else {
+                // The previous page's last match itself may be archived here; start past it.
+                position = after == null ? 0 : low + (low < archive.getMatchCount() && archive.matchId(rowAt(low)) == after.getId() ? 1 : 0);
+                if (order == null && firstDay > Long.MIN_VALUE) {
+                    position = Math.max(position, archive.rowsBefore(firstDay, Integer.MIN_VALUE));
+                }
+            }
+        }
+
+        private int rowAt(int index) {
+            return order == null ? index : order[index];
+        }
+
+        private int row() {
+            return rowAt(position);
+        }
+
+        /**
+         * Moves past the rows the filters reject.
+         *
+         * @return {@code false} if the archive has no more matching rows.
+         */
+        private boolean skipRejected() {
+            for (; position >= 0 && position < archive.getMatchCount(); position += step) {
+                int row = row();
+                int day = archive.epochDay(row);
+                if (day < firstDay || day > lastDay) {
+                    // In date order, every further row is out of range too.
+                    if (order == null && (step < 0 ? day < firstDay : day > lastDay)) return false;
+                    continue;
+                }
+                if (players != null && !players[archive.player1(row)] && !players[archive.player2(row)]) continue;
+                if (archive.margin(row) < query.getMinMargin()) continue;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Compares a row to a match in ascending order of the sort column, then of ID.
+         */
+        private int compareToMatch(int row, MatchData match) {
+            int result = switch (query.getSortKey()) {
+                case DATE -> Long.compare(archive.epochDay(row), match.getDate().toEpochDay());
+                case PLAYER1 -> MatchStore.NAME_ORDER.compare(archive.playerName(archive.player1(row)), match.getPlayer1());
+                case PLAYER2 -> MatchStore.NAME_ORDER.compare(archive.playerName(archive.player2(row)), match.getPlayer2());
+                case MARGIN -> Integer.compare(archive.margin(row), MatchQuery.margin(match));
+            };
+            return result != 0 ? result : Integer.compare(archive.matchId(row), match.getId());
+        }
+
+        /**
+         * @return {@code true} if this cursor's row comes before the other cursor's row in the query's order.
+         */
+        private boolean comesBefore(ArchiveCursor other) {
+            SeasonArchive a = archive;
+            SeasonArchive b = other.archive;
+            int rowA = row();
+            int rowB = other.row();
+            int result = switch (query.getSortKey()) {
+                case DATE -> Integer.compare(a.epochDay(rowA), b.epochDay(rowB));
+                case PLAYER1 -> MatchStore.NAME_ORDER.compare(a.playerName(a.player1(rowA)), b.playerName(b.player1(rowB)));
+                case PLAYER2 -> MatchStore.NAME_ORDER.compare(a.playerName(a.player2(rowA)), b.playerName(b.player2(rowB)));
+                case MARGIN -> Integer.compare(a.margin(rowA), b.margin(rowB));
+            };
+            if (result == 0) result = Integer.compare(a.matchId(rowA), b.matchId(rowB));
+            return query.isDescending() ? result > 0 : result < 0;
+        }
+    }
+
+    /**
+     * Closes all archives.
+     */
+    public synchronized void close() {
+        for (SeasonArchive archive : archives) archive.close();
+        archives.clear();
+        opened = false;
+    }
+}
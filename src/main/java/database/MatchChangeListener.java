@@ -0,0 +1,32 @@
+package database;
+
+import data.MatchData;
+
+/**
+ * Match Change Listener
+ * <p>
+ * Receives notifications from the {@link DatabaseManager} whenever a match is stored or
+ * deleted, whichever part of the application caused the change. Listeners are called on
+ * the thread that performed the change, so UI listeners must hand the work over to the
+ * JavaFX Application Thread themselves.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public interface MatchChangeListener {
+
+    /**
+     * Called after a new match has been stored.
+     *
+     * @param match The stored match.
+     */
+    void matchSaved(MatchData match);
+
+    /**
+     * Called after a match has been deleted.
+     *
+     * @param matchId The ID of the deleted match.
+     */
+    void matchDeleted(int matchId);
+}
@@ -0,0 +1,348 @@
+package database;
+
+import data.MatchResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Local Write-Ahead Match Journal
+ * <p>
+ * An append-only file of finished match results that have not yet been written to
+ * the database. Each record is stored as {@code [length][crc32][payload]}, so a record
+ * torn by a crash is detected and discarded when the journal is reopened. Intact
+ * records that cannot be decoded are set aside in a separate file at the same time.
+ * </p>
+ * <p>
+ * Appends are made durable with group commit: a caller only returns once an
+ * {@code fsync} covering its record has completed, but concurrent callers share a
+ * single {@code fsync} instead of issuing one each.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class MatchJournal implements Closeable {
+
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final byte RECORD_FORMAT = 2;
+    /** The record format written before shots were journaled; read back with no shots. */
+    private static final byte RECORD_FORMAT_NO_SHOTS = 1;
+
+    private final Path file;
+    private final Object syncLock = new Object();
+    private FileChannel channel;
+
+    /** Number of records appended since the journal was opened. Guarded by {@code this}. */
+    private long appendedCount = 0;
+    /** Number of records already contained in the last compacted, synced file. Guarded by {@code this}. */
+    private long compactedCount = 0;
+    /** Number of appended records known to be on disk. Guarded by {@code syncLock}. */
+    private long syncedCount = 0;
+
+    /**
+     * Opens the journal, creating the file if it does not exist. A torn record at the
+     * end of the file, left behind by a crash during an append, is truncated away.
+     *
+     * @param file The journal file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public MatchJournal(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long validLength = scan(null, Integer.MAX_VALUE);
+        if (validLength < channel.size()) {
+            System.err.println("Match journal: discarding torn record at offset " + validLength);
+            channel.truncate(validLength);
+            channel.force(true);
+        }
+        setAsideUndecodable(validLength);
+        channel.position(channel.size());
+    }
+
+    /**
+     * Appends a match result to the journal and waits until it is durable on disk.
+     *
+     * @param result The result to append.
+     * @throws IOException if the record cannot be written or synced.
+     */
+    public void append(MatchResult result) throws IOException {
+        ByteBuffer record = encode(result);
+        long sequence;
+        synchronized (this) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            sequence = ++appendedCount;
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Blocks until the record with the given sequence number has been synced. Whichever
+     * caller gets the lock first syncs everything appended so far, so callers that were
+     * waiting behind it usually find their record already durable.
+     *
+     * @param sequence The sequence number returned for the appended record.
+     * @throws IOException if the sync fails.
+     */
+    private void awaitDurable(long sequence) throws IOException {
+        synchronized (syncLock) {
+            if (syncedCount >= sequence) return;
+            long target;
+            FileChannel current;
+            synchronized (this) {
+                target = appendedCount;
+                current = channel;
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // The journal was compacted in the meantime, and the rewritten file was synced as a whole.
+                synchronized (this) {
+                    if (compactedCount < target) throw e;
+                }
+            }
+            syncedCount = target;
+        }
+    }
+
+    /**
+     * Reads up to {@code limit} of the oldest records still in the journal, in the order they were appended.
+     *
+     * @param limit The maximum number of records to read.
+     * @return The pending match results.
+     * @throws IOException if the journal cannot be read.
+     */
+    public synchronized List<MatchResult> readPending(int limit) throws IOException {
+        List<MatchResult> results = new ArrayList<>();
+        scan(results, limit);
+        return results;
+    }
+
+    /**
+     * Checks whether the journal has any pending records.
+     *
+     * @return {@code true} if the journal is empty.
+     * @throws IOException if the journal size cannot be read.
+     */
+    public synchronized boolean isEmpty() throws IOException {
+        return channel.size() == 0;
+    }
+
+    /**
+     * Removes the oldest {@code count} records once they have been stored in the database.
+     * The remaining records are copied to a temporary file which atomically replaces the journal.
+     *
+     * @param count The number of records, from the start of the journal, to remove.
+     * @throws IOException if the journal cannot be rewritten.
+     */
+    public synchronized void acknowledge(int count) throws IOException {
+        if (count <= 0) return;
+        long keepFrom = scan(null, count);
+        long size = channel.size();
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            transfer(keepFrom, size, out);
+            out.force(true);
+        }
+        channel.close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        compactedCount = appendedCount;
+    }
+
+    /**
+     * Closes the journal file.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Moves records that pass their checksum but cannot be decoded, such as records in a
+     * format this build does not know, to a sibling {@code .undecodable} file. Left in
+     * place, such a record would make every {@link #readPending(int)} fail and stall the
+     * records behind it for good. The raw bytes are kept so that nothing is lost.
+     *
+     * @param validLength The length of the checksummed records at the start of the file.
+     * @throws IOException if the journal cannot be read or rewritten.
+     */
+    private void setAsideUndecodable(long validLength) throws IOException {
+        List<long[]> rejected = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        long position = 0;
+        while (position < validLength) {
+            header.clear();
+            channel.read(header, position);
+            int length = header.getInt(0);
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + RECORD_HEADER_SIZE);
+            try {
+                decode(payload.array());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Match journal: setting aside undecodable record at offset " + position + ": " + e.getMessage());
+                rejected.add(new long[]{position, position + RECORD_HEADER_SIZE + length});
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        if (rejected.isEmpty()) return;
+
+        Path undecodable = file.resolveSibling(file.getFileName() + ".undecodable");
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel aside = FileChannel.open(undecodable, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+             FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long keepFrom = 0;
+            for (long[] record : rejected) {
+                transfer(keepFrom, record[0], out);
+                transfer(record[0], record[1], aside);
+                keepFrom = record[1];
+            }
+            transfer(keepFrom, validLength, out);
+            aside.force(true);
+            out.force(true);
+        }
+        channel.close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Copies a byte range of the journal file to another channel.
+     *
+     * @param from   The first offset to copy.
+     * @param to     The offset just past the last byte to copy.
+     * @param target The channel to write to.
+     * @throws IOException if the copy fails.
+     */
+    private void transfer(long from, long to, FileChannel target) throws IOException {
+        while (from < to) {
+            from += channel.transferTo(from, to - from, target);
+        }
+    }
+
+    /**
+     * Walks the records from the start of the file, validating each checksum.
+     *
+     * @param sink  A list receiving the decoded records, or {@code null} to only walk them.
+     * @param limit The maximum number of records to walk.
+     * @return The file offset just past the last valid record walked.
+     * @throws IOException if the file cannot be read.
+     */
+    private long scan(List<MatchResult> sink, int limit) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        for (int read = 0; read < limit && position + RECORD_HEADER_SIZE <= size; read++) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > size) break;
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + RECORD_HEADER_SIZE);
+            CRC32 checksum = new CRC32();
+            checksum.update(payload.array());
+            if ((int) checksum.getValue() != crc) break;
+
+            if (sink != null) {
+                sink.add(decode(payload.array()));
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    /**
+     * Serializes a match result into a framed journal record.
+     *
+     * @param result The result to encode.
+     * @return A buffer holding the header and payload, ready to be written.
+     * @throws IOException if serialization fails.
+     */
+    private static ByteBuffer encode(MatchResult result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + result.getShots().length * 4);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(RECORD_FORMAT);
+            out.writeUTF(result.getIdempotencyKey());
+            out.writeUTF(result.getPlayer1());
+            out.writeUTF(result.getPlayer2());
+            out.writeInt(result.getScore1());
+            out.writeInt(result.getScore2());
+            out.writeLong(result.getDate().toEpochDay());
+            out.writeBoolean(result.getHighestBreakPlayer() != null);
+            if (result.getHighestBreakPlayer() != null) {
+                out.writeUTF(result.getHighestBreakPlayer());
+            }
+            out.writeInt(result.getHighestBreak());
+            int[] shots = result.getShots();
+            out.writeInt(shots.length);
+            for (int shot : shots) {
+                out.writeInt(shot);
+            }
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+        record.putInt(payload.length).putInt((int) checksum.getValue()).put(payload);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Deserializes a record payload back into a match result.
+     *
+     * @param payload The checksummed payload bytes.
+     * @return The decoded match result.
+     * @throws IOException if the payload is malformed.
+     */
+    private static MatchResult decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte format = in.readByte();
+            if (format != RECORD_FORMAT && format != RECORD_FORMAT_NO_SHOTS) {
+                throw new IOException("Unsupported journal record format: " + format);
+            }
+            String key = in.readUTF();
+            String player1 = in.readUTF();
+            String player2 = in.readUTF();
+            int score1 = in.readInt();
+            int score2 = in.readInt();
+            LocalDate date = LocalDate.ofEpochDay(in.readLong());
+            String breakPlayer = in.readBoolean() ? in.readUTF() : null;
+            int highestBreak = in.readInt();
+            int shotCount = format == RECORD_FORMAT ? in.readInt() : 0;
+            if (shotCount < 0 || shotCount > in.available() / Integer.BYTES) {
+                throw new IOException("Malformed journal record: " + shotCount + " shots");
+            }
+            int[] shots = new int[shotCount];
+            for (int i = 0; i < shots.length; i++) {
+                shots[i] = in.readInt();
+            }
+            return new MatchResult(key, player1, player2, score1, score2, date, breakPlayer, highestBreak, shots);
+        }
+    }
+}
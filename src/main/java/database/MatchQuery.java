@@ -0,0 +1,250 @@
+package database;
+
+import data.MatchData;
+import data.MatchStatistics;
+import data.MatchStore;
+import data.MatchStore.SortKey;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Match History Query
+ * <p>
+ * Describes the order and the filters of a view of the match history and turns them into
+ * SQL, so sorting and filtering are done by the database over its indexes instead of in
+ * memory over the whole history. Every sort column has an index ending in the match ID,
+ * and pages are addressed by the last row of the previous page, so every page is an
+ * index range scan however deep into the history it is.
+ * </p>
+ * <p>
+ * Queries are immutable; each {@code with} method returns a changed copy. The same
+ * order and filters are available as a {@link #comparator()} and a
+ * {@link #matches(MatchData)} test, for merging in archived matches and for placing a
+ * match saved elsewhere into a table that is already loaded.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public final class MatchQuery {
+
+    /** The plain history: newest date first, then newest match first, unfiltered. */
+    public static final MatchQuery HISTORY = new MatchQuery(SortKey.DATE, true, null, null, null, 0);
+
+    private static final String COLUMNS = "SELECT id, player1_name, player2_name, score, match_date FROM matches";
+
+    private final SortKey sortKey;
+    private final boolean descending;
+    private final String playerPrefix;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final int minMargin;
+
+    private MatchQuery(SortKey sortKey, boolean descending, String playerPrefix, LocalDate from, LocalDate to, int minMargin) {
+        this.sortKey = sortKey;
+        this.descending = descending;
+        this.playerPrefix = playerPrefix;
+        this.from = from;
+        this.to = to;
+        this.minMargin = minMargin;
+    }
+
+    /**
+     * @param key        The column to sort by.
+     * @param descending Whether to sort from the largest value.
+     * @return A copy of this query with the given order.
+     */
+    public MatchQuery withSort(SortKey key, boolean descending) {
+        return new MatchQuery(Objects.requireNonNull(key), descending, playerPrefix, from, to, minMargin);
+    }
+
+    /**
+     * @param prefix The beginning of the name of either player, ignoring case; blank for all players.
+     * @return A copy of this query filtered by player.
+     */
+    public MatchQuery withPlayer(String prefix) {
+        String player = prefix == null || prefix.isBlank() ? null : prefix.strip();
+        return new MatchQuery(sortKey, descending, player, from, to, minMargin);
+    }
+
+    /**
+     * @param first The first day, inclusive, or {@code null} for no lower bound.
+     * @param last  The last day, inclusive, or {@code null} for no upper bound.
+     * @return A copy of this query filtered by date.
+     */
+    public MatchQuery withDates(LocalDate first, LocalDate last) {
+        return new MatchQuery(sortKey, descending, playerPrefix, first, last, minMargin);
+    }
+
+    /**
+     * @param margin The smallest difference between the two scores; 0 for all matches.
+     * @return A copy of this query filtered by margin.
+     */
+    public MatchQuery withMinMargin(int margin) {
+        return new MatchQuery(sortKey, descending, playerPrefix, from, to, Math.max(0, margin));
+    }
+
+    /** @return The column the history is sorted by. */
+    public SortKey getSortKey() { return sortKey; }
+
+    /** @return Whether the history is sorted from the largest value. */
+    public boolean isDescending() { return descending; }
+
+    /** @return The player name prefix, or {@code null} if not filtered by player. */
+    public String getPlayerPrefix() { return playerPrefix; }
+
+    /** @return The first day, or {@code null}. */
+    public LocalDate getFrom() { return from; }
+
+    /** @return The last day, or {@code null}. */
+    public LocalDate getTo() { return to; }
+
+    /** @return The smallest margin; 0 if not filtered by margin. */
+    public int getMinMargin() { return minMargin; }
+
+    /**
+     * Computes the margin of a match the way the {@code margin} column does.
+     *
+     * @param match A match.
+     * @return The difference between the two scores, or 0 if the score is unreadable.
+     */
+    public static int margin(MatchData match) {
+        int[] score = MatchStatistics.parseScore(match.getScore());
+        return score == null ? 0 : Math.abs(score[0] - score[1]);
+    }
+
+    /**
+     * Tests a match against the filters, as the {@code WHERE} clause would.
+     *
+     * @param match A match.
+     * @return {@code true} if the match belongs to the view.
+     */
+    public boolean matches(MatchData match) {
+        if (playerPrefix != null && !startsWith(match.getPlayer1()) && !startsWith(match.getPlayer2())) return false;
+        if (from != null && match.getDate().isBefore(from)) return false;
+        if (to != null && match.getDate().isAfter(to)) return false;
+        return minMargin == 0 || margin(match) >= minMargin;
+    }
+
+    /**
+     * Tests whether a player name matches the player filter, ignoring case.
+     *
+     * @param name A player name.
+     * @return {@code true} if there is no player filter or the name starts with the prefix.
+     */
+    boolean startsWith(String name) {
+        return playerPrefix == null || (name != null && name.regionMatches(true, 0, playerPrefix, 0, playerPrefix.length()));
+    }
+
+    /**
+     * @return The order of the view, with the match ID breaking ties in the same direction.
+     */
+    public Comparator<MatchData> comparator() {
+        Comparator<MatchData> order = switch (sortKey) {
+            case DATE -> Comparator.comparing(MatchData::getDate);
+            case PLAYER1 -> Comparator.comparing(MatchData::getPlayer1, MatchStore.NAME_ORDER);
+            case PLAYER2 -> Comparator.comparing(MatchData::getPlayer2, MatchStore.NAME_ORDER);
+            case MARGIN -> Comparator.comparingInt(MatchQuery::margin);
+        };
+        order = order.thenComparingInt(MatchData::getId);
+        return descending ? order.reversed() : order;
+    }
+
+    /**
+     * Gets the indexed expression the view is sorted by. Player names are compared in the
+     * binary collation rather than the column's case- and accent-insensitive one, so the
+     * order is total over distinct names and the same as {@link MatchStore#NAME_ORDER}.
+     *
+     * @return The column, with its collation for player names.
+     */
+    private String sortColumn() {
+        return switch (sortKey) {
+            case DATE -> "match_date";
+            case PLAYER1 -> "player1_name COLLATE utf8mb4_bin";
+            case PLAYER2 -> "player2_name COLLATE utf8mb4_bin";
+            case MARGIN -> "margin";
+        };
+    }
+
+    /**
+     * Builds the SQL of one page.
+     *
+     * @param paged {@code true} if the page follows a previous one.
+     * @return The statement, with the parameters bound by {@link #bind}.
+     */
+    String toSql(boolean paged) {
+        List<String> conditions = new ArrayList<>();
+        if (playerPrefix != null) conditions.add("(player1_name LIKE ? OR player2_name LIKE ?)");
+        if (from != null) conditions.add("match_date >= ?");
+        if (to != null) conditions.add("match_date <= ?");
+        if (minMargin > 0) conditions.add("margin >= ?");
+        String column = sortColumn();
+        String direction = descending ? "DESC" : "ASC";
+        if (paged) {
+            String after = descending ? " < ?" : " > ?";
+            conditions.add("(" + column + after + " OR (" + column + " = ? AND id" + after + "))");
+        }
+
+        StringBuilder sql = new StringBuilder(COLUMNS);
+        if (!conditions.isEmpty()) sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        sql.append(" ORDER BY ").append(column).append(' ').append(direction)
+                .append(", id ").append(direction).append(" LIMIT ?");
+        return sql.toString();
+    }
+
+    /**
+     * Binds the parameters of {@link #toSql(boolean)}.
+     *
+     * @param pstmt The prepared statement.
+     * @param after The last match of the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of matches to return.
+     * @throws SQLException if a parameter cannot be set.
+     */
+    void bind(PreparedStatement pstmt, MatchData after, int limit) throws SQLException {
+        int param = 1;
+        if (playerPrefix != null) {
+            String pattern = escapeLike(playerPrefix) + "%";
+            pstmt.setString(param++, pattern);
+            pstmt.setString(param++, pattern);
+        }
+        if (from != null) pstmt.setDate(param++, Date.valueOf(from));
+        if (to != null) pstmt.setDate(param++, Date.valueOf(to));
+        if (minMargin > 0) pstmt.setInt(param++, minMargin);
+        if (after != null) {
+            for (int i = 0; i < 2; i++) {
+                switch (sortKey) {
+                    case DATE -> pstmt.setDate(param++, Date.valueOf(after.getDate()));
+                    case PLAYER1 -> pstmt.setString(param++, after.getPlayer1());
+                    case PLAYER2 -> pstmt.setString(param++, after.getPlayer2());
+                    case MARGIN -> pstmt.setInt(param++, margin(after));
+                }
+            }
+            pstmt.setInt(param++, after.getId());
+        }
+        pstmt.setInt(param, limit);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MatchQuery other)) return false;
+        return sortKey == other.sortKey && descending == other.descending && minMargin == other.minMargin
+                && Objects.equals(playerPrefix, other.playerPrefix) && Objects.equals(from, other.from) && Objects.equals(to, other.to);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sortKey, descending, playerPrefix, from, to, minMargin);
+    }
+}
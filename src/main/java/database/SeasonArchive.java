@@ -0,0 +1,493 @@
+package database;
+
+import data.BreakData;
+import data.MatchData;
+import data.MatchStore;
+import data.MatchStore.SortKey;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Season Archive File
+ * <p>
+ * A read-only, columnar file holding the matches and breaks of a closed season, so they
+ * no longer have to be kept in and scanned from the live tables. Every value is a
+ * little-endian {@code int} in a column of its own: match IDs, dates as epoch days,
+ * players as ordinals into a dictionary of names stored once, and both scores; and
+ * break IDs, match IDs, players and scores. Matches are sorted by date and ID, breaks
+ * by ID.
+ * </p>
+ * <pre>
+ *  0  int   magic             4  int  format version
+ *  8  int   match count      12  int  break count
+ * 16  int   name count       20  int  reserved
+ * 24  long  offset of the name offsets (name count + 1 ints into the name bytes)
+ * 32  long  offset of the name bytes, UTF-8
+ * 40  long  offset of the match columns: id, epoch day, player 1, player 2, score 1, score 2
+ * 48  long  offset of the break columns: id, match id, player (-1 if unknown), score
+ * 56  long  file size
+ * </pre>
+ * <p>
+ * The file is memory-mapped as a {@link MemorySegment} and read in place: scanning
+ * it allocates nothing per row, and objects are only created for the rows a caller
+ * actually asks for, through {@link #match(int)} and {@link #breakAt(int)}.
+ * </p>
+ * <p>
+ * Opening an archive builds two small indexes in memory, 4 bytes per row each: the
+ * match rows in ID order and the break rows in match ID order. Finding a match by ID
+ * or the breaks of a match is then a binary search instead of a scan of the columns.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public final class SeasonArchive implements Closeable {
+
+    /** The file name extension of season archives. */
+    public static final String EXTENSION = ".snka";
+
+    private static final int MAGIC = 0x534E4B41;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int MATCH_COLUMNS = 6;
+    private static final int BREAK_COLUMNS = 4;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Path file;
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final int matchCount;
+    private final int breakCount;
+    private final int nameCount;
+    private final long nameOffsets;
+    private final long nameBytes;
+    private final long matches;
+    private final long breaks;
+    private final String[] names;
+    /** The match rows in ascending ID order. */
+    private final int[] matchesById;
+    /** The break rows in ascending order of match ID, then of break ID. */
+    private final int[] breaksByMatch;
+    private Map<String, Integer> ordinals;
+    private final int[][] orders = new int[SortKey.values().length][];
+
+    private SeasonArchive(Path file, Arena arena, MemorySegment segment) throws IOException {
+        this.file = file;
+        this.arena = arena;
+        this.segment = segment;
+        if (segment.byteSize() < HEADER_SIZE || segment.get(INT, 0) != MAGIC) {
+            throw new IOException(file + " is not a season archive.");
+        }
+        if (segment.get(INT, 4) != FORMAT_VERSION) {
+            throw new IOException(file + " has the unsupported archive format " + segment.get(INT, 4) + ".");
+        }
+        if (segment.get(LONG, 56) != segment.byteSize()) {
+            throw new IOException(file + " is truncated.");
+        }
+        matchCount = segment.get(INT, 8);
+        breakCount = segment.get(INT, 12);
+        nameCount = segment.get(INT, 16);
+        nameOffsets = segment.get(LONG, 24);
+        nameBytes = segment.get(LONG, 32);
+        matches = segment.get(LONG, 40);
+        breaks = segment.get(LONG, 48);
+        names = new String[nameCount];
+        matchesById = sortRows(matchCount, this::matchId);
+        breaksByMatch = sortRows(breakCount, this::breakMatchId);
+    }
+
+    /**
+     * Sorts rows by a key, then by row. Each key is packed with its row into one
+     * {@code long}, so the sort is a primitive array sort.
+     *
+     * @param count The number of rows.
+     * @param key   The key of a row.
+     * @return The rows in ascending order of key.
+     */
+    private static int[] sortRows(int count, IntUnaryOperator key) {
+        long[] packed = new long[count];
+        for (int row = 0; row < count; row++) {
+            packed[row] = (long) key.applyAsInt(row) << 32 | row;
+        }
+        Arrays.sort(packed);
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) rows[i] = (int) packed[i];
+        return rows;
+    }
+
+    /**
+     * Opens and maps an archive file.
+     *
+     * @param file The archive file.
+     * @return The open archive.
+     * @throws IOException if the file cannot be mapped or is not a valid archive.
+     */
+    public static SeasonArchive open(Path file) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return new SeasonArchive(file, arena, segment);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /** @return The archive file. */
+    public Path getFile() { return file; }
+
+    /** @return The number of archived matches. */
+    public int getMatchCount() { return matchCount; }
+
+    /** @return The number of archived breaks. */
+    public int getBreakCount() { return breakCount; }
+
+    private int matchColumn(int column, int row) {
+        return segment.get(INT, matches + ((long) column * matchCount + row) * 4);
+    }
+
+    private int breakColumn(int column, int row) {
+        return segment.get(INT, breaks + ((long) column * breakCount + row) * 4);
+    }
+
+    /** @return The ID of the match in a row. */
+    public int matchId(int row) { return matchColumn(0, row); }
+
+    /** @return The date of the match in a row, as an epoch day. */
+    public int epochDay(int row) { return matchColumn(1, row); }
+
+    /** @return The player ordinal of player 1 of the match in a row. */
+    public int player1(int row) { return matchColumn(2, row); }
+
+    /** @return The player ordinal of player 2 of the match in a row. */
+    public int player2(int row) { return matchColumn(3, row); }
+
+    /** @return The score of player 1 of the match in a row. */
+    public int score1(int row) { return matchColumn(4, row); }
+
+    /** @return The score of player 2 of the match in a row. */
+    public int score2(int row) { return matchColumn(5, row); }
+
+    /** @return The difference between the scores of the match in a row. */
+    public int margin(int row) { return Math.abs(score1(row) - score2(row)); }
+
+    /** @return The number of names in the dictionary, i.e. the exclusive upper bound of the player ordinals. */
+    public int getPlayerCount() { return nameCount; }
+
+    /** @return The ID of the break in a row. */
+    public int breakId(int row) { return breakColumn(0, row); }
+
+    /** @return The ID of the match the break in a row was made in. */
+    public int breakMatchId(int row) { return breakColumn(1, row); }
+
+    /** @return The player ordinal of the break in a row, or -1 if the player is unknown. */
+    public int breakPlayer(int row) { return breakColumn(2, row); }
+
+    /** @return The score of the break in a row. */
+    public int breakScore(int row) { return breakColumn(3, row); }
+
+    /**
+     * Gets the name behind a player ordinal. Each name is decoded once.
+     *
+     * @param ordinal The player ordinal.
+     * @return The player name, or {@code null} for -1.
+     */
+    public String playerName(int ordinal) {
+        if (ordinal < 0) return null;
+        String name = names[ordinal];
+        if (name == null) {
+            long start = segment.get(INT, nameOffsets + (long) ordinal * 4);
+            long end = segment.get(INT, nameOffsets + (long) (ordinal + 1) * 4);
+            byte[] bytes = segment.asSlice(nameBytes + start, end - start).toArray(ValueLayout.JAVA_BYTE);
+            name = new String(bytes, StandardCharsets.UTF_8);
+            names[ordinal] = name;
+        }
+        return name;
+    }
+
+    /**
+     * Looks up the ordinal of a player name, to filter the columns by player without
+     * decoding a name per row.
+     *
+     * @param name The player name.
+     * @return The ordinal, or -1 if the player has no archived matches or breaks.
+     */
+    public synchronized int playerOrdinal(String name) {
+        if (ordinals == null) {
+            ordinals = new HashMap<>(nameCount * 2);
+            for (int i = 0; i < nameCount; i++) {
+                ordinals.put(playerName(i), i);
+            }
+        }
+        return ordinals.getOrDefault(name, -1);
+    }
+
+    /**
+     * Counts the matches that come before a date and ID in archive order.
+     *
+     * @param epochDay The date as an epoch day.
+     * @param id       The match ID.
+     * @return The number of rows strictly before the given position.
+     */
+    public int rowsBefore(long epochDay, int id) {
+        int low = 0;
+        int high = matchCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int day = epochDay(mid);
+            if (day < epochDay || (day == epochDay && matchId(mid) < id)) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first break with an ID greater than the given one.
+     *
+     * @param afterId The break ID.
+     * @return The row of the first later break, or the break count if there is none.
+     */
+    public int firstBreakAfter(int afterId) {
+        int low = 0;
+        int high = breakCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (breakId(mid) <= afterId) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Gets the match rows in ascending order of a column, then of match ID. The order is
+     * computed on first use and kept, since the archive never changes.
+     *
+     * @param key The column.
+     * @return The rows in order, or {@code null} for the date, since the rows are stored in date order.
+     */
+    synchronized int[] order(SortKey key) {
+        if (key == SortKey.DATE) return null;
+        int[] order = orders[key.ordinal()];
+        if (order != null) return order;
+
+        int[] nameRank = null;
+        if (key != SortKey.MARGIN) {
+            Integer[] byName = new Integer[nameCount];
+            for (int i = 0; i < nameCount; i++) byName[i] = i;
+            Arrays.sort(byName, Comparator.comparing(this::playerName, MatchStore.NAME_ORDER));
+            nameRank = new int[nameCount];
+            for (int i = 0; i < nameCount; i++) {
+                // Names the order considers equal share a rank, so their rows fall back to ID order.
+                boolean tied = i > 0 && MatchStore.NAME_ORDER.compare(playerName(byName[i - 1]), playerName(byName[i])) == 0;
+                nameRank[byName[i]] = tied ? nameRank[byName[i - 1]] : i;
+            }
+        }
+        // Ranks follow the ID index, so the value and the rank pack into one sortable long.
+        int[] rowOfRank = matchesById;
+        long[] packed = new long[matchCount];
+        for (int rank = 0; rank < matchCount; rank++) {
+            int row = rowOfRank[rank];
+            int value = switch (key) {
+                case PLAYER1 -> nameRank[player1(row)];
+                case PLAYER2 -> nameRank[player2(row)];
+                default -> margin(row);
+            };
+            packed[rank] = (long) value << 32 | rank;
+        }
+        Arrays.sort(packed);
+        order = new int[matchCount];
+        for (int i = 0; i < matchCount; i++) order[i] = rowOfRank[(int) packed[i]];
+        orders[key.ordinal()] = order;
+        return order;
+    }
+
+    /**
+     * Checks whether a match is archived here.
+     *
+     * @param matchId The match ID.
+     * @return {@code true} if the archive holds the match.
+     */
+    public boolean containsMatch(int matchId) {
+        int low = 0;
+        int high = matchCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int id = matchId(matchesById[mid]);
+            if (id < matchId) low = mid + 1;
+            else if (id > matchId) high = mid;
+            else return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the breaks made in a match.
+     *
+     * @param matchId The match ID.
+     * @return The rows of the breaks, in ID order; empty if the match has no archived breaks here.
+     */
+    public int[] breakRowsOfMatch(int matchId) {
+        int low = 0;
+        int high = breakCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (breakMatchId(breaksByMatch[mid]) < matchId) low = mid + 1;
+            else high = mid;
+        }
+        int end = low;
+        while (end < breakCount && breakMatchId(breaksByMatch[end]) == matchId) end++;
+        return Arrays.copyOfRange(breaksByMatch, low, end);
+    }
+
+    /**
+     * Creates a match object for a row.
+     *
+     * @param row The row.
+     * @return The match, in the same form the live tables produce it.
+     */
+    public MatchData match(int row) {
+        return new MatchData(matchId(row), playerName(player1(row)), playerName(player2(row)),
+                score1(row) + " : " + score2(row), LocalDate.ofEpochDay(epochDay(row)));
+    }
+
+    /**
+     * Creates a break object for a row.
+     *
+     * @param row The row.
+     * @return The break.
+     */
+    public BreakData breakAt(int row) {
+        return new BreakData(breakId(row), breakMatchId(row), playerName(breakPlayer(row)), breakScore(row));
+    }
+
+    /**
+     * Unmaps the archive. Rows must not be read afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Writes an archive file.
+     *
+     * @param file    The file to create; it must not exist yet.
+     * @param matches The matches to archive, in any order.
+     * @param breaks  The breaks of these matches, in any order.
+     * @throws IOException if the file cannot be written or a score cannot be read.
+     */
+    public static void write(Path file, List<MatchData> matches, List<BreakData> breaks) throws IOException {
+        List<MatchData> sortedMatches = new ArrayList<>(matches);
+        sortedMatches.sort(Comparator.comparing(MatchData::getDate).thenComparingInt(MatchData::getId));
+        List<BreakData> sortedBreaks = new ArrayList<>(breaks);
+        sortedBreaks.sort(Comparator.comparingInt(BreakData::getId));
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<byte[]> encodedNames = new ArrayList<>();
+        int[][] matchColumns = new int[MATCH_COLUMNS][sortedMatches.size()];
+        for (int row = 0; row < sortedMatches.size(); row++) {
+            MatchData match = sortedMatches.get(row);
+            int[] score = parseScore(match.getScore());
+            matchColumns[0][row] = match.getId();
+            matchColumns[1][row] = (int) match.getDate().toEpochDay();
+            matchColumns[2][row] = ordinal(match.getPlayer1(), dictionary, encodedNames);
+            matchColumns[3][row] = ordinal(match.getPlayer2(), dictionary, encodedNames);
+            matchColumns[4][row] = score[0];
+            matchColumns[5][row] = score[1];
+        }
+        int[][] breakColumns = new int[BREAK_COLUMNS][sortedBreaks.size()];
+        for (int row = 0; row < sortedBreaks.size(); row++) {
+            BreakData breakData = sortedBreaks.get(row);
+            breakColumns[0][row] = breakData.getId();
+            breakColumns[1][row] = breakData.getMatchId();
+            breakColumns[2][row] = breakData.getPlayerName() == null ? -1 : ordinal(breakData.getPlayerName(), dictionary, encodedNames);
+            breakColumns[3][row] = breakData.getBreakScore();
+        }
+
+        long nameOffsets = HEADER_SIZE;
+        long nameBytes = nameOffsets + (encodedNames.size() + 1L) * 4;
+        long nameBytesSize = 0;
+        for (byte[] name : encodedNames) nameBytesSize += name.length;
+        long matchesOffset = align(nameBytes + nameBytesSize);
+        long breaksOffset = align(matchesOffset + (long) MATCH_COLUMNS * sortedMatches.size() * 4);
+        long size = align(breaksOffset + (long) BREAK_COLUMNS * sortedBreaks.size() * 4);
+
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MemorySegment out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            out.set(INT, 8, sortedMatches.size());
+            out.set(INT, 12, sortedBreaks.size());
+            out.set(INT, 16, encodedNames.size());
+            out.set(LONG, 24, nameOffsets);
+            out.set(LONG, 32, nameBytes);
+            out.set(LONG, 40, matchesOffset);
+            out.set(LONG, 48, breaksOffset);
+            out.set(LONG, 56, size);
+
+            int offset = 0;
+            for (int i = 0; i < encodedNames.size(); i++) {
+                out.set(INT, nameOffsets + (long) i * 4, offset);
+                MemorySegment.copy(encodedNames.get(i), 0, out, ValueLayout.JAVA_BYTE, nameBytes + offset, encodedNames.get(i).length);
+                offset += encodedNames.get(i).length;
+            }
+            out.set(INT, nameOffsets + (long) encodedNames.size() * 4, offset);
+            for (int c = 0; c < MATCH_COLUMNS; c++) {
+                MemorySegment.copy(matchColumns[c], 0, out, INT, matchesOffset + (long) c * sortedMatches.size() * 4, sortedMatches.size());
+            }
+            for (int c = 0; c < BREAK_COLUMNS; c++) {
+                MemorySegment.copy(breakColumns[c], 0, out, INT, breaksOffset + (long) c * sortedBreaks.size() * 4, sortedBreaks.size());
+            }
+
+            // The header is completed last, so a file cut short by a crash is never taken for an archive.
+            out.set(INT, 4, FORMAT_VERSION);
+            out.force();
+            out.set(INT, 0, MAGIC);
+            out.force();
+        }
+    }
+
+    private static int ordinal(String name, Map<String, Integer> dictionary, List<byte[]> encodedNames) {
+        Integer ordinal = dictionary.get(name);
+        if (ordinal == null) {
+            ordinal = encodedNames.size();
+            dictionary.put(name, ordinal);
+            encodedNames.add(name.getBytes(StandardCharsets.UTF_8));
+        }
+        return ordinal;
+    }
+
+    /**
+     * Parses a stored score of the form {@code "score1 : score2"}.
+     */
+    private static int[] parseScore(String score) throws IOException {
+        int separator = score == null ? -1 : score.indexOf(':');
+        if (separator < 0) throw new IOException("Unreadable score: " + score);
+        try {
+            return new int[]{Integer.parseInt(score.substring(0, separator).strip()), Integer.parseInt(score.substring(separator + 1).strip())};
+        } catch (NumberFormatException e) {
+            throw new IOException("Unreadable score: " + score, e);
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
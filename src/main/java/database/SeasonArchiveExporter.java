@@ -0,0 +1,129 @@
+package database;
+
+import data.BreakData;
+import data.MatchData;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Season Archive Exporter
+ * <p>
+ * Moves a closed season out of the live tables into a {@link SeasonArchive}. The matches
+ * played in the season and their breaks are written to a new archive, which is read
+ * back and checked before the matches are deleted from the database, so a failed
+ * export never loses a match. From then on the season is served from the archive,
+ * merged into the history and statistics by {@link DatabaseManager}. If the export stops
+ * between publishing the archive and deleting the live rows, the season is in both
+ * places until it is deleted; the merge returns each such match once.
+ * </p>
+ * <p>
+ * Usage: {@code SeasonArchiveExporter --from 2015-07-01 --to 2016-07-01 --name 2015-16}.
+ * The season includes {@code --from} and excludes {@code --to}. Run it while the
+ * application is closed, since a running application only picks up new archives when
+ * it is started. Shots are not archived, so shot analytics only cover the seasons still
+ * in the live tables.
+ * </p>
+ * <p>
+ * The archive is written to the folder named by {@value MatchArchives#DIRECTORY_PROPERTY},
+ * which every client must read as well; without it the export is refused, since the
+ * season would disappear from every other client when its live rows are deleted.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class SeasonArchiveExporter {
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private SeasonArchiveExporter() {}
+
+    /**
+     * Runs the export.
+     *
+     * @param args Options, see the class description.
+     */
+    public static void main(String[] args) throws Exception {
+        LocalDate from = null;
+        LocalDate to = null;
+        String name = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--from" -> from = LocalDate.parse(args[i + 1]);
+                case "--to" -> to = LocalDate.parse(args[i + 1]);
+                case "--name" -> name = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (from == null || to == null || name == null || !from.isBefore(to)) {
+            System.err.println("Usage: SeasonArchiveExporter --from YYYY-MM-DD --to YYYY-MM-DD --name NAME");
+            System.exit(2);
+        }
+
+        DatabaseManager.INSTANCE.initialize();
+        try {
+            Path file = export(from, to, name);
+            System.out.println("[archive] Season " + name + " exported to " + file);
+        } finally {
+            DatabaseManager.INSTANCE.disconnect();
+        }
+    }
+
+    /**
+     * Exports the matches played in a date range to a new archive and removes them from
+     * the live tables.
+     *
+     * @param from The first day of the season.
+     * @param to   The day after the season.
+     * @param name The name of the archive file, without the extension.
+     * @return The archive file.
+     * @throws IOException  if no shared archive folder is configured, or the archive cannot
+     *                      be written or already exists.
+     * @throws SQLException if the season cannot be read or deleted.
+     */
+    public static Path export(LocalDate from, LocalDate to, String name) throws IOException, SQLException {
+        if (!MatchArchives.isDirectoryShared()) {
+            throw new IOException("Set -D" + MatchArchives.DIRECTORY_PROPERTY + " to the archive folder shared by all clients; "
+                    + "the season is deleted from the shared database, so a local archive would hide it from every other client.");
+        }
+        Path target = MatchArchives.directory().resolve(name + SeasonArchive.EXTENSION);
+        if (Files.exists(target)) throw new IOException("The archive " + target + " already exists.");
+
+        List<MatchData> matches = new ArrayList<>();
+        List<BreakData> breaks = new ArrayList<>();
+        DatabaseManager.INSTANCE.readLiveSeason(from, to, matches, breaks);
+        if (matches.isEmpty()) throw new IOException("No matches were played between " + from + " and " + to + ".");
+
+        Path temporary = target.resolveSibling(name + SeasonArchive.EXTENSION + ".tmp");
+        Files.deleteIfExists(temporary);
+        SeasonArchive.write(temporary, matches, breaks);
+        try (SeasonArchive written = SeasonArchive.open(temporary)) {
+            if (written.getMatchCount() != matches.size() || written.getBreakCount() != breaks.size()) {
+                throw new IOException("The written archive does not match the exported season.");
+            }
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+
+        List<Integer> ids = new ArrayList<>(matches.size());
+        for (MatchData match : matches) ids.add(match.getId());
+        int deleted;
+        try {
+            deleted = DatabaseManager.INSTANCE.deleteArchivedMatches(ids);
+        } catch (SQLException e) {
+            // The season is still live, so the archive would only duplicate it.
+            Files.delete(target);
+            throw e;
+        }
+        System.out.printf("[archive] %d matches and %d breaks archived, %d removed from the live tables (%d KB)%n",
+                matches.size(), breaks.size(), deleted, Files.size(target) / 1024);
+        return target;
+    }
+}
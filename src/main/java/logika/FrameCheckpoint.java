@@ -0,0 +1,238 @@
+package logika;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Crash-Safe Frame Checkpoint
+ * <p>
+ * Keeps the complete state of the frame in progress in a small memory-mapped file, so a
+ * frame survives the application crashing or the tablet restarting. The game saves a
+ * checkpoint after every shot. Saving only copies the compact state into the mapped
+ * pages and checksums it, with no system call, so it costs a few microseconds; the
+ * operating system writes the pages back to disk on its own, and they survive the
+ * process dying at any point.
+ * </p>
+ * <p>
+ * The file holds two slots, each stored as {@code [magic][crc32][sequence][length][payload]}.
+ * Checkpoints alternate between the slots, so a save torn by a crash can only damage
+ * the slot being written, never the previous checkpoint. On reading, the valid slot
+ * with the highest sequence number wins. Finishing a frame writes an empty checkpoint
+ * the same way.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class FrameCheckpoint implements Closeable {
+
+    private static final int MAGIC = 0x534E4B46;
+    private static final int SLOT_SIZE = 16 * 1024;
+    private static final int HEADER_SIZE = 20;
+    private static final int CRC_OFFSET = 4;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int LENGTH_OFFSET = 16;
+    private static final int MAX_NAME_BYTES = 255;
+
+    private final ByteBuffer[] slots = new ByteBuffer[2];
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer map;
+    private long sequence;
+
+    private String cachedName1;
+    private String cachedName2;
+    private byte[] cachedName1Bytes;
+    private byte[] cachedName2Bytes;
+
+    /**
+     * Opens the checkpoint file, creating it if it does not exist.
+     *
+     * @param file The checkpoint file.
+     * @throws IOException if the file cannot be opened or mapped.
+     */
+    public FrameCheckpoint(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed.
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, 2L * SLOT_SIZE);
+        }
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = map.slice(i * SLOT_SIZE, SLOT_SIZE);
+        }
+        for (ByteBuffer slot : slots) {
+            if (isValid(slot)) sequence = Math.max(sequence, slot.getLong(SEQUENCE_OFFSET));
+        }
+    }
+
+    /**
+     * Saves the state of the frame in progress, replacing the previous checkpoint.
+     *
+     * @param frameId     The identifier of the frame, which stays the same when it is resumed.
+     * @param snooker     The game.
+     * @param player1Name The name of player 1.
+     * @param player2Name The name of player 2.
+     * @return {@code true} if the checkpoint was saved, {@code false} if it does not fit in a slot.
+     */
+    public synchronized boolean save(UUID frameId, Snooker snooker, String player1Name, String player2Name) {
+        if (map == null) return false;
+        if (!player1Name.equals(cachedName1) || !player2Name.equals(cachedName2)) {
+            cachedName1 = player1Name;
+            cachedName2 = player2Name;
+            cachedName1Bytes = encodeName(player1Name);
+            cachedName2Bytes = encodeName(player2Name);
+        }
+        int length = 2 * Long.BYTES + 2 + cachedName1Bytes.length + cachedName2Bytes.length + snooker.stateSize();
+        if (HEADER_SIZE + length > SLOT_SIZE) {
+            System.err.println("Frame checkpoint: the frame is too long to checkpoint (" + length + " bytes)");
+            return false;
+        }
+
+        long next = sequence + 1;
+        ByteBuffer slot = slots[(int) (next & 1)];
+        slot.position(HEADER_SIZE);
+        slot.putLong(frameId.getMostSignificantBits()).putLong(frameId.getLeastSignificantBits());
+        slot.put((byte) cachedName1Bytes.length).put(cachedName1Bytes);
+        slot.put((byte) cachedName2Bytes.length).put(cachedName2Bytes);
+        snooker.writeState(slot);
+        seal(slot, next, length);
+        sequence = next;
+        return true;
+    }
+
+    /**
+     * Marks that no frame is in progress, once a frame has been finished and stored.
+     */
+    public synchronized void clear() {
+        if (map == null) return;
+        long next = sequence + 1;
+        seal(slots[(int) (next & 1)], next, 0);
+        sequence = next;
+    }
+
+    /**
+     * Reads the frame that was in progress when the checkpoint was last saved.
+     *
+     * @return The saved frame, or {@code null} if no frame was in progress.
+     */
+    public synchronized SavedFrame load() {
+        if (map == null) return null;
+        ByteBuffer latest = null;
+        for (ByteBuffer slot : slots) {
+            if (isValid(slot) && (latest == null || slot.getLong(SEQUENCE_OFFSET) > latest.getLong(SEQUENCE_OFFSET))) {
+                latest = slot;
+            }
+        }
+        if (latest == null || latest.getInt(LENGTH_OFFSET) == 0) return null;
+
+        ByteBuffer in = latest.duplicate().position(HEADER_SIZE).limit(HEADER_SIZE + latest.getInt(LENGTH_OFFSET));
+        try {
+            UUID frameId = new UUID(in.getLong(), in.getLong());
+            String player1Name = decodeName(in);
+            String player2Name = decodeName(in);
+            return new SavedFrame(frameId, player1Name, player2Name, Snooker.readState(in));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            System.err.println("Frame checkpoint: discarding unreadable checkpoint: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a slot's header and checksum once its payload is in place.
+     */
+    private void seal(ByteBuffer slot, long slotSequence, int length) {
+        slot.putLong(SEQUENCE_OFFSET, slotSequence);
+        slot.putInt(LENGTH_OFFSET, length);
+        slot.putInt(0, MAGIC);
+        slot.putInt(CRC_OFFSET, checksum(slot, length));
+    }
+
+    /**
+     * Checks that a slot holds a complete checkpoint.
+     */
+    private boolean isValid(ByteBuffer slot) {
+        if (slot.getInt(0) != MAGIC) return false;
+        int length = slot.getInt(LENGTH_OFFSET);
+        if (length < 0 || length > SLOT_SIZE - HEADER_SIZE) return false;
+        return slot.getInt(CRC_OFFSET) == checksum(slot, length);
+    }
+
+    /**
+     * Computes the checksum of a slot's sequence number, length and payload.
+     */
+    private int checksum(ByteBuffer slot, int length) {
+        crc.reset();
+        crc.update(slot.duplicate().position(SEQUENCE_OFFSET).limit(HEADER_SIZE + length));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_NAME_BYTES) return bytes;
+        // Cut on a character boundary, so the stored name is still valid UTF-8.
+        int end = MAX_NAME_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) end--;
+        return Arrays.copyOf(bytes, end);
+    }
+
+    private static String decodeName(ByteBuffer in) {
+        byte[] bytes = new byte[in.get() & 0xFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the mapped pages back to disk and closes the checkpoint.
+     */
+    @Override
+    public synchronized void close() {
+        if (map == null) return;
+        map.force();
+        map = null;
+    }
+
+    /**
+     * A frame restored from a checkpoint.
+     */
+    public static final class SavedFrame {
+        private final UUID frameId;
+        private final String player1Name;
+        private final String player2Name;
+        private final Snooker snooker;
+
+        private SavedFrame(UUID frameId, String player1Name, String player2Name, Snooker snooker) {
+            this.frameId = frameId;
+            this.player1Name = player1Name;
+            this.player2Name = player2Name;
+            this.snooker = snooker;
+        }
+
+        /**
+         * @return The identifier the frame was saved with.
+         */
+        public UUID getFrameId() { return frameId; }
+
+        /**
+         * @return The name of player 1.
+         */
+        public String getPlayer1Name() { return player1Name; }
+
+        /**
+         * @return The name of player 2.
+         */
+        public String getPlayer2Name() { return player2Name; }
+
+        /**
+         * @return The game, in the state it was in at the last checkpoint.
+         */
+        public Snooker getSnooker() { return snooker; }
+    }
+}
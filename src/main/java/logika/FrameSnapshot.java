@@ -0,0 +1,119 @@
+package logika;
+
+/**
+ * Immutable Frame State Snapshot
+ * <p>
+ * A point-in-time copy of everything needed to display a running frame: both players,
+ * their scores, the current and highest break, the reds left and which ball is next.
+ * Snapshots are safe to hand to other threads, for example to broadcast a live score,
+ * and carry a sequence number that increases with every published change.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public final class FrameSnapshot {
+    private final long sequence;
+    private final String player1Name;
+    private final String player2Name;
+    private final int score1;
+    private final int score2;
+    private final boolean player1Turn;
+    private final int currentBreak;
+    private final int highestBreak;
+    private final int redsRemaining;
+    private final boolean redRequired;
+    private final boolean endgame;
+    private final int nextColor;
+    private final boolean gameOver;
+
+    /**
+     * Constructs a snapshot with all fields given explicitly.
+     *
+     * @param sequence      The sequence number of the snapshot.
+     * @param player1Name   The name of player 1.
+     * @param player2Name   The name of player 2.
+     * @param score1        The score of player 1.
+     * @param score2        The score of player 2.
+     * @param player1Turn   Whether it is player 1's turn.
+     * @param currentBreak  The current break.
+     * @param highestBreak  The highest break of the frame.
+     * @param redsRemaining The number of reds left on the table.
+     * @param redRequired   Whether the next ball must be a red.
+     * @param endgame       Whether the frame is in the endgame phase.
+     * @param nextColor     The value of the next color in the endgame.
+     * @param gameOver      Whether the frame is over.
+     */
+    public FrameSnapshot(long sequence, String player1Name, String player2Name, int score1, int score2,
+                         boolean player1Turn, int currentBreak, int highestBreak, int redsRemaining,
+                         boolean redRequired, boolean endgame, int nextColor, boolean gameOver) {
+        this.sequence = sequence;
+        this.player1Name = player1Name;
+        this.player2Name = player2Name;
+        this.score1 = score1;
+        this.score2 = score2;
+        this.player1Turn = player1Turn;
+        this.currentBreak = currentBreak;
+        this.highestBreak = highestBreak;
+        this.redsRemaining = redsRemaining;
+        this.redRequired = redRequired;
+        this.endgame = endgame;
+        this.nextColor = nextColor;
+        this.gameOver = gameOver;
+    }
+
+    /**
+     * Captures the current state of a game.
+     *
+     * @param sequence    The sequence number of the snapshot.
+     * @param snooker     The game to capture.
+     * @param player1Name The name of player 1.
+     * @param player2Name The name of player 2.
+     * @return The new snapshot.
+     */
+    public static FrameSnapshot of(long sequence, Snooker snooker, String player1Name, String player2Name) {
+        return new FrameSnapshot(sequence, player1Name, player2Name, snooker.getPoeni1(), snooker.getPoeni2(),
+                snooker.jeIgrac1NaRedu(), snooker.getCurrentBreak(), snooker.getHighestBreakInMatch(),
+                snooker.getCrvenePreostale(), snooker.daLiTrebaCrvena(), snooker.isEndgame(),
+                snooker.getNextColorValue(), snooker.isGameOver());
+    }
+
+    /** @return The sequence number of the snapshot. */
+    public long getSequence() { return sequence; }
+
+    /** @return The name of player 1. */
+    public String getPlayer1Name() { return player1Name; }
+
+    /** @return The name of player 2. */
+    public String getPlayer2Name() { return player2Name; }
+
+    /** @return The score of player 1. */
+    public int getScore1() { return score1; }
+
+    /** @return The score of player 2. */
+    public int getScore2() { return score2; }
+
+    /** @return {@code true} if it is player 1's turn. */
+    public boolean isPlayer1Turn() { return player1Turn; }
+
+    /** @return The current break. */
+    public int getCurrentBreak() { return currentBreak; }
+
+    /** @return The highest break of the frame. */
+    public int getHighestBreak() { return highestBreak; }
+
+    /** @return The number of reds left on the table. */
+    public int getRedsRemaining() { return redsRemaining; }
+
+    /** @return {@code true} if the next ball must be a red. */
+    public boolean isRedRequired() { return redRequired; }
+
+    /** @return {@code true} if the frame is in the endgame phase. */
+    public boolean isEndgame() { return endgame; }
+
+    /** @return The value of the next color in the endgame. */
+    public int getNextColor() { return nextColor; }
+
+    /** @return {@code true} if the frame is over. */
+    public boolean isGameOver() { return gameOver; }
+}
@@ -0,0 +1,72 @@
+package logika;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Frame State Hub
+ * <p>
+ * The single point through which the running frame's state leaves the game screen.
+ * The game publishes a {@link FrameSnapshot} after every move, and the hub hands it to
+ * every registered {@link FrameStateListener}, such as live score broadcasters. Each
+ * published snapshot gets the next sequence number.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class FrameStateHub {
+    /** The single instance of the FrameStateHub. */
+    public static final FrameStateHub INSTANCE = new FrameStateHub();
+
+    private final List<FrameStateListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile FrameSnapshot latest;
+
+    /**
+     * Private constructor to enforce the singleton pattern.
+     */
+    private FrameStateHub() {}
+
+    /**
+     * Registers a listener for frame state changes.
+     * @param listener The listener to add.
+     */
+    public void addListener(FrameStateListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a frame state listener.
+     * @param listener The listener to remove.
+     */
+    public void removeListener(FrameStateListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Captures the state of a game and publishes it to all listeners.
+     *
+     * @param snooker     The game that changed.
+     * @param player1Name The name of player 1.
+     * @param player2Name The name of player 2.
+     * @return The published snapshot.
+     */
+    public FrameSnapshot publish(Snooker snooker, String player1Name, String player2Name) {
+        FrameSnapshot snapshot = FrameSnapshot.of(sequence.incrementAndGet(), snooker, player1Name, player2Name);
+        latest = snapshot;
+        for (FrameStateListener listener : listeners) {
+            listener.frameUpdated(snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gets the most recently published snapshot.
+     * @return The latest snapshot, or {@code null} if nothing has been published yet.
+     */
+    public FrameSnapshot getLatest() {
+        return latest;
+    }
+}
@@ -0,0 +1,22 @@
+package logika;
+
+/**
+ * Frame State Listener
+ * <p>
+ * Receives every state change of the frame being scored, as published through the
+ * {@link FrameStateHub}. Listeners are called on the JavaFX Application Thread right
+ * after a move, so they must return quickly and hand any slow work to another thread.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public interface FrameStateListener {
+
+    /**
+     * Called after every change of the running frame, including its final state.
+     *
+     * @param snapshot The new state of the frame.
+     */
+    void frameUpdated(FrameSnapshot snapshot);
+}
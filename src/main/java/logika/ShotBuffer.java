@@ -0,0 +1,129 @@
+package logika;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Shot-by-Shot Frame Buffer
+ * <p>
+ * Collects every shot of a frame as a single packed {@code int}, so recording a shot
+ * during play is an array store with no object allocation. Each shot holds the player
+ * (1 or 2), the ball involved (1-7, or 0 when no ball was named), the outcome and the
+ * points it was worth. The buffer is read back once, when the frame ends, to persist
+ * the shots in one batch.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class ShotBuffer {
+    /** The ball was potted and the points went to the player at the table. */
+    public static final int OUTCOME_POT = 0;
+    /** The player missed or ended the turn; no points were scored. */
+    public static final int OUTCOME_MISS = 1;
+    /** The player fouled; the points went to the opponent. */
+    public static final int OUTCOME_FOUL = 2;
+
+    private static final int POINTS_BITS = 8;
+    private static final int BALL_SHIFT = 8;
+    private static final int OUTCOME_SHIFT = 12;
+    private static final int PLAYER_SHIFT = 14;
+
+    private int[] shots = new int[64];
+    private int size = 0;
+
+    /**
+     * Records a shot.
+     *
+     * @param player  The player who played the shot (1 or 2).
+     * @param ball    The value of the ball involved, or 0 if none.
+     * @param outcome One of {@link #OUTCOME_POT}, {@link #OUTCOME_MISS} or {@link #OUTCOME_FOUL}.
+     * @param points  The points the shot was worth.
+     */
+    public void add(int player, int ball, int outcome, int points) {
+        if (size == shots.length) {
+            shots = Arrays.copyOf(shots, size * 2);
+        }
+        shots[size++] = ((player - 1) << PLAYER_SHIFT) | (outcome << OUTCOME_SHIFT) | (ball << BALL_SHIFT) | points;
+    }
+
+    /**
+     * @return The number of shots recorded.
+     */
+    public int size() { return size; }
+
+    /**
+     * Gets a recorded shot in its packed form.
+     *
+     * @param index The index of the shot, starting at 0.
+     * @return The packed shot.
+     */
+    public int get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException(index);
+        return shots[index];
+    }
+
+    /**
+     * @return A copy of all recorded shots in their packed form.
+     */
+    public int[] toArray() { return Arrays.copyOf(shots, size); }
+
+    /**
+     * @return The number of bytes {@link #writeTo(ByteBuffer)} writes.
+     */
+    int encodedSize() { return Integer.BYTES * (size + 1); }
+
+    /**
+     * Writes the shot count followed by every packed shot.
+     *
+     * @param out The buffer to write to, with at least {@link #encodedSize()} bytes remaining.
+     */
+    void writeTo(ByteBuffer out) {
+        out.putInt(size);
+        for (int i = 0; i < size; i++) {
+            out.putInt(shots[i]);
+        }
+    }
+
+    /**
+     * Replaces the recorded shots with the ones written by {@link #writeTo(ByteBuffer)}.
+     *
+     * @param in The buffer to read from.
+     * @throws IllegalArgumentException if the shot count does not fit in the buffer.
+     */
+    void readFrom(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining() / Integer.BYTES) {
+            throw new IllegalArgumentException("Invalid shot count: " + count);
+        }
+        shots = new int[Math.max(64, count)];
+        for (int i = 0; i < count; i++) {
+            shots[i] = in.getInt();
+        }
+        size = count;
+    }
+
+    /**
+     * @param shot A packed shot.
+     * @return The player (1 or 2) who played the shot.
+     */
+    public static int player(int shot) { return (shot >>> PLAYER_SHIFT) + 1; }
+
+    /**
+     * @param shot A packed shot.
+     * @return The value of the ball involved, or 0 if none.
+     */
+    public static int ball(int shot) { return (shot >>> BALL_SHIFT) & 0xF; }
+
+    /**
+     * @param shot A packed shot.
+     * @return The outcome of the shot.
+     */
+    public static int outcome(int shot) { return (shot >>> OUTCOME_SHIFT) & 0x3; }
+
+    /**
+     * @param shot A packed shot.
+     * @return The points the shot was worth.
+     */
+    public static int points(int shot) { return shot & ((1 << POINTS_BITS) - 1); }
+}
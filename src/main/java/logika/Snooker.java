@@ -1,5 +1,7 @@
 package logika;
 
+import java.nio.ByteBuffer;
+
 /**
  * Implements the complete logic of a Snooker game.
  * This class manages the game's state, including scores for two players,
@@ -24,6 +26,8 @@ public class Snooker {
     private int nextColorValue = 2;
     private boolean gameOver = false;
 
+    private final ShotBuffer shots = new ShotBuffer();
+
     /**
      * Constructs a new Snooker game with a specified number of red balls.
      *
@@ -40,6 +44,7 @@ public class Snooker {
      * @param poeni The point value of the pocketed ball.
      */
     private void dodajPoene(int poeni) {
+        shots.add(trenutniIgrac(), poeni, ShotBuffer.OUTCOME_POT, poeni);
         if (igrac1NaRedu) {
             poeni1 += poeni;
         } else {
@@ -58,6 +63,23 @@ public class Snooker {
      * and sets the next required ball to red if not in the endgame phase.
      */
     public void promasaj() {
+        zabeleziPromasaj(0);
+    }
+
+    /**
+     * Records a missed shot for the current player and ends the turn.
+     *
+     * @param boja The value of the ball that was attempted, or 0 if none was named.
+     */
+    private void zabeleziPromasaj(int boja) {
+        shots.add(trenutniIgrac(), boja, ShotBuffer.OUTCOME_MISS, 0);
+        zavrsiPotez();
+    }
+
+    /**
+     * Ends the current player's turn without recording a shot.
+     */
+    private void zavrsiPotez() {
         currentBreak = 0;
         igrac1NaRedu = !igrac1NaRedu;
         if (!endgame) {
@@ -97,7 +119,7 @@ public class Snooker {
             }
         }
 
-        promasaj();
+        zabeleziPromasaj(boja);
         return false;
     }
 
@@ -116,7 +138,8 @@ public class Snooker {
         } else {
             poeni1 += 4;
         }
-        promasaj();
+        shots.add(trenutniIgrac(), 0, ShotBuffer.OUTCOME_FOUL, 4);
+        zavrsiPotez();
     }
 
     /**
@@ -136,11 +159,18 @@ public class Snooker {
             }
             return true;
         } else {
-            promasaj();
+            zabeleziPromasaj(boja);
             return false;
         }
     }
 
+    /**
+     * @return The number (1 or 2) of the player currently at the table.
+     */
+    private int trenutniIgrac() {
+        return igrac1NaRedu ? 1 : 2;
+    }
+
     /**
      * @return The score of player 1.
      */
@@ -195,4 +225,57 @@ public class Snooker {
      * @return {@code true} if the game is in the endgame phase, {@code false} otherwise.
      */
     public boolean isEndgame() { return endgame; }
+
+    /**
+     * @return The buffer holding every shot played in this frame so far.
+     */
+    public ShotBuffer getShots() { return shots; }
+
+    /**
+     * @return The number of bytes {@link #writeState(ByteBuffer)} writes for the current state.
+     */
+    int stateSize() {
+        return 7 * Integer.BYTES + 1 + shots.encodedSize();
+    }
+
+    /**
+     * Writes the complete state of the frame, including every shot, in a compact binary form.
+     *
+     * @param out The buffer to write to, with at least {@link #stateSize()} bytes remaining.
+     */
+    void writeState(ByteBuffer out) {
+        out.putInt(crvenePreostale).putInt(poeni1).putInt(poeni2)
+                .putInt(currentBreak).putInt(highestBreakInMatch).putInt(playerWithHighestBreak)
+                .putInt(nextColorValue)
+                .put((byte) ((igrac1NaRedu ? 1 : 0) | (trebaCrvena ? 2 : 0) | (endgame ? 4 : 0) | (gameOver ? 8 : 0)));
+        shots.writeTo(out);
+    }
+
+    /**
+     * Restores a frame written by {@link #writeState(ByteBuffer)}.
+     *
+     * @param in The buffer to read from.
+     * @return The restored game, in exactly the state it was written in.
+     * @throws java.nio.BufferUnderflowException if the buffer ends before the state does.
+     * @throws IllegalArgumentException if the state is not valid.
+     */
+    static Snooker readState(ByteBuffer in) {
+        Snooker snooker = new Snooker(in.getInt());
+        snooker.poeni1 = in.getInt();
+        snooker.poeni2 = in.getInt();
+        snooker.currentBreak = in.getInt();
+        snooker.highestBreakInMatch = in.getInt();
+        snooker.playerWithHighestBreak = in.getInt();
+        snooker.nextColorValue = in.getInt();
+        int flags = in.get();
+        snooker.igrac1NaRedu = (flags & 1) != 0;
+        snooker.trebaCrvena = (flags & 2) != 0;
+        snooker.endgame = (flags & 4) != 0;
+        snooker.gameOver = (flags & 8) != 0;
+        if (snooker.crvenePreostale < 0 || snooker.nextColorValue < 2 || snooker.nextColorValue > 7) {
+            throw new IllegalArgumentException("Invalid frame state");
+        }
+        snooker.shots.readFrom(in);
+        return snooker;
+    }
 }
\ No newline at end of file
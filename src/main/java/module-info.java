@@ -3,8 +3,10 @@ module com.example.pz {
     requires javafx.fxml;
     requires java.sql;
     requires mysql.connector.j;
-    requires org.jsoup;
+    requires java.net.http;
     requires jbcrypt;
+    requires jdk.httpserver;
+    requires java.management;
 
 
     opens com.example.pz to javafx.fxml;
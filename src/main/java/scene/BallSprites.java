@@ -0,0 +1,130 @@
+package scene;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shared Ball Image Atlas
+ * <p>
+ * An application-wide cache of the snooker ball sprites. All seven ball images are
+ * decoded once, on a background thread started at application startup, already scaled
+ * to the size they are displayed at, and packed side by side into a single atlas image.
+ * Game scenes then only create lightweight {@link ImageView}s showing a region of the
+ * shared atlas, so starting a new frame does no I/O or image decoding.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class BallSprites {
+    /** The single instance of the BallSprites cache. */
+    public static final BallSprites INSTANCE = new BallSprites();
+
+    /** The width and height at which ball sprites are displayed. */
+    public static final int SPRITE_SIZE = 80;
+
+    /** Ball image paths indexed by point value minus one. */
+    private static final String[] IMAGE_PATHS = {"/images/crvena.png", "/images/zuta.png", "/images/zelena.png", "/images/braon.png", "/images/plava.png", "/images/roze.png", "/images/crna.png"};
+
+    private final CompletableFuture<Atlas> atlas = new CompletableFuture<>();
+    private boolean loadingStarted = false;
+
+    /**
+     * Private constructor to enforce the singleton pattern.
+     */
+    private BallSprites() {}
+
+    /**
+     * Starts decoding the ball sprites on a background thread. Calling it again has no effect.
+     */
+    public synchronized void preload() {
+        if (loadingStarted) return;
+        loadingStarted = true;
+        Thread loader = new Thread(() -> {
+            try {
+                atlas.complete(buildAtlas());
+            } catch (RuntimeException e) {
+                atlas.completeExceptionally(e);
+            }
+        }, "ball-sprites");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Creates a view of the sprite of a ball. If the sprites are still being decoded,
+     * this waits for them; if preloading was never started, they are decoded now.
+     *
+     * @param ballValue The point value of the ball (1-7).
+     * @return An image view showing the ball, or {@code null} if its image could not be loaded.
+     */
+    public ImageView createView(int ballValue) {
+        preload();
+        Atlas loaded;
+        try {
+            loaded = atlas.join();
+        } catch (RuntimeException e) {
+            System.err.println("Error: Ball images could not be loaded - " + e.getMessage());
+            return null;
+        }
+        int index = ballValue - 1;
+        if (index < 0 || index >= IMAGE_PATHS.length || !loaded.available[index]) return null;
+
+        ImageView view = new ImageView(loaded.image);
+        view.setViewport(new Rectangle2D(index * SPRITE_SIZE, 0, SPRITE_SIZE, SPRITE_SIZE));
+        return view;
+    }
+
+    /**
+     * Decodes every ball image at display size and copies it, centered, into its slot
+     * of the atlas. Images that are missing or fail to decode leave their slot empty.
+     *
+     * @return The packed atlas.
+     */
+    private Atlas buildAtlas() {
+        WritableImage image = new WritableImage(SPRITE_SIZE * IMAGE_PATHS.length, SPRITE_SIZE);
+        PixelWriter writer = image.getPixelWriter();
+        boolean[] available = new boolean[IMAGE_PATHS.length];
+
+        for (int i = 0; i < IMAGE_PATHS.length; i++) {
+            URL url = BallSprites.class.getResource(IMAGE_PATHS[i]);
+            if (url == null) {
+                System.err.println("Error: Image not found - " + IMAGE_PATHS[i]);
+                continue;
+            }
+            Image sprite = new Image(url.toExternalForm(), SPRITE_SIZE, SPRITE_SIZE, true, true);
+            PixelReader reader = sprite.getPixelReader();
+            if (sprite.isError() || reader == null) {
+                System.err.println("Error: Image could not be decoded - " + IMAGE_PATHS[i]);
+                continue;
+            }
+            int width = (int) sprite.getWidth();
+            int height = (int) sprite.getHeight();
+            int x = i * SPRITE_SIZE + (SPRITE_SIZE - width) / 2;
+            int y = (SPRITE_SIZE - height) / 2;
+            writer.setPixels(x, y, width, height, reader, 0, 0);
+            available[i] = true;
+        }
+        return new Atlas(image, available);
+    }
+
+    /**
+     * The packed sprite image together with which of its slots hold a ball.
+     */
+    private static final class Atlas {
+        private final Image image;
+        private final boolean[] available;
+
+        private Atlas(Image image, boolean[] available) {
+            this.image = image;
+            this.available = available;
+        }
+    }
+}
@@ -1,20 +1,24 @@
 package scene;
 
-import database.DatabaseManager;
+import data.MatchResult;
+import database.JournalReplayer;
+import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
 import javafx.geometry.*;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
-import javafx.stage.Stage;
+import logika.FrameCheckpoint;
+import logika.FrameStateHub;
 import logika.Snooker;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
+import java.util.UUID;
 
 /**
  * Snooker Game Scene
@@ -23,15 +27,24 @@ import java.util.Objects;
  * It handles the UI for the game board, score display, player turns,
  * and all user interactions, linking the visual elements to the underlying game logic.
  * </p>
+ * <p>
+ * After every shot the frame is saved to the router's {@link FrameCheckpoint}, so it
+ * can be resumed after a crash. The frame keeps the same identifier when resumed, and
+ * it is used as the idempotency key of the stored result, so a frame finished just
+ * before a crash is never stored twice.
+ * </p>
  *
  * @author Andrija Milovanovic
  * @version 1.1
  */
-public class GameScene {
+public class GameScene implements Screen {
     private final Scene scene;
     private final Snooker snooker;
     private final String player1Name;
     private final String player2Name;
+    private final SceneRouter router;
+    private final UUID frameId;
+    private final FrameCheckpoint checkpoint;
 
     private final Label scoreLabel = new Label();
     private final Label playerTurnLabel = new Label();
@@ -39,18 +52,45 @@ public class GameScene {
     private final Label breakLabel = new Label();
     private final Map<Integer, Button> ballButtons = new HashMap<>();
 
+    /** Ball color names indexed by point value, shown in the endgame hint. */
+    private static final String[] COLOR_NAMES = {"", "CRVENA", "ŽUTA", "ZELENA", "BRAON", "PLAVA", "ROZE", "CRNA"};
+    private static final System.Logger LOG = System.getLogger(GameScene.class.getName());
+
+    private final GameViewModel viewModel;
+    private final LatencyProbe latencyProbe;
+
     /**
      * Constructs the game scene.
      *
-     * @param stage       The primary stage of the application.
+     * @param router      The router used to navigate between screens.
      * @param p1Name      The name of player 1.
      * @param p2Name      The name of player 2.
      * @param brojCrvenih The number of red balls to start the game with.
      */
-    public GameScene(Stage stage, String p1Name, String p2Name, int brojCrvenih) {
-        this.snooker = new Snooker(brojCrvenih);
+    public GameScene(SceneRouter router, String p1Name, String p2Name, int brojCrvenih) {
+        this(router, p1Name, p2Name, new Snooker(brojCrvenih), UUID.randomUUID());
+    }
+
+    /**
+     * Constructs the game scene for a frame resumed from a checkpoint.
+     *
+     * @param router The router used to navigate between screens.
+     * @param frame  The frame restored from the checkpoint.
+     */
+    public GameScene(SceneRouter router, FrameCheckpoint.SavedFrame frame) {
+        this(router, frame.getPlayer1Name(), frame.getPlayer2Name(), frame.getSnooker(), frame.getFrameId());
+    }
+
+    private GameScene(SceneRouter router, String p1Name, String p2Name, Snooker snooker, UUID frameId) {
+        this.router = router;
+        this.snooker = snooker;
         this.player1Name = p1Name;
         this.player2Name = p2Name;
+        this.frameId = frameId;
+        this.checkpoint = router.getFrameCheckpoint();
+        this.viewModel = new GameViewModel(snooker);
+        FrameStateHub.INSTANCE.publish(snooker, player1Name, player2Name);
+        saveCheckpoint();
 
         BorderPane root = new BorderPane();
         root.setStyle("-fx-background-color: #016300; -fx-border-color: #3B2A1A; -fx-border-width: 20;");
@@ -68,103 +108,133 @@ public class GameScene {
         infoLabel.setTextFill(Color.YELLOW);
         root.setTop(infoBox);
 
-        GridPane buttonsPane = createBallsGrid(stage);
+        GridPane buttonsPane = createBallsGrid();
         root.setCenter(buttonsPane);
 
         Button endTurnBtn = new Button("Završi potez");
-        endTurnBtn.setOnAction(e -> {
-            snooker.promasaj();
-            updateDisplay();
-        });
+        endTurnBtn.setOnAction(e -> handleMove(snooker::promasaj));
 
         Button foulBtn = new Button("Foul +4");
-        foulBtn.setOnAction(e -> {
-            snooker.foulPlusFour();
-            updateDisplay();
-        });
+        foulBtn.setOnAction(e -> handleMove(snooker::foulPlusFour));
+
+        Button scoreboardBtn = new Button("Semafor");
+        scoreboardBtn.setOnAction(e -> router.toggleScoreboard());
 
-        HBox controlBox = new HBox(20, endTurnBtn, foulBtn);
+        HBox controlBox = new HBox(20, endTurnBtn, foulBtn, scoreboardBtn);
         controlBox.setAlignment(Pos.CENTER);
         BorderPane.setMargin(controlBox, new Insets(15, 0, 0, 0));
         root.setBottom(controlBox);
 
         this.scene = new Scene(root, 900, 700);
-        updateDisplay();
+        this.latencyProbe = new LatencyProbe(scene);
+        bindDisplay();
+
+        if (snooker.isGameOver()) {
+            // A frame that was finished just before a crash: store it now.
+            Platform.runLater(this::showWinnerAndSave);
+        }
     }
 
     /**
      * Creates the grid of buttons representing the snooker balls.
-     * Each button is associated with a ball value and has an image.
+     * Each button is associated with a ball value and shows its sprite from the
+     * shared {@link BallSprites} atlas.
      *
-     * @param stage The primary stage, used for handling clicks.
      * @return A GridPane containing the ball buttons.
      */
-    private GridPane createBallsGrid(Stage stage) {
+    private GridPane createBallsGrid() {
         GridPane buttonsPane = new GridPane();
         buttonsPane.setHgap(15);
         buttonsPane.setVgap(15);
         buttonsPane.setAlignment(Pos.CENTER);
 
         int[] points = {1, 2, 3, 4, 5, 6, 7};
-        String[] imagePaths = {"/images/crvena.png", "/images/zuta.png", "/images/zelena.png", "/images/braon.png", "/images/plava.png", "/images/roze.png", "/images/crna.png"};
 
         for (int i = 0; i < points.length; i++) {
             final int value = points[i];
-            try {
-                Image img = new Image(Objects.requireNonNull(getClass().getResource(imagePaths[i])).toExternalForm());
-                ImageView imageView = new ImageView(img);
-                imageView.setFitWidth(80);
-                imageView.setFitHeight(80);
-                Button b = new Button("", imageView);
+            ImageView imageView = BallSprites.INSTANCE.createView(value);
+            Button b;
+            if (imageView != null) {
+                b = new Button("", imageView);
                 b.setStyle("-fx-background-color: transparent; -fx-padding: 0;");
-                b.setOnAction(e -> handleBallClick(value, stage));
-                ballButtons.put(value, b);
-                buttonsPane.add(b, i, 0);
-            } catch (Exception ex) {
-                System.err.println("Error: Image not found - " + imagePaths[i]);
-                Button b = new Button(String.valueOf(value));
-                b.setPrefSize(80, 80);
-                b.setOnAction(e -> handleBallClick(value, stage));
-                ballButtons.put(value, b);
-                buttonsPane.add(b, i, 0);
+            } else {
+                b = new Button(String.valueOf(value));
+                b.setPrefSize(BallSprites.SPRITE_SIZE, BallSprites.SPRITE_SIZE);
             }
+            b.setId("ball-" + value);
+            b.setOnAction(e -> handleBallClick(value));
+            b.disableProperty().bind(viewModel.ballDisabled(value));
+            ballButtons.put(value, b);
+            buttonsPane.add(b, i, 0);
         }
         return buttonsPane;
     }
 
+    /**
+     * Applies a move that does not pot a ball, such as ending the turn or a foul,
+     * and refreshes the view model.
+     *
+     * @param move The game action to apply.
+     */
+    private void handleMove(Runnable move) {
+        latencyProbe.markInput();
+        move.run();
+        syncState();
+    }
+
+    /**
+     * Refreshes the view model, publishes the new frame state to live score spectators
+     * and saves it to the checkpoint.
+     */
+    private void syncState() {
+        viewModel.sync();
+        FrameStateHub.INSTANCE.publish(snooker, player1Name, player2Name);
+        saveCheckpoint();
+    }
+
+    /**
+     * Saves the frame to the checkpoint, if one is available.
+     */
+    private void saveCheckpoint() {
+        if (checkpoint != null) {
+            checkpoint.save(frameId, snooker, player1Name, player2Name);
+        }
+    }
+
     /**
      * Handles the logic when a ball button is clicked.
      * It updates the game state and checks if the game is over.
      *
      * @param value The point value of the clicked ball.
-     * @param stage The primary stage, to switch scenes when the game ends.
      */
-    private void handleBallClick(int value, Stage stage) {
+    private void handleBallClick(int value) {
+        latencyProbe.markInput();
         snooker.klikNaBoju(value);
-        updateDisplay();
+        syncState();
         if (snooker.isGameOver()) {
-            showWinnerAndSave(stage);
+            showWinnerAndSave();
         }
     }
 
     /**
-     * Handles the end-of-game sequence. It saves the match result and any high breaks
-     * to the database, displays a winner announcement, and navigates to the match history scene.
-     *
-     * @param stage The primary stage, used to show alerts and switch scenes.
+     * Handles the end-of-game sequence. It records the match result, highest break
+     * and all shots of the frame in the local journal, from which they are written to the database in the background,
+     * displays a winner announcement, and navigates to the match history scene.
      */
-    private void showWinnerAndSave(Stage stage) {
-        int matchId = DatabaseManager.INSTANCE.saveMatchResult(player1Name, player2Name, snooker.getPoeni1(), snooker.getPoeni2());
+    private void showWinnerAndSave() {
+        int highestBreak = snooker.getHighestBreakInMatch();
+        String breakPlayerName = null;
+        if (highestBreak > 0) {
+            breakPlayerName = (snooker.getPlayerWithHighestBreak() == 1) ? player1Name : player2Name;
+        }
+        MatchResult result = new MatchResult(frameId.toString(), player1Name, player2Name, snooker.getPoeni1(), snooker.getPoeni2(),
+                LocalDate.now(), breakPlayerName, highestBreak, snooker.getShots().toArray());
 
-        if (matchId == -1) {
-            new Alert(Alert.AlertType.ERROR, "Error connecting to the database. The result was not saved.").showAndWait();
+        if (JournalReplayer.INSTANCE.submit(result)) {
+            if (checkpoint != null) checkpoint.clear();
         } else {
-            int highestBreak = snooker.getHighestBreakInMatch();
-            if (highestBreak > 0) {
-                int playerNum = snooker.getPlayerWithHighestBreak();
-                String breakPlayerName = (playerNum == 1) ? player1Name : player2Name;
-                DatabaseManager.INSTANCE.saveHighestBreak(matchId, breakPlayerName, highestBreak);
-            }
+            // The checkpoint is kept, so the frame is offered again on the next start.
+            new Alert(Alert.AlertType.ERROR, "Greška pri čuvanju rezultata. Rezultat nije sačuvan.").showAndWait();
         }
 
         String winner;
@@ -179,32 +249,33 @@ public class GameScene {
                 snooker.getPoeni1(), snooker.getPoeni2(), snooker.getHighestBreakInMatch()));
         alert.showAndWait();
 
-        stage.setScene(new MatchHistoryScene(stage).getScene());
+        LOG.log(System.Logger.Level.DEBUG, () -> "[game] " + latencyProbe.summary());
+        router.show(SceneRouter.Route.HISTORY);
     }
 
     /**
-     * Updates all UI labels and button states to reflect the current game state.
-     * This includes scores, player turn, break information, and which balls are currently playable.
+     * Binds all UI labels to the view model. Each label only depends on the properties
+     * it displays, so a move only re-renders the labels whose values actually changed.
+     * The ball buttons are bound in {@link #createBallsGrid()}.
      */
-    private void updateDisplay() {
-        scoreLabel.setText(String.format("%s %d : %d %s", player1Name, snooker.getPoeni1(), snooker.getPoeni2(), player2Name));
-        playerTurnLabel.setText("Na potezu: " + (snooker.jeIgrac1NaRedu() ? player1Name : player2Name));
-        breakLabel.setText(String.format("Trenutni brejk: %d  |  Najveći brejk: %d", snooker.getCurrentBreak(), snooker.getHighestBreakInMatch()));
-
-        if (snooker.isEndgame()) {
-            infoLabel.setText("ENDGAME! Na redu je " + getColorName(snooker.getNextColorValue()));
-            for (Map.Entry<Integer, Button> entry : ballButtons.entrySet()) {
-                entry.getValue().setDisable(entry.getKey() != snooker.getNextColorValue());
+    private void bindDisplay() {
+        scoreLabel.textProperty().bind(Bindings.createStringBinding(
+                () -> player1Name + " " + viewModel.score1Property().get() + " : " + viewModel.score2Property().get() + " " + player2Name,
+                viewModel.score1Property(), viewModel.score2Property()));
+        playerTurnLabel.textProperty().bind(Bindings.createStringBinding(
+                () -> "Na potezu: " + (viewModel.player1TurnProperty().get() ? player1Name : player2Name),
+                viewModel.player1TurnProperty()));
+        breakLabel.textProperty().bind(Bindings.createStringBinding(
+                () -> "Trenutni brejk: " + viewModel.currentBreakProperty().get() + "  |  Najveći brejk: " + viewModel.highestBreakProperty().get(),
+                viewModel.currentBreakProperty(), viewModel.highestBreakProperty()));
+        infoLabel.textProperty().bind(Bindings.createStringBinding(() -> {
+            if (viewModel.endgameProperty().get()) {
+                return "ENDGAME! Na redu je " + getColorName(viewModel.nextColorProperty().get());
             }
-        } else {
-            boolean naReduCrvena = snooker.daLiTrebaCrvena();
-            infoLabel.setText(naReduCrvena ? "Na redu je CRVENA kugla (" + snooker.getCrvenePreostale() + " preostalo)" : "Na redu je OBOJENA kugla");
-            for (Map.Entry<Integer, Button> entry : ballButtons.entrySet()) {
-                int buttonValue = entry.getKey();
-                Button b = entry.getValue();
-                b.setDisable(naReduCrvena ? (buttonValue != 1) : (buttonValue == 1));
-            }
-        }
+            return viewModel.redRequiredProperty().get()
+                    ? "Na redu je CRVENA kugla (" + viewModel.redsRemainingProperty().get() + " preostalo)"
+                    : "Na redu je OBOJENA kugla";
+        }, viewModel.endgameProperty(), viewModel.nextColorProperty(), viewModel.redRequiredProperty(), viewModel.redsRemainingProperty()));
     }
 
     /**
@@ -214,7 +285,25 @@ public class GameScene {
      * @return The name of the color as a string.
      */
     private String getColorName(int value) {
-        return Map.of(2, "ŽUTA", 3, "ZELENA", 4, "BRAON", 5, "PLAVA", 6, "ROZE", 7, "CRNA").getOrDefault(value, "");
+        return (value >= 2 && value < COLOR_NAMES.length) ? COLOR_NAMES[value] : "";
+    }
+
+    /**
+     * Releases the scene's bindings and its latency probe once the frame is over,
+     * so the finished game's scene graph can be collected.
+     */
+    @Override
+    public void dispose() {
+        latencyProbe.dispose();
+        scoreLabel.textProperty().unbind();
+        playerTurnLabel.textProperty().unbind();
+        breakLabel.textProperty().unbind();
+        infoLabel.textProperty().unbind();
+        for (Button b : ballButtons.values()) {
+            b.disableProperty().unbind();
+            b.setOnAction(null);
+        }
+        ballButtons.clear();
     }
 
     /**
@@ -222,5 +311,6 @@ public class GameScene {
      *
      * @return The constructed game scene.
      */
+    @Override
     public Scene getScene() { return scene; }
 }
\ No newline at end of file
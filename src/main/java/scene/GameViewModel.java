@@ -0,0 +1,103 @@
+package scene;
+
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.BooleanBinding;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import logika.Snooker;
+
+/**
+ * Game Scene View Model
+ * <p>
+ * This class mirrors the state of a {@link Snooker} game in JavaFX properties that the
+ * game scene binds its labels and buttons to. After every move {@link #sync()} copies
+ * the game state into the properties; a property only notifies its listeners when its
+ * value actually changes, so only the nodes that depend on changed state are updated.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class GameViewModel {
+    private final Snooker snooker;
+
+    private final IntegerProperty score1 = new SimpleIntegerProperty();
+    private final IntegerProperty score2 = new SimpleIntegerProperty();
+    private final BooleanProperty player1Turn = new SimpleBooleanProperty();
+    private final IntegerProperty currentBreak = new SimpleIntegerProperty();
+    private final IntegerProperty highestBreak = new SimpleIntegerProperty();
+    private final IntegerProperty redsRemaining = new SimpleIntegerProperty();
+    private final BooleanProperty redRequired = new SimpleBooleanProperty();
+    private final BooleanProperty endgame = new SimpleBooleanProperty();
+    private final IntegerProperty nextColor = new SimpleIntegerProperty();
+
+    /**
+     * Constructs a view model for the given game and copies its initial state.
+     *
+     * @param snooker The game whose state is mirrored.
+     */
+    public GameViewModel(Snooker snooker) {
+        this.snooker = snooker;
+        sync();
+    }
+
+    /**
+     * Copies the current game state into the properties. Unchanged values fire no events.
+     */
+    public void sync() {
+        score1.set(snooker.getPoeni1());
+        score2.set(snooker.getPoeni2());
+        player1Turn.set(snooker.jeIgrac1NaRedu());
+        currentBreak.set(snooker.getCurrentBreak());
+        highestBreak.set(snooker.getHighestBreakInMatch());
+        redsRemaining.set(snooker.getCrvenePreostale());
+        redRequired.set(snooker.daLiTrebaCrvena());
+        endgame.set(snooker.isEndgame());
+        nextColor.set(snooker.getNextColorValue());
+    }
+
+    /**
+     * Creates a binding telling whether the button of a ball must be disabled: in the
+     * endgame only the next color is playable, otherwise either only the red or only the colors.
+     *
+     * @param ballValue The point value of the ball.
+     * @return A binding that is {@code true} while the ball cannot be played.
+     */
+    public BooleanBinding ballDisabled(int ballValue) {
+        return Bindings.createBooleanBinding(() -> {
+            if (endgame.get()) return ballValue != nextColor.get();
+            return redRequired.get() ? ballValue != 1 : ballValue == 1;
+        }, endgame, nextColor, redRequired);
+    }
+
+    /** @return The score of player 1. */
+    public ReadOnlyIntegerProperty score1Property() { return score1; }
+
+    /** @return The score of player 2. */
+    public ReadOnlyIntegerProperty score2Property() { return score2; }
+
+    /** @return Whether it is player 1's turn. */
+    public ReadOnlyBooleanProperty player1TurnProperty() { return player1Turn; }
+
+    /** @return The current break of the active player. */
+    public ReadOnlyIntegerProperty currentBreakProperty() { return currentBreak; }
+
+    /** @return The highest break of the match. */
+    public ReadOnlyIntegerProperty highestBreakProperty() { return highestBreak; }
+
+    /** @return The number of reds left on the table. */
+    public ReadOnlyIntegerProperty redsRemainingProperty() { return redsRemaining; }
+
+    /** @return Whether the next ball must be a red. */
+    public ReadOnlyBooleanProperty redRequiredProperty() { return redRequired; }
+
+    /** @return Whether the game is in the endgame phase. */
+    public ReadOnlyBooleanProperty endgameProperty() { return endgame; }
+
+    /** @return The value of the next color in the endgame. */
+    public ReadOnlyIntegerProperty nextColorProperty() { return nextColor; }
+}
@@ -0,0 +1,92 @@
+package scene;
+
+import javafx.scene.Scene;
+
+import java.util.Arrays;
+
+/**
+ * Click-to-Pulse Latency Probe
+ * <p>
+ * Measures the time from a user input to the end of the next layout pulse of a scene,
+ * the point at which the updated scene graph is handed to the renderer. Inputs arriving
+ * before the pulse are folded into one measurement taken from the first of them, which is
+ * what a scorer clicking quickly through reds and colors actually waits for. The most
+ * recent samples are kept in a ring buffer for percentile reporting.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class LatencyProbe {
+    private static final int MAX_SAMPLES = 512;
+
+    private final Scene scene;
+    private final Runnable pulseListener = this::onPulse;
+    private final long[] samples = new long[MAX_SAMPLES];
+    private int sampleCount = 0;
+    private long pendingSince = -1;
+
+    /**
+     * Constructs a probe and attaches it to the pulses of the given scene.
+     *
+     * @param scene The scene whose pulses are observed.
+     */
+    public LatencyProbe(Scene scene) {
+        this.scene = scene;
+        scene.addPostLayoutPulseListener(pulseListener);
+    }
+
+    /**
+     * Marks the arrival of a user input. Must be called on the JavaFX Application Thread.
+     */
+    public void markInput() {
+        if (pendingSince < 0) {
+            pendingSince = System.nanoTime();
+        }
+    }
+
+    /**
+     * Called after each layout pulse; completes the pending measurement, if any.
+     */
+    private void onPulse() {
+        if (pendingSince < 0) return;
+        samples[sampleCount % MAX_SAMPLES] = System.nanoTime() - pendingSince;
+        sampleCount++;
+        pendingSince = -1;
+    }
+
+    /**
+     * @return The total number of measurements taken.
+     */
+    public int getSampleCount() { return sampleCount; }
+
+    /**
+     * Gets a latency percentile over the retained samples.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The latency in nanoseconds, or 0 if nothing was measured.
+     */
+    public long percentileNanos(double percentile) {
+        int retained = Math.min(sampleCount, MAX_SAMPLES);
+        if (retained == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, retained);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * retained) - 1;
+        return sorted[Math.max(0, Math.min(retained - 1, index))];
+    }
+
+    /**
+     * @return A one-line summary of the measured latencies.
+     */
+    public String summary() {
+        return String.format("click-to-pulse latency over %d inputs: p50 %.2f ms, p95 %.2f ms, max %.2f ms",
+                sampleCount, percentileNanos(50) / 1e6, percentileNanos(95) / 1e6, percentileNanos(100) / 1e6);
+    }
+
+    /**
+     * Detaches the probe from the scene.
+     */
+    public void dispose() {
+        scene.removePostLayoutPulseListener(pulseListener);
+    }
+}
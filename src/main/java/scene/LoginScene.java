@@ -8,7 +8,6 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
-import javafx.stage.Stage;
 
 /**
  * User Login Scene
@@ -21,15 +20,16 @@ import javafx.stage.Stage;
  * @author Andrija Milovanovic
  * @version 1.0
  */
-public class LoginScene {
+public class LoginScene implements Screen {
     private final Scene scene;
+    private final PasswordField password = new PasswordField();
 
     /**
      * Constructs the login scene.
      *
-     * @param stage The primary stage of the application.
+     * @param router The router used to navigate between screens.
      */
-    public LoginScene(Stage stage) {
+    public LoginScene(SceneRouter router) {
         VBox layout = new VBox(15);
         layout.setAlignment(Pos.CENTER);
         layout.setPadding(new Insets(20));
@@ -43,7 +43,6 @@ public class LoginScene {
         username.setPromptText("Korisničko ime");
         username.setMaxWidth(300);
 
-        PasswordField password = new PasswordField();
         password.setPromptText("Lozinka");
         password.setMaxWidth(300);
 
@@ -52,7 +51,7 @@ public class LoginScene {
         loginBtn.setPrefWidth(300);
         loginBtn.setOnAction(e -> {
             if (DatabaseManager.INSTANCE.validateUser(username.getText(), password.getText())) {
-                stage.setScene(new MenuScene(stage).getScene());
+                router.show(SceneRouter.Route.MENU);
             } else {
                 new Alert(Alert.AlertType.ERROR, "Korisničko ime ili lozinka nisu ispravni.").showAndWait();
             }
@@ -60,7 +59,7 @@ public class LoginScene {
 
         Hyperlink registerLink = new Hyperlink("Nemate nalog? Registrujte se!");
         registerLink.setTextFill(Color.WHITE);
-        registerLink.setOnAction(e -> stage.setScene(new RegisterScene(stage).getScene()));
+        registerLink.setOnAction(e -> router.show(SceneRouter.Route.REGISTER));
 
         Label tocLbl = new Label("Read Terms & Conditions");
         tocLbl.setFont(Font.font("Arial", 12));
@@ -71,11 +70,20 @@ public class LoginScene {
         this.scene = new Scene(layout, 800, 600);
     }
 
+    /**
+     * Clears the password whenever the login screen is shown again, e.g. after logging out.
+     */
+    @Override
+    public void onShow() {
+        password.clear();
+    }
+
     /**
      * Returns the scene for the login screen.
      *
      * @return The constructed login scene.
      */
+    @Override
     public Scene getScene() {
         return scene;
     }
@@ -0,0 +1,183 @@
+package scene;
+
+import data.BackgroundExecutor;
+import data.MatchData;
+import database.DatabaseManager;
+import database.MatchQuery;
+import javafx.application.Platform;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Match History Page Loader
+ * <p>
+ * Loads the match history page by page on the shared {@link BackgroundExecutor}, in the
+ * order and with the filters of the current {@link MatchQuery}, which the database applies. Every
+ * reload starts a new generation: loads of older generations are cancelled and, if they
+ * were already running, their results are discarded, so a stale result can never
+ * overwrite a newer one. As soon as a page has been delivered, the next one is
+ * prefetched in the background, so asking for more rows is usually instant.
+ * </p>
+ * <p>
+ * All methods must be called on the JavaFX Application Thread, and the listener is
+ * always notified on it.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class MatchHistoryLoader {
+
+    /** The number of matches loaded per page. */
+    public static final int PAGE_SIZE = 100;
+
+    /**
+     * Receives the results of the loader.
+     */
+    public interface Listener {
+        /**
+         * Called when a page has been loaded.
+         *
+         * @param page      The matches of the page.
+         * @param firstPage {@code true} if this page starts a new generation and replaces all rows.
+         * @param hasMore   {@code true} if more pages may follow.
+         */
+        void onPageLoaded(List<MatchData> page, boolean firstPage, boolean hasMore);
+
+        /**
+         * Called when loading a page failed.
+         *
+         * @param error The cause of the failure.
+         */
+        void onLoadFailed(Throwable error);
+    }
+
+    private final Listener listener;
+
+    private long generation = 0;
+    private MatchQuery query = MatchQuery.HISTORY;
+    private CompletableFuture<List<MatchData>> inFlight;
+    private CompletableFuture<List<MatchData>> prefetch;
+    private MatchData lastLoaded;
+    private boolean hasMore = false;
+
+    /**
+     * Constructs a loader reporting to the given listener.
+     *
+     * @param listener The listener receiving loaded pages.
+     */
+    public MatchHistoryLoader(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Starts loading the history from the first page, superseding any load in progress.
+     */
+    public void reload() {
+        reload(query);
+    }
+
+    /**
+     * Starts loading the history from the first page in a new order or with new filters,
+     * superseding any load in progress.
+     *
+     * @param newQuery The order and filters of the history.
+     */
+    public void reload(MatchQuery newQuery) {
+        query = newQuery;
+        generation++;
+        cancel(inFlight);
+        cancel(prefetch);
+        prefetch = null;
+        lastLoaded = null;
+        hasMore = false;
+        inFlight = fetch(null);
+        deliverWhenDone(inFlight, generation, true);
+    }
+
+    /**
+     * Loads the page after the last delivered one, using the prefetched page if it is ready.
+     * Does nothing if a load is already in progress or the last page has been reached.
+     */
+    public void loadMore() {
+        if (!hasMore || (inFlight != null && !inFlight.isDone())) return;
+        inFlight = (prefetch != null) ? prefetch : fetch(lastLoaded);
+        prefetch = null;
+        deliverWhenDone(inFlight, generation, false);
+    }
+
+    /**
+     * @return The order and filters of the loaded history.
+     */
+    public MatchQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * @return {@code true} if more pages may be loaded with {@link #loadMore()}.
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Cancels all loads; results still arriving are discarded.
+     */
+    public void cancelAll() {
+        generation++;
+        cancel(inFlight);
+        cancel(prefetch);
+        inFlight = null;
+        prefetch = null;
+    }
+
+    /**
+     * Queries one page on the shared executor. A cancelled query that has not started yet never runs.
+     *
+     * @param after The last match of the previous page, or {@code null} for the first page.
+     * @return The future page.
+     */
+    private CompletableFuture<List<MatchData>> fetch(MatchData after) {
+        MatchQuery pageQuery = query;
+        return CompletableFuture.supplyAsync(() -> DatabaseManager.INSTANCE.getMatchesPage(pageQuery, after, PAGE_SIZE), BackgroundExecutor.get());
+    }
+
+    /**
+     * Delivers a page to the listener on the JavaFX Application Thread, unless a newer
+     * generation has started in the meantime, and then starts prefetching the next page.
+     *
+     * @param page            The future page.
+     * @param pageGeneration  The generation the page was requested in.
+     * @param firstPage       Whether the page is the first of its generation.
+     */
+    private void deliverWhenDone(CompletableFuture<List<MatchData>> page, long pageGeneration, boolean firstPage) {
+        page.whenComplete((matches, error) -> Platform.runLater(() -> {
+            if (pageGeneration != generation || page.isCancelled()) return;
+            if (error != null) {
+                hasMore = false;
+                listener.onLoadFailed(error);
+                return;
+            }
+            hasMore = matches.size() == PAGE_SIZE;
+            if (!matches.isEmpty()) {
+                lastLoaded = matches.get(matches.size() - 1);
+            }
+            listener.onPageLoaded(matches, firstPage, hasMore);
+            if (hasMore) {
+                prefetch = fetch(lastLoaded);
+            }
+        }));
+    }
+
+    /**
+     * Cancels a pending load, if any.
+     *
+     * @param load The load to cancel, may be {@code null}.
+     */
+    private static void cancel(CompletableFuture<List<MatchData>> load) {
+        if (load != null) {
+            load.cancel(false);
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package scene;
 
+import data.BackgroundExecutor;
 import data.MatchData;
+import data.MatchStore.SortKey;
 import database.DatabaseManager;
+import database.MatchChangeListener;
+import database.MatchQuery;
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.concurrent.Task;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -15,33 +18,93 @@ import javafx.scene.text.Font;
 import javafx.stage.Stage;
 
 import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Match History Scene
  * <p>
  * This class displays the history of played snooker matches in a TableView.
  * It allows users to view past results, refresh the data, and delete match records.
- * Data loading is performed asynchronously to keep the UI responsive.
+ * Data is loaded page by page in the background by a {@link MatchHistoryLoader},
+ * which keeps the UI responsive and never lets an outdated load overwrite a newer one.
+ * The table is updated incrementally: deletes remove the row immediately and are rolled
+ * back if the database rejects them, matches saved or deleted elsewhere are applied as
+ * single-row changes, and a refresh only inserts and removes the rows that differ.
+ * </p>
+ * <p>
+ * Sorting a column and the filters above the table (player, date range, smallest score
+ * difference) are not applied to the loaded rows: they start a new load with a
+ * {@link MatchQuery}, which the database answers from the index of the sort column, so
+ * any order of a large history is available without loading every row. Sorting by the
+ * score sorts by the difference between the two scores.
  * </p>
  *
  * @author Andrija Milovanovic
  * @version 1.0
  */
-public class MatchHistoryScene {
+public class MatchHistoryScene implements Screen {
 
     private final Scene scene;
     private final TableView<MatchData> table = new TableView<>();
     private final Stage stage;
+    private final Button loadMoreButton = new Button("Učitaj još");
+    private final TextField playerFilter = new TextField();
+    private final DatePicker fromFilter = new DatePicker();
+    private final DatePicker toFilter = new DatePicker();
+    private final Spinner<Integer> marginFilter = new Spinner<>(0, 147, 0);
+
+    /** IDs deleted since the last reload; filtered out of pages that were prefetched before the delete. */
+    private final Set<Integer> deletedIds = new HashSet<>();
+
+    private final MatchChangeListener matchChanges = new MatchChangeListener() {
+        @Override
+        public void matchSaved(MatchData match) {
+            Platform.runLater(() -> insertSorted(match));
+        }
+
+        @Override
+        public void matchDeleted(int matchId) {
+            Platform.runLater(() -> {
+                deletedIds.add(matchId);
+                table.getItems().removeIf(m -> m.getId() == matchId);
+            });
+        }
+    };
+    private final MatchHistoryLoader loader = new MatchHistoryLoader(new MatchHistoryLoader.Listener() {
+        @Override
+        public void onPageLoaded(List<MatchData> page, boolean firstPage, boolean hasMore) {
+            if (firstPage) {
+                deletedIds.clear();
+                applyDiff(page);
+            } else {
+                List<MatchData> rows = page;
+                if (!deletedIds.isEmpty()) {
+                    rows = page.stream().filter(m -> !deletedIds.contains(m.getId())).toList();
+                }
+                table.getItems().addAll(rows);
+            }
+            loadMoreButton.setDisable(!hasMore);
+        }
+
+        @Override
+        public void onLoadFailed(Throwable error) {
+            new Alert(Alert.AlertType.ERROR, "Greška pri učitavanju podataka iz baze.").show();
+            error.printStackTrace();
+        }
+    });
 
     /**
      * Constructs the match history scene.
      *
-     * @param stage The primary stage of the application.
+     * @param router The router used to navigate between screens.
      */
-    public MatchHistoryScene(Stage stage) {
-        this.stage = stage;
+    public MatchHistoryScene(SceneRouter router) {
+        this.stage = router.getStage();
         VBox layout = new VBox(20);
         layout.setPadding(new Insets(20));
         layout.setStyle("-fx-background-color: #016300;");
@@ -52,21 +115,25 @@ public class MatchHistoryScene {
         title.setStyle("-fx-text-fill: white;");
 
         setupTable();
-        loadData();
+        HBox filterBox = setupFilters();
+        DatabaseManager.INSTANCE.addMatchChangeListener(matchChanges);
 
         Button refreshButton = new Button("Osveži");
         refreshButton.setOnAction(e -> loadData());
 
+        loadMoreButton.setDisable(true);
+        loadMoreButton.setOnAction(e -> loader.loadMore());
+
         Button newGameButton = new Button("Nova Igra");
-        newGameButton.setOnAction(e -> stage.setScene(new MenuScene(stage).getScene()));
+        newGameButton.setOnAction(e -> router.show(SceneRouter.Route.MENU));
 
         Button logoutButton = new Button("Odjavi se");
-        logoutButton.setOnAction(e -> stage.setScene(new LoginScene(stage).getScene()));
+        logoutButton.setOnAction(e -> router.show(SceneRouter.Route.LOGIN));
 
-        HBox buttonBox = new HBox(20, refreshButton, newGameButton, logoutButton);
+        HBox buttonBox = new HBox(20, refreshButton, loadMoreButton, newGameButton, logoutButton);
         buttonBox.setAlignment(Pos.CENTER);
 
-        layout.getChildren().addAll(title, table, buttonBox);
+        layout.getChildren().addAll(title, filterBox, table, buttonBox);
         this.scene = new Scene(layout, 800, 600);
     }
 
@@ -77,22 +144,27 @@ public class MatchHistoryScene {
      */
     private void setupTable() {
         TableColumn<MatchData, String> player1 = new TableColumn<>("Igrač 1");
+        player1.setUserData(SortKey.PLAYER1);
         player1.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getPlayer1()));
         player1.setPrefWidth(150);
 
         TableColumn<MatchData, String> player2 = new TableColumn<>("Igrač 2");
+        player2.setUserData(SortKey.PLAYER2);
         player2.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getPlayer2()));
         player2.setPrefWidth(150);
 
         TableColumn<MatchData, String> score = new TableColumn<>("Rezultat");
+        score.setUserData(SortKey.MARGIN);
         score.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getScore()));
         score.setPrefWidth(100);
 
         TableColumn<MatchData, LocalDate> date = new TableColumn<>("Datum");
+        date.setUserData(SortKey.DATE);
         date.setCellValueFactory(cellData -> new javafx.beans.property.SimpleObjectProperty<>(cellData.getValue().getDate()));
         date.setPrefWidth(150);
 
         TableColumn<MatchData, Void> deleteCol = new TableColumn<>("Akcija");
+        deleteCol.setSortable(false);
         deleteCol.setCellFactory(param -> new TableCell<>() {
             private final Button deleteButton = new Button("Obriši");
             {
@@ -103,8 +175,7 @@ public class MatchHistoryScene {
                     alert.setTitle("Potvrda brisanja");
                     Optional<ButtonType> result = alert.showAndWait();
                     if (result.isPresent() && result.get() == ButtonType.OK) {
-                        DatabaseManager.INSTANCE.deleteMatch(match.getId());
-                        loadData();
+                        deleteMatch(match);
                     }
                 });
             }
@@ -119,32 +190,163 @@ public class MatchHistoryScene {
         table.getColumns().setAll(player1, player2, score, date, deleteCol);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         table.setPlaceholder(new Label("Nema podataka o mečevima"));
+        // The database sorts: a changed sort order reloads instead of sorting the loaded rows.
+        table.setSortPolicy(t -> {
+            applyQuery();
+            return true;
+        });
     }
 
     /**
-     * Asynchronously loads match data from the database into the table.
-     * This is done on a background thread to keep the UI responsive.
-     * Updates the table on the JavaFX Application Thread upon success or shows an error.
+     * Creates the filter fields shown above the table.
+     *
+     * @return The filter bar.
      */
-    private void loadData() {
-        Task<List<MatchData>> loadTask = new Task<>() {
-            @Override
-            protected List<MatchData> call() {
-                return DatabaseManager.INSTANCE.getAllMatches();
-            }
+    private HBox setupFilters() {
+        playerFilter.setPromptText("Igrač");
+        playerFilter.setOnAction(e -> applyQuery());
+        fromFilter.setPromptText("Od datuma");
+        fromFilter.setPrefWidth(130);
+        toFilter.setPromptText("Do datuma");
+        toFilter.setPrefWidth(130);
+        marginFilter.setEditable(true);
+        marginFilter.setPrefWidth(80);
+        marginFilter.setTooltip(new Tooltip("Najmanja razlika u poenima"));
 
-            @Override
-            protected void succeeded() {
-                Platform.runLater(() -> table.setItems(FXCollections.observableArrayList(getValue())));
-            }
+        Button filterButton = new Button("Filtriraj");
+        filterButton.setOnAction(e -> applyQuery());
 
-            @Override
-            protected void failed() {
-                Platform.runLater(() -> new Alert(Alert.AlertType.ERROR, "Greška pri učitavanju podataka iz baze.").show());
-                getException().printStackTrace();
+        Button clearButton = new Button("Poništi");
+        clearButton.setOnAction(e -> {
+            playerFilter.clear();
+            fromFilter.setValue(null);
+            toFilter.setValue(null);
+            marginFilter.getValueFactory().setValue(0);
+            table.getSortOrder().clear();
+            applyQuery();
+        });
+
+        Label marginLabel = new Label("Razlika ≥");
+        marginLabel.setStyle("-fx-text-fill: white;");
+        HBox filterBox = new HBox(10, playerFilter, fromFilter, toFilter, marginLabel, marginFilter, filterButton, clearButton);
+        filterBox.setAlignment(Pos.CENTER);
+        return filterBox;
+    }
+
+    /**
+     * Builds the query of the current sort order and filter fields. Without a sorted
+     * column the history is shown newest first.
+     *
+     * @return The query.
+     */
+    private MatchQuery currentQuery() {
+        MatchQuery query = MatchQuery.HISTORY;
+        if (!table.getSortOrder().isEmpty()) {
+            TableColumn<MatchData, ?> column = table.getSortOrder().get(0);
+            query = query.withSort((SortKey) column.getUserData(), column.getSortType() == TableColumn.SortType.DESCENDING);
+        }
+        Integer margin = marginFilter.getValue();
+        return query.withPlayer(playerFilter.getText())
+                .withDates(fromFilter.getValue(), toFilter.getValue())
+                .withMinMargin(margin == null ? 0 : margin);
+    }
+
+    /**
+     * Reloads the table from the first page if the sort order or the filters changed.
+     * The rows are cleared first, since they are in the old order.
+     */
+    private void applyQuery() {
+        MatchQuery query = currentQuery();
+        if (query.equals(loader.getQuery())) return;
+        table.getItems().clear();
+        deletedIds.clear();
+        loadMoreButton.setDisable(true);
+        loader.reload(query);
+    }
+
+    /**
+     * Removes a match from the table right away and deletes it in the background.
+     * If the delete fails, the row is put back and an error is shown.
+     *
+     * @param match The match to delete.
+     */
+    private void deleteMatch(MatchData match) {
+        if (!table.getItems().remove(match)) return;
+        CompletableFuture.supplyAsync(() -> DatabaseManager.INSTANCE.deleteMatch(match.getId()), BackgroundExecutor.get())
+                .whenComplete((deleted, error) -> Platform.runLater(() -> {
+                    if (error == null && deleted) return;
+                    insertSorted(match);
+                    new Alert(Alert.AlertType.ERROR, "Greška pri brisanju meča. Meč nije obrisan.").show();
+                }));
+    }
+
+    /**
+     * Inserts a single match at its position in the current order, unless the filters
+     * reject it. A match that would land after the last loaded row is skipped while more
+     * pages remain, since it will arrive with those pages.
+     *
+     * @param match The match to insert.
+     */
+    private void insertSorted(MatchData match) {
+        MatchQuery query = loader.getQuery();
+        if (!query.matches(match)) return;
+        Comparator<MatchData> order = query.comparator();
+        ObservableList<MatchData> items = table.getItems();
+        int position = 0;
+        while (position < items.size() && order.compare(items.get(position), match) < 0) {
+            position++;
+        }
+        if (position < items.size() && items.get(position).getId() == match.getId()) return;
+        if (position == items.size() && loader.hasMore()) return;
+        items.add(position, match);
+    }
+
+    /**
+     * Brings the table in line with a freshly loaded first page by removing the rows that
+     * are gone and inserting the ones that are new, leaving unchanged rows in place.
+     * Both lists are in the same order, so the rows that remain are already in the right order.
+     *
+     * @param fresh The freshly loaded rows.
+     */
+    private void applyDiff(List<MatchData> fresh) {
+        ObservableList<MatchData> items = table.getItems();
+        Set<Integer> freshIds = new HashSet<>();
+        for (MatchData match : fresh) {
+            freshIds.add(match.getId());
+        }
+        items.removeIf(m -> !freshIds.contains(m.getId()));
+        for (int i = 0; i < fresh.size(); i++) {
+            if (i >= items.size() || items.get(i).getId() != fresh.get(i).getId()) {
+                items.add(i, fresh.get(i));
             }
-        };
-        new Thread(loadTask).start();
+        }
+    }
+
+    /**
+     * Reloads the match history from the first page. Any load still in progress is
+     * superseded, and its result is discarded when it arrives.
+     */
+    private void loadData() {
+        loadMoreButton.setDisable(true);
+        loader.reload();
+    }
+
+    /**
+     * Reloads the match history every time the screen is shown, so newly played
+     * matches appear without rebuilding the screen.
+     */
+    @Override
+    public void onShow() {
+        loadData();
+    }
+
+    /**
+     * Cancels any pending loads and stops listening for match changes when the screen is discarded.
+     */
+    @Override
+    public void dispose() {
+        loader.cancelAll();
+        DatabaseManager.INSTANCE.removeMatchChangeListener(matchChanges);
     }
 
     /**
@@ -152,6 +354,7 @@ public class MatchHistoryScene {
      *
      * @return The constructed match history scene.
      */
+    @Override
     public Scene getScene() {
         return scene;
     }
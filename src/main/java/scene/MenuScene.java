@@ -1,35 +1,40 @@
 package scene;
 
+import javafx.application.Platform;
 import javafx.geometry.*;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
-import javafx.stage.Stage;
+import logika.FrameCheckpoint;
+import logika.Snooker;
 
 /**
  * Main Menu and Game Settings Scene
  * <p>
  * This class provides the main menu interface for the application.
  * It allows users to configure match settings, such as player names and the number
- * of red balls, and provides navigation to start a new game, view match history,
- * or report a bug.
+ * of red balls, and provides navigation to start a new game, view match history
+ * and statistics, or report a bug. The first time the menu is shown, it offers to
+ * resume a frame that a previous session left unfinished.
  * </p>
  *
  * @author Andrija Milovanovic
  * @version 1.0
  */
-public class MenuScene {
+public class MenuScene implements Screen {
     private final Scene scene;
+    private final SceneRouter router;
     private int brojCrvenih = 15;
 
     /**
      * Constructs the main menu scene.
      *
-     * @param stage The primary stage of the application.
+     * @param router The router used to navigate between screens.
      */
-    public MenuScene(Stage stage) {
+    public MenuScene(SceneRouter router) {
+        this.router = router;
         VBox layout = new VBox(20);
         layout.setAlignment(Pos.CENTER);
         layout.setPadding(new Insets(30));
@@ -84,30 +89,65 @@ public class MenuScene {
                 new Alert(Alert.AlertType.WARNING, "Molimo unesite imena oba igrača.").showAndWait();
                 return;
             }
-            stage.setScene(new GameScene(stage, player1Name.getText(), player2Name.getText(), brojCrvenih).getScene());
+            router.showGame(player1Name.getText(), player2Name.getText(), brojCrvenih);
         });
 
         Button historyBtn = new Button("Istorija Mečeva");
-        historyBtn.setOnAction(e -> stage.setScene(new MatchHistoryScene(stage).getScene()));
+        historyBtn.setOnAction(e -> router.show(SceneRouter.Route.HISTORY));
+
+        Button statisticsBtn = new Button("Statistika");
+        statisticsBtn.setOnAction(e -> router.show(SceneRouter.Route.STATISTICS));
 
         Button reportBtn = new Button("Prijavi Grešku");
-        reportBtn.setOnAction(e -> stage.setScene(new ReportScene(stage).getScene()));
+        reportBtn.setOnAction(e -> router.show(SceneRouter.Route.REPORT));
 
         HBox topButtonBox = new HBox(20, startBtn, historyBtn);
         topButtonBox.setAlignment(Pos.CENTER);
 
-        HBox bottomButtonBox = new HBox(20, reportBtn);
+        HBox bottomButtonBox = new HBox(20, statisticsBtn, reportBtn);
         bottomButtonBox.setAlignment(Pos.CENTER);
 
         layout.getChildren().addAll(title, playersGrid, kugliceLabel, radioButtonsBox, topButtonBox, bottomButtonBox);
         this.scene = new Scene(layout, 800, 600);
     }
 
+    /**
+     * Offers to resume a frame left unfinished by a previous session, once the menu is on screen.
+     */
+    @Override
+    public void onShow() {
+        FrameCheckpoint.SavedFrame unfinished = router.takeUnfinishedFrame();
+        if (unfinished != null) {
+            Platform.runLater(() -> offerResume(unfinished));
+        }
+    }
+
+    /**
+     * Asks whether to resume an unfinished frame, and either resumes or discards it.
+     *
+     * @param frame The unfinished frame.
+     */
+    private void offerResume(FrameCheckpoint.SavedFrame frame) {
+        Snooker snooker = frame.getSnooker();
+        ButtonType resume = new ButtonType("Nastavi", ButtonBar.ButtonData.OK_DONE);
+        ButtonType discard = new ButtonType("Odbaci", ButtonBar.ButtonData.CANCEL_CLOSE);
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION, String.format("%s %d : %d %s%n%nDa li želite da nastavite ovaj frejm?",
+                frame.getPlayer1Name(), snooker.getPoeni1(), snooker.getPoeni2(), frame.getPlayer2Name()), resume, discard);
+        alert.setTitle("Nezavršen frejm");
+        alert.setHeaderText("Pronađen je nezavršen frejm");
+        if (alert.showAndWait().orElse(discard) == resume) {
+            router.resumeGame(frame);
+        } else {
+            router.discardUnfinishedFrame();
+        }
+    }
+
     /**
      * Returns the scene for the menu screen.
      *
      * @return The constructed menu scene.
      */
+    @Override
     public Scene getScene() {
         return scene;
     }
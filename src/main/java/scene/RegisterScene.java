@@ -7,7 +7,6 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
-import javafx.stage.Stage;
 
 /**
  * User Registration Scene
@@ -20,15 +19,18 @@ import javafx.stage.Stage;
  * @author Andrija Milovanovic
  * @version 1.0
  */
-public class RegisterScene {
+public class RegisterScene implements Screen {
     private final Scene scene;
+    private final TextField username = new TextField();
+    private final PasswordField password = new PasswordField();
+    private final PasswordField confirmPassword = new PasswordField();
 
     /**
      * Constructs the registration scene.
      *
-     * @param stage The primary stage of the application.
+     * @param router The router used to navigate between screens.
      */
-    public RegisterScene(Stage stage) {
+    public RegisterScene(SceneRouter router) {
         VBox layout = new VBox(15);
         layout.setAlignment(Pos.CENTER);
         layout.setPadding(new Insets(20));
@@ -38,15 +40,12 @@ public class RegisterScene {
         title.setFont(Font.font("Arial", 28));
         title.setStyle("-fx-text-fill: white");
 
-        TextField username = new TextField();
         username.setPromptText("Unesite korisničko ime");
         username.setMaxWidth(300);
 
-        PasswordField password = new PasswordField();
         password.setPromptText("Unesite lozinku");
         password.setMaxWidth(300);
 
-        PasswordField confirmPassword = new PasswordField();
         confirmPassword.setPromptText("Potvrdite lozinku");
         confirmPassword.setMaxWidth(300);
 
@@ -68,7 +67,7 @@ public class RegisterScene {
 
             if (DatabaseManager.INSTANCE.registerUser(user, pass)) {
                 new Alert(Alert.AlertType.INFORMATION, "Registracija uspešna! Možete se prijaviti.").showAndWait();
-                stage.setScene(new LoginScene(stage).getScene());
+                router.show(SceneRouter.Route.LOGIN);
             } else {
                 new Alert(Alert.AlertType.ERROR, "Korisničko ime već postoji ili je došlo do greške.").showAndWait();
             }
@@ -76,17 +75,28 @@ public class RegisterScene {
 
         Hyperlink loginLink = new Hyperlink("Već imate nalog? Prijavite se!");
         loginLink.setTextFill(Color.WHITE);
-        loginLink.setOnAction(e -> stage.setScene(new LoginScene(stage).getScene()));
+        loginLink.setOnAction(e -> router.show(SceneRouter.Route.LOGIN));
 
         layout.getChildren().addAll(title, username, password, confirmPassword, signUpBtn, loginLink);
         this.scene = new Scene(layout, 800, 600);
     }
 
+    /**
+     * Clears all fields whenever the registration screen is shown again.
+     */
+    @Override
+    public void onShow() {
+        username.clear();
+        password.clear();
+        confirmPassword.clear();
+    }
+
     /**
      * Returns the scene for the registration screen.
      *
      * @return The constructed registration scene.
      */
+    @Override
     public Scene getScene() {
         return scene;
     }
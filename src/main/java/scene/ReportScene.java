@@ -8,7 +8,6 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
-import javafx.stage.Stage;
 
 /**
  * Bug Report and Feedback Scene
@@ -21,18 +20,20 @@ import javafx.stage.Stage;
  * @author Andrija Milovanovic
  * @version 1.0
  */
-public class ReportScene {
+public class ReportScene implements Screen {
 
     private final Scene scene;
-    private final Stage stage;
+    private final SceneRouter router;
+    private final TextArea reportArea = new TextArea();
+    private final Button triageButton = new Button("Pregled prijava");
 
     /**
      * Constructs the report scene.
      *
-     * @param stage The primary stage of the application.
+     * @param router The router used to navigate between screens.
      */
-    public ReportScene(Stage stage) {
-        this.stage = stage;
+    public ReportScene(SceneRouter router) {
+        this.router = router;
 
         VBox layout = new VBox(20);
         layout.setAlignment(Pos.CENTER);
@@ -43,7 +44,6 @@ public class ReportScene {
         title.setFont(Font.font("Arial", 26));
         title.setTextFill(Color.WHITE);
 
-        TextArea reportArea = new TextArea();
         reportArea.setPromptText("Opišite problem ili vašu sugestiju ovde...");
         reportArea.setWrapText(true);
         reportArea.setMaxWidth(500);
@@ -54,11 +54,13 @@ public class ReportScene {
         submitButton.setOnAction(e -> handleSubmit(reportArea.getText()));
 
         Button backButton = new Button("Nazad na Meni");
-        backButton.setOnAction(e -> stage.setScene(new MenuScene(stage).getScene()));
+        backButton.setOnAction(e -> router.show(SceneRouter.Route.MENU));
+
+        triageButton.setOnAction(e -> router.show(SceneRouter.Route.TRIAGE));
 
         VBox.setMargin(backButton, new Insets(20, 0, 0, 0));
 
-        layout.getChildren().addAll(title, reportArea, submitButton, backButton);
+        layout.getChildren().addAll(title, reportArea, submitButton, backButton, triageButton);
         this.scene = new Scene(layout, 800, 600);
     }
 
@@ -78,7 +80,7 @@ public class ReportScene {
         int userId = DatabaseManager.INSTANCE.getCurrentUserId();
         if (userId == -1) {
             new Alert(Alert.AlertType.ERROR, "Niste prijavljeni. Prijavite se da biste poslali izveštaj.").showAndWait();
-            stage.setScene(new LoginScene(stage).getScene());
+            router.show(SceneRouter.Route.LOGIN);
             return;
         }
 
@@ -86,17 +88,30 @@ public class ReportScene {
 
         if (success) {
             new Alert(Alert.AlertType.INFORMATION, "Hvala! Vaš izveštaj je uspešno poslat.").showAndWait();
-            stage.setScene(new MenuScene(stage).getScene());
+            router.show(SceneRouter.Route.MENU);
         } else {
             new Alert(Alert.AlertType.ERROR, "Došlo je do greške prilikom slanja izveštaja.").showAndWait();
         }
     }
 
+    /**
+     * Clears the previous message whenever the report screen is shown again, and offers
+     * the triage of all reports only to administrators.
+     */
+    @Override
+    public void onShow() {
+        reportArea.clear();
+        boolean admin = DatabaseManager.INSTANCE.isCurrentUserAdmin();
+        triageButton.setVisible(admin);
+        triageButton.setManaged(admin);
+    }
+
     /**
      * Returns the scene for the report submission screen.
      *
      * @return The constructed report scene.
      */
+    @Override
     public Scene getScene() {
         return scene;
     }
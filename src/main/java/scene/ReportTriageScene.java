@@ -0,0 +1,177 @@
+package scene;
+
+import data.BackgroundExecutor;
+import data.ReportCluster;
+import database.DatabaseManager;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bug Report Triage Scene
+ * <p>
+ * Lists the clusters of near-duplicate bug reports, largest first, so the problems most
+ * users run into are triaged first however many reports have piled up. Selecting a
+ * cluster shows its newest messages. Reports are assigned to clusters as they are saved;
+ * reports stored before clustering existed are clustered in the background when the
+ * screen is shown.
+ * </p>
+ * <p>
+ * The clusters mix the reports of every user, so only an administrator may see them;
+ * for anyone else the screen stays empty and the database refuses the queries as well.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class ReportTriageScene implements Screen {
+
+    private static final int CLUSTER_LIMIT = 200;
+    private static final int MESSAGE_LIMIT = 100;
+    private static final int BACKFILL_BATCH = 500;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy. HH:mm");
+
+    private final Scene scene;
+    private final TableView<ReportCluster> clusterTable = new TableView<>();
+    private final ListView<String> messageList = new ListView<>();
+    private final Label statusLabel = new Label();
+
+    /** Incremented by every load, so only the newest one is shown. */
+    private int loadGeneration = 0;
+
+    /**
+     * Constructs the triage scene.
+     *
+     * @param router The router used to navigate between screens.
+     */
+    public ReportTriageScene(SceneRouter router) {
+        VBox layout = new VBox(15);
+        layout.setPadding(new Insets(20));
+        layout.setStyle("-fx-background-color: #016300;");
+        layout.setAlignment(Pos.CENTER);
+
+        Label title = new Label("Trijaža prijava");
+        title.setFont(Font.font("Arial", 24));
+        title.setStyle("-fx-text-fill: white;");
+        statusLabel.setStyle("-fx-text-fill: white;");
+
+        setupTable();
+        messageList.setPrefHeight(180);
+        messageList.setPlaceholder(new Label("Izaberite grupu prijava"));
+        clusterTable.getSelectionModel().selectedItemProperty().addListener((obs, oldValue, cluster) -> showMessages(cluster));
+
+        Button refreshButton = new Button("Osveži");
+        refreshButton.setOnAction(e -> onShow());
+
+        Button backButton = new Button("Nazad");
+        backButton.setOnAction(e -> router.show(SceneRouter.Route.REPORT));
+
+        HBox buttonBox = new HBox(20, refreshButton, backButton);
+        buttonBox.setAlignment(Pos.CENTER);
+
+        layout.getChildren().addAll(title, statusLabel, clusterTable, messageList, buttonBox);
+        this.scene = new Scene(layout, 800, 600);
+    }
+
+    /**
+     * Configures the cluster table columns.
+     */
+    private void setupTable() {
+        TableColumn<ReportCluster, Integer> size = new TableColumn<>("Broj prijava");
+        size.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().getSize()));
+        size.setPrefWidth(100);
+
+        TableColumn<ReportCluster, String> last = new TableColumn<>("Poslednja prijava");
+        last.setCellValueFactory(cellData -> {
+            LocalDateTime date = cellData.getValue().getLastReported();
+            return new SimpleStringProperty(date == null ? "" : date.format(DATE_FORMAT));
+        });
+        last.setPrefWidth(150);
+
+        TableColumn<ReportCluster, String> sample = new TableColumn<>("Primer poruke");
+        sample.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getSampleMessage().replace('\n', ' ')));
+        sample.setPrefWidth(500);
+
+        clusterTable.getColumns().setAll(List.of(size, last, sample));
+        clusterTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        clusterTable.setPlaceholder(new Label("Nema prijava"));
+    }
+
+    /**
+     * Clusters any reports that are not clustered yet, then loads the largest clusters,
+     * all in the background.
+     */
+    private void loadClusters() {
+        int generation = ++loadGeneration;
+        statusLabel.setText("Učitavanje...");
+        CompletableFuture.supplyAsync(() -> {
+            int clustered;
+            do {
+                clustered = DatabaseManager.INSTANCE.clusterUnassignedReports(BACKFILL_BATCH);
+            } while (clustered == BACKFILL_BATCH);
+            return DatabaseManager.INSTANCE.getReportClusters(CLUSTER_LIMIT);
+        }, BackgroundExecutor.get()).whenComplete((clusters, error) -> Platform.runLater(() -> {
+            if (generation != loadGeneration) return;
+            if (error != null) {
+                statusLabel.setText("Greška pri učitavanju prijava.");
+                error.printStackTrace();
+                return;
+            }
+            clusterTable.getItems().setAll(clusters);
+            statusLabel.setText(clusters.size() + " najvećih grupa prijava");
+        }));
+    }
+
+    /**
+     * Loads the newest messages of a cluster in the background.
+     *
+     * @param cluster The selected cluster, or {@code null} if the selection was cleared.
+     */
+    private void showMessages(ReportCluster cluster) {
+        messageList.getItems().clear();
+        if (cluster == null) return;
+        CompletableFuture.supplyAsync(() -> DatabaseManager.INSTANCE.getClusterReports(cluster.getId(), MESSAGE_LIMIT), BackgroundExecutor.get())
+                .thenAccept(messages -> Platform.runLater(() -> {
+                    if (clusterTable.getSelectionModel().getSelectedItem() == cluster) {
+                        messageList.getItems().setAll(messages);
+                    }
+                }));
+    }
+
+    /**
+     * Reloads the clusters every time the screen is shown, if the user is an administrator.
+     */
+    @Override
+    public void onShow() {
+        if (!DatabaseManager.INSTANCE.isCurrentUserAdmin()) {
+            ++loadGeneration;
+            clusterTable.getItems().clear();
+            messageList.getItems().clear();
+            statusLabel.setText("Pregled prijava je dostupan samo administratorima.");
+            return;
+        }
+        loadClusters();
+    }
+
+    /**
+     * Returns the scene for the triage screen.
+     *
+     * @return The constructed triage scene.
+     */
+    @Override
+    public Scene getScene() {
+        return scene;
+    }
+}
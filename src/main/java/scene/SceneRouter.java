@@ -0,0 +1,253 @@
+package scene;
+
+import data.AppFiles;
+import javafx.stage.Stage;
+import logika.FrameCheckpoint;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Scene Router
+ * <p>
+ * Switches the primary stage between the application's screens. Every screen except
+ * the game is built once, cached and reused, and reset on each visit, so switching
+ * screens does not rebuild scene graphs and old graphs do not pile up on the heap
+ * during long sessions. A game screen lives only as long as its frame and is disposed
+ * as soon as the router navigates away from it.
+ * </p>
+ * <p>
+ * The router also owns the {@link FrameCheckpoint} that game screens save the frame in
+ * progress to, and hands out a frame left unfinished by a previous session once, so
+ * it can be offered for resuming.
+ * </p>
+ * <p>
+ * The big-screen {@link ScoreboardWindow} is also opened through the router, so that a
+ * single window outlives the game screens it follows.
+ * </p>
+ * <p>
+ * When started with {@code -Dsnooker.heapReport=true}, the router measures the heap
+ * retained by each screen it builds and logs a per-screen report.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class SceneRouter {
+
+    /**
+     * The reusable screens of the application.
+     */
+    public enum Route { LOGIN, REGISTER, MENU, HISTORY, REPORT, STATISTICS, TRIAGE }
+
+    private static final System.Logger LOG = System.getLogger(SceneRouter.class.getName());
+    private static final boolean HEAP_REPORT = Boolean.getBoolean("snooker.heapReport");
+    private static final String CHECKPOINT_FILE = "frame-checkpoint.bin";
+
+    private final Stage stage;
+    private final Map<Route, Screen> screens = new EnumMap<>(Route.class);
+    private final Map<Route, Long> retainedBytes = new EnumMap<>(Route.class);
+    private GameScene activeGame;
+    private final FrameCheckpoint checkpoint;
+    private boolean unfinishedFrameTaken = false;
+    private ScoreboardWindow scoreboardWindow;
+
+    /**
+     * Constructs a router for the given stage.
+     *
+     * @param stage The primary stage of the application.
+     */
+    public SceneRouter(Stage stage) {
+        this.stage = stage;
+        this.checkpoint = openCheckpoint();
+    }
+
+    /**
+     * Opens the frame checkpoint file. Games are still playable without it, they just
+     * cannot be resumed after a crash.
+     *
+     * @return The checkpoint, or {@code null} if it could not be opened.
+     */
+    private static FrameCheckpoint openCheckpoint() {
+        try {
+            return new FrameCheckpoint(AppFiles.resolve(CHECKPOINT_FILE));
+        } catch (IOException e) {
+            System.err.println("Error opening the frame checkpoint: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Gets the checkpoint that game screens save the frame in progress to.
+     *
+     * @return The checkpoint, or {@code null} if it is not available.
+     */
+    public FrameCheckpoint getFrameCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Gets the frame that was left unfinished by a previous session. It is handed out
+     * only once per session; later calls return {@code null}.
+     *
+     * @return The unfinished frame, or {@code null} if there is none.
+     */
+    public FrameCheckpoint.SavedFrame takeUnfinishedFrame() {
+        if (unfinishedFrameTaken || checkpoint == null) return null;
+        unfinishedFrameTaken = true;
+        return checkpoint.load();
+    }
+
+    /**
+     * Discards the unfinished frame of a previous session.
+     */
+    public void discardUnfinishedFrame() {
+        if (checkpoint != null) checkpoint.clear();
+    }
+
+    /**
+     * Gets the primary stage the router switches scenes on.
+     *
+     * @return The primary stage.
+     */
+    public Stage getStage() {
+        return stage;
+    }
+
+    /**
+     * Shows a reusable screen, building it on its first visit.
+     *
+     * @param route The screen to show.
+     */
+    public void show(Route route) {
+        Screen screen = screens.get(route);
+        if (screen == null) {
+            screen = build(route);
+            screens.put(route, screen);
+        }
+        screen.onShow();
+        stage.setScene(screen.getScene());
+        disposeActiveGame();
+    }
+
+    /**
+     * Starts a new game on a freshly built game screen.
+     *
+     * @param player1Name The name of player 1.
+     * @param player2Name The name of player 2.
+     * @param brojCrvenih The number of red balls to start the game with.
+     */
+    public void showGame(String player1Name, String player2Name, int brojCrvenih) {
+        disposeActiveGame();
+        long before = usedHeap();
+        activeGame = new GameScene(this, player1Name, player2Name, brojCrvenih);
+        if (HEAP_REPORT) {
+            LOG.log(System.Logger.Level.INFO, "[router] GAME retains ~" + (usedHeap() - before) / 1024 + " KB");
+        }
+        activeGame.onShow();
+        stage.setScene(activeGame.getScene());
+    }
+
+    /**
+     * Resumes an unfinished frame on a freshly built game screen.
+     *
+     * @param frame The frame restored from the checkpoint.
+     */
+    public void resumeGame(FrameCheckpoint.SavedFrame frame) {
+        disposeActiveGame();
+        activeGame = new GameScene(this, frame);
+        activeGame.onShow();
+        stage.setScene(activeGame.getScene());
+    }
+
+    /**
+     * Opens the big-screen scoreboard, or closes it if it is open. The window is created
+     * on first use.
+     */
+    public void toggleScoreboard() {
+        if (scoreboardWindow == null) {
+            scoreboardWindow = new ScoreboardWindow();
+        }
+        if (scoreboardWindow.isOpen()) {
+            scoreboardWindow.close();
+        } else {
+            scoreboardWindow.open();
+        }
+    }
+
+    /**
+     * Builds the screen for a route.
+     *
+     * @param route The route to build.
+     * @return The new screen.
+     */
+    private Screen build(Route route) {
+        long before = usedHeap();
+        Screen screen = switch (route) {
+            case LOGIN -> new LoginScene(this);
+            case REGISTER -> new RegisterScene(this);
+            case MENU -> new MenuScene(this);
+            case HISTORY -> new MatchHistoryScene(this);
+            case REPORT -> new ReportScene(this);
+            case STATISTICS -> new StatisticsScene(this);
+            case TRIAGE -> new ReportTriageScene(this);
+        };
+        if (HEAP_REPORT) {
+            retainedBytes.put(route, usedHeap() - before);
+            printHeapReport();
+        }
+        return screen;
+    }
+
+    /**
+     * Disposes the current game screen, if any, once it is no longer shown.
+     */
+    private void disposeActiveGame() {
+        if (activeGame != null && stage.getScene() != activeGame.getScene()) {
+            activeGame.dispose();
+            activeGame = null;
+        }
+    }
+
+    /**
+     * Logs the heap retained by each cached screen, as measured when it was built.
+     */
+    private void printHeapReport() {
+        StringBuilder report = new StringBuilder("[router] heap retained per screen:");
+        long total = 0;
+        for (Map.Entry<Route, Long> entry : retainedBytes.entrySet()) {
+            report.append(' ').append(entry.getKey()).append("=~").append(entry.getValue() / 1024).append(" KB");
+            total += entry.getValue();
+        }
+        report.append(" (total ~").append(total / 1024).append(" KB)");
+        LOG.log(System.Logger.Level.INFO, report.toString());
+    }
+
+    /**
+     * Measures the used heap, after a full collection when heap reporting is enabled
+     * so that the difference between two samples approximates the retained size.
+     *
+     * @return The used heap in bytes.
+     */
+    private static long usedHeap() {
+        if (!HEAP_REPORT) return 0;
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Disposes every screen the router has built.
+     */
+    public void dispose() {
+        if (activeGame != null) {
+            activeGame.dispose();
+            activeGame = null;
+        }
+        screens.values().forEach(Screen::dispose);
+        screens.clear();
+        if (scoreboardWindow != null) scoreboardWindow.close();
+        if (checkpoint != null) checkpoint.close();
+    }
+}
@@ -0,0 +1,323 @@
+package scene;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Rectangle2D;
+import javafx.geometry.VPos;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+import javafx.stage.Stage;
+import logika.FrameSnapshot;
+import logika.FrameStateHub;
+import logika.FrameStateListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Big-Screen Scoreboard Window
+ * <p>
+ * A full-screen scoreboard for projecting next to the table. Instead of scaling up the
+ * game screen's controls, it draws the score, the break, the reds remaining and the
+ * next ball onto a single {@link Canvas}, which stays cheap at any resolution.
+ * </p>
+ * <p>
+ * The window listens to the {@link FrameStateHub} but never draws from the listener:
+ * the latest snapshot is parked and picked up by an {@link AnimationTimer}, so however
+ * many shots are recorded between two pulses, there is at most one redraw per pulse.
+ * The board is split into regions, and only the regions whose values changed since the
+ * last redraw are cleared and drawn again. The time spent drawing is measured and
+ * logged at debug level when the window is closed.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class ScoreboardWindow implements FrameStateListener {
+
+    /** The player names band, including which player is at the table. */
+    public static final int REGION_NAMES = 1;
+    /** The score of player 1. */
+    public static final int REGION_SCORE1 = 2;
+    /** The score of player 2. */
+    public static final int REGION_SCORE2 = 4;
+    /** The current and highest break. */
+    public static final int REGION_BREAK = 8;
+    /** The reds remaining and the next ball. */
+    public static final int REGION_TABLE = 16;
+    /** All regions, drawn after the window is opened or resized. */
+    public static final int ALL_REGIONS = REGION_NAMES | REGION_SCORE1 | REGION_SCORE2 | REGION_BREAK | REGION_TABLE;
+
+    private static final System.Logger LOG = System.getLogger(ScoreboardWindow.class.getName());
+    private static final int MAX_SAMPLES = 512;
+    private static final Color BACKGROUND = Color.web("#0B3D0B");
+    private static final Color HIGHLIGHT = Color.web("#FFD700");
+    private static final Color DIM = Color.web("#9FB89F");
+    /** Ball colors indexed by point value. */
+    private static final Color[] BALL_COLORS = {Color.TRANSPARENT, Color.web("#C8102E"), Color.web("#FFD100"),
+            Color.web("#00843D"), Color.web("#7B4A12"), Color.web("#0057B8"), Color.web("#FF8DA1"), Color.BLACK};
+    /** Ball color names indexed by point value. */
+    private static final String[] BALL_NAMES = {"", "CRVENA", "ŽUTA", "ZELENA", "BRAON", "PLAVA", "ROZE", "CRNA"};
+
+    private final Stage stage = new Stage();
+    private final Canvas canvas = new Canvas();
+    private final GraphicsContext gc = canvas.getGraphicsContext2D();
+    private final AtomicReference<FrameSnapshot> pending = new AtomicReference<>();
+    private final AnimationTimer pulse;
+
+    private FrameSnapshot drawn;
+    private boolean layoutDirty = true;
+    private Font nameFont;
+    private Font scoreFont;
+    private Font infoFont;
+
+    private final long[] drawNanos = new long[MAX_SAMPLES];
+    private int redraws = 0;
+    private long pulses = 0;
+    private long regionsDrawn = 0;
+
+    /**
+     * Creates the window, on the second screen if there is one. It is not shown until
+     * {@link #open()} is called.
+     */
+    public ScoreboardWindow() {
+        Scene scene = new Scene(new Group(canvas), 1280, 720, BACKGROUND);
+        canvas.widthProperty().bind(scene.widthProperty());
+        canvas.heightProperty().bind(scene.heightProperty());
+        canvas.widthProperty().addListener((obs, oldValue, newValue) -> layoutDirty = true);
+        canvas.heightProperty().addListener((obs, oldValue, newValue) -> layoutDirty = true);
+
+        List<javafx.stage.Screen> screens = javafx.stage.Screen.getScreens();
+        Rectangle2D bounds = screens.get(screens.size() > 1 ? 1 : 0).getBounds();
+        stage.setX(bounds.getMinX());
+        stage.setY(bounds.getMinY());
+        stage.setTitle("Semafor");
+        stage.setScene(scene);
+        stage.setFullScreenExitHint("");
+        stage.setOnHidden(e -> stop());
+
+        pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onPulse();
+            }
+        };
+    }
+
+    /**
+     * Shows the window full screen and starts following the frame in progress.
+     */
+    public void open() {
+        if (stage.isShowing()) return;
+        drawn = null;
+        layoutDirty = true;
+        FrameSnapshot latest = FrameStateHub.INSTANCE.getLatest();
+        if (latest != null) pending.set(latest);
+        FrameStateHub.INSTANCE.addListener(this);
+        pulse.start();
+        stage.show();
+        stage.setFullScreen(true);
+    }
+
+    /**
+     * Closes the window.
+     */
+    public void close() {
+        stage.hide();
+    }
+
+    /**
+     * @return {@code true} if the window is shown.
+     */
+    public boolean isOpen() {
+        return stage.isShowing();
+    }
+
+    /**
+     * Stops following the frame and logs the frame-time summary.
+     */
+    private void stop() {
+        FrameStateHub.INSTANCE.removeListener(this);
+        pulse.stop();
+        if (redraws > 0) LOG.log(System.Logger.Level.DEBUG, () -> "[scoreboard] " + summary());
+    }
+
+    /**
+     * Parks the new state until the next pulse. Only the latest state is kept.
+     *
+     * @param snapshot The new frame state.
+     */
+    @Override
+    public void frameUpdated(FrameSnapshot snapshot) {
+        pending.set(snapshot);
+    }
+
+    /**
+     * Called once per pulse: redraws the regions that changed since the last redraw.
+     */
+    private void onPulse() {
+        pulses++;
+        FrameSnapshot next = pending.getAndSet(null);
+        if (next == null && !layoutDirty) return;
+        if (next == null) next = drawn;
+        if (next == null) return;
+
+        long start = System.nanoTime();
+        int regions;
+        if (layoutDirty) {
+            layoutDirty = false;
+            updateFonts();
+            gc.setFill(BACKGROUND);
+            gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            regions = ALL_REGIONS;
+        } else {
+            regions = dirtyRegions(drawn, next);
+        }
+        if (regions != 0) {
+            draw(next, regions);
+            drawNanos[redraws % MAX_SAMPLES] = System.nanoTime() - start;
+            redraws++;
+            regionsDrawn += Integer.bitCount(regions);
+        }
+        drawn = next;
+    }
+
+    /**
+     * Works out which regions of the board show different values for two states.
+     *
+     * @param drawn The state currently on the board, or {@code null} if nothing is drawn.
+     * @param next  The state to show.
+     * @return A bit mask of {@code REGION_*} constants.
+     */
+    public static int dirtyRegions(FrameSnapshot drawn, FrameSnapshot next) {
+        if (drawn == null) return ALL_REGIONS;
+        int regions = 0;
+        if (!drawn.getPlayer1Name().equals(next.getPlayer1Name()) || !drawn.getPlayer2Name().equals(next.getPlayer2Name())
+                || drawn.isPlayer1Turn() != next.isPlayer1Turn()) {
+            regions |= REGION_NAMES;
+        }
+        if (drawn.getScore1() != next.getScore1()) regions |= REGION_SCORE1;
+        if (drawn.getScore2() != next.getScore2()) regions |= REGION_SCORE2;
+        if (drawn.getCurrentBreak() != next.getCurrentBreak() || drawn.getHighestBreak() != next.getHighestBreak()) {
+            regions |= REGION_BREAK;
+        }
+        if (drawn.getRedsRemaining() != next.getRedsRemaining() || drawn.isRedRequired() != next.isRedRequired()
+                || drawn.isEndgame() != next.isEndgame() || drawn.getNextColor() != next.getNextColor()
+                || drawn.isGameOver() != next.isGameOver()) {
+            regions |= REGION_TABLE;
+        }
+        return regions;
+    }
+
+    /**
+     * Scales the fonts to the canvas, so the board fills any screen.
+     */
+    private void updateFonts() {
+        double h = canvas.getHeight();
+        nameFont = Font.font("Arial", FontWeight.BOLD, h * 0.07);
+        scoreFont = Font.font("Arial", FontWeight.BOLD, h * 0.28);
+        infoFont = Font.font("Arial", FontWeight.NORMAL, h * 0.06);
+    }
+
+    /**
+     * Clears and draws the given regions.
+     *
+     * @param s       The state to draw.
+     * @param regions A bit mask of {@code REGION_*} constants.
+     */
+    private void draw(FrameSnapshot s, int regions) {
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+
+        if ((regions & REGION_NAMES) != 0) {
+            clear(0, 0, w, h * 0.2);
+            gc.setFont(nameFont);
+            gc.setFill(s.isPlayer1Turn() ? HIGHLIGHT : Color.WHITE);
+            gc.fillText(s.getPlayer1Name(), w * 0.25, h * 0.1, w * 0.45);
+            gc.setFill(s.isPlayer1Turn() ? Color.WHITE : HIGHLIGHT);
+            gc.fillText(s.getPlayer2Name(), w * 0.75, h * 0.1, w * 0.45);
+        }
+        if ((regions & REGION_SCORE1) != 0) {
+            clear(0, h * 0.2, w * 0.5, h * 0.4);
+            gc.setFont(scoreFont);
+            gc.setFill(Color.WHITE);
+            gc.fillText(Integer.toString(s.getScore1()), w * 0.25, h * 0.4);
+        }
+        if ((regions & REGION_SCORE2) != 0) {
+            clear(w * 0.5, h * 0.2, w * 0.5, h * 0.4);
+            gc.setFont(scoreFont);
+            gc.setFill(Color.WHITE);
+            gc.fillText(Integer.toString(s.getScore2()), w * 0.75, h * 0.4);
+        }
+        if ((regions & REGION_BREAK) != 0) {
+            clear(0, h * 0.6, w, h * 0.15);
+            gc.setFont(infoFont);
+            gc.setFill(Color.WHITE);
+            gc.fillText("Brejk: " + s.getCurrentBreak() + "     Najveći brejk: " + s.getHighestBreak(), w * 0.5, h * 0.675);
+        }
+        if ((regions & REGION_TABLE) != 0) {
+            clear(0, h * 0.75, w, h * 0.25);
+            drawTable(s, w, h);
+        }
+    }
+
+    /**
+     * Draws the reds remaining and the next ball, with a ball in its color.
+     */
+    private void drawTable(FrameSnapshot s, double w, double h) {
+        gc.setFont(infoFont);
+        double y = h * 0.875;
+        if (s.isGameOver()) {
+            gc.setFill(HIGHLIGHT);
+            gc.fillText("Kraj frejma", w * 0.5, y);
+            return;
+        }
+        int ball = s.isEndgame() ? Math.max(2, Math.min(7, s.getNextColor())) : (s.isRedRequired() ? 1 : 0);
+        gc.setFill(DIM);
+        gc.fillText("Crvene: " + s.getRedsRemaining(), w * 0.25, y);
+        gc.setFill(Color.WHITE);
+        gc.fillText("Na redu: " + (ball == 0 ? "OBOJENA" : BALL_NAMES[ball]), w * 0.62, y);
+        if (ball != 0) {
+            double r = h * 0.04;
+            gc.setFill(BALL_COLORS[ball]);
+            gc.fillOval(w * 0.88 - r, y - r, 2 * r, 2 * r);
+            gc.setStroke(Color.WHITE);
+            gc.setLineWidth(Math.max(1, r * 0.08));
+            gc.strokeOval(w * 0.88 - r, y - r, 2 * r, 2 * r);
+        }
+    }
+
+    /**
+     * Fills a region with the background color.
+     */
+    private void clear(double x, double y, double w, double h) {
+        gc.setFill(BACKGROUND);
+        gc.fillRect(x, y, w, h);
+    }
+
+    /**
+     * @return A one-line summary of the redraws and the time spent drawing.
+     */
+    public String summary() {
+        int retained = Math.min(redraws, MAX_SAMPLES);
+        long[] sorted = Arrays.copyOf(drawNanos, retained);
+        Arrays.sort(sorted);
+        return String.format("%d redraws in %d pulses, %.1f regions per redraw; draw time p50 %.3f ms, p95 %.3f ms, max %.3f ms",
+                redraws, pulses, redraws == 0 ? 0.0 : (double) regionsDrawn / redraws,
+                percentile(sorted, 50) / 1e6, percentile(sorted, 95) / 1e6, percentile(sorted, 100) / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
@@ -0,0 +1,35 @@
+package scene;
+
+import javafx.scene.Scene;
+
+/**
+ * Application Screen
+ * <p>
+ * A screen of the application that the {@link SceneRouter} can show on the primary
+ * stage. Reusable screens are built once and reset in {@link #onShow()} every time they
+ * are shown again; short-lived screens release their resources in {@link #dispose()}.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public interface Screen {
+
+    /**
+     * Returns the scene of this screen.
+     *
+     * @return The constructed scene.
+     */
+    Scene getScene();
+
+    /**
+     * Called every time the screen is about to be shown, including the first time.
+     * Screens reset their state for a fresh visit here.
+     */
+    default void onShow() {}
+
+    /**
+     * Called when the screen will not be shown again, to release listeners and other resources.
+     */
+    default void dispose() {}
+}
@@ -0,0 +1,345 @@
+package scene;
+
+import data.BackgroundExecutor;
+import data.BreakData;
+import data.EloRatings;
+import data.MatchData;
+import data.MatchStatistics;
+import data.MatchStore;
+import database.DatabaseManager;
+import database.MatchChangeListener;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Statistics Dashboard Scene
+ * <p>
+ * Shows per-player win rates and average scores, the distribution of breaks and the
+ * monthly trend of matches played and points scored, as charts, and the players with
+ * the highest {@link EloRatings Elo rating}.
+ * </p>
+ * <p>
+ * The statistics are aggregated by a {@link MatchStatistics} confined to a serial
+ * {@link BackgroundExecutor.Lane lane} on the shared background pool. On the first visit
+ * the whole history is streamed through it page by page, and the charts fill in as pages
+ * arrive, so a large history never blocks the UI. Afterwards matches saved or deleted
+ * anywhere in the application are applied as single incremental updates instead of
+ * recomputing the aggregates. Chart refreshes are coalesced, so a burst of updates costs
+ * one refresh per pulse at most.
+ * </p>
+ * <p>
+ * The ratings are computed from the columnar {@link MatchStore} the statistics keep of
+ * the streamed matches once the history is complete, by replaying it in date order.
+ * A saved or deleted match that was played last is then applied to the ratings alone;
+ * one further back is replayed from the last checkpoint before it, since it changes the
+ * ratings every later match was played at.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class StatisticsScene implements Screen {
+
+    private static final int MATCH_PAGE_SIZE = 2000;
+    private static final int BREAK_PAGE_SIZE = 5000;
+    private static final int TOP_PLAYERS = 10;
+    private static final int TREND_MONTHS = 12;
+    private static final int TOP_RATINGS = 5;
+
+    private final Scene scene;
+    private final Label statusLabel = new Label();
+    private final Label ratingLabel = new Label();
+    private final XYChart.Series<String, Number> winRateSeries = new XYChart.Series<>();
+    private final XYChart.Series<String, Number> averageScoreSeries = new XYChart.Series<>();
+    private final XYChart.Series<String, Number> breakSeries = new XYChart.Series<>();
+    private final XYChart.Series<String, Number> matchesTrendSeries = new XYChart.Series<>();
+    private final XYChart.Series<String, Number> pointsTrendSeries = new XYChart.Series<>();
+
+    private final BackgroundExecutor.Lane worker = BackgroundExecutor.newLane();
+
+    /** The aggregates; touched only on the worker lane, {@code null} until the first visit. */
+    private MatchStatistics statistics;
+    /** The ratings; touched only on the worker lane, {@code null} until the history has been streamed. */
+    private EloRatings ratings;
+    private volatile StatisticsView latestView;
+    private boolean loadStarted = false;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+
+    private final MatchChangeListener matchChanges = new MatchChangeListener() {
+        @Override
+        public void matchSaved(MatchData match) {
+            worker.execute(() -> {
+                if (statistics == null || !statistics.addMatch(match)) return;
+                statistics.replaceBreaks(match.getId(), DatabaseManager.INSTANCE.getBreaksForMatch(match.getId()));
+                if (ratings != null) {
+                    if (ratings.isLatest(match.getDate(), match.getId())) ratings.addMatch(match);
+                    else ratings.recomputeFrom(statistics.getMatches(), match.getDate());
+                }
+                publish(false);
+            });
+        }
+
+        @Override
+        public void matchDeleted(int matchId) {
+            worker.execute(() -> {
+                if (statistics == null) return;
+                MatchStore history = statistics.getMatches();
+                int row = history.rowOf(matchId);
+                if (row < 0) return;
+                LocalDate date = LocalDate.ofEpochDay(history.epochDay(row));
+                boolean latest = ratings != null && ratings.isLatest(date, matchId);
+                statistics.removeMatch(matchId);
+                if (ratings != null) {
+                    if (latest) ratings.removeMatch(matchId);
+                    else ratings.recomputeFrom(history, date);
+                }
+                publish(false);
+            });
+        }
+    };
+
+    /**
+     * Constructs the statistics scene.
+     *
+     * @param router The router used to navigate between screens.
+     */
+    public StatisticsScene(SceneRouter router) {
+        VBox layout = new VBox(10);
+        layout.setPadding(new Insets(15));
+        layout.setStyle("-fx-background-color: #016300;");
+        layout.setAlignment(Pos.CENTER);
+
+        Label title = new Label("Statistika");
+        title.setFont(Font.font("Arial", 24));
+        title.setStyle("-fx-text-fill: white;");
+        statusLabel.setStyle("-fx-text-fill: white;");
+        ratingLabel.setStyle("-fx-text-fill: white;");
+
+        winRateSeries.setName("Procenat pobeda");
+        averageScoreSeries.setName("Prosečan broj poena");
+        breakSeries.setName("Brejkovi");
+        matchesTrendSeries.setName("Mečevi");
+        pointsTrendSeries.setName("Prosečno poena po meču");
+
+        GridPane charts = new GridPane();
+        charts.setHgap(10);
+        charts.setVgap(10);
+        charts.setAlignment(Pos.CENTER);
+        charts.add(barChart("Procenat pobeda po igraču", winRateSeries), 0, 0);
+        charts.add(barChart("Prosečan rezultat po igraču", averageScoreSeries), 1, 0);
+        charts.add(barChart("Raspodela brejkova", breakSeries), 0, 1);
+        charts.add(trendChart(), 1, 1);
+
+        for (String label : MatchStatistics.BREAK_BUCKET_LABELS) {
+            breakSeries.getData().add(new XYChart.Data<>(label, 0));
+        }
+
+        DatabaseManager.INSTANCE.addMatchChangeListener(matchChanges);
+
+        Button refreshButton = new Button("Osveži");
+        refreshButton.setOnAction(e -> reload());
+
+        Button backButton = new Button("Nazad");
+        backButton.setOnAction(e -> router.show(SceneRouter.Route.MENU));
+
+        HBox buttonBox = new HBox(20, refreshButton, backButton);
+        buttonBox.setAlignment(Pos.CENTER);
+
+        layout.getChildren().addAll(title, statusLabel, ratingLabel, charts, buttonBox);
+        this.scene = new Scene(layout, 800, 600);
+    }
+
+    /**
+     * Builds a compact bar chart for one series.
+     */
+    private static BarChart<String, Number> barChart(String title, XYChart.Series<String, Number> series) {
+        BarChart<String, Number> chart = new BarChart<>(new CategoryAxis(), new NumberAxis());
+        chart.setTitle(title);
+        chart.setLegendVisible(false);
+        chart.setAnimated(false);
+        chart.setPrefSize(380, 240);
+        chart.getData().add(series);
+        return chart;
+    }
+
+    /**
+     * Builds the monthly trend chart.
+     */
+    private LineChart<String, Number> trendChart() {
+        LineChart<String, Number> chart = new LineChart<>(new CategoryAxis(), new NumberAxis());
+        chart.setTitle("Trend po mesecima");
+        chart.setAnimated(false);
+        chart.setPrefSize(380, 240);
+        chart.getData().add(matchesTrendSeries);
+        chart.getData().add(pointsTrendSeries);
+        return chart;
+    }
+
+    /**
+     * Streams the whole history through the aggregator on the first visit; later visits
+     * show the statistics kept up to date by incremental updates.
+     */
+    @Override
+    public void onShow() {
+        if (!loadStarted) {
+            loadStarted = true;
+            reload();
+        }
+    }
+
+    /**
+     * Recomputes the statistics from scratch on the worker lane.
+     */
+    private void reload() {
+        statusLabel.setText("Učitavanje statistike...");
+        worker.execute(this::streamHistory);
+    }
+
+    /**
+     * Streams all matches and then all breaks into a fresh aggregator, one page at a time,
+     * publishing the partial statistics after every page, and rates the streamed matches.
+     * Runs on the worker lane; save and delete events that arrive meanwhile are queued
+     * behind it and applied afterwards.
+     */
+    private void streamHistory() {
+        statistics = new MatchStatistics();
+        ratings = null;
+
+        MatchData lastMatch = null;
+        List<MatchData> matches;
+        do {
+            matches = DatabaseManager.INSTANCE.getMatchesPage(lastMatch, MATCH_PAGE_SIZE);
+            for (MatchData match : matches) {
+                statistics.appendMatch(match);
+            }
+            if (!matches.isEmpty()) lastMatch = matches.get(matches.size() - 1);
+            publish(true);
+        } while (matches.size() == MATCH_PAGE_SIZE);
+
+        int lastBreakId = 0;
+        List<BreakData> breaks;
+        do {
+            breaks = DatabaseManager.INSTANCE.getBreaksPage(lastBreakId, BREAK_PAGE_SIZE);
+            for (BreakData b : breaks) {
+                statistics.addBreak(b.getMatchId(), b.getPlayerName(), b.getBreakScore());
+            }
+            if (!breaks.isEmpty()) lastBreakId = breaks.get(breaks.size() - 1).getId();
+            publish(true);
+        } while (breaks.size() == BREAK_PAGE_SIZE);
+
+        EloRatings replayed = new EloRatings();
+        replayed.recompute(statistics.getMatches());
+        ratings = replayed;
+        publish(false);
+    }
+
+    /**
+     * Captures the current aggregates and schedules a chart refresh. Runs on the worker
+     * lane; if a refresh is already pending it will pick up this newer view instead.
+     *
+     * @param loading Whether the initial streaming pass is still running.
+     */
+    private void publish(boolean loading) {
+        latestView = new StatisticsView(statistics, ratings, loading);
+        if (refreshPending.compareAndSet(false, true)) {
+            Platform.runLater(this::refreshCharts);
+        }
+    }
+
+    /**
+     * Shows the latest published statistics in the charts. Runs on the FX thread.
+     */
+    private void refreshCharts() {
+        refreshPending.set(false);
+        StatisticsView view = latestView;
+
+        statusLabel.setText((view.loading ? "Učitavanje... " : "") + "Broj mečeva: " + view.matchCount);
+        StringBuilder topRatings = new StringBuilder();
+        for (EloRatings.PlayerRating rating : view.ratings) {
+            topRatings.append(topRatings.isEmpty() ? "Elo rejting: " : ", ")
+                    .append(rating.getName()).append(' ').append(Math.round(rating.getRating()));
+        }
+        ratingLabel.setText(topRatings.toString());
+
+        List<XYChart.Data<String, Number>> winRates = new ArrayList<>(view.players.size());
+        List<XYChart.Data<String, Number>> averageScores = new ArrayList<>(view.players.size());
+        for (MatchStatistics.PlayerSummary player : view.players) {
+            winRates.add(new XYChart.Data<>(player.getName(), Math.round(player.getWinRate() * 1000) / 10.0));
+            averageScores.add(new XYChart.Data<>(player.getName(), Math.round(player.getAverageScore() * 10) / 10.0));
+        }
+        winRateSeries.getData().setAll(winRates);
+        averageScoreSeries.getData().setAll(averageScores);
+
+        for (int i = 0; i < view.breakDistribution.length; i++) {
+            breakSeries.getData().get(i).setYValue(view.breakDistribution[i]);
+        }
+
+        List<XYChart.Data<String, Number>> matchesTrend = new ArrayList<>(view.months.size());
+        List<XYChart.Data<String, Number>> pointsTrend = new ArrayList<>(view.months.size());
+        for (MatchStatistics.MonthSummary month : view.months) {
+            String label = month.getMonth().toString();
+            matchesTrend.add(new XYChart.Data<>(label, month.getMatches()));
+            pointsTrend.add(new XYChart.Data<>(label, Math.round(month.getAverageMatchPoints() * 10) / 10.0));
+        }
+        matchesTrendSeries.getData().setAll(matchesTrend);
+        pointsTrendSeries.getData().setAll(pointsTrend);
+    }
+
+    /**
+     * Returns the scene for the statistics screen.
+     *
+     * @return The constructed statistics scene.
+     */
+    @Override
+    public Scene getScene() {
+        return scene;
+    }
+
+    /**
+     * Stops listening for match changes and drops the worker's queued tasks.
+     */
+    @Override
+    public void dispose() {
+        DatabaseManager.INSTANCE.removeMatchChangeListener(matchChanges);
+        worker.close();
+    }
+
+    /**
+     * An immutable copy of the aggregates, handed from the worker lane to the FX thread.
+     */
+    private static final class StatisticsView {
+        private final int matchCount;
+        private final List<MatchStatistics.PlayerSummary> players;
+        private final int[] breakDistribution;
+        private final List<MatchStatistics.MonthSummary> months;
+        private final List<EloRatings.PlayerRating> ratings;
+        private final boolean loading;
+
+        private StatisticsView(MatchStatistics statistics, EloRatings ratings, boolean loading) {
+            this.matchCount = statistics.getMatchCount();
+            this.players = statistics.getTopPlayers(TOP_PLAYERS);
+            this.breakDistribution = statistics.getBreakDistribution();
+            this.months = statistics.getRecentMonths(TREND_MONTHS);
+            this.ratings = ratings == null ? List.of() : ratings.getTopRatings(TOP_RATINGS);
+            this.loading = loading;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package scene;
 
+import data.BackgroundExecutor;
 import data.TaCScrapper;
 import javafx.application.Platform;
 import javafx.scene.Scene;
@@ -7,12 +8,21 @@ import javafx.scene.control.TextArea;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Terms and Conditions Viewer
  * <p>
  * This class creates a separate window to display the application's Terms and Conditions.
  * It uses the TaCScrapper class to fetch the content from a web page in a background
- * thread and displays it in a non-editable TextArea.
+ * thread and displays it in a non-editable TextArea. The saved copy is shown right away
+ * and replaced only if revalidating it against the web page finds a newer version.
+ * </p>
+ * <p>
+ * Paragraphs are appended as they are parsed. They are collected in batches and handed
+ * to the FX thread with a single {@link Platform#runLater(Runnable)} per batch, so the
+ * first paragraphs appear quickly without flooding the FX thread with one task each.
  * </p>
  *
  * @author Andrija Milovanovic
@@ -21,6 +31,14 @@ import javafx.stage.Stage;
 public class TermsAndConditionsApplication {
     private Stage stage;
     private final TaCScrapper scrapper = new TaCScrapper();
+    private TextArea ta;
+
+    /** Paragraphs parsed but not yet shown. Guarded by itself. */
+    private final List<String> pending = new ArrayList<>();
+    /** Whether the shown text must be cleared before the pending paragraphs are appended. Guarded by {@code pending}. */
+    private boolean clearPending = true;
+    /** Whether a batch is already scheduled on the FX thread. Guarded by {@code pending}. */
+    private boolean flushScheduled = false;
 
     /**
      * Launches the Terms and Conditions window.
@@ -31,21 +49,34 @@ public class TermsAndConditionsApplication {
 
     /**
      * Creates and displays the UI for the Terms and Conditions window.
-     * It shows a loading message while the content is being scraped from a URL
-     * on a background thread.
+     * It shows a loading message until the first paragraphs arrive, from the saved
+     * copy or the web page, on a background thread.
      */
     private void displayUI() {
         stage = new Stage();
-        TextArea ta = new TextArea("Loading Terms and Conditions...");
+        ta = new TextArea("Loading Terms and Conditions...");
         ta.setWrapText(true);
         ta.setEditable(false);
         StackPane root = new StackPane(ta);
 
-        new Thread(() -> {
-            scrapper.run();
-            String result = scrapper.getResult();
-            Platform.runLater(() -> ta.setText(result));
-        }).start();
+        BackgroundExecutor.get().execute(() -> scrapper.run(new TaCScrapper.Listener() {
+            @Override
+            public void onParagraph(String text) {
+                synchronized (pending) {
+                    pending.add(text);
+                    scheduleFlush();
+                }
+            }
+
+            @Override
+            public void onReset() {
+                synchronized (pending) {
+                    pending.clear();
+                    clearPending = true;
+                    scheduleFlush();
+                }
+            }
+        }));
 
         Scene scene = new Scene(root, 800, 640);
 
@@ -53,4 +84,34 @@ public class TermsAndConditionsApplication {
         stage.setTitle("Terms and Conditions - Snooker Score Tracker");
         stage.show();
     }
+
+    /**
+     * Schedules a batch on the FX thread unless one is already scheduled. Must be called
+     * while holding the {@code pending} lock.
+     */
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            Platform.runLater(this::flush);
+        }
+    }
+
+    /**
+     * Appends every pending paragraph to the text area in one update. Runs on the FX thread.
+     */
+    private void flush() {
+        List<String> batch;
+        boolean clear;
+        synchronized (pending) {
+            batch = new ArrayList<>(pending);
+            pending.clear();
+            clear = clearPending;
+            clearPending = false;
+            flushScheduled = false;
+        }
+        if (clear) ta.clear();
+        if (!batch.isEmpty()) {
+            ta.appendText(String.join("\n", batch) + "\n");
+        }
+    }
 }
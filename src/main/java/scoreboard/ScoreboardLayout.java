@@ -0,0 +1,108 @@
+package scoreboard;
+
+import data.AppFiles;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Shared Scoreboard File Layout
+ * <p>
+ * The fixed layout of the memory-mapped file through which the scoring application
+ * hands the running frame to a scoreboard process on the same machine. All values
+ * are little-endian at fixed offsets:
+ * </p>
+ * <pre>
+ *   0  int   magic
+ *   4  int   layout version
+ *   8  long  seqlock version: odd while a write is in progress
+ *  16  long  frame state sequence number
+ *  24  long  time of the write, in nanoseconds since the epoch
+ *  32  int   score 1          36  int  score 2
+ *  40  int   current break    44  int  highest break
+ *  48  int   reds remaining   52  int  next color
+ *  56  int   flags: player 1 turn, red required, endgame, game over
+ *  60  byte  name 1 length,   61  name 1 in UTF-8, up to 64 bytes
+ * 125  byte  name 2 length,  126  name 2 in UTF-8, up to 64 bytes
+ * </pre>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+final class ScoreboardLayout {
+
+    static final int MAGIC = 0x53434231;
+    static final int LAYOUT_VERSION = 1;
+    static final int FILE_SIZE = 256;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int LAYOUT_OFFSET = 4;
+    static final int VERSION_OFFSET = 8;
+    static final int SEQUENCE_OFFSET = 16;
+    static final int WRITTEN_AT_OFFSET = 24;
+    static final int SCORE1_OFFSET = 32;
+    static final int SCORE2_OFFSET = 36;
+    static final int CURRENT_BREAK_OFFSET = 40;
+    static final int HIGHEST_BREAK_OFFSET = 44;
+    static final int REDS_OFFSET = 48;
+    static final int NEXT_COLOR_OFFSET = 52;
+    static final int FLAGS_OFFSET = 56;
+    static final int NAME1_OFFSET = 60;
+    static final int NAME2_OFFSET = 125;
+    static final int MAX_NAME_BYTES = 64;
+
+    static final int FLAG_PLAYER1_TURN = 1;
+    static final int FLAG_RED_REQUIRED = 2;
+    static final int FLAG_ENDGAME = 4;
+    static final int FLAG_GAME_OVER = 8;
+
+    /** Ordered access to the seqlock version, which plain buffer reads and writes do not give. */
+    static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ScoreboardLayout() {}
+
+    /**
+     * Resolves the scoreboard file: {@code snooker.scoreboard.file} if set, otherwise
+     * {@code scoreboard.bin} in the application data directory.
+     *
+     * @return The path of the scoreboard file.
+     * @throws IOException if the data directory cannot be created.
+     */
+    static Path resolveFile() throws IOException {
+        String file = System.getProperty("snooker.scoreboard.file");
+        return file != null ? Path.of(file) : AppFiles.resolve("scoreboard.bin");
+    }
+
+    /**
+     * Maps the scoreboard file, creating it if it does not exist.
+     *
+     * @param file The scoreboard file.
+     * @return The little-endian mapping of the whole file.
+     * @throws IOException if the file cannot be opened or mapped.
+     */
+    static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            return map;
+        }
+    }
+
+    /**
+     * @return The current time in nanoseconds since the epoch, comparable between processes.
+     */
+    static long epochNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+}
@@ -0,0 +1,123 @@
+package scoreboard;
+
+import logika.FrameSnapshot;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static scoreboard.ScoreboardLayout.*;
+
+/**
+ * Shared Scoreboard Reader
+ * <p>
+ * Polls the shared scoreboard file written by {@link SharedScoreboardWriter}, typically
+ * once per frame of a scoreboard display. A poll that finds nothing new costs a single
+ * read of the version counter and allocates nothing; a new state is read straight out
+ * of the mapped page and retried if the writer changed it in the meantime.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class SharedScoreboardReader {
+
+    /** How often a read overlapping a write is retried before the poll gives up until the next one. */
+    private static final int MAX_ATTEMPTS = 1000;
+
+    private final MappedByteBuffer map;
+    private long lastVersion = -1;
+    private long lastLatencyNanos = -1;
+
+    private final byte[] name1Scratch = new byte[MAX_NAME_BYTES];
+    private final byte[] name2Scratch = new byte[MAX_NAME_BYTES];
+    private byte[] name1Bytes = new byte[0];
+    private byte[] name2Bytes = new byte[0];
+    private String name1 = "";
+    private String name2 = "";
+
+    /**
+     * Opens the scoreboard file named by {@code snooker.scoreboard.file}, or the default one.
+     *
+     * @throws IOException if the file cannot be opened.
+     */
+    public SharedScoreboardReader() throws IOException {
+        this(ScoreboardLayout.resolveFile());
+    }
+
+    /**
+     * Opens a scoreboard file. It is created empty if the scoring application has not
+     * created it yet.
+     *
+     * @param file The scoreboard file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public SharedScoreboardReader(Path file) throws IOException {
+        this.map = ScoreboardLayout.map(file);
+    }
+
+    /**
+     * Reads the frame state if it changed since the last poll.
+     *
+     * @return The new state, or {@code null} if nothing changed or nothing was published yet.
+     */
+    public FrameSnapshot poll() {
+        if (map.getInt(MAGIC_OFFSET) != MAGIC || map.getInt(LAYOUT_OFFSET) != LAYOUT_VERSION) return null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long before = (long) LONG.getAcquire(map, VERSION_OFFSET);
+            // Version 0 means the writer has opened the file but not published anything yet.
+            if (before == 0 || before == lastVersion) return null;
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            long sequence = map.getLong(SEQUENCE_OFFSET);
+            long writtenAt = map.getLong(WRITTEN_AT_OFFSET);
+            int score1 = map.getInt(SCORE1_OFFSET);
+            int score2 = map.getInt(SCORE2_OFFSET);
+            int currentBreak = map.getInt(CURRENT_BREAK_OFFSET);
+            int highestBreak = map.getInt(HIGHEST_BREAK_OFFSET);
+            int reds = map.getInt(REDS_OFFSET);
+            int nextColor = map.getInt(NEXT_COLOR_OFFSET);
+            int flags = map.getInt(FLAGS_OFFSET);
+            int name1Length = Math.min(map.get(NAME1_OFFSET) & 0xFF, MAX_NAME_BYTES);
+            int name2Length = Math.min(map.get(NAME2_OFFSET) & 0xFF, MAX_NAME_BYTES);
+            map.get(NAME1_OFFSET + 1, name1Scratch, 0, name1Length);
+            map.get(NAME2_OFFSET + 1, name2Scratch, 0, name2Length);
+
+            VarHandle.loadLoadFence();
+            if ((long) LONG.getOpaque(map, VERSION_OFFSET) != before) continue;
+
+            lastVersion = before;
+            lastLatencyNanos = ScoreboardLayout.epochNanos() - writtenAt;
+            // Names rarely change, so they are only decoded when their bytes do.
+            if (!Arrays.equals(name1Scratch, 0, name1Length, name1Bytes, 0, name1Bytes.length)) {
+                name1Bytes = Arrays.copyOf(name1Scratch, name1Length);
+                name1 = new String(name1Bytes, StandardCharsets.UTF_8);
+            }
+            if (!Arrays.equals(name2Scratch, 0, name2Length, name2Bytes, 0, name2Bytes.length)) {
+                name2Bytes = Arrays.copyOf(name2Scratch, name2Length);
+                name2 = new String(name2Bytes, StandardCharsets.UTF_8);
+            }
+            return new FrameSnapshot(sequence, name1, name2, score1, score2,
+                    (flags & FLAG_PLAYER1_TURN) != 0, currentBreak, highestBreak, reds,
+                    (flags & FLAG_RED_REQUIRED) != 0, (flags & FLAG_ENDGAME) != 0, nextColor,
+                    (flags & FLAG_GAME_OVER) != 0);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the time between the writer publishing the last state returned by
+     * {@link #poll()} and this reader reading it.
+     *
+     * @return The latency in nanoseconds, or {@code -1} if nothing was read yet.
+     */
+    public long getLastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+}
@@ -0,0 +1,123 @@
+package scoreboard;
+
+import logika.FrameSnapshot;
+import logika.FrameStateListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static scoreboard.ScoreboardLayout.*;
+
+/**
+ * Shared Scoreboard Writer
+ * <p>
+ * Publishes every frame state change into the shared scoreboard file, where a separate
+ * scoreboard process polls it (see {@link SharedScoreboardReader}). There are no
+ * sockets and no copies beyond the store into the mapped page, so a reader sees a
+ * change within microseconds of the shot being recorded.
+ * </p>
+ * <p>
+ * Consistency is kept with a seqlock: the version is made odd before the fields are
+ * written and even again afterwards, so a reader that sees the same even version
+ * before and after reading the fields knows it read one complete state.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class SharedScoreboardWriter implements FrameStateListener, Closeable {
+
+    private MappedByteBuffer map;
+    private long version;
+
+    private String cachedName1;
+    private String cachedName2;
+    private byte[] cachedName1Bytes;
+    private byte[] cachedName2Bytes;
+
+    /**
+     * Opens the scoreboard file named by {@code snooker.scoreboard.file}, or the default one.
+     *
+     * @throws IOException if the file cannot be opened.
+     */
+    public SharedScoreboardWriter() throws IOException {
+        this(ScoreboardLayout.resolveFile());
+    }
+
+    /**
+     * Opens a scoreboard file, creating it if it does not exist.
+     *
+     * @param file The scoreboard file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public SharedScoreboardWriter(Path file) throws IOException {
+        map = ScoreboardLayout.map(file);
+        // Continue from the previous writer's version, so readers see the next write as new.
+        long previous = (long) LONG.getAcquire(map, VERSION_OFFSET);
+        version = (previous + 1) & ~1L;
+        map.putInt(LAYOUT_OFFSET, LAYOUT_VERSION);
+        map.putInt(MAGIC_OFFSET, MAGIC);
+    }
+
+    /**
+     * Writes the new frame state into the shared file.
+     *
+     * @param snapshot The new frame state.
+     */
+    @Override
+    public synchronized void frameUpdated(FrameSnapshot snapshot) {
+        if (map == null) return;
+        if (!snapshot.getPlayer1Name().equals(cachedName1) || !snapshot.getPlayer2Name().equals(cachedName2)) {
+            cachedName1 = snapshot.getPlayer1Name();
+            cachedName2 = snapshot.getPlayer2Name();
+            cachedName1Bytes = encodeName(cachedName1);
+            cachedName2Bytes = encodeName(cachedName2);
+        }
+        int flags = (snapshot.isPlayer1Turn() ? FLAG_PLAYER1_TURN : 0)
+                | (snapshot.isRedRequired() ? FLAG_RED_REQUIRED : 0)
+                | (snapshot.isEndgame() ? FLAG_ENDGAME : 0)
+                | (snapshot.isGameOver() ? FLAG_GAME_OVER : 0);
+
+        LONG.setOpaque(map, VERSION_OFFSET, ++version);
+        VarHandle.storeStoreFence();
+
+        map.putLong(SEQUENCE_OFFSET, snapshot.getSequence());
+        map.putLong(WRITTEN_AT_OFFSET, ScoreboardLayout.epochNanos());
+        map.putInt(SCORE1_OFFSET, snapshot.getScore1());
+        map.putInt(SCORE2_OFFSET, snapshot.getScore2());
+        map.putInt(CURRENT_BREAK_OFFSET, snapshot.getCurrentBreak());
+        map.putInt(HIGHEST_BREAK_OFFSET, snapshot.getHighestBreak());
+        map.putInt(REDS_OFFSET, snapshot.getRedsRemaining());
+        map.putInt(NEXT_COLOR_OFFSET, snapshot.getNextColor());
+        map.putInt(FLAGS_OFFSET, flags);
+        map.put(NAME1_OFFSET, (byte) cachedName1Bytes.length).put(NAME1_OFFSET + 1, cachedName1Bytes);
+        map.put(NAME2_OFFSET, (byte) cachedName2Bytes.length).put(NAME2_OFFSET + 1, cachedName2Bytes);
+
+        LONG.setRelease(map, VERSION_OFFSET, ++version);
+    }
+
+    /**
+     * Encodes a name, cut to the space reserved for it on a character boundary.
+     */
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_NAME_BYTES) return bytes;
+        int end = MAX_NAME_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) end--;
+        byte[] cut = new byte[end];
+        System.arraycopy(bytes, 0, cut, 0, end);
+        return cut;
+    }
+
+    /**
+     * Stops publishing. The last state stays in the file for readers.
+     */
+    @Override
+    public synchronized void close() {
+        map = null;
+    }
+}
@@ -0,0 +1,123 @@
+package spectator;
+
+import logika.FrameSnapshot;
+
+/**
+ * Spectator Wire Format
+ * <p>
+ * Encodes {@link FrameSnapshot}s as the JSON sent to spectators. A full frame carries
+ * every field; a delta frame carries the sequence number and only the fields that
+ * differ from the previous broadcast, which for a typical shot is two or three values.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+final class SnapshotJson {
+
+    /** A minimal page that follows the event stream and renders the score. */
+    static final String LIVE_PAGE = """
+            <!DOCTYPE html>
+            <html lang="sr"><head><meta charset="utf-8">
+            <meta name="viewport" content="width=device-width, initial-scale=1">
+            <title>Snooker uživo</title>
+            <style>body{font-family:sans-serif;background:#0b3d1e;color:#fff;text-align:center}
+            .s{font-size:3em}.t{color:#ffd700}</style></head>
+            <body><h1>Snooker uživo</h1><div id="score" class="s">Čeka se početak meča...</div>
+            <p id="info"></p>
+            <script>
+            let st = null;
+            const es = new EventSource('/events');
+            function render() {
+              // Player names are user input, so they are only ever set as text, never as markup.
+              const p1 = document.createElement('span');
+              const p2 = document.createElement('span');
+              p1.textContent = st.player1;
+              p2.textContent = st.player2;
+              (st.player1Turn ? p1 : p2).className = 't';
+              document.getElementById('score').replaceChildren(p1, ' ' + st.score1 + ' : ' + st.score2 + ' ', p2);
+              document.getElementById('info').textContent = 'Brejk: ' + st.currentBreak + ' | Najveći brejk: '
+                + st.highestBreak + ' | Preostale crvene: ' + st.redsRemaining + (st.gameOver ? ' | Kraj meča' : '');
+            }
+            es.addEventListener('full', e => { st = JSON.parse(e.data); render(); });
+            es.addEventListener('delta', e => { if (st) { Object.assign(st, JSON.parse(e.data)); render(); } });
+            </script></body></html>
+            """;
+
+    private SnapshotJson() {}
+
+    /**
+     * Encodes every field of a snapshot.
+     *
+     * @param s The snapshot to encode.
+     * @return The JSON object.
+     */
+    static String full(FrameSnapshot s) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"seq\":").append(s.getSequence());
+        string(json, "player1", s.getPlayer1Name());
+        string(json, "player2", s.getPlayer2Name());
+        number(json, "score1", s.getScore1());
+        number(json, "score2", s.getScore2());
+        bool(json, "player1Turn", s.isPlayer1Turn());
+        number(json, "currentBreak", s.getCurrentBreak());
+        number(json, "highestBreak", s.getHighestBreak());
+        number(json, "redsRemaining", s.getRedsRemaining());
+        bool(json, "redRequired", s.isRedRequired());
+        bool(json, "endgame", s.isEndgame());
+        number(json, "nextColor", s.getNextColor());
+        bool(json, "gameOver", s.isGameOver());
+        return json.append('}').toString();
+    }
+
+    /**
+     * Encodes only the fields of a snapshot that differ from the previous one. When the
+     * players differ, a new match has started and the frame is encoded in full.
+     *
+     * @param prev The previously broadcast snapshot.
+     * @param s    The snapshot to encode.
+     * @return The JSON object.
+     */
+    static String delta(FrameSnapshot prev, FrameSnapshot s) {
+        if (!prev.getPlayer1Name().equals(s.getPlayer1Name()) || !prev.getPlayer2Name().equals(s.getPlayer2Name())) {
+            return full(s);
+        }
+        StringBuilder json = new StringBuilder(64);
+        json.append("{\"seq\":").append(s.getSequence());
+        if (prev.getScore1() != s.getScore1()) number(json, "score1", s.getScore1());
+        if (prev.getScore2() != s.getScore2()) number(json, "score2", s.getScore2());
+        if (prev.isPlayer1Turn() != s.isPlayer1Turn()) bool(json, "player1Turn", s.isPlayer1Turn());
+        if (prev.getCurrentBreak() != s.getCurrentBreak()) number(json, "currentBreak", s.getCurrentBreak());
+        if (prev.getHighestBreak() != s.getHighestBreak()) number(json, "highestBreak", s.getHighestBreak());
+        if (prev.getRedsRemaining() != s.getRedsRemaining()) number(json, "redsRemaining", s.getRedsRemaining());
+        if (prev.isRedRequired() != s.isRedRequired()) bool(json, "redRequired", s.isRedRequired());
+        if (prev.isEndgame() != s.isEndgame()) bool(json, "endgame", s.isEndgame());
+        if (prev.getNextColor() != s.getNextColor()) number(json, "nextColor", s.getNextColor());
+        if (prev.isGameOver() != s.isGameOver()) bool(json, "gameOver", s.isGameOver());
+        return json.append('}').toString();
+    }
+
+    private static void number(StringBuilder json, String name, int value) {
+        json.append(",\"").append(name).append("\":").append(value);
+    }
+
+    private static void bool(StringBuilder json, String name, boolean value) {
+        json.append(",\"").append(name).append("\":").append(value);
+    }
+
+    private static void string(StringBuilder json, String name, String value) {
+        json.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                default -> {
+                    if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                    else json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,254 @@
+package spectator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import logika.FrameSnapshot;
+import logika.FrameStateListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Live Score Spectator Server
+ * <p>
+ * An embedded HTTP server that lets venue screens and phones follow the running frame.
+ * Subscribers connect to {@code /events} and receive a Server-Sent Events stream: a full
+ * snapshot first, then delta frames holding only the fields that changed. {@code /state}
+ * returns the current snapshot once, and {@code /} serves a minimal live score page.
+ * </p>
+ * <p>
+ * Every state change is serialized exactly once, on a dedicated publisher thread, into
+ * an immutable byte array that is shared by all subscribers; fan-out only enqueues a
+ * reference per subscriber. Each subscriber is served by its own small-stack platform
+ * thread from a small bounded queue. Virtual threads are not used: a write to a client
+ * that stopped reading blocks inside a synchronized method of the JDK HTTP server, which
+ * pins the virtual thread's carrier, so on a machine with few cores one stalled phone
+ * would freeze every other subscriber. A subscriber too slow to keep up has its backlog dropped and is
+ * resynchronized with the latest full snapshot, so it can never hold up the others or
+ * make the server buffer without bound. Bursts of moves are coalesced: if the publisher
+ * is busy, only the newest state is broadcast.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class SpectatorServer implements FrameStateListener {
+
+    private static final int SUBSCRIBER_QUEUE_CAPACITY = 16;
+    private static final long HEARTBEAT_SECONDS = 15;
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final long HANDLER_STACK_SIZE = 256 * 1024;
+
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(null, r, "spectator-subscriber", HANDLER_STACK_SIZE);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "spectator-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<FrameSnapshot> pending = new AtomicReference<>();
+    private final AtomicLong resyncCount = new AtomicLong();
+
+    /** Touched only on the publisher thread. */
+    private FrameSnapshot lastBroadcast;
+    private volatile byte[] latestFullFrame;
+    private volatile byte[] latestJson;
+    private volatile boolean running = true;
+
+    /**
+     * Creates and starts a server bound to the given address. Use a loopback address to
+     * serve only the local machine, or a LAN address to serve screens and phones at the venue.
+     *
+     * @param address The address and port to listen on; port 0 picks a free port.
+     * @throws IOException if the server socket cannot be bound.
+     */
+    public SpectatorServer(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 1024);
+        server.setExecutor(handlers);
+        server.createContext("/events", this::handleEvents);
+        server.createContext("/state", this::handleState);
+        server.createContext("/", this::handlePage);
+        server.start();
+    }
+
+    /**
+     * Gets the address the server is listening on.
+     * @return The bound address.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * @return The number of currently connected event stream subscribers.
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * @return How many times a slow subscriber's backlog was dropped and replaced by a full snapshot.
+     */
+    public long getResyncCount() {
+        return resyncCount.get();
+    }
+
+    /**
+     * Queues a state change for broadcasting. Returns immediately; if a broadcast is still
+     * pending, it is replaced by this newer state.
+     *
+     * @param snapshot The new state of the frame.
+     */
+    @Override
+    public void frameUpdated(FrameSnapshot snapshot) {
+        if (pending.getAndSet(snapshot) == null && running) {
+            publisher.execute(this::broadcast);
+        }
+    }
+
+    /**
+     * Serializes the newest pending state once and fans the shared bytes out to every subscriber.
+     */
+    private void broadcast() {
+        FrameSnapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) return;
+
+        String json = SnapshotJson.full(snapshot);
+        byte[] fullFrame = sseEvent("full", json);
+        byte[] frame = (lastBroadcast == null) ? fullFrame : sseEvent("delta", SnapshotJson.delta(lastBroadcast, snapshot));
+        lastBroadcast = snapshot;
+        latestJson = json.getBytes(StandardCharsets.UTF_8);
+        latestFullFrame = fullFrame;
+
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(frame, fullFrame)) {
+                resyncCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Streams state changes to one subscriber until it disconnects or the server stops.
+     *
+     * @param exchange The HTTP exchange of the subscriber.
+     */
+    private void handleEvents(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.sendResponseHeaders(200, 0);
+
+        Subscriber subscriber = new Subscriber();
+        // Subscribing on the publisher thread orders the initial snapshot before any later delta.
+        publisher.execute(() -> {
+            byte[] initial = latestFullFrame;
+            if (initial != null) subscriber.queue.offer(initial);
+            subscribers.add(subscriber);
+        });
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            while (running) {
+                byte[] frame = subscriber.queue.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                out.write(frame != null ? frame : HEARTBEAT);
+                out.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            // The subscriber disconnected or the server is stopping.
+        } finally {
+            subscribers.remove(subscriber);
+            exchange.close();
+        }
+    }
+
+    /**
+     * Returns the current state as a single JSON document.
+     *
+     * @param exchange The HTTP exchange.
+     */
+    private void handleState(HttpExchange exchange) throws IOException {
+        byte[] json = latestJson;
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        if (json == null) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, json.length);
+            exchange.getResponseBody().write(json);
+        }
+        exchange.close();
+    }
+
+    /**
+     * Serves a minimal live score page that follows the event stream.
+     *
+     * @param exchange The HTTP exchange.
+     */
+    private void handlePage(HttpExchange exchange) throws IOException {
+        byte[] page = SnapshotJson.LIVE_PAGE.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, page.length);
+        exchange.getResponseBody().write(page);
+        exchange.close();
+    }
+
+    /**
+     * Stops the server and disconnects all subscribers.
+     */
+    public void stop() {
+        running = false;
+        server.stop(0);
+        publisher.shutdownNow();
+        handlers.shutdownNow();
+        subscribers.clear();
+    }
+
+    /**
+     * Frames a payload as a Server-Sent Event.
+     *
+     * @param event The event name.
+     * @param data  The JSON payload.
+     * @return The encoded event.
+     */
+    private static byte[] sseEvent(String event, String data) {
+        return ("event: " + event + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A connected event stream subscriber and its bounded queue of pending frames.
+     */
+    private static final class Subscriber {
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(SUBSCRIBER_QUEUE_CAPACITY);
+
+        /**
+         * Enqueues a frame. If the queue is full the subscriber is too slow: its backlog
+         * is dropped and replaced by the full snapshot, which supersedes every delta in it.
+         *
+         * @param frame     The frame to enqueue.
+         * @param fullFrame The full snapshot to resynchronize with.
+         * @return {@code true} if the frame was enqueued, {@code false} if the subscriber was resynchronized.
+         */
+        private boolean offer(byte[] frame, byte[] fullFrame) {
+            if (queue.offer(frame)) return true;
+            queue.clear();
+            queue.offer(fullFrame);
+            return false;
+        }
+    }
+}
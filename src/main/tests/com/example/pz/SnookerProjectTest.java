@@ -1,13 +1,57 @@
 package com.example.pz;
 
+import com.sun.net.httpserver.HttpServer;
+import data.BackgroundExecutor;
+import data.BreakData;
+import data.EloRatings;
+import data.MatchData;
+import data.MatchResult;
+import data.MatchStatistics;
+import data.MatchStore;
+import data.ReportSignature;
+import data.TaCScrapper;
 import database.DatabaseManager;
+import database.LiveFramePublisher;
+import database.MatchJournal;
+import database.MatchQuery;
+import database.SeasonArchive;
+import loadtest.LatencyRecorder;
+import loadtest.UiBenchmark;
+import loadtest.ZipfSampler;
+import logika.FrameCheckpoint;
+import logika.FrameSnapshot;
+import logika.ShotBuffer;
 import logika.Snooker;
 import org.junit.jupiter.api.*;
+import scene.ScoreboardWindow;
+import scoreboard.SharedScoreboardReader;
+import scoreboard.SharedScoreboardWriter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -135,6 +179,360 @@ public class SnookerProjectTest {
         assertTrue(endgameSnooker.jeIgrac1NaRedu(), "It should be player 1's turn after Player 2 misses.");
     }
 
+    /**
+     * Tests that every pot, miss and foul is recorded in the frame's shot buffer.
+     */
+    @Test
+    public void testShotRecording() {
+        snookerGame.klikNaBoju(1);
+        snookerGame.klikNaBoju(7);
+        snookerGame.promasaj();
+        snookerGame.foulPlusFour();
+
+        ShotBuffer shots = snookerGame.getShots();
+        assertEquals(4, shots.size(), "Four shots should have been recorded.");
+
+        assertEquals(1, ShotBuffer.player(shots.get(1)), "The black was potted by Player 1.");
+        assertEquals(7, ShotBuffer.ball(shots.get(1)), "The second shot should be the black.");
+        assertEquals(ShotBuffer.OUTCOME_POT, ShotBuffer.outcome(shots.get(1)), "The black should be recorded as potted.");
+        assertEquals(7, ShotBuffer.points(shots.get(1)), "The black should be worth 7 points.");
+
+        assertEquals(ShotBuffer.OUTCOME_MISS, ShotBuffer.outcome(shots.get(2)), "Ending the turn should be recorded as a miss.");
+        assertEquals(2, ShotBuffer.player(shots.get(3)), "The foul was committed by Player 2.");
+        assertEquals(ShotBuffer.OUTCOME_FOUL, ShotBuffer.outcome(shots.get(3)), "The foul should be recorded as a foul.");
+    }
+
+    /**
+     * Tests that a frame checkpoint restores the exact game state, survives a torn save
+     * by falling back to the previous checkpoint, and is empty once cleared.
+     */
+    @Test
+    public void testFrameCheckpointRecovery() throws IOException {
+        Path file = Files.createTempFile("frame-checkpoint", ".bin");
+        UUID frameId = UUID.randomUUID();
+        try {
+            try (FrameCheckpoint checkpoint = new FrameCheckpoint(file)) {
+                assertNull(checkpoint.load(), "A new checkpoint should hold no frame.");
+                snookerGame.klikNaBoju(1);
+                snookerGame.klikNaBoju(7);
+                checkpoint.save(frameId, snookerGame, "Ana", "Bob");
+                snookerGame.klikNaBoju(1);
+                snookerGame.foulPlusFour();
+                checkpoint.save(frameId, snookerGame, "Ana", "Bob");
+            }
+
+            try (FrameCheckpoint checkpoint = new FrameCheckpoint(file)) {
+                FrameCheckpoint.SavedFrame frame = checkpoint.load();
+                assertNotNull(frame, "The frame in progress should be restored after reopening.");
+                assertEquals(frameId, frame.getFrameId());
+                assertEquals("Bob", frame.getPlayer2Name());
+                Snooker restored = frame.getSnooker();
+                assertEquals(9, restored.getPoeni1(), "Player 1 potted red, black and red.");
+                assertEquals(4, restored.getPoeni2(), "Player 2 got the foul points.");
+                assertFalse(restored.jeIgrac1NaRedu(), "The foul passed the turn to Player 2.");
+                assertEquals(13, restored.getCrvenePreostale());
+                assertArrayEquals(snookerGame.getShots().toArray(), restored.getShots().toArray(), "Every shot should be restored.");
+                assertTrue(restored.klikNaBoju(1), "The restored frame should be playable.");
+            }
+
+            // Tear the second save, which went to the first slot: the first save must be restored instead.
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.seek(40);
+                raf.write(0x55);
+            }
+            try (FrameCheckpoint checkpoint = new FrameCheckpoint(file)) {
+                FrameCheckpoint.SavedFrame frame = checkpoint.load();
+                assertNotNull(frame, "The previous checkpoint should survive a torn save.");
+                assertEquals(8, frame.getSnooker().getPoeni1(), "The previous checkpoint was saved after red and black.");
+
+                checkpoint.clear();
+                assertNull(checkpoint.load(), "A cleared checkpoint should hold no frame.");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests that a burst of shot updates is coalesced into a bounded number of live frame
+     * writes, that the final state of the frame is always written, and that stopping the
+     * publisher removes the table and ignores later updates.
+     */
+    @Test
+    public void testLiveFrameWritesAreCoalesced() throws InterruptedException {
+        List<FrameSnapshot> written = new CopyOnWriteArrayList<>();
+        List<String> cleared = new CopyOnWriteArrayList<>();
+        LiveFramePublisher publisher = new LiveFramePublisher("sto-1", Duration.ofMillis(200), (table, snapshot) -> written.add(snapshot), cleared::add);
+        for (int i = 1; i <= 1000; i++) {
+            publisher.frameUpdated(new FrameSnapshot(i, "Ana", "Bob", i, 0, true, i, i, 15, true, false, 2, false));
+        }
+        publisher.frameUpdated(new FrameSnapshot(1001, "Ana", "Bob", 1001, 0, true, 0, 1000, 0, false, true, 7, true));
+        Thread.sleep(500);
+        publisher.stop();
+
+        assertEquals(1001, publisher.getUpdateCount());
+        assertTrue(written.size() <= 3, "A burst should cost at most one write per interval plus the final one, was " + written.size());
+        assertTrue(written.get(written.size() - 1).isGameOver(), "The final state of the frame should be written last.");
+        assertEquals(List.of("sto-1"), cleared, "Stopping should remove the table's live state.");
+
+        int writes = written.size();
+        assertDoesNotThrow(() -> publisher.frameUpdated(new FrameSnapshot(1002, "Ana", "Bob", 0, 0, true, 0, 0, 15, true, false, 2, false)));
+        assertDoesNotThrow(publisher::stop);
+        assertEquals(writes, written.size(), "Updates after stopping should not be written.");
+    }
+
+    /**
+     * Tests that a scoreboard reader with its own mapping of the shared file never sees a
+     * half-written state while the writer is publishing, and sees a new state right away.
+     */
+    @Test
+    public void testSharedScoreboardSeqlock() throws Exception {
+        Path file = Files.createTempFile("scoreboard", ".bin");
+        try {
+            SharedScoreboardWriter writer = new SharedScoreboardWriter(file);
+            SharedScoreboardReader reader = new SharedScoreboardReader(file);
+            assertNull(reader.poll(), "Nothing has been published yet.");
+
+            writer.frameUpdated(new FrameSnapshot(1, "Ana", "Bob", 8, 4, false, 0, 8, 13, true, false, 2, false));
+            FrameSnapshot first = reader.poll();
+            assertNotNull(first, "A published state should be visible immediately.");
+            assertEquals("Bob", first.getPlayer2Name());
+            assertEquals(8, first.getScore1());
+            assertFalse(first.isPlayer1Turn());
+            assertNull(reader.poll(), "An unchanged state should not be returned twice.");
+
+            int updates = 200_000;
+            Thread publisher = new Thread(() -> {
+                for (int i = 2; i <= updates; i++) {
+                    writer.frameUpdated(new FrameSnapshot(i, "Ana", "Bob", i, i, true, i, i, 0, false, true, 7, i == updates));
+                }
+            });
+            publisher.start();
+            FrameSnapshot seen;
+            long lastSequence = first.getSequence();
+            do {
+                seen = reader.poll();
+                if (seen != null) {
+                    assertEquals(seen.getSequence(), seen.getScore1(), "A read must never mix two states.");
+                    assertEquals(seen.getScore1(), seen.getScore2(), "A read must never mix two states.");
+                    assertEquals(seen.getScore1(), seen.getCurrentBreak(), "A read must never mix two states.");
+                    assertEquals("Ana", seen.getPlayer1Name(), "A read must never see a torn name.");
+                    assertEquals("Bob", seen.getPlayer2Name(), "A read must never see a torn name.");
+                    assertTrue(seen.getSequence() > lastSequence, "States must be seen in publishing order.");
+                    lastSequence = seen.getSequence();
+                }
+            } while (seen == null || !seen.isGameOver());
+            assertEquals(updates, lastSequence, "The final state should be seen.");
+            publisher.join();
+            writer.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests that the headless scorer replays a frame line into the same result the game would produce.
+     */
+    @Test
+    public void testHeadlessScoreFrame() {
+        String line = "Ana;Bob;1;1 m 2 3 4 f 5 6 7;2024-05-01";
+        MatchResult result = HeadlessScorer.scoreFrame("sheet.txt", 3, line);
+        assertEquals(23, result.getScore1(), "Player 1 potted the red, got the foul and cleared the last colors.");
+        assertEquals(9, result.getScore2(), "Player 2 potted yellow, green and brown.");
+        assertEquals(LocalDate.of(2024, 5, 1), result.getDate());
+        assertEquals("Ana", result.getHighestBreakPlayer());
+        assertEquals(18, result.getHighestBreak());
+        assertEquals(9, result.getShots().length, "Every shot should be recorded.");
+        assertEquals(result.getIdempotencyKey(), HeadlessScorer.scoreFrame("sheet.txt", 3, line).getIdempotencyKey(),
+                "The same line should always get the same idempotency key.");
+        assertNotEquals(result.getIdempotencyKey(), HeadlessScorer.scoreFrame("sheet.txt", 4, line).getIdempotencyKey(),
+                "Identical frames on different lines are different frames.");
+        assertNotEquals(result.getIdempotencyKey(), HeadlessScorer.scoreFrame("other.txt", 3, line).getIdempotencyKey(),
+                "Identical frames in different files are different frames.");
+        assertThrows(IllegalArgumentException.class, () -> HeadlessScorer.scoreFrame("sheet.txt", 5, "Ana;Bob;1;1 x"));
+    }
+
+    /**
+     * Tests that match statistics are updated incrementally and that deleting a match reverses it exactly.
+     */
+    @Test
+    public void testMatchStatisticsIncrementalUpdates() {
+        MatchStatistics stats = new MatchStatistics();
+        assertTrue(stats.addMatch(new MatchData(1, "Ana", "Bob", "60 : 40", LocalDate.of(2024, 1, 10))));
+        assertTrue(stats.addMatch(new MatchData(2, "Bob", "Ana", "70 : 20", LocalDate.of(2024, 2, 3))));
+        assertFalse(stats.addMatch(new MatchData(2, "Bob", "Ana", "70 : 20", LocalDate.of(2024, 2, 3))), "A match must only be counted once.");
+        stats.addBreak(1, "Ana", 35);
+        stats.replaceBreaks(2, List.of(new BreakData(7, 2, "Bob", 105)));
+        stats.replaceBreaks(2, List.of(new BreakData(7, 2, "Bob", 105)));
+
+        MatchStatistics.PlayerSummary ana = stats.getTopPlayers(10).stream().filter(p -> p.getName().equals("Ana")).findFirst().orElseThrow();
+        assertEquals(2, ana.getMatches());
+        assertEquals(0.5, ana.getWinRate(), 1e-9);
+        assertEquals(40.0, ana.getAverageScore(), 1e-9);
+        assertArrayEquals(new int[] {0, 0, 0, 1, 0, 1}, stats.getBreakDistribution(), "Reloading breaks must not count them twice.");
+        assertEquals(2, stats.getRecentMonths(12).size());
+
+        stats.removeMatch(2);
+        assertEquals(1, stats.getMatchCount());
+        assertArrayEquals(new int[] {0, 0, 0, 1, 0, 0}, stats.getBreakDistribution());
+        assertEquals(1, stats.getRecentMonths(12).size());
+        assertEquals(1.0, stats.getTopPlayers(10).get(0).getWinRate() + stats.getTopPlayers(10).get(1).getWinRate(), 1e-9);
+    }
+
+    /**
+     * Tests that streamed matches are kept in ID order in the shared store, that a match
+     * streamed twice is counted once, and that breaks follow their match when an older
+     * match is inserted before it.
+     */
+    @Test
+    public void testMatchStatisticsStreamedMatches() {
+        MatchStatistics stats = new MatchStatistics();
+        stats.appendMatch(new MatchData(5, "Ana", "Bob", "60 : 40", LocalDate.of(2024, 3, 1)));
+        stats.appendMatch(new MatchData(3, "Bob", "Cica", "10 : 70", LocalDate.of(2024, 2, 1)));
+        stats.appendMatch(new MatchData(5, "Ana", "Bob", "60 : 40", LocalDate.of(2024, 3, 1)));
+        stats.addBreak(5, "Ana", 55);
+        stats.addBreak(3, "Cica", 12);
+
+        MatchStore store = stats.getMatches();
+        assertEquals(2, store.size(), "The repeated match should be dropped.");
+        assertEquals(3, store.id(0));
+        MatchStatistics.PlayerSummary ana = stats.getTopPlayers(10).stream().filter(p -> p.getName().equals("Ana")).findFirst().orElseThrow();
+        assertEquals(1, ana.getMatches(), "The repeated match should be counted once.");
+
+        assertTrue(stats.addMatch(new MatchData(1, "Ana", "Cica", "50 : 51", LocalDate.of(2024, 1, 1))));
+        stats.removeMatch(5);
+        assertArrayEquals(new int[] {0, 1, 0, 0, 0, 0}, stats.getBreakDistribution(), "Only the break of the deleted match should go.");
+        stats.removeMatch(3);
+        assertArrayEquals(new int[6], stats.getBreakDistribution());
+        assertEquals(1, stats.getMatchCount());
+        stats.addBreak(1, "Cica", 101);
+        assertArrayEquals(new int[] {0, 0, 0, 0, 0, 1}, stats.getBreakDistribution(), "A freed break slot should be reusable.");
+    }
+
+    /**
+     * Tests the Terms and Conditions cache against a local stand-in server: the first run
+     * downloads the page, an expired cache is revalidated with a conditional request, a
+     * fresh cache makes no request, and the saved copy survives the server going away.
+     */
+    @Test
+    public void testTermsAndConditionsCache() throws IOException {
+        AtomicInteger downloads = new AtomicInteger();
+        AtomicInteger notModified = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/terms", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                downloads.incrementAndGet();
+                byte[] page = "<html><body><p>Prvo pravilo.</p><p>Drugo pravilo.</p></body></html>".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("ETag", "\"v1\"");
+                exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+                exchange.sendResponseHeaders(200, page.length);
+                exchange.getResponseBody().write(page);
+            }
+            exchange.close();
+        });
+        server.start();
+        Path cacheDir = Files.createTempDirectory("terms-cache");
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/terms";
+        try {
+            TaCScrapper first = new TaCScrapper(url, cacheDir, Duration.ZERO, Duration.ofSeconds(5));
+            assertTrue(first.getCachedText().contains("could not be loaded"), "The bundled copy should be used before anything is cached.");
+            first.run();
+            assertEquals("Prvo pravilo.\nDrugo pravilo.\n", first.getResult());
+            assertTrue(first.isChanged());
+
+            TaCScrapper expired = new TaCScrapper(url, cacheDir, Duration.ZERO, Duration.ofSeconds(5));
+            assertEquals(first.getResult(), expired.getCachedText(), "The cached copy should be available without a request.");
+            expired.run();
+            assertFalse(expired.isChanged());
+            assertEquals(1, downloads.get());
+            assertEquals(1, notModified.get(), "An expired cache should be revalidated with a conditional request.");
+
+            new TaCScrapper(url, cacheDir, Duration.ofHours(1), Duration.ofSeconds(5)).run();
+            assertEquals(2, downloads.get() + notModified.get(), "A fresh cache should not cause a request.");
+        } finally {
+            server.stop(0);
+        }
+
+        TaCScrapper offline = new TaCScrapper(url, cacheDir, Duration.ZERO, Duration.ofSeconds(1));
+        offline.run();
+        assertEquals("Prvo pravilo.\nDrugo pravilo.\n", offline.getResult(), "The saved copy should be used when the page cannot be reached.");
+    }
+
+    /**
+     * Tests that a page without any paragraphs, e.g. after a redesign of the site, does not
+     * replace the saved copy of the Terms and Conditions.
+     */
+    @Test
+    public void testTermsAndConditionsKeepsCacheOnEmptyPage() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/terms", exchange -> {
+            String html = requests.getAndIncrement() == 0
+                    ? "<html><body><p>Prvo pravilo.</p></body></html>"
+                    : "<html><body><div class=\"novi-dizajn\">Uslovi</div></body></html>";
+            byte[] page = html.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, page.length);
+            exchange.getResponseBody().write(page);
+            exchange.close();
+        });
+        server.start();
+        Path cacheDir = Files.createTempDirectory("terms-empty");
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/terms";
+        try {
+            new TaCScrapper(url, cacheDir, Duration.ZERO, Duration.ofSeconds(5)).run();
+            TaCScrapper redesigned = new TaCScrapper(url, cacheDir, Duration.ZERO, Duration.ofSeconds(5));
+            redesigned.run();
+            assertEquals(2, requests.get());
+            assertFalse(redesigned.isChanged());
+            assertEquals("Prvo pravilo.\n", redesigned.getResult(), "The saved copy should be kept.");
+            assertFalse(Files.exists(cacheDir.resolve("terms-cache.txt.tmp")), "The partial download should be removed.");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Tests that the Terms and Conditions are parsed while streaming and delivered paragraph by
+     * paragraph: markup, scripts and comments are dropped and character references decoded.
+     */
+    @Test
+    public void testTermsAndConditionsStreaming() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/terms", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("<html><head><script>var p = '<p>nije tekst</p>';</script></head><body>".getBytes(StandardCharsets.UTF_8));
+                for (int i = 0; i < 1000; i++) {
+                    out.write(("<p class=\"t\">Pravilo <b>" + i + "</b> &amp;\n  uslovi</p><!-- <p>x</p> -->").getBytes(StandardCharsets.UTF_8));
+                }
+                out.write("<div><p>Kraj &#382;&#x161;</div></body></html>".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+        List<String> paragraphs = new ArrayList<>();
+        try {
+            TaCScrapper scrapper = new TaCScrapper("http://127.0.0.1:" + server.getAddress().getPort() + "/terms",
+                    Files.createTempDirectory("terms-stream"), Duration.ZERO, Duration.ofSeconds(5));
+            scrapper.run(new TaCScrapper.Listener() {
+                @Override
+                public void onParagraph(String text) { paragraphs.add(text); }
+
+                @Override
+                public void onReset() { paragraphs.clear(); }
+            });
+        } finally {
+            server.stop(0);
+        }
+        assertEquals(1001, paragraphs.size());
+        assertEquals("Pravilo 0 & uslovi", paragraphs.get(0));
+        assertEquals("Pravilo 999 & uslovi", paragraphs.get(999));
+        assertEquals("Kraj žš", paragraphs.get(1000));
+    }
+
     /**
      * Tests successful user registration in the database.
      */
@@ -189,4 +587,514 @@ public class SnookerProjectTest {
         boolean valid = dbManager.validateUser(username, password);
         assertFalse(valid, "Validation should fail for a non-existent user.");
     }
+
+    /**
+     * Tests that journaled results are read back in order and that acknowledged
+     * results are removed while the remaining ones are kept.
+     */
+    @Test
+    public void testMatchJournalAppendAndAcknowledge() throws IOException {
+        Path file = Files.createTempFile("match-journal", ".bin");
+        try (MatchJournal journal = new MatchJournal(file)) {
+            journal.append(new MatchResult("Igrač 1", "Igrač 2", 40, 20, "Igrač 1", 16, new int[]{7, 8}));
+            journal.append(new MatchResult("Igrač 3", "Igrač 4", 10, 55, null, 0, new int[0]));
+
+            List<MatchResult> pending = journal.readPending(10);
+            assertEquals(2, pending.size(), "Both results should be pending.");
+            assertEquals("Igrač 1", pending.get(0).getPlayer1(), "Results should be read in append order.");
+            assertEquals(16, pending.get(0).getHighestBreak(), "The highest break should survive the round trip.");
+            assertArrayEquals(new int[]{7, 8}, pending.get(0).getShots(), "The shots should survive the round trip.");
+
+            journal.acknowledge(1);
+            pending = journal.readPending(10);
+            assertEquals(1, pending.size(), "Only the unacknowledged result should remain.");
+            assertEquals("Igrač 3", pending.get(0).getPlayer1(), "The remaining result should be the second one.");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests that a checksummed record in an unknown format is set aside when the journal
+     * is opened, instead of blocking the valid records behind it.
+     */
+    @Test
+    public void testMatchJournalSetsAsideUndecodableRecords() throws IOException {
+        Path file = Files.createTempFile("match-journal", ".bin");
+        Path undecodable = file.resolveSibling(file.getFileName() + ".undecodable");
+        try {
+            try (MatchJournal journal = new MatchJournal(file)) {
+                journal.append(new MatchResult("Igrač 1", "Igrač 2", 40, 20, null, 0, new int[0]));
+            }
+            byte[] valid = Files.readAllBytes(file);
+            byte[] payload = {99, 1, 2, 3};
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer record = ByteBuffer.allocate(8 + payload.length + valid.length);
+            record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).put(valid);
+            Files.write(file, record.array());
+
+            try (MatchJournal journal = new MatchJournal(file)) {
+                List<MatchResult> pending = journal.readPending(10);
+                assertEquals(1, pending.size(), "Only the decodable result should remain pending.");
+                assertEquals("Igrač 1", pending.get(0).getPlayer1());
+            }
+            assertEquals(8 + payload.length, Files.size(undecodable), "The undecodable record should be kept aside.");
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(undecodable);
+        }
+    }
+
+    /**
+     * Tests that the big-screen scoreboard only redraws the regions whose values changed.
+     */
+    @Test
+    public void testScoreboardDirtyRegions() {
+        FrameSnapshot start = new FrameSnapshot(1, "Ana", "Bob", 0, 0, true, 0, 0, 15, true, false, 2, false);
+        FrameSnapshot red = new FrameSnapshot(2, "Ana", "Bob", 1, 0, true, 1, 1, 14, false, false, 2, false);
+        FrameSnapshot miss = new FrameSnapshot(3, "Ana", "Bob", 1, 0, false, 0, 1, 14, true, false, 2, false);
+
+        assertEquals(ScoreboardWindow.ALL_REGIONS, ScoreboardWindow.dirtyRegions(null, start), "An empty board should be drawn in full.");
+        assertEquals(0, ScoreboardWindow.dirtyRegions(start, start), "An unchanged state should not redraw anything.");
+        assertEquals(ScoreboardWindow.REGION_SCORE1 | ScoreboardWindow.REGION_BREAK | ScoreboardWindow.REGION_TABLE,
+                ScoreboardWindow.dirtyRegions(start, red));
+        assertEquals(ScoreboardWindow.REGION_NAMES | ScoreboardWindow.REGION_BREAK | ScoreboardWindow.REGION_TABLE,
+                ScoreboardWindow.dirtyRegions(red, miss));
+    }
+
+    /**
+     * Tests that the bundled UI benchmark traces parse and that repeat blocks are expanded.
+     */
+    @Test
+    public void testUiBenchmarkTraces() throws IOException {
+        List<String[]> game = UiBenchmark.loadTrace("game-frame.trace");
+        assertEquals("show", game.get(0)[0]);
+        assertEquals("MENU", game.get(0)[1]);
+        assertEquals(28, game.size(), "The repeat blocks should be expanded.");
+        assertEquals("#ball-7", game.get(3)[1]);
+        assertEquals("Završi potez", game.get(14)[1], "Button texts may contain spaces.");
+
+        List<String[]> history = UiBenchmark.loadTrace("menu-history.trace");
+        assertEquals(31, history.size());
+    }
+
+    /**
+     * Tests that near-duplicate bug reports share an LSH bucket and unrelated ones do not.
+     */
+    @Test
+    public void testReportSignatureGroupsNearDuplicates() {
+        String report = "Aplikacija se ruši kada kliknem na dugme Istorija Mečeva";
+        long[] keys = ReportSignature.bandKeys(report);
+        assertEquals(ReportSignature.BANDS, keys.length);
+        assertArrayEquals(keys, ReportSignature.bandKeys("aplikacija se rusi kada kliknem na dugme istorija meceva!!"),
+                "Case, punctuation and diacritics should not matter.");
+        assertTrue(sharedKeys(keys, ReportSignature.bandKeys("Aplikacija se ruši kad kliknem na dugme Istorija mečeva posle igre")) > 0,
+                "A reworded report should land in a shared bucket.");
+        assertEquals(0, sharedKeys(keys, ReportSignature.bandKeys("Foul bi trebalo da vredi bar četiri poena, a ne tri")),
+                "An unrelated report should not share a bucket.");
+        assertEquals(0, ReportSignature.bandKeys("?!  ...").length, "A message without words has no keys.");
+    }
+
+    /**
+     * Tests that only an administrator can read the report clusters, and that deleting a
+     * user recounts the clusters their reports were in.
+     */
+    @Test
+    public void testDeleteUserRecountsReportClusters() throws SQLException {
+        String suffix = String.valueOf(System.currentTimeMillis());
+        String admin = "admin_" + suffix;
+        String reporter = "reporter_" + suffix;
+        String message = "Tabla " + suffix + " se zamrzne posle faula na crnoj kugli u drugom frejmu";
+        assertTrue(dbManager.registerUser(admin, "password123"));
+        assertTrue(dbManager.registerUser(reporter, "password123"));
+        try (Connection conn = DriverManager.getConnection("jdbc:mysql://localhost:3306/snooker_db", "root", "");
+             Statement stmt = conn.createStatement()) {
+            try {
+                stmt.executeUpdate("UPDATE users SET is_admin = TRUE WHERE username = '" + admin + "'");
+
+                assertTrue(dbManager.validateUser(reporter, "password123"));
+                assertFalse(dbManager.isCurrentUserAdmin());
+                assertTrue(dbManager.saveReport(dbManager.getCurrentUserId(), message));
+                assertTrue(dbManager.saveReport(dbManager.getCurrentUserId(), message + "!"));
+                assertTrue(dbManager.getReportClusters(10).isEmpty(), "A regular user must not see other users' reports.");
+                int reporterId = dbManager.getCurrentUserId();
+
+                assertTrue(dbManager.validateUser(admin, "password123"));
+                assertTrue(dbManager.isCurrentUserAdmin());
+                assertTrue(dbManager.saveReport(dbManager.getCurrentUserId(), message + "?"));
+                assertEquals(3, clusterSize(stmt, message + "?"), "Near duplicates should share a cluster.");
+
+                assertTrue(dbManager.deleteUser(reporterId));
+                assertEquals(1, clusterSize(stmt, message + "?"), "The deleted user's reports should no longer be counted.");
+            } finally {
+                dbManager.setCurrentUserId(-1);
+                for (String username : List.of(admin, reporter)) {
+                    Integer userId = dbManager.getUserIdByName(username);
+                    if (userId != null) dbManager.deleteUser(userId);
+                }
+            }
+        }
+    }
+
+    private static int clusterSize(Statement stmt, String message) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT c.size FROM reports r JOIN report_clusters c ON c.id = r.cluster_id "
+                + "WHERE r.report_message = '" + message + "'")) {
+            assertTrue(rs.next(), "The report should belong to a cluster.");
+            return rs.getInt(1);
+        }
+    }
+
+    private static int sharedKeys(long[] a, long[] b) {
+        int shared = 0;
+        for (long x : a) {
+            for (long y : b) {
+                if (x == y) shared++;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Tests that a season archive reads back exactly what was written, in history order.
+     */
+    @Test
+    public void testSeasonArchiveRoundTrip() throws IOException {
+        Path file = Files.createTempFile("season", SeasonArchive.EXTENSION);
+        Files.delete(file);
+        List<MatchData> matches = List.of(
+                new MatchData(7, "Marko", "Ana", "3 : 1", LocalDate.of(2016, 3, 2)),
+                new MatchData(3, "Ana", "Đorđe", "0 : 4", LocalDate.of(2015, 9, 1)),
+                new MatchData(5, "Marko", "Đorđe", "2 : 2", LocalDate.of(2016, 3, 2)));
+        List<BreakData> breaks = List.of(new BreakData(20, 5, "Đorđe", 147), new BreakData(11, 3, "Ana", 56));
+        SeasonArchive.write(file, matches, breaks);
+        try (SeasonArchive archive = SeasonArchive.open(file)) {
+            assertEquals(3, archive.getMatchCount());
+            assertEquals(2, archive.getBreakCount());
+            assertEquals(3, archive.matchId(0), "Matches should be sorted by date, then ID.");
+            assertEquals(7, archive.matchId(2));
+
+            MatchData newest = archive.match(2);
+            assertEquals("Marko", newest.getPlayer1());
+            assertEquals("Ana", newest.getPlayer2());
+            assertEquals("3 : 1", newest.getScore());
+            assertEquals(LocalDate.of(2016, 3, 2), newest.getDate());
+            assertEquals("Đorđe", archive.playerName(archive.player2(0)));
+            assertEquals(archive.player1(2), archive.playerOrdinal("Marko"), "Names should be interned.");
+
+            assertEquals(1, archive.rowsBefore(LocalDate.of(2016, 3, 2).toEpochDay(), 5));
+            assertEquals(1, archive.firstBreakAfter(11));
+            assertEquals(147, archive.breakAt(1).getBreakScore());
+            assertTrue(archive.containsMatch(5));
+            assertTrue(archive.containsMatch(3));
+            assertTrue(archive.containsMatch(7));
+            assertFalse(archive.containsMatch(6));
+            assertFalse(archive.containsMatch(Integer.MIN_VALUE));
+            assertArrayEquals(new int[]{1}, archive.breakRowsOfMatch(5));
+            assertArrayEquals(new int[]{0}, archive.breakRowsOfMatch(3));
+            assertEquals(0, archive.breakRowsOfMatch(7).length, "A match without breaks should have no break rows.");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests that player names sort in the database's binary collation, in queries and in
+     * the columnar store alike.
+     */
+    @Test
+    public void testPlayerNamesSortInBinaryCollation() {
+        assertTrue(MatchStore.NAME_ORDER.compare("Zoran", "ana") < 0, "Upper case sorts before lower case.");
+        assertTrue(MatchStore.NAME_ORDER.compare("ana", "Đorđe") < 0);
+        assertTrue(MatchStore.NAME_ORDER.compare("\uFF21na", "\uD83C\uDFB1 Ana") < 0,
+                "Supplementary characters sort by code point, after the rest of the BMP.");
+        assertTrue("\uFF21na".compareTo("\uD83C\uDFB1 Ana") > 0, "String.compareTo orders them the other way.");
+        assertEquals(0, MatchStore.NAME_ORDER.compare("Ana", "Ana  "), "Trailing spaces are padding.");
+        assertTrue(MatchStore.NAME_ORDER.compare("Ana\t", "Ana") < 0, "A tab sorts before the padding space.");
+
+        MatchData a = new MatchData(1, "\uD83C\uDFB1 Ana", "Marko", "1 : 0", LocalDate.of(2016, 3, 2));
+        MatchData b = new MatchData(2, "\uFF21na", "Marko", "1 : 0", LocalDate.of(2016, 3, 2));
+        MatchData c = new MatchData(3, "Zoran", "Marko", "1 : 0", LocalDate.of(2016, 3, 2));
+        List<MatchData> matches = new ArrayList<>(List.of(a, b, c));
+        matches.sort(MatchQuery.HISTORY.withSort(MatchStore.SortKey.PLAYER1, false).comparator());
+        assertEquals(List.of(3, 2, 1), matches.stream().map(MatchData::getId).toList());
+
+        MatchStore store = new MatchStore();
+        matches.forEach(store::add);
+        int[] byName = store.sort(store.allRows(), MatchStore.SortKey.PLAYER1, false);
+        assertEquals(List.of(3, 2, 1), Arrays.stream(byName).map(store::id).boxed().toList());
+    }
+
+    /**
+     * Tests that the columnar match store sorts negative keys, i.e. dates before 1970, first.
+     */
+    @Test
+    public void testMatchStoreSortsDatesBefore1970First() {
+        MatchStore store = new MatchStore();
+        store.add(new MatchData(1, "Ana", "Marko", "1 : 0", LocalDate.of(2016, 3, 2)));
+        store.add(new MatchData(2, "Ana", "Marko", "1 : 0", LocalDate.of(1965, 5, 1)));
+        store.add(new MatchData(3, "Ana", "Marko", "1 : 0", LocalDate.of(1970, 1, 1)));
+        int[] byDate = store.sort(store.allRows(), MatchStore.SortKey.DATE, false);
+        assertEquals(List.of(2, 3, 1), Arrays.stream(byDate).map(store::id).boxed().toList());
+        int[] newestFirst = store.sort(store.allRows(), MatchStore.SortKey.DATE, true);
+        assertEquals(List.of(1, 3, 2), Arrays.stream(newestFirst).map(store::id).boxed().toList());
+    }
+
+    /**
+     * Tests that the columnar match store filters, sorts and reads back matches.
+     */
+    @Test
+    public void testMatchStoreFilterAndSort() {
+        MatchStore store = new MatchStore();
+        store.add(new MatchData(4, "Marko", "Ana", "3 : 1", LocalDate.of(2016, 3, 2)));
+        store.add(new MatchData(9, "Ana", "Đorđe", "0 : 4", LocalDate.of(2015, 9, 1)));
+        store.add(new MatchData(2, "Marko", "Đorđe", "2 : 2", LocalDate.of(2016, 3, 2)));
+        assertEquals(-1, store.add(new MatchData(4, "Marko", "Ana", "3 : 1", LocalDate.of(2016, 3, 2))), "IDs should be unique.");
+        assertEquals(-1, store.add(new MatchData(5, "Marko", "Ana", "nepoznat", LocalDate.of(2016, 3, 2))));
+        assertEquals(3, store.size());
+        assertEquals(3, store.playerCount(), "Names should be interned.");
+        assertEquals(2, store.id(0), "Rows should be kept in ID order.");
+
+        int[] ana = store.selectPlayer("Ana");
+        assertEquals(2, ana.length);
+        int[] history = store.sort(store.allRows(), MatchStore.SortKey.DATE, true);
+        assertEquals(List.of(4, 2, 9), Arrays.stream(history).map(store::id).boxed().toList(),
+                "Sorting by date descending should give the history order.");
+        int[] byMargin = store.sort(store.allRows(), MatchStore.SortKey.MARGIN, true);
+        assertEquals(9, store.id(byMargin[0]));
+        int[] byName = store.sort(store.allRows(), MatchStore.SortKey.PLAYER1, false);
+        assertEquals("Ana", store.playerName(store.player1(byName[0])));
+
+        MatchData view = store.view(ana[1]);
+        assertEquals("Ana", view.getPlayer1());
+        assertEquals("0 : 4", view.getScore());
+        assertEquals(LocalDate.of(2015, 9, 1), view.getDate());
+
+        assertTrue(store.remove(4));
+        assertEquals(-1, store.rowOf(4));
+        assertEquals(1, store.rowOf(9));
+    }
+
+    /**
+     * Tests that a history query orders and filters matches the way its SQL does.
+     */
+    @Test
+    public void testMatchQueryOrderAndFilters() {
+        MatchData a = new MatchData(1, "Marko", "Ana", "3 : 1", LocalDate.of(2016, 3, 2));
+        MatchData b = new MatchData(2, "ana", "Đorđe", "0 : 4", LocalDate.of(2015, 9, 1));
+        MatchData c = new MatchData(3, "Đorđe", "Marko", "2 : 2", LocalDate.of(2016, 3, 2));
+        List<MatchData> matches = new ArrayList<>(List.of(a, b, c));
+
+        matches.sort(MatchQuery.HISTORY.comparator());
+        assertEquals(List.of(3, 1, 2), matches.stream().map(MatchData::getId).toList(), "Newest date, then newest ID first.");
+        matches.sort(MatchQuery.HISTORY.withSort(MatchStore.SortKey.MARGIN, true).comparator());
+        assertEquals(List.of(2, 1, 3), matches.stream().map(MatchData::getId).toList());
+
+        assertEquals(4, MatchQuery.margin(b));
+        MatchQuery anaQuery = MatchQuery.HISTORY.withPlayer("  AN ");
+        assertTrue(anaQuery.matches(a), "The player filter should match either side, ignoring case.");
+        assertTrue(anaQuery.matches(b));
+        assertFalse(anaQuery.matches(c));
+        MatchQuery query = MatchQuery.HISTORY.withDates(LocalDate.of(2016, 1, 1), null).withMinMargin(1);
+        assertTrue(query.matches(a));
+        assertFalse(query.matches(b), "Played before the range.");
+        assertFalse(query.matches(c), "A draw has no margin.");
+
+        assertEquals(MatchQuery.HISTORY, MatchQuery.HISTORY.withPlayer(" ").withMinMargin(0),
+                "Blank filters should leave the query unchanged, so no reload is started.");
+    }
+
+    /**
+     * Tests that Elo ratings are updated per match, reversed on delete, and that a replay
+     * from a checkpoint gives the same ratings as a full recompute.
+     */
+    @Test
+    public void testEloRatingsIncrementalAndReplay() {
+        EloRatings ratings = new EloRatings();
+        MatchData first = new MatchData(1, "Marko", "Ana", "60 : 20", LocalDate.of(2016, 3, 2));
+        assertTrue(ratings.addMatch(first));
+        assertFalse(ratings.addMatch(first), "A match should be applied once.");
+        assertEquals(EloRatings.INITIAL_RATING + EloRatings.DEFAULT_K_FACTOR / 2, ratings.getRating("Marko"), 1e-9);
+        assertEquals(2 * EloRatings.INITIAL_RATING, ratings.getRating("Marko") + ratings.getRating("Ana"), 1e-9,
+                "Rating points should only move between the players.");
+        assertTrue(ratings.removeMatch(1));
+        assertEquals(EloRatings.INITIAL_RATING, ratings.getRating("Marko"), 1e-9);
+        assertTrue(ratings.getTopRatings(5).isEmpty(), "Players without matches should not be ranked.");
+
+        MatchStore store = new MatchStore();
+        String[] players = {"Marko", "Ana", "Đorđe", "Jelena", "Nikola"};
+        Random random = new Random(7);
+        for (int id = 1; id <= 3 * EloRatings.CHECKPOINT_INTERVAL; id++) {
+            int p1 = random.nextInt(players.length);
+            int p2 = (p1 + 1 + random.nextInt(players.length - 1)) % players.length;
+            store.add(id, players[p1], players[p2], random.nextInt(100), random.nextInt(100), LocalDate.of(2010, 1, 1).plusDays(random.nextInt(2000)));
+        }
+        ratings.recompute(store);
+        assertEquals(store.size(), ratings.getMatchCount());
+        assertEquals(3, ratings.getCheckpointCount());
+
+        LocalDate backdated = LocalDate.of(2014, 6, 1);
+        store.add(store.size() + 1, "Marko", "Ana", 100, 0, backdated);
+        ratings.recomputeFrom(store, backdated);
+        EloRatings full = new EloRatings();
+        full.recompute(store);
+        for (String player : players) {
+            assertEquals(full.getRating(player), ratings.getRating(player), 1e-9, player);
+        }
+        assertEquals(full.getMatchCount(), ratings.getMatchCount());
+    }
+
+    /**
+     * Tests that ratings follow saves and deletes as a replay would: the latest match is
+     * applied or reversed alone, an older one is replayed from a checkpoint, and a deleted
+     * match's checkpoints are dropped.
+     */
+    @Test
+    public void testEloRatingsFollowSavesAndDeletes() {
+        MatchStore store = new MatchStore();
+        String[] players = {"Marko", "Ana", "Đorđe", "Jelena"};
+        Random random = new Random(11);
+        for (int id = 1; id <= 2 * EloRatings.CHECKPOINT_INTERVAL + 10; id++) {
+            int p1 = random.nextInt(players.length);
+            int p2 = (p1 + 1 + random.nextInt(players.length - 1)) % players.length;
+            store.add(id, players[p1], players[p2], random.nextInt(100), random.nextInt(100), LocalDate.of(2010, 1, 1).plusDays(random.nextInt(2000)));
+        }
+        EloRatings ratings = new EloRatings();
+        ratings.recompute(store);
+        assertEquals(2, ratings.getCheckpointCount());
+
+        MatchData newest = new MatchData(store.size() + 1, "Ana", "Marko", "80 : 10", LocalDate.of(2020, 1, 1));
+        assertTrue(ratings.isLatest(newest.getDate(), newest.getId()));
+        store.add(newest);
+        ratings.addMatch(newest);
+        assertSameRatings(store, ratings, players);
+
+        MatchData older = new MatchData(store.size() + 1, "Jelena", "Đorđe", "70 : 0", LocalDate.of(2011, 2, 3));
+        assertFalse(ratings.isLatest(older.getDate(), older.getId()), "A backdated match is not the latest.");
+        store.add(older);
+        ratings.recomputeFrom(store, older.getDate());
+        assertSameRatings(store, ratings, players);
+
+        assertTrue(ratings.isLatest(newest.getDate(), newest.getId()));
+        store.remove(newest.getId());
+        ratings.removeMatch(newest.getId());
+        assertSameRatings(store, ratings, players);
+
+        assertTrue(ratings.getCheckpointCount() > 0);
+        int first = store.sort(store.allRows(), MatchStore.SortKey.DATE, false)[0];
+        int firstId = store.id(first);
+        LocalDate firstDate = LocalDate.ofEpochDay(store.epochDay(first));
+        assertTrue(ratings.removeMatch(firstId));
+        assertEquals(0, ratings.getCheckpointCount(), "Every checkpoint after the deleted match still counts it.");
+        store.remove(firstId);
+        ratings.recomputeFrom(store, firstDate);
+        assertSameRatings(store, ratings, players);
+    }
+
+    private static void assertSameRatings(MatchStore store, EloRatings ratings, String[] players) {
+        EloRatings full = new EloRatings();
+        full.recompute(store);
+        for (String player : players) {
+            assertEquals(full.getRating(player), ratings.getRating(player), 1e-6, player);
+        }
+        assertEquals(full.getMatchCount(), ratings.getMatchCount());
+    }
+
+    /**
+     * Tests that matches appended out of ID order, as the history pages arrive, are sorted
+     * once and repeated IDs dropped.
+     */
+    @Test
+    public void testMatchStoreAppendThenSortById() {
+        MatchStore store = new MatchStore(2);
+        assertTrue(store.append(new MatchData(9, "Ana", "Marko", "1 : 0", LocalDate.of(2016, 3, 2))));
+        assertTrue(store.append(new MatchData(4, "Marko", "Ana", "0 : 3", LocalDate.of(2016, 3, 1))));
+        assertFalse(store.append(new MatchData(5, "Marko", "Ana", "nepoznat", LocalDate.of(2016, 3, 1))));
+        assertTrue(store.append(new MatchData(7, "Đorđe", "Ana", "2 : 2", LocalDate.of(2015, 1, 1))));
+        assertTrue(store.append(new MatchData(4, "Marko", "Ana", "0 : 3", LocalDate.of(2016, 3, 1))));
+        store.sortById();
+        assertEquals(3, store.size());
+        assertEquals(List.of(4, 7, 9), Arrays.stream(store.allRows()).map(store::id).boxed().toList());
+        assertEquals("Đorđe", store.playerName(store.player1(store.rowOf(7))));
+        assertEquals(3, store.score2(store.rowOf(4)));
+        assertEquals(2, store.add(new MatchData(8, "Ana", "Marko", "1 : 0", LocalDate.of(2016, 3, 2))),
+                "The sorted store should accept inserts at their place.");
+    }
+
+    /**
+     * Tests that a background lane runs its tasks one at a time and in submission order.
+     */
+    @Test
+    public void testBackgroundLaneRunsTasksInOrder() throws InterruptedException {
+        BackgroundExecutor.Lane lane = BackgroundExecutor.newLane();
+        List<Integer> order = new ArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        for (int i = 0; i < 1000; i++) {
+            int task = i;
+            lane.execute(() -> {
+                if (running.incrementAndGet() > 1) overlaps.incrementAndGet();
+                order.add(task);
+                running.decrementAndGet();
+            });
+        }
+        lane.execute(done::countDown);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get(), "Tasks of a lane must never run concurrently.");
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i, order.get(i));
+        }
+        assertEquals(1000, order.size());
+
+        lane.close();
+        lane.execute(() -> order.add(-1));
+        Thread.sleep(50);
+        assertEquals(1000, order.size(), "A closed lane should drop new tasks.");
+    }
+
+    /**
+     * Tests that the latency recorder merges per-thread samples and computes nearest-rank percentiles.
+     */
+    @Test
+    public void testLatencyRecorderPercentiles() {
+        LatencyRecorder first = new LatencyRecorder();
+        LatencyRecorder second = new LatencyRecorder();
+        assertArrayEquals(new long[]{0, 0}, first.percentiles(50, 100), "An empty recorder should report zeros.");
+        for (int i = 1000; i >= 1; i--) {
+            (i % 2 == 0 ? first : second).record(i, i % 100 != 0);
+        }
+        first.merge(second);
+        assertEquals(1000, first.getCount());
+        assertEquals(10, first.getErrors(), "Failed operations should be counted after merging.");
+        assertArrayEquals(new long[]{1, 500, 900, 990, 999, 1000}, first.percentiles(0, 50, 90, 99, 99.9, 100));
+    }
+
+    /**
+     * Tests that the Zipf sampler stays in range and draws ranks with the expected skew.
+     */
+    @Test
+    public void testZipfSamplerDistribution() {
+        int ranks = 100;
+        ZipfSampler sampler = new ZipfSampler(ranks, 1.0);
+        Random random = new Random(11);
+        int[] counts = new int[ranks];
+        int samples = 200_000;
+        for (int i = 0; i < samples; i++) {
+            int rank = sampler.sample(random);
+            assertTrue(rank >= 0 && rank < ranks, "Rank out of range: " + rank);
+            counts[rank]++;
+        }
+        double harmonic = 0;
+        for (int i = 1; i <= ranks; i++) harmonic += 1.0 / i;
+        assertEquals(1 / harmonic, counts[0] / (double) samples, 0.01, "Rank 0 should be drawn with probability 1/H(n).");
+        assertEquals(2.0, counts[0] / (double) counts[1], 0.1, "Rank 0 should be drawn twice as often as rank 1.");
+
+        ZipfSampler uniform = new ZipfSampler(4, 0);
+        int[] uniformCounts = new int[4];
+        for (int i = 0; i < 40_000; i++) uniformCounts[uniform.sample(random)]++;
+        for (int count : uniformCounts) {
+            assertEquals(10_000, count, 500, "An exponent of 0 should draw every rank equally often.");
+        }
+    }
 }
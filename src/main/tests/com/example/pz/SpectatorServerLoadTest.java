@@ -0,0 +1,183 @@
+package com.example.pz;
+
+import logika.FrameSnapshot;
+import org.junit.jupiter.api.*;
+import spectator.SpectatorServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test for the {@link SpectatorServer}.
+ * <p>
+ * Connects thousands of local event stream clients, each on its own virtual thread,
+ * plays a frame's worth of updates through the server and checks that every client
+ * reconstructs the final score from the full and delta frames it received, even
+ * while one client stalls without reading, and that the stalled client is
+ * resynchronized instead of holding up the others. The number of clients can be set
+ * with {@code -Dsnooker.loadtest.clients}.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+@Tag("load")
+public class SpectatorServerLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("snooker.loadtest.clients", 2000);
+    private static final int UPDATES = 500;
+    /** Long enough to make each full frame a few KB, short enough to fit in one HTTP chunk. */
+    private static final int LONG_NAME_LENGTH = 1500;
+    private static final int MAX_STALL_UPDATES = 50_000;
+
+    private SpectatorServer server;
+    private ExecutorService clients;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new SpectatorServer(new InetSocketAddress("127.0.0.1", 0));
+        clients = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.shutdownNow();
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("Thousands of subscribers all converge on the final score")
+    void testFanOutToThousandsOfSubscribers() throws Exception {
+        int port = server.getAddress().getPort();
+        server.frameUpdated(snapshot(0));
+
+        Socket stalled = new Socket();
+        stalled.setReceiveBufferSize(1024);
+        stalled.connect(new InetSocketAddress("127.0.0.1", port));
+        stalled.getOutputStream().write(request());
+
+        CountDownLatch connected = new CountDownLatch(CLIENTS);
+        CountDownLatch converged = new CountDownLatch(CLIENTS);
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.execute(() -> follow(port, new AtomicLong(UPDATES), connected, converged, failures));
+        }
+        assertTrue(connected.await(60, TimeUnit.SECONDS), "Not all clients received the initial snapshot");
+
+        long start = System.nanoTime();
+        for (int seq = 1; seq <= UPDATES; seq++) {
+            server.frameUpdated(snapshot(seq));
+        }
+        assertTrue(converged.await(60, TimeUnit.SECONDS), "Not all clients reached the final score");
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.println("[spectator] " + CLIENTS + " clients converged on " + UPDATES + " updates in "
+                + elapsedMs + " ms, resyncs: " + server.getResyncCount());
+        assertEquals(0, failures.get());
+        stalled.close();
+    }
+
+    @Test
+    @DisplayName("A stalled subscriber is resynchronized without holding up the others")
+    void testStalledSubscriberIsResynchronized() throws Exception {
+        int port = server.getAddress().getPort();
+        server.frameUpdated(renamedSnapshot(0, false));
+
+        Socket stalled = new Socket();
+        stalled.setReceiveBufferSize(1024);
+        stalled.connect(new InetSocketAddress("127.0.0.1", port));
+        stalled.getOutputStream().write(request());
+
+        CountDownLatch connected = new CountDownLatch(1);
+        CountDownLatch converged = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong finalSeq = new AtomicLong(Long.MAX_VALUE);
+        clients.execute(() -> follow(port, finalSeq, connected, converged, failures));
+        assertTrue(connected.await(60, TimeUnit.SECONDS), "The client did not receive the initial snapshot");
+
+        // Every update renames the players, so each broadcast is a full frame of a few KB.
+        // Pausing between updates keeps them from being coalesced into fewer broadcasts.
+        int seq = 0;
+        while (server.getResyncCount() == 0 && seq < MAX_STALL_UPDATES) {
+            server.frameUpdated(renamedSnapshot(++seq, false));
+            LockSupport.parkNanos(100_000);
+        }
+        finalSeq.set(++seq);
+        server.frameUpdated(renamedSnapshot(seq, true));
+
+        assertTrue(server.getResyncCount() > 0, "The stalled client was never resynchronized");
+        assertTrue(converged.await(60, TimeUnit.SECONDS), "The reading client was held up by the stalled one");
+        assertEquals(0, failures.get());
+        stalled.close();
+    }
+
+    /**
+     * Follows the event stream like a spectator, applying full and delta frames, until
+     * the final update has been applied. The final update has sequence number and
+     * player 1 score {@code finalSeq}.
+     */
+    private static void follow(int port, AtomicLong finalSeq, CountDownLatch connected, CountDownLatch converged, AtomicInteger failures) {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            socket.getOutputStream().write(request());
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            boolean initial = true;
+            long seq = -1;
+            int score1 = -1;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.startsWith("data: ")) continue;
+                seq = field(line, "seq", seq);
+                score1 = (int) field(line, "score1", score1);
+                if (initial) {
+                    initial = false;
+                    connected.countDown();
+                }
+                if (seq == finalSeq.get()) {
+                    if (score1 != seq) failures.incrementAndGet();
+                    converged.countDown();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            failures.incrementAndGet();
+        }
+    }
+
+    private static long field(String line, String name, long current) {
+        String key = "\"" + name + "\":";
+        int at = line.indexOf(key);
+        if (at < 0) return current;
+        int from = at + key.length();
+        int to = from;
+        while (to < line.length() && Character.isDigit(line.charAt(to))) to++;
+        return Long.parseLong(line.substring(from, to));
+    }
+
+    private static byte[] request() {
+        return "GET /events HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static FrameSnapshot renamedSnapshot(int seq, boolean last) {
+        String padding = "x".repeat(LONG_NAME_LENGTH);
+        return new FrameSnapshot(seq, seq + padding, seq + padding, seq, seq / 3, seq % 2 == 0, seq % 20, 19,
+                15, true, false, 2, last);
+    }
+
+    private static FrameSnapshot snapshot(int seq) {
+        return new FrameSnapshot(seq, "Igrac 1", "Igrac 2", seq, seq / 3, seq % 2 == 0, seq % 20, 19,
+                15, true, false, 2, seq == UPDATES);
+    }
+}
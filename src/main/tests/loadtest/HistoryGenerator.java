@@ -0,0 +1,258 @@
+package loadtest;
+
+import data.PasswordEncrypt;
+import database.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Synthetic History Generator
+ * <p>
+ * Fills the database with a large, realistic history for load testing: users, matches
+ * with their highest breaks, and bug reports. Distributions are skewed the way a real
+ * club's data is: player activity follows a Zipf distribution, activity grows towards
+ * the present, stronger players win more often, breaks are mostly small with the odd
+ * century, and reports are near-duplicates of a few common complaints.
+ * </p>
+ * <p>
+ * Rows are written with batched, multi-row inserts in large transactions. All generated
+ * users share the password {@value #PASSWORD}, so the load driver can log in as any of
+ * them. Usage: {@code HistoryGenerator [--users N] [--matches N] [--reports N] [--years N] [--seed N]}.
+ * It connects with the application's own settings, see {@link DatabaseManager#openConnection()}.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class HistoryGenerator {
+
+    /** The password of every generated user. */
+    public static final String PASSWORD = "loadtest";
+
+    private static final int BATCH_SIZE = 5000;
+    private static final double PLAYER_SKEW = 1.1;
+
+    private static final String[] REPORT_TEMPLATES = {
+            "Aplikacija se zamrzne kada kliknem na %s kuglicu",
+            "Rezultat nije sačuvan posle meča protiv igrača %s",
+            "Ne mogu da se prijavim sa nalogom %s",
+            "Istorija mečeva se sporo učitava kada ima %s mečeva",
+            "Greška pri čuvanju rezultata, pokušao sam %s puta",
+            "Brejk nije dobro izračunat, trebalo je da bude %s"
+    };
+    private static final String[] REPORT_SUFFIXES = {"", ".", "!", " molim vas popravite", " opet", " od juče"};
+    private static final String[] BALL_NAMES = {"crvenu", "žutu", "zelenu", "braon", "plavu", "roze", "crnu"};
+
+    private final Random random;
+    private final int users;
+
+    /**
+     * Constructs a generator.
+     *
+     * @param users The number of users to generate.
+     * @param seed  The random seed, so runs are reproducible.
+     */
+    public HistoryGenerator(int users, long seed) {
+        this.users = users;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Gets the name of a generated user.
+     *
+     * @param index The index of the user, starting at 0.
+     * @return The username.
+     */
+    public static String username(int index) {
+        return String.format("player%05d", index);
+    }
+
+    /**
+     * Runs the generator.
+     *
+     * @param args Options, see the class description.
+     */
+    public static void main(String[] args) throws SQLException {
+        int users = 10_000;
+        int matches = 1_000_000;
+        int reports = 2_000;
+        int years = 5;
+        long seed = 42;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--users" -> users = Integer.parseInt(args[i + 1]);
+                case "--matches" -> matches = Integer.parseInt(args[i + 1]);
+                case "--reports" -> reports = Integer.parseInt(args[i + 1]);
+                case "--years" -> years = Integer.parseInt(args[i + 1]);
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        DatabaseManager.INSTANCE.initialize();
+        DatabaseManager.INSTANCE.disconnect();
+
+        HistoryGenerator generator = new HistoryGenerator(users, seed);
+        try (Connection conn = DatabaseManager.INSTANCE.openConnection()) {
+            conn.setAutoCommit(false);
+            int[] userIds = generator.generateUsers(conn);
+            generator.generateMatches(conn, userIds, matches, years);
+            generator.generateReports(conn, userIds, reports);
+        }
+    }
+
+    /**
+     * Inserts the users that do not exist yet and looks up the IDs of all of them.
+     *
+     * @param conn The connection to write with.
+     * @return The database ID of each generated user, by index.
+     */
+    private int[] generateUsers(Connection conn) throws SQLException {
+        long start = System.nanoTime();
+        String hash = PasswordEncrypt.hashPassword(PASSWORD);
+        try (PreparedStatement insert = conn.prepareStatement("INSERT IGNORE INTO users(username, password) VALUES(?,?)")) {
+            for (int i = 0; i < users; i++) {
+                insert.setString(1, username(i));
+                insert.setString(2, hash);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) insert.executeBatch();
+            }
+            insert.executeBatch();
+        }
+        conn.commit();
+
+        int[] ids = new int[users];
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, username FROM users WHERE username LIKE 'player%'")) {
+            while (rs.next()) {
+                String name = rs.getString("username");
+                try {
+                    int index = Integer.parseInt(name.substring("player".length()));
+                    if (index < users) ids[index] = rs.getInt("id");
+                } catch (NumberFormatException e) {
+                    // A real user whose name happens to start with "player".
+                }
+            }
+        }
+        report("users", users, start);
+        return ids;
+    }
+
+    /**
+     * Inserts matches and their highest breaks. Match IDs are assigned here, after the
+     * current maximum, so breaks can reference them without reading generated keys back.
+     */
+    private void generateMatches(Connection conn, int[] userIds, int count, int years) throws SQLException {
+        long start = System.nanoTime();
+        ZipfSampler players = new ZipfSampler(users, PLAYER_SKEW);
+        double[] skill = new double[users];
+        for (int i = 0; i < users; i++) {
+            skill[i] = random.nextGaussian();
+        }
+        int nextId;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM matches")) {
+            rs.next();
+            nextId = rs.getInt(1) + 1;
+        }
+        LocalDate today = LocalDate.now();
+        int spanDays = years * 365;
+
+        try (PreparedStatement insertMatch = conn.prepareStatement("INSERT INTO matches(id, player1_name, player2_name, score, match_date) VALUES(?,?,?,?,?)");
+             PreparedStatement insertBreak = conn.prepareStatement("INSERT INTO breaks(user_id, player_name, break_score, match_id) VALUES(?,?,?,?)")) {
+            for (int i = 0; i < count; i++) {
+                int p1 = players.sample(random);
+                int p2 = players.sample(random);
+                while (p2 == p1) p2 = random.nextInt(users);
+
+                // Stronger players win more often; the loser's score is spread below the winner's.
+                boolean p1Wins = random.nextDouble() < 1 / (1 + Math.exp(skill[p2] - skill[p1]));
+                int winnerScore = 50 + random.nextInt(70);
+                int loserScore = Math.max(0, Math.min(winnerScore - 1, (int) (35 + random.nextGaussian() * 20)));
+                int score1 = p1Wins ? winnerScore : loserScore;
+                int score2 = p1Wins ? loserScore : winnerScore;
+                // sqrt skews the dates towards the present, as club activity grows over time.
+                LocalDate date = today.minusDays((long) ((1 - Math.sqrt(random.nextDouble())) * spanDays));
+
+                int matchId = nextId++;
+                insertMatch.setInt(1, matchId);
+                insertMatch.setString(2, username(p1));
+                insertMatch.setString(3, username(p2));
+                insertMatch.setString(4, score1 + " : " + score2);
+                insertMatch.setDate(5, Date.valueOf(date));
+                insertMatch.addBatch();
+
+                if (random.nextDouble() < 0.9) {
+                    int breaker = (random.nextDouble() < 0.85) == p1Wins ? p1 : p2;
+                    int breakScore = Math.min(147, 10 + (int) (-Math.log(1 - random.nextDouble()) * 18));
+                    if (userIds[breaker] > 0) insertBreak.setInt(1, userIds[breaker]);
+                    else insertBreak.setNull(1, Types.INTEGER);
+                    insertBreak.setString(2, username(breaker));
+                    insertBreak.setInt(3, breakScore);
+                    insertBreak.setInt(4, matchId);
+                    insertBreak.addBatch();
+                }
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insertMatch.executeBatch();
+                    insertBreak.executeBatch();
+                    conn.commit();
+                    if ((i + 1) % 100_000 == 0) report("matches", i + 1, start);
+                }
+            }
+            insertMatch.executeBatch();
+            insertBreak.executeBatch();
+            conn.commit();
+        }
+        report("matches", count, start);
+    }
+
+    /**
+     * Inserts bug reports, as variations of a few common complaints, by users whose ID is known.
+     */
+    private void generateReports(Connection conn, int[] userIds, int count) throws SQLException {
+        long start = System.nanoTime();
+        int[] authors = Arrays.stream(userIds).filter(id -> id > 0).toArray();
+        if (authors.length == 0) {
+            System.err.println("[generator] No generated user exists; no reports were inserted.");
+            return;
+        }
+        ZipfSampler templates = new ZipfSampler(REPORT_TEMPLATES.length, 1.0);
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO reports(user_id, report_message) VALUES(?,?)")) {
+            for (int i = 0; i < count; i++) {
+                int author = authors[random.nextInt(authors.length)];
+                int template = templates.sample(random);
+                String detail = switch (template) {
+                    case 0 -> BALL_NAMES[random.nextInt(BALL_NAMES.length)];
+                    case 1, 2 -> username(random.nextInt(users));
+                    case 3 -> String.valueOf(1000 * (1 + random.nextInt(1000)));
+                    default -> String.valueOf(2 + random.nextInt(40));
+                };
+                insert.setInt(1, author);
+                insert.setString(2, String.format(REPORT_TEMPLATES[template], detail) + REPORT_SUFFIXES[random.nextInt(REPORT_SUFFIXES.length)]);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) insert.executeBatch();
+            }
+            insert.executeBatch();
+        }
+        conn.commit();
+        report("reports", count, start);
+    }
+
+    /**
+     * Prints the progress of a generation step.
+     */
+    private static void report(String what, int rows, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("[generator] %s: %,d rows in %.1f s (%,.0f rows/s)%n", what, rows, seconds, rows / Math.max(seconds, 1e-9));
+    }
+}
@@ -0,0 +1,76 @@
+package loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latency Recorder
+ * <p>
+ * Collects the latencies of one operation, in nanoseconds, into a growable primitive
+ * array. Each load driver thread keeps its own recorders, so recording needs no
+ * synchronization; the recorders are merged once the run is over.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class LatencyRecorder {
+    private long[] samples = new long[1024];
+    private int size = 0;
+    private int errors = 0;
+
+    /**
+     * Records one completed operation.
+     *
+     * @param nanos   How long the operation took.
+     * @param success Whether the operation succeeded.
+     */
+    public void record(long nanos, boolean success) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+        if (!success) errors++;
+    }
+
+    /**
+     * Adds all samples of another recorder to this one.
+     *
+     * @param other The recorder to merge.
+     */
+    public void merge(LatencyRecorder other) {
+        if (size + other.size > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(size + other.size, samples.length * 2));
+        }
+        System.arraycopy(other.samples, 0, samples, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    /**
+     * @return The number of operations recorded.
+     */
+    public int getCount() { return size; }
+
+    /**
+     * @return The number of failed operations.
+     */
+    public int getErrors() { return errors; }
+
+    /**
+     * Computes latency percentiles. Sorts the samples, so call it once recording has finished.
+     *
+     * @param percentiles The percentiles to compute, between 0 and 100.
+     * @return The latency at each percentile, in nanoseconds, or zeros if nothing was recorded.
+     */
+    public long[] percentiles(double... percentiles) {
+        long[] result = new long[percentiles.length];
+        if (size == 0) return result;
+        Arrays.sort(samples, 0, size);
+        for (int i = 0; i < percentiles.length; i++) {
+            // The epsilon keeps rounding error, e.g. 99.9 / 100 * 1000 = 999.0000000000001, from skipping a rank.
+            int index = (int) Math.ceil(percentiles[i] / 100.0 * size - 1e-9) - 1;
+            result[i] = samples[Math.max(0, Math.min(index, size - 1))];
+        }
+        return result;
+    }
+}
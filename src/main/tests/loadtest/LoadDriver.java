@@ -0,0 +1,229 @@
+package loadtest;
+
+import data.MatchData;
+import data.MatchResult;
+import database.DatabaseManager;
+import logika.Snooker;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Database Load Driver
+ * <p>
+ * Replays a concurrent mix of the application's database workloads against a local
+ * database filled by {@link HistoryGenerator}: saving finished frames with their shots,
+ * paging through the match history, logging in and deleting matches. Every operation
+ * goes through {@link DatabaseManager}, exactly as the application calls it, and its
+ * latency is recorded. At the end, throughput and latency percentiles are reported per
+ * operation.
+ * </p>
+ * <p>
+ * {@code DatabaseManager} runs every statement on its single shared connection and
+ * serializes all of its methods on one lock, so the driver threads contend for that
+ * connection just as the application's screens and background tasks do. The reported
+ * latencies include the time spent waiting for it, and throughput does not grow with
+ * the number of threads beyond what one connection sustains.
+ * </p>
+ * <p>
+ * Usage: {@code LoadDriver [--threads N] [--seconds N] [--users N] [--mix save:20,history:50,login:20,delete:10]}.
+ * The user count must match the one the history was generated with. Only matches saved
+ * by the driver itself are deleted, so the generated history stays intact.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class LoadDriver {
+
+    /**
+     * The workloads the driver replays.
+     */
+    enum Operation { SAVE, HISTORY, LOGIN, DELETE }
+
+    private static final int HISTORY_PAGE_SIZE = 100;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+
+    private final int users;
+    private final int[] weights = new int[Operation.values().length];
+    private final ZipfSampler players;
+    private final ConcurrentLinkedQueue<Integer> savedIds = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs a driver.
+     *
+     * @param users The number of generated users.
+     * @param mix   The relative weight of each operation, e.g. {@code save:20,history:50}.
+     */
+    public LoadDriver(int users, String mix) {
+        this.users = users;
+        this.players = new ZipfSampler(users, 1.1);
+        for (String part : mix.split(",")) {
+            String[] entry = part.split(":");
+            weights[Operation.valueOf(entry[0].strip().toUpperCase()).ordinal()] = Integer.parseInt(entry[1].strip());
+        }
+    }
+
+    /**
+     * Runs the load driver.
+     *
+     * @param args Options, see the class description.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = 8;
+        int seconds = 60;
+        int users = 10_000;
+        String mix = "save:20,history:50,login:20,delete:10";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                case "--seconds" -> seconds = Integer.parseInt(args[i + 1]);
+                case "--users" -> users = Integer.parseInt(args[i + 1]);
+                case "--mix" -> mix = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        DatabaseManager.INSTANCE.initialize();
+        LoadDriver driver = new LoadDriver(users, mix);
+        Map<Operation, LatencyRecorder> results = driver.run(threads, seconds * 1_000_000_000L);
+        printReport(results, seconds, threads);
+        DatabaseManager.INSTANCE.disconnect();
+    }
+
+    /**
+     * Runs the workload on several threads for a fixed time.
+     *
+     * @param threads       The number of concurrent clients.
+     * @param durationNanos How long to run.
+     * @return The merged latencies of each operation.
+     */
+    public Map<Operation, LatencyRecorder> run(int threads, long durationNanos) throws Exception {
+        long deadline = System.nanoTime() + durationNanos;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Map<Operation, LatencyRecorder>>> clients = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = 1000L + t;
+            clients.add(executor.submit(() -> client(new Random(seed), deadline)));
+        }
+
+        Map<Operation, LatencyRecorder> merged = new EnumMap<>(Operation.class);
+        for (Operation op : Operation.values()) {
+            merged.put(op, new LatencyRecorder());
+        }
+        for (Future<Map<Operation, LatencyRecorder>> client : clients) {
+            client.get().forEach((op, recorder) -> merged.get(op).merge(recorder));
+        }
+        executor.shutdown();
+        return merged;
+    }
+
+    /**
+     * One client: picks operations by weight and times them until the deadline.
+     */
+    private Map<Operation, LatencyRecorder> client(Random random, long deadline) {
+        Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+        for (Operation op : Operation.values()) {
+            recorders.put(op, new LatencyRecorder());
+        }
+        int totalWeight = 0;
+        for (int w : weights) totalWeight += w;
+
+        while (System.nanoTime() < deadline) {
+            Operation op = pick(random.nextInt(totalWeight));
+            Integer deleteId = null;
+            if (op == Operation.DELETE) {
+                deleteId = savedIds.poll();
+                if (deleteId == null) op = Operation.SAVE;
+            }
+            MatchResult frame = (op == Operation.SAVE) ? playFrame(random) : null;
+
+            long start = System.nanoTime();
+            boolean success = switch (op) {
+                case SAVE -> {
+                    int id = DatabaseManager.INSTANCE.saveMatchResult(frame);
+                    if (id > 0) savedIds.add(id);
+                    yield id > 0;
+                }
+                case HISTORY -> !DatabaseManager.INSTANCE.getMatchesPage(historyCursor(random), HISTORY_PAGE_SIZE).isEmpty();
+                case LOGIN -> DatabaseManager.INSTANCE.validateUser(HistoryGenerator.username(players.sample(random)), HistoryGenerator.PASSWORD);
+                case DELETE -> DatabaseManager.INSTANCE.deleteMatch(deleteId);
+            };
+            recorders.get(op).record(System.nanoTime() - start, success);
+        }
+        return recorders;
+    }
+
+    /**
+     * @param ticket A random number below the total weight.
+     * @return The operation the number falls on.
+     */
+    private Operation pick(int ticket) {
+        for (Operation op : Operation.values()) {
+            ticket -= weights[op.ordinal()];
+            if (ticket < 0) return op;
+        }
+        return Operation.HISTORY;
+    }
+
+    /**
+     * Chooses where a history request starts: most users look at the first page, the
+     * rest jump to a page somewhere in the last few years.
+     *
+     * @return The keyset cursor, or {@code null} for the first page.
+     */
+    private static MatchData historyCursor(Random random) {
+        if (random.nextDouble() < 0.7) return null;
+        LocalDate date = LocalDate.now().minusDays(random.nextInt(5 * 365));
+        return new MatchData(Integer.MAX_VALUE, "", "", "", date);
+    }
+
+    /**
+     * Plays a random frame on a real game, so saved frames have realistic shot counts.
+     */
+    private MatchResult playFrame(Random random) {
+        int p1 = players.sample(random);
+        int p2 = players.sample(random);
+        while (p2 == p1) p2 = random.nextInt(users);
+        Snooker snooker = new Snooker(15);
+        for (int shot = 0; shot < 300 && !snooker.isGameOver(); shot++) {
+            double roll = random.nextDouble();
+            if (roll < 0.25) snooker.promasaj();
+            else if (roll < 0.28) snooker.foulPlusFour();
+            else if (snooker.daLiTrebaCrvena() && !snooker.isEndgame()) snooker.klikNaBoju(1);
+            else if (snooker.isEndgame()) snooker.klikNaBoju(snooker.getNextColorValue());
+            else snooker.klikNaBoju(2 + random.nextInt(6));
+        }
+        String name1 = HistoryGenerator.username(p1);
+        String name2 = HistoryGenerator.username(p2);
+        String breakPlayer = snooker.getHighestBreakInMatch() == 0 ? null
+                : (snooker.getPlayerWithHighestBreak() == 1 ? name1 : name2);
+        return new MatchResult(name1, name2, snooker.getPoeni1(), snooker.getPoeni2(),
+                breakPlayer, snooker.getHighestBreakInMatch(), snooker.getShots().toArray());
+    }
+
+    /**
+     * Prints throughput and latency percentiles per operation.
+     */
+    private static void printReport(Map<Operation, LatencyRecorder> results, int seconds, int threads) {
+        System.out.printf("%n%d threads, %d s%n", threads, seconds);
+        System.out.printf("%-8s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<Operation, LatencyRecorder> entry : results.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            long[] p = recorder.percentiles(PERCENTILES);
+            System.out.printf("%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().name().toLowerCase(), recorder.getCount(), recorder.getErrors(),
+                    recorder.getCount() / (double) seconds,
+                    p[0] / 1e6, p[1] / 1e6, p[2] / 1e6, p[3] / 1e6, p[4] / 1e6);
+        }
+    }
+}
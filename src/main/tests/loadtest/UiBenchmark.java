@@ -0,0 +1,395 @@
+package loadtest;
+
+import database.DatabaseManager;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ButtonBase;
+import javafx.stage.Stage;
+import scene.GameScene;
+import scene.MatchHistoryScene;
+import scene.MenuScene;
+import scene.SceneRouter;
+import scene.Screen;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * UI Latency Benchmark
+ * <p>
+ * Replays recorded click traces through the real game, menu and match history screens
+ * and measures, for every click, the time from the event to the end of the next layout
+ * pulse and the bytes allocated on the JavaFX Application Thread in between. It also
+ * measures how long each of these screens takes to build, including its first CSS and
+ * layout pass. The run fails with exit status 1 when a threshold is exceeded, so it can
+ * guard against responsiveness regressions in a build.
+ * </p>
+ * <p>
+ * A trace is a text file with one step per line: {@code show ROUTE} navigates without
+ * being measured, {@code <screen> <button>} clicks a button of the screen currently
+ * shown, where the button is given by its text or by {@code #id}, and {@code repeat N}
+ * ... {@code end} repeats the steps in between. Empty lines and lines starting with
+ * {@code #} are skipped. The bundled traces are {@value #DEFAULT_TRACES}.
+ * </p>
+ * <p>
+ * Usage: {@code UiBenchmark [--rounds N] [--warmup N] [--traces a.trace,b.trace]}. Traces
+ * are looked up next to this class first, then on the file system. The history screen
+ * reads a real database, ideally one filled by {@link HistoryGenerator}; all local files
+ * go to a temporary data directory unless {@code snooker.dataDir} is set. The thresholds
+ * are {@code snooker.bench.maxLatencyMs} (95th percentile event-to-pulse latency, default
+ * 50), {@code snooker.bench.maxAllocKb} (95th percentile allocation per click, default 512)
+ * and {@code snooker.bench.maxBuildMs} (median build time of a screen, default 150).
+ * </p>
+ * <p>
+ * The benchmark needs a JavaFX platform but no user: on a machine without a display run
+ * it under a virtual frame buffer, e.g. {@code xvfb-run mvn test-compile exec:exec -Pui-bench},
+ * or with Monocle on the class path and {@code -Dglass.platform=Monocle -Dmonocle.platform=Headless}.
+ * </p>
+ * <p>
+ * The benchmark is a test source, not part of the application: it runs from the test
+ * class path together with the application classes, which is also where the
+ * {@code com.sun.management} allocation counters are readable without the application
+ * module having to require {@code jdk.management}.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class UiBenchmark {
+
+    private static final String DEFAULT_TRACES = "game-frame.trace,menu-history.trace";
+    private static final int CONSTRUCTIONS = 20;
+    private static final long STEP_TIMEOUT_SECONDS = 10;
+    private static final double[] PERCENTILES = {50, 95, 99, 100};
+
+    private final Stage stage;
+    private final SceneRouter router;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final AnimationTimer pulseKeeper = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            // Keeps pulses coming even when a click changes nothing on screen.
+        }
+    };
+
+    private final Map<String, LatencyRecorder> latency = new LinkedHashMap<>();
+    private final Map<String, LatencyRecorder> allocation = new LinkedHashMap<>();
+    private final Map<String, LatencyRecorder> buildTime = new LinkedHashMap<>();
+
+    /**
+     * Constructs a benchmark on its own stage. Must be called on the JavaFX Application Thread.
+     */
+    private UiBenchmark() {
+        stage = new Stage();
+        stage.setTitle("Snooker Score Tracker - benchmark");
+        router = new SceneRouter(stage);
+        router.show(SceneRouter.Route.MENU);
+        stage.show();
+        pulseKeeper.start();
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Options, see the class description.
+     */
+    public static void main(String[] args) throws Exception {
+        int rounds = 5;
+        int warmup = 2;
+        String traces = DEFAULT_TRACES;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--rounds" -> rounds = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--traces" -> traces = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (System.getProperty("snooker.dataDir") == null) {
+            // Keeps the benchmark's frames out of the real checkpoint and journal.
+            System.setProperty("snooker.dataDir", Files.createTempDirectory("snooker-bench").toString());
+        }
+
+        List<String[]> steps = new ArrayList<>();
+        for (String trace : traces.split(",")) {
+            steps.addAll(loadTrace(trace.strip()));
+        }
+
+        DatabaseManager.INSTANCE.initialize();
+        Platform.setImplicitExit(false);
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        Platform.startup(() -> started.complete(null));
+        started.get();
+
+        UiBenchmark benchmark = onFxThread(UiBenchmark::new);
+        boolean passed;
+        try {
+            for (int round = 0; round < warmup; round++) {
+                benchmark.measureBuilds(false);
+                benchmark.replay(steps, false);
+            }
+            for (int round = 0; round < rounds; round++) {
+                benchmark.measureBuilds(true);
+                benchmark.replay(steps, true);
+            }
+            benchmark.printReport(rounds, steps.size());
+            passed = benchmark.checkThresholds();
+        } finally {
+            onFxThread(() -> {
+                benchmark.pulseKeeper.stop();
+                benchmark.router.dispose();
+                benchmark.stage.hide();
+                return null;
+            });
+            Platform.exit();
+            DatabaseManager.INSTANCE.disconnect();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Builds each measured screen several times, each followed by its first CSS and
+     * layout pass, and disposes it again.
+     *
+     * @param record Whether to record the measurements or just warm up.
+     */
+    private void measureBuilds(boolean record) throws Exception {
+        for (int i = 0; i < CONSTRUCTIONS; i++) {
+            measureBuild("game", () -> new GameScene(router, "Igrač 1", "Igrač 2", 15), record);
+            measureBuild("menu", () -> new MenuScene(router), record);
+            measureBuild("history", () -> new MatchHistoryScene(router), record);
+        }
+    }
+
+    private void measureBuild(String screen, Supplier<Screen> build, boolean record) throws Exception {
+        long nanos = onFxThread(() -> {
+            long start = System.nanoTime();
+            Screen built = build.get();
+            Parent root = built.getScene().getRoot();
+            root.applyCss();
+            root.layout();
+            long elapsed = System.nanoTime() - start;
+            built.dispose();
+            return elapsed;
+        });
+        if (record) recorder(buildTime, screen).record(nanos, true);
+    }
+
+    /**
+     * Replays a parsed trace.
+     *
+     * @param steps  The steps, each a screen name or {@code show} and its argument.
+     * @param record Whether to record the measurements or just warm up.
+     */
+    private void replay(List<String[]> steps, boolean record) throws Exception {
+        for (String[] step : steps) {
+            if (step[0].equals("show")) {
+                SceneRouter.Route route = SceneRouter.Route.valueOf(step[1]);
+                awaitPulse(() -> router.show(route));
+            } else {
+                click(step[0], step[1], record);
+            }
+        }
+    }
+
+    /**
+     * Clicks a button on the current screen and waits for the pulse that shows the result.
+     */
+    private void click(String screen, String selector, boolean record) throws Exception {
+        CompletableFuture<long[]> measured = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            ButtonBase button = findButton(stage.getScene().getRoot(), selector);
+            if (button == null || button.isDisabled()) {
+                measured.completeExceptionally(new IllegalStateException("The " + screen + " screen has no enabled button " + selector));
+                return;
+            }
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            button.fire();
+            whenLaidOut(() -> measured.complete(new long[]{
+                    System.nanoTime() - start, threads.getCurrentThreadAllocatedBytes() - allocatedBefore}));
+        });
+        long[] result = measured.get(STEP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (record) {
+            recorder(latency, screen).record(result[0], true);
+            recorder(allocation, screen).record(result[1], true);
+        }
+    }
+
+    /**
+     * Runs an action on the JavaFX Application Thread and waits for the next pulse.
+     */
+    private void awaitPulse(Runnable action) throws Exception {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            action.run();
+            whenLaidOut(() -> done.complete(null));
+        });
+        done.get(STEP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Calls back once, after the next layout pulse of the scene now on the stage, which
+     * may be a different one than before the click.
+     */
+    private void whenLaidOut(Runnable callback) {
+        Scene scene = stage.getScene();
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            callback.run();
+            Platform.runLater(() -> scene.removePostLayoutPulseListener(listener[0]));
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
+    /**
+     * Finds a button by {@code #id} or by its text.
+     */
+    private static ButtonBase findButton(Node node, String selector) {
+        if (node instanceof ButtonBase button) {
+            boolean matches = selector.startsWith("#") ? selector.substring(1).equals(button.getId()) : selector.equals(button.getText());
+            if (matches) return button;
+        }
+        if (node instanceof Parent parent) {
+            for (Node child : parent.getChildrenUnmodifiable()) {
+                ButtonBase found = findButton(child, selector);
+                if (found != null) return found;
+            }
+        }
+        return null;
+    }
+
+    private static LatencyRecorder recorder(Map<String, LatencyRecorder> recorders, String screen) {
+        return recorders.computeIfAbsent(screen, s -> new LatencyRecorder());
+    }
+
+    /**
+     * Prints latency, allocation and build time percentiles per screen.
+     */
+    private void printReport(int rounds, int steps) {
+        System.out.printf("%n%d rounds of %d steps, %d builds per screen and round%n", rounds, steps, CONSTRUCTIONS);
+        System.out.printf("%-8s %-17s %7s %10s %10s %10s %10s%n", "screen", "metric", "count", "p50", "p95", "p99", "max");
+        for (String screen : buildTime.keySet()) {
+            printRow(screen, "event-to-pulse ms", latency.get(screen), 1e6);
+            printRow(screen, "alloc/click KB", allocation.get(screen), 1024);
+            printRow(screen, "build ms", buildTime.get(screen), 1e6);
+        }
+    }
+
+    private static void printRow(String screen, String metric, LatencyRecorder recorder, double unit) {
+        if (recorder == null) return;
+        long[] p = recorder.percentiles(PERCENTILES);
+        System.out.printf("%-8s %-17s %7d %10.2f %10.2f %10.2f %10.2f%n",
+                screen, metric, recorder.getCount(), p[0] / unit, p[1] / unit, p[2] / unit, p[3] / unit);
+    }
+
+    /**
+     * Compares the results with the configured thresholds and prints every violation.
+     *
+     * @return {@code true} if all thresholds were met.
+     */
+    private boolean checkThresholds() {
+        boolean passed = true;
+        passed &= check(latency, 95, Long.getLong("snooker.bench.maxLatencyMs", 50) * 1_000_000L, 1e6, "95th percentile event-to-pulse latency", "ms");
+        passed &= check(allocation, 95, Long.getLong("snooker.bench.maxAllocKb", 512) * 1024L, 1024, "95th percentile allocation per click", "KB");
+        passed &= check(buildTime, 50, Long.getLong("snooker.bench.maxBuildMs", 150) * 1_000_000L, 1e6, "median build time", "ms");
+        System.out.println(passed ? "All thresholds met." : "Thresholds exceeded.");
+        return passed;
+    }
+
+    private static boolean check(Map<String, LatencyRecorder> results, double percentile, long limit, double unit, String what, String unitName) {
+        boolean passed = true;
+        for (Map.Entry<String, LatencyRecorder> entry : results.entrySet()) {
+            long value = entry.getValue().percentiles(percentile)[0];
+            if (value > limit) {
+                System.err.printf("FAIL %s: %s %.2f %s exceeds %.2f %s%n", entry.getKey(), what, value / unit, unitName, limit / unit, unitName);
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * Reads a trace and expands its repeat blocks.
+     *
+     * @param name The name of a bundled trace or the path of a trace file.
+     * @return The steps, each a screen name or {@code show} and its argument.
+     * @throws IOException if the trace cannot be read.
+     */
+    public static List<String[]> loadTrace(String name) throws IOException {
+        List<String> lines = new ArrayList<>();
+        InputStream bundled = UiBenchmark.class.getResourceAsStream(name);
+        try (BufferedReader reader = bundled != null
+                ? new BufferedReader(new InputStreamReader(bundled, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(name), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) lines.add(line);
+            }
+        }
+        List<String[]> steps = new ArrayList<>();
+        int end = expand(lines, 0, steps);
+        if (end != lines.size()) throw new IOException(name + ": unexpected 'end'");
+        return steps;
+    }
+
+    /**
+     * Expands lines into steps up to the matching {@code end}.
+     *
+     * @return The index of the {@code end} line, or the number of lines.
+     */
+    private static int expand(List<String> lines, int from, List<String[]> steps) throws IOException {
+        int i = from;
+        while (i < lines.size()) {
+            String line = lines.get(i);
+            if (line.equals("end")) return i;
+            String[] parts = line.split("\\s+", 2);
+            if (parts.length < 2) throw new IOException("Incomplete trace step: " + line);
+            if (parts[0].equals("repeat")) {
+                List<String[]> body = new ArrayList<>();
+                int end = expand(lines, i + 1, body);
+                if (end == lines.size()) throw new IOException("Missing 'end' for: " + line);
+                for (int n = Integer.parseInt(parts[1]); n > 0; n--) steps.addAll(body);
+                i = end + 1;
+            } else {
+                steps.add(parts);
+                i++;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Runs a call on the JavaFX Application Thread and waits for its result.
+     */
+    private static <T> T onFxThread(Callable<T> call) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(call.call());
+            } catch (Exception | Error e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.get(STEP_TIMEOUT_SECONDS * 6, TimeUnit.SECONDS);
+    }
+}
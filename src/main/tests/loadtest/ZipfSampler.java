@@ -0,0 +1,48 @@
+package loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf Distribution Sampler
+ * <p>
+ * Samples ranks {@code 0..n-1} with probability proportional to {@code 1 / (rank + 1)^s},
+ * so a few ranks are drawn very often and most rarely. It models how activity is spread
+ * over players in a real club: a handful of regulars play most of the frames.
+ * </p>
+ *
+ * @author Andrija Milovanovic
+ * @version 1.0
+ */
+public class ZipfSampler {
+    private final double[] cumulative;
+
+    /**
+     * Constructs a sampler.
+     *
+     * @param n        The number of ranks.
+     * @param exponent The skew; 0 is uniform, around 1 is typical for popularity.
+     */
+    public ZipfSampler(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    /**
+     * Draws a rank.
+     *
+     * @param random The source of randomness.
+     * @return A rank between 0 and n-1.
+     */
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}